@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.exception;
+
+/**
+ * Unchecked exception thrown to indicate that a parser exceeded its time budget and the parsing
+ * was aborted.
+ */
+public class ParserTimeoutException extends RuntimeException {
+
+  private final long timeout;
+
+  public ParserTimeoutException(long timeout) {
+    super(String.format("Parser exceeded the time budget of %d ms", timeout));
+    this.timeout = timeout;
+  }
+
+  /**
+   * Retrieves the time budget exceeded by the parser.
+   * @return Time budget (in milliseconds)
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+}
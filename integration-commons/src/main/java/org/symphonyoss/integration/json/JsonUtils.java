@@ -52,6 +52,14 @@ public class JsonUtils {
     return objectMapper.readTree(content);
   }
 
+  /**
+   * Wraps the method from ObjectMapper
+   * {@link ObjectMapper#readTree(byte[])}.
+   */
+  public static JsonNode readTree(byte[] content) throws IOException {
+    return objectMapper.readTree(content);
+  }
+
   /**
    * Wraps the method from ObjectMapper
    * {@link ObjectMapper#writeValueAsString(Object)}.
@@ -16,6 +16,10 @@
 
 package org.symphonyoss.integration.model.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.IOException;
+
 /**
  * Represents each integration instance.
  * Created by rsanchez on 20/02/17.
@@ -40,6 +44,12 @@ public class IntegrationInstance {
 
   private Boolean active;
 
+  /**
+   * Typed view of the optional properties, kept while the optional properties and last modified
+   * date don't change.
+   */
+  private transient volatile PropertiesView propertiesView;
+
   public String getInstanceId() {
     return instanceId;
   }
@@ -104,6 +114,62 @@ public class IntegrationInstance {
     this.optionalProperties = optionalProperties;
   }
 
+  /**
+   * Retrieve the typed view of the optional properties. The optional properties are parsed only on
+   * the first call after they or the last modified date change.
+   * @return Typed view of the optional properties
+   * @throws IOException Optional properties aren't a valid JSON object
+   */
+  @JsonIgnore
+  public IntegrationInstanceProperties getProperties() throws IOException {
+    PropertiesView view = this.propertiesView;
+    String optionalProperties = this.optionalProperties;
+    Long lastModifiedDate = this.lastModifiedDate;
+
+    if (view != null && view.isVersion(optionalProperties, lastModifiedDate)) {
+      return view.properties;
+    }
+
+    IntegrationInstanceProperties properties =
+        IntegrationInstanceProperties.parse(optionalProperties);
+    this.propertiesView = new PropertiesView(optionalProperties, lastModifiedDate, properties);
+
+    return properties;
+  }
+
+  /**
+   * Replace the optional properties by the JSON representation of the typed view, keeping the view
+   * to avoid parsing it again.
+   * @param properties Typed view of the optional properties
+   */
+  @JsonIgnore
+  public void setProperties(IntegrationInstanceProperties properties) {
+    String optionalProperties = properties.toJsonString();
+
+    this.optionalProperties = optionalProperties;
+    this.propertiesView = new PropertiesView(optionalProperties, lastModifiedDate, properties);
+  }
+
+  /**
+   * Creates a copy of this integration instance, so it can be changed without affecting the
+   * instances shared by other threads, like the ones kept in the local caches.
+   * @return Copy of the integration instance
+   */
+  public IntegrationInstance copy() {
+    IntegrationInstance copy = new IntegrationInstance();
+    copy.instanceId = instanceId;
+    copy.configurationId = configurationId;
+    copy.name = name;
+    copy.creatorId = creatorId;
+    copy.createdDate = createdDate;
+    copy.creatorName = creatorName;
+    copy.lastModifiedDate = lastModifiedDate;
+    copy.optionalProperties = optionalProperties;
+    copy.active = active;
+    copy.propertiesView = propertiesView;
+    return copy;
+  }
+
   public Boolean getActive() {
     return active;
   }
@@ -111,4 +177,31 @@ public class IntegrationInstance {
   public void setActive(Boolean active) {
     this.active = active;
   }
+
+  /**
+   * Typed view and the version of the integration instance it was built from.
+   */
+  private static final class PropertiesView {
+
+    private final String optionalProperties;
+
+    private final Long lastModifiedDate;
+
+    private final IntegrationInstanceProperties properties;
+
+    PropertiesView(String optionalProperties, Long lastModifiedDate,
+        IntegrationInstanceProperties properties) {
+      this.optionalProperties = optionalProperties;
+      this.lastModifiedDate = lastModifiedDate;
+      this.properties = properties;
+    }
+
+    boolean isVersion(String optionalProperties, Long lastModifiedDate) {
+      // The optional properties only change through the setters, so comparing the references is
+      // enough to detect a change without comparing the whole JSON.
+      return this.optionalProperties == optionalProperties
+          && (this.lastModifiedDate == null ? lastModifiedDate == null
+          : this.lastModifiedDate.equals(lastModifiedDate));
+    }
+  }
 }
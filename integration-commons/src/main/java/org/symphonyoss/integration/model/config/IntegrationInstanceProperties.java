@@ -0,0 +1,191 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.config;
+
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.LAST_POSTED_DATE;
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.NOTIFICATIONS;
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.OWNER;
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.REMOVED_STREAMS;
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.STREAMS;
+import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.STREAM_TYPE;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.symphonyoss.integration.model.stream.StreamType;
+import org.symphonyoss.integration.utils.WebHookConfigurationUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable typed view of the optional properties of an integration instance.
+ *
+ * The optional properties are stored as a JSON string, so reading them requires parsing the JSON.
+ * This view is built with a single parse and it's kept by the {@link IntegrationInstance} while
+ * its optional properties and last modified date don't change.
+ */
+public final class IntegrationInstanceProperties {
+
+  private static final IntegrationInstanceProperties EMPTY = new IntegrationInstanceProperties();
+
+  private final String json;
+
+  private final ObjectNode node;
+
+  private final List<String> streams;
+
+  private final List<String> removedStreams;
+
+  private final Long owner;
+
+  private final StreamType streamType;
+
+  private final List<String> notifications;
+
+  private final long lastPostedDate;
+
+  private IntegrationInstanceProperties() {
+    this.json = null;
+    this.node = null;
+    this.streams = Collections.emptyList();
+    this.removedStreams = Collections.emptyList();
+    this.owner = null;
+    this.streamType = StreamType.NONE;
+    this.notifications = Collections.emptyList();
+    this.lastPostedDate = 0L;
+  }
+
+  private IntegrationInstanceProperties(String json, ObjectNode node) {
+    this.json = json;
+    this.node = node;
+    this.streams = getList(node, STREAMS);
+    this.removedStreams = getList(node, REMOVED_STREAMS);
+    this.owner = node.path(OWNER).asLong();
+    this.streamType = getStreamType(node);
+    this.notifications = getList(node, NOTIFICATIONS);
+    this.lastPostedDate = node.path(LAST_POSTED_DATE).asLong();
+  }
+
+  /**
+   * Parse the optional properties.
+   * @param optionalProperties JSON Object that contains the information configured by the user
+   * @return Typed view of the optional properties. An empty view if the optional properties are
+   * null.
+   * @throws IOException Optional properties aren't a valid JSON object
+   */
+  public static IntegrationInstanceProperties parse(String optionalProperties)
+      throws IOException {
+    if (optionalProperties == null) {
+      return EMPTY;
+    }
+
+    JsonNode node = WebHookConfigurationUtils.readTree(optionalProperties);
+
+    if (node == null || !node.isObject()) {
+      throw new IOException("Optional properties must be a JSON object");
+    }
+
+    return new IntegrationInstanceProperties(optionalProperties, (ObjectNode) node);
+  }
+
+  private static List<String> getList(JsonNode node, String nodeName) {
+    JsonNode arrayNode = node.path(nodeName);
+
+    if (!arrayNode.isArray()) {
+      return Collections.emptyList();
+    }
+
+    List<String> result = new ArrayList<>(arrayNode.size());
+
+    for (JsonNode item : arrayNode) {
+      result.add(item.asText());
+    }
+
+    return Collections.unmodifiableList(result);
+  }
+
+  private static StreamType getStreamType(JsonNode node) {
+    String streamType = node.path(STREAM_TYPE).asText();
+
+    try {
+      return StreamType.valueOf(streamType);
+    } catch (IllegalArgumentException e) {
+      return StreamType.NONE;
+    }
+  }
+
+  /**
+   * Creates a copy of this view with a new last posted date.
+   * @param timestamp Last posted date
+   * @return New view
+   * @throws IOException Failure to serialize the optional properties
+   */
+  public IntegrationInstanceProperties withLastPostedDate(long timestamp) throws IOException {
+    ObjectNode copy = node == null ? WebHookConfigurationUtils.fromJsonString("{}")
+        : node.deepCopy();
+    copy.put(LAST_POSTED_DATE, timestamp);
+
+    return new IntegrationInstanceProperties(WebHookConfigurationUtils.toJsonString(copy), copy);
+  }
+
+  /**
+   * JSON string this view was built from.
+   * @return JSON Object that contains the information configured by the user or null if the
+   * optional properties are null.
+   */
+  public String toJsonString() {
+    return json;
+  }
+
+  public List<String> getStreams() {
+    return streams;
+  }
+
+  public List<String> getRemovedStreams() {
+    return removedStreams;
+  }
+
+  public Long getOwner() {
+    return owner;
+  }
+
+  public StreamType getStreamType() {
+    return streamType;
+  }
+
+  public List<String> getNotifications() {
+    return notifications;
+  }
+
+  public long getLastPostedDate() {
+    return lastPostedDate;
+  }
+
+  @Override
+  public String toString() {
+    return "IntegrationInstanceProperties{" +
+        "streams=" + streams +
+        ", removedStreams=" + removedStreams +
+        ", owner=" + owner +
+        ", streamType=" + streamType +
+        ", notifications=" + notifications +
+        ", lastPostedDate=" + lastPostedDate +
+        '}';
+  }
+}
@@ -56,6 +56,8 @@ public class IntegrationProperties {
 
   private HttpClientConfig httpClientConfig;
 
+  private WebHookConfig webhook = new WebHookConfig();
+
   private Map<String, Application> applications = new HashMap<>();
 
   private Map<ServiceName, ConnectionInfo> services = new HashMap<>();
@@ -128,6 +130,17 @@ public class IntegrationProperties {
     this.httpClientConfig = httpClientConfig;
   }
 
+  public WebHookConfig getWebhook() {
+    return webhook;
+  }
+
+  public void setWebhook(WebHookConfig webhook) {
+    if (webhook == null) {
+      webhook = new WebHookConfig();
+    }
+    this.webhook = webhook;
+  }
+
   public Map<String, Application> getApplications() {
     return applications;
   }
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the asynchronous webhook ingestion. When enabled, the incoming payloads are
+ * accepted into a bounded queue per integration and processed by a pool of worker threads.
+ */
+public class WebHookAsyncConfig {
+
+  /**
+   * Default queue capacity (per integration).
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+  /**
+   * Max queue capacity (per integration).
+   */
+  public static final int MAX_QUEUE_CAPACITY = 100000;
+
+  /**
+   * Default number of worker threads (per integration).
+   */
+  public static final int DEFAULT_WORKER_THREADS = 4;
+
+  /**
+   * Max number of worker threads (per integration).
+   */
+  public static final int MAX_WORKER_THREADS = 64;
+
+  private boolean enabled;
+
+  private Integer queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+  private Integer workerThreads = DEFAULT_WORKER_THREADS;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    if (queueCapacity == null || queueCapacity <= 0) {
+      queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    } else if (queueCapacity > MAX_QUEUE_CAPACITY) {
+      queueCapacity = MAX_QUEUE_CAPACITY;
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  public Integer getWorkerThreads() {
+    return workerThreads;
+  }
+
+  public void setWorkerThreads(Integer workerThreads) {
+    if (workerThreads == null || workerThreads <= 0) {
+      workerThreads = DEFAULT_WORKER_THREADS;
+    } else if (workerThreads > MAX_WORKER_THREADS) {
+      workerThreads = MAX_WORKER_THREADS;
+    }
+    this.workerThreads = workerThreads;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookAsyncConfig{" +
+        "enabled=" + enabled +
+        ", queueCapacity=" + queueCapacity +
+        ", workerThreads=" + workerThreads +
+        '}';
+  }
+}
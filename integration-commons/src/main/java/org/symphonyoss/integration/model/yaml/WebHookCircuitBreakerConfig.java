@@ -0,0 +1,132 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the circuit breaker used to protect the webhook processing and for the local copy
+ * of the integration "enabled" flag.
+ */
+public class WebHookCircuitBreakerConfig {
+
+  /**
+   * Default failure rate, in percentage, to open the circuit.
+   */
+  public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+
+  /**
+   * Max failure rate, in percentage.
+   */
+  public static final int MAX_FAILURE_RATE_THRESHOLD = 100;
+
+  /**
+   * Default number of calls evaluated together to compute the failure rate.
+   */
+  public static final int DEFAULT_MINIMUM_CALLS = 20;
+
+  /**
+   * Default time, in milliseconds, that the circuit remains open.
+   */
+  public static final int DEFAULT_OPEN_TIMEOUT = 10000;
+
+  /**
+   * Default number of trial calls allowed while the circuit is half-open.
+   */
+  public static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+  /**
+   * Default time, in milliseconds, to refresh the integration "enabled" flag.
+   */
+  public static final int DEFAULT_ENABLED_REFRESH = 5000;
+
+  private Integer failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+  private Integer minimumCalls = DEFAULT_MINIMUM_CALLS;
+
+  private Integer openTimeout = DEFAULT_OPEN_TIMEOUT;
+
+  private Integer halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+  private Integer enabledRefresh = DEFAULT_ENABLED_REFRESH;
+
+  public Integer getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  public void setFailureRateThreshold(Integer failureRateThreshold) {
+    if (failureRateThreshold == null || failureRateThreshold <= 0) {
+      failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    } else if (failureRateThreshold > MAX_FAILURE_RATE_THRESHOLD) {
+      failureRateThreshold = MAX_FAILURE_RATE_THRESHOLD;
+    }
+    this.failureRateThreshold = failureRateThreshold;
+  }
+
+  public Integer getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  public void setMinimumCalls(Integer minimumCalls) {
+    if (minimumCalls == null || minimumCalls <= 0) {
+      minimumCalls = DEFAULT_MINIMUM_CALLS;
+    }
+    this.minimumCalls = minimumCalls;
+  }
+
+  public Integer getOpenTimeout() {
+    return openTimeout;
+  }
+
+  public void setOpenTimeout(Integer openTimeout) {
+    if (openTimeout == null || openTimeout <= 0) {
+      openTimeout = DEFAULT_OPEN_TIMEOUT;
+    }
+    this.openTimeout = openTimeout;
+  }
+
+  public Integer getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  public void setHalfOpenCalls(Integer halfOpenCalls) {
+    if (halfOpenCalls == null || halfOpenCalls <= 0) {
+      halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+    }
+    this.halfOpenCalls = halfOpenCalls;
+  }
+
+  public Integer getEnabledRefresh() {
+    return enabledRefresh;
+  }
+
+  public void setEnabledRefresh(Integer enabledRefresh) {
+    if (enabledRefresh == null || enabledRefresh <= 0) {
+      enabledRefresh = DEFAULT_ENABLED_REFRESH;
+    }
+    this.enabledRefresh = enabledRefresh;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookCircuitBreakerConfig{" +
+        "failureRateThreshold=" + failureRateThreshold +
+        ", minimumCalls=" + minimumCalls +
+        ", openTimeout=" + openTimeout +
+        ", halfOpenCalls=" + halfOpenCalls +
+        ", enabledRefresh=" + enabledRefresh +
+        '}';
+  }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Groups the settings used by the webhook processing pipeline. Each section is optional in the
+ * YAML file, so the default values are used when it's not provided.
+ */
+public class WebHookConfig {
+
+  private WebHookAsyncConfig async = new WebHookAsyncConfig();
+
+  private WebHookInstanceCacheConfig instanceCache = new WebHookInstanceCacheConfig();
+
+  private WebHookCircuitBreakerConfig circuitBreaker = new WebHookCircuitBreakerConfig();
+
+  private WebHookWriteBehindConfig writeBehind = new WebHookWriteBehindConfig();
+
+  private WebHookFanOutConfig fanOut = new WebHookFanOutConfig();
+
+  private WebHookDeduplicationConfig deduplication = new WebHookDeduplicationConfig();
+
+  private WebHookRateLimitConfig rateLimit = new WebHookRateLimitConfig();
+
+  private WebHookPayloadConfig payload = new WebHookPayloadConfig();
+
+  private WebHookTimerConfig timer = new WebHookTimerConfig();
+
+  private WebHookUserCacheConfig userCache = new WebHookUserCacheConfig();
+
+  private WebHookUserBatchConfig userBatch = new WebHookUserBatchConfig();
+
+  private WebHookExecutionConfig execution = new WebHookExecutionConfig();
+
+  private WebHookSpoolConfig spool = new WebHookSpoolConfig();
+
+  private WebHookDigestConfig digest = new WebHookDigestConfig();
+
+  private WebHookSchedulerConfig scheduler = new WebHookSchedulerConfig();
+
+  private WebHookEventFilterConfig eventFilter = new WebHookEventFilterConfig();
+
+  private WebHookParseCacheConfig parseCache = new WebHookParseCacheConfig();
+
+  private WebHookParseBudgetConfig parseBudget = new WebHookParseBudgetConfig();
+
+  private WebHookParallelListConfig parallelList = new WebHookParallelListConfig();
+
+  public WebHookAsyncConfig getAsync() {
+    return async;
+  }
+
+  public void setAsync(WebHookAsyncConfig async) {
+    if (async == null) {
+      async = new WebHookAsyncConfig();
+    }
+    this.async = async;
+  }
+
+  public WebHookInstanceCacheConfig getInstanceCache() {
+    return instanceCache;
+  }
+
+  public void setInstanceCache(WebHookInstanceCacheConfig instanceCache) {
+    if (instanceCache == null) {
+      instanceCache = new WebHookInstanceCacheConfig();
+    }
+    this.instanceCache = instanceCache;
+  }
+
+  public WebHookCircuitBreakerConfig getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public void setCircuitBreaker(WebHookCircuitBreakerConfig circuitBreaker) {
+    if (circuitBreaker == null) {
+      circuitBreaker = new WebHookCircuitBreakerConfig();
+    }
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  public WebHookWriteBehindConfig getWriteBehind() {
+    return writeBehind;
+  }
+
+  public void setWriteBehind(WebHookWriteBehindConfig writeBehind) {
+    if (writeBehind == null) {
+      writeBehind = new WebHookWriteBehindConfig();
+    }
+    this.writeBehind = writeBehind;
+  }
+
+  public WebHookFanOutConfig getFanOut() {
+    return fanOut;
+  }
+
+  public void setFanOut(WebHookFanOutConfig fanOut) {
+    if (fanOut == null) {
+      fanOut = new WebHookFanOutConfig();
+    }
+    this.fanOut = fanOut;
+  }
+
+  public WebHookDeduplicationConfig getDeduplication() {
+    return deduplication;
+  }
+
+  public void setDeduplication(WebHookDeduplicationConfig deduplication) {
+    if (deduplication == null) {
+      deduplication = new WebHookDeduplicationConfig();
+    }
+    this.deduplication = deduplication;
+  }
+
+  public WebHookRateLimitConfig getRateLimit() {
+    return rateLimit;
+  }
+
+  public void setRateLimit(WebHookRateLimitConfig rateLimit) {
+    if (rateLimit == null) {
+      rateLimit = new WebHookRateLimitConfig();
+    }
+    this.rateLimit = rateLimit;
+  }
+
+  public WebHookPayloadConfig getPayload() {
+    return payload;
+  }
+
+  public void setPayload(WebHookPayloadConfig payload) {
+    if (payload == null) {
+      payload = new WebHookPayloadConfig();
+    }
+    this.payload = payload;
+  }
+
+  public WebHookTimerConfig getTimer() {
+    return timer;
+  }
+
+  public void setTimer(WebHookTimerConfig timer) {
+    if (timer == null) {
+      timer = new WebHookTimerConfig();
+    }
+    this.timer = timer;
+  }
+
+  public WebHookUserCacheConfig getUserCache() {
+    return userCache;
+  }
+
+  public void setUserCache(WebHookUserCacheConfig userCache) {
+    if (userCache == null) {
+      userCache = new WebHookUserCacheConfig();
+    }
+    this.userCache = userCache;
+  }
+
+  public WebHookUserBatchConfig getUserBatch() {
+    return userBatch;
+  }
+
+  public void setUserBatch(WebHookUserBatchConfig userBatch) {
+    if (userBatch == null) {
+      userBatch = new WebHookUserBatchConfig();
+    }
+    this.userBatch = userBatch;
+  }
+
+  public WebHookExecutionConfig getExecution() {
+    return execution;
+  }
+
+  public void setExecution(WebHookExecutionConfig execution) {
+    if (execution == null) {
+      execution = new WebHookExecutionConfig();
+    }
+    this.execution = execution;
+  }
+
+  public WebHookSpoolConfig getSpool() {
+    return spool;
+  }
+
+  public void setSpool(WebHookSpoolConfig spool) {
+    if (spool == null) {
+      spool = new WebHookSpoolConfig();
+    }
+    this.spool = spool;
+  }
+
+  public WebHookDigestConfig getDigest() {
+    return digest;
+  }
+
+  public void setDigest(WebHookDigestConfig digest) {
+    if (digest == null) {
+      digest = new WebHookDigestConfig();
+    }
+    this.digest = digest;
+  }
+
+  public WebHookSchedulerConfig getScheduler() {
+    return scheduler;
+  }
+
+  public void setScheduler(WebHookSchedulerConfig scheduler) {
+    if (scheduler == null) {
+      scheduler = new WebHookSchedulerConfig();
+    }
+    this.scheduler = scheduler;
+  }
+
+  public WebHookEventFilterConfig getEventFilter() {
+    return eventFilter;
+  }
+
+  public void setEventFilter(WebHookEventFilterConfig eventFilter) {
+    if (eventFilter == null) {
+      eventFilter = new WebHookEventFilterConfig();
+    }
+    this.eventFilter = eventFilter;
+  }
+
+  public WebHookParseCacheConfig getParseCache() {
+    return parseCache;
+  }
+
+  public void setParseCache(WebHookParseCacheConfig parseCache) {
+    if (parseCache == null) {
+      parseCache = new WebHookParseCacheConfig();
+    }
+    this.parseCache = parseCache;
+  }
+
+  public WebHookParseBudgetConfig getParseBudget() {
+    return parseBudget;
+  }
+
+  public void setParseBudget(WebHookParseBudgetConfig parseBudget) {
+    if (parseBudget == null) {
+      parseBudget = new WebHookParseBudgetConfig();
+    }
+    this.parseBudget = parseBudget;
+  }
+
+  public WebHookParallelListConfig getParallelList() {
+    return parallelList;
+  }
+
+  public void setParallelList(WebHookParallelListConfig parallelList) {
+    if (parallelList == null) {
+      parallelList = new WebHookParallelListConfig();
+    }
+    this.parallelList = parallelList;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookConfig{" +
+        "async=" + async +
+        ", instanceCache=" + instanceCache +
+        ", circuitBreaker=" + circuitBreaker +
+        ", writeBehind=" + writeBehind +
+        ", fanOut=" + fanOut +
+        ", deduplication=" + deduplication +
+        ", rateLimit=" + rateLimit +
+        ", payload=" + payload +
+        ", timer=" + timer +
+        ", userCache=" + userCache +
+        ", userBatch=" + userBatch +
+        ", execution=" + execution +
+        ", spool=" + spool +
+        ", digest=" + digest +
+        ", scheduler=" + scheduler +
+        ", eventFilter=" + eventFilter +
+        ", parseCache=" + parseCache +
+        ", parseBudget=" + parseBudget +
+        ", parallelList=" + parallelList +
+        '}';
+  }
+}
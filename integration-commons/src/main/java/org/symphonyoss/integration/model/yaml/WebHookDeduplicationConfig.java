@@ -0,0 +1,121 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the suppression of duplicate webhook deliveries. Third-party systems usually retry
+ * the webhook delivery when the response is slow, so the same payload may be received many times
+ * in a short period. When enabled, the deliveries already seen within the window are acknowledged
+ * without being processed again.
+ *
+ * The deliveries are identified by the header configured in "delivery_id_header". The deliveries
+ * without that header are only identified by a hash of the payload body if "hash_body" is set,
+ * since legitimate events may have identical bodies. Otherwise they're always processed.
+ */
+public class WebHookDeduplicationConfig {
+
+  /**
+   * Default time, in seconds, a delivery is remembered.
+   */
+  public static final int DEFAULT_WINDOW = 300;
+
+  /**
+   * Max time, in seconds, a delivery is remembered.
+   */
+  public static final int MAX_WINDOW = 86400;
+
+  /**
+   * Default max number of deliveries remembered.
+   */
+  public static final int DEFAULT_MAX_SIZE = 100000;
+
+  /**
+   * Max number of deliveries remembered.
+   */
+  public static final int MAX_MAX_SIZE = 10000000;
+
+  private boolean enabled = false;
+
+  private String deliveryIdHeader;
+
+  private boolean hashBody = false;
+
+  private Integer window = DEFAULT_WINDOW;
+
+  private Integer maxSize = DEFAULT_MAX_SIZE;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDeliveryIdHeader() {
+    return deliveryIdHeader;
+  }
+
+  public void setDeliveryIdHeader(String deliveryIdHeader) {
+    this.deliveryIdHeader = deliveryIdHeader;
+  }
+
+  public boolean isHashBody() {
+    return hashBody;
+  }
+
+  public void setHashBody(boolean hashBody) {
+    this.hashBody = hashBody;
+  }
+
+  public Integer getWindow() {
+    return window;
+  }
+
+  public void setWindow(Integer window) {
+    if (window == null || window <= 0) {
+      window = DEFAULT_WINDOW;
+    } else if (window > MAX_WINDOW) {
+      window = MAX_WINDOW;
+    }
+    this.window = window;
+  }
+
+  public Integer getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(Integer maxSize) {
+    if (maxSize == null || maxSize <= 0) {
+      maxSize = DEFAULT_MAX_SIZE;
+    } else if (maxSize > MAX_MAX_SIZE) {
+      maxSize = MAX_MAX_SIZE;
+    }
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookDeduplicationConfig{" +
+        "enabled=" + enabled +
+        ", deliveryIdHeader='" + deliveryIdHeader + '\'' +
+        ", hashBody=" + hashBody +
+        ", window=" + window +
+        ", maxSize=" + maxSize +
+        '}';
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the digest mode of the webhook integrations. When enabled, the messages posted to
+ * the same stream by an integration instance are collected for up to "window" milliseconds, or
+ * until "max_messages" messages are pending, and posted as a single message. The messages that
+ * fail to be posted are collected again, and discarded after "max_attempts" failures.
+ */
+public class WebHookDigestConfig {
+
+  /**
+   * Default time, in milliseconds, to collect the messages of a stream before posting them.
+   */
+  public static final int DEFAULT_WINDOW = 5000;
+
+  /**
+   * Max time, in milliseconds, to collect the messages of a stream before posting them.
+   */
+  public static final int MAX_WINDOW = 300000;
+
+  /**
+   * Default max number of messages merged into a single message.
+   */
+  public static final int DEFAULT_MAX_MESSAGES = 50;
+
+  /**
+   * Max number of messages merged into a single message.
+   */
+  public static final int MAX_MESSAGES = 1000;
+
+  /**
+   * Default number of failed posts of a message before discarding it.
+   */
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+  /**
+   * Max number of failed posts of a message before discarding it.
+   */
+  public static final int MAX_ATTEMPTS = 100;
+
+  private boolean enabled = false;
+
+  private Integer window = DEFAULT_WINDOW;
+
+  private Integer maxMessages = DEFAULT_MAX_MESSAGES;
+
+  private Integer maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getWindow() {
+    return window;
+  }
+
+  public void setWindow(Integer window) {
+    if (window == null || window <= 0) {
+      window = DEFAULT_WINDOW;
+    } else if (window > MAX_WINDOW) {
+      window = MAX_WINDOW;
+    }
+    this.window = window;
+  }
+
+  public Integer getMaxMessages() {
+    return maxMessages;
+  }
+
+  public void setMaxMessages(Integer maxMessages) {
+    if (maxMessages == null || maxMessages <= 0) {
+      maxMessages = DEFAULT_MAX_MESSAGES;
+    } else if (maxMessages > MAX_MESSAGES) {
+      maxMessages = MAX_MESSAGES;
+    }
+    this.maxMessages = maxMessages;
+  }
+
+  public Integer getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(Integer maxAttempts) {
+    if (maxAttempts == null || maxAttempts <= 0) {
+      maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    } else if (maxAttempts > MAX_ATTEMPTS) {
+      maxAttempts = MAX_ATTEMPTS;
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookDigestConfig{" +
+        "enabled=" + enabled +
+        ", window=" + window +
+        ", maxMessages=" + maxMessages +
+        ", maxAttempts=" + maxAttempts +
+        '}';
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the filtering of webhook events before they're parsed. When enabled, the event type
+ * of each payload is read from the header configured in "event_header" or, when the header isn't
+ * set (or isn't present in the request), from the JSON field configured in "event_field". The
+ * events the integration instance isn't subscribed to are discarded without parsing the payload.
+ *
+ * The JSON field may be a path of nested fields separated by dots, like "issue.event".
+ */
+public class WebHookEventFilterConfig {
+
+  private boolean enabled = false;
+
+  private String eventHeader;
+
+  private String eventField;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getEventHeader() {
+    return eventHeader;
+  }
+
+  public void setEventHeader(String eventHeader) {
+    this.eventHeader = eventHeader;
+  }
+
+  public String getEventField() {
+    return eventField;
+  }
+
+  public void setEventField(String eventField) {
+    this.eventField = eventField;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookEventFilterConfig{" +
+        "enabled=" + enabled +
+        ", eventHeader='" + eventHeader + '\'' +
+        ", eventField='" + eventField + '\'' +
+        '}';
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the threads that process the webhooks asynchronously and post the messages to the
+ * streams. When "virtual_threads" is enabled and the JVM supports virtual threads, the webhook
+ * queue, the webhook scheduler and the fan-out pool run on virtual threads, sized by
+ * "max_concurrency" instead of their own thread settings, so many more agent calls can be in
+ * flight at the same time.
+ *
+ * The webhooks are only processed on virtual threads if the async queue or the scheduler is
+ * enabled as well. Otherwise they're processed by the servlet threads, and only the posts to
+ * several streams done by the fan-out pool run on virtual threads.
+ */
+public class WebHookExecutionConfig {
+
+  /**
+   * Default max number of virtual threads of each pool.
+   */
+  public static final int DEFAULT_MAX_CONCURRENCY = 1000;
+
+  /**
+   * Max number of virtual threads of each pool.
+   */
+  public static final int MAX_CONCURRENCY = 100000;
+
+  private boolean virtualThreads = false;
+
+  private Integer maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  public Integer getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public void setMaxConcurrency(Integer maxConcurrency) {
+    if (maxConcurrency == null || maxConcurrency <= 0) {
+      maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    } else if (maxConcurrency > MAX_CONCURRENCY) {
+      maxConcurrency = MAX_CONCURRENCY;
+    }
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookExecutionConfig{" +
+        "virtualThreads=" + virtualThreads +
+        ", maxConcurrency=" + maxConcurrency +
+        '}';
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the concurrent fan-out of messages. When enabled, a message addressed to many
+ * streams is posted to them concurrently instead of one stream after the other.
+ */
+public class WebHookFanOutConfig {
+
+  /**
+   * Default number of threads used to post messages (per integration).
+   */
+  public static final int DEFAULT_THREADS = 16;
+
+  /**
+   * Max number of threads used to post messages (per integration).
+   */
+  public static final int MAX_THREADS = 128;
+
+  /**
+   * Default number of streams posted concurrently for each message.
+   */
+  public static final int DEFAULT_PARALLELISM = 8;
+
+  /**
+   * Max number of streams posted concurrently for each message.
+   */
+  public static final int MAX_PARALLELISM = 64;
+
+  private boolean enabled;
+
+  private Integer threads = DEFAULT_THREADS;
+
+  private Integer parallelism = DEFAULT_PARALLELISM;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getThreads() {
+    return threads;
+  }
+
+  public void setThreads(Integer threads) {
+    if (threads == null || threads <= 0) {
+      threads = DEFAULT_THREADS;
+    } else if (threads > MAX_THREADS) {
+      threads = MAX_THREADS;
+    }
+    this.threads = threads;
+  }
+
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(Integer parallelism) {
+    if (parallelism == null || parallelism <= 0) {
+      parallelism = DEFAULT_PARALLELISM;
+    } else if (parallelism > MAX_PARALLELISM) {
+      parallelism = MAX_PARALLELISM;
+    }
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookFanOutConfig{" +
+        "enabled=" + enabled +
+        ", threads=" + threads +
+        ", parallelism=" + parallelism +
+        '}';
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the local cache of integration instances used by the webhook processing.
+ */
+public class WebHookInstanceCacheConfig {
+
+  /**
+   * Default time, in seconds, to keep an integration instance in the cache without access.
+   */
+  public static final int DEFAULT_EXPIRATION = 300;
+
+  /**
+   * Default time, in seconds, to refresh an integration instance after it was loaded.
+   */
+  public static final int DEFAULT_REFRESH = 30;
+
+  /**
+   * Default max number of integration instances kept in the cache.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private boolean enabled = true;
+
+  private Integer expiration = DEFAULT_EXPIRATION;
+
+  private Integer refresh = DEFAULT_REFRESH;
+
+  private Integer maxSize = DEFAULT_MAX_SIZE;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getExpiration() {
+    return expiration;
+  }
+
+  public void setExpiration(Integer expiration) {
+    if (expiration == null || expiration <= 0) {
+      expiration = DEFAULT_EXPIRATION;
+    }
+    this.expiration = expiration;
+  }
+
+  public Integer getRefresh() {
+    return refresh;
+  }
+
+  public void setRefresh(Integer refresh) {
+    if (refresh == null || refresh <= 0) {
+      refresh = DEFAULT_REFRESH;
+    }
+    this.refresh = refresh;
+  }
+
+  public Integer getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(Integer maxSize) {
+    if (maxSize == null || maxSize <= 0) {
+      maxSize = DEFAULT_MAX_SIZE;
+    }
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookInstanceCacheConfig{" +
+        "enabled=" + enabled +
+        ", expiration=" + expiration +
+        ", refresh=" + refresh +
+        ", maxSize=" + maxSize +
+        '}';
+  }
+}
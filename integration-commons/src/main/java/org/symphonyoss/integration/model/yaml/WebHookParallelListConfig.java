@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the parallel processing of list objects by the metadata parsers. When enabled, the
+ * items of the lists with at least "threshold" items are processed in parallel, preserving their
+ * order. Smaller lists are processed by the thread parsing the payload.
+ *
+ * The parallel processing is disabled by default and it should stay disabled until it's measured
+ * on the target hardware. The list size where it pays off, if any, depends on the number of
+ * processors and the metadata objects: run MetadataListBenchmark (integration-webhook "benchmark"
+ * profile) and use the smallest list size where the parallel score beats the serial one as the
+ * threshold. On a single processor it's slower for every list size.
+ */
+public class WebHookParallelListConfig {
+
+  /**
+   * Default min number of items of the lists processed in parallel. It's a conservative starting
+   * point, not a measured value.
+   */
+  public static final int DEFAULT_THRESHOLD = 1000;
+
+  /**
+   * Max value for the min number of items of the lists processed in parallel.
+   */
+  public static final int MAX_THRESHOLD = 1000000;
+
+  private boolean enabled = false;
+
+  private Integer threshold = DEFAULT_THRESHOLD;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getThreshold() {
+    return threshold;
+  }
+
+  public void setThreshold(Integer threshold) {
+    if (threshold == null || threshold <= 0) {
+      threshold = DEFAULT_THRESHOLD;
+    } else if (threshold > MAX_THRESHOLD) {
+      threshold = MAX_THRESHOLD;
+    }
+    this.threshold = threshold;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookParallelListConfig{" +
+        "enabled=" + enabled +
+        ", threshold=" + threshold +
+        '}';
+  }
+}
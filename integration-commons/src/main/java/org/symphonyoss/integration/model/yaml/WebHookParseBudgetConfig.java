@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the parse time budget. When enabled, the parsers must finish within the budget of
+ * their integration, otherwise the parsing is aborted and the payload is refused. The budget is
+ * enforced cooperatively by the parsers, so a pathological payload can't pin a thread for long.
+ *
+ * The timeouts (in milliseconds) can be configured per integration type, for instance:
+ *
+ * <pre>
+ * parse_budget:
+ *   enabled: true
+ *   default_timeout: 2000
+ *   timeouts:
+ *     jiraWebHookIntegration: 5000
+ * </pre>
+ */
+public class WebHookParseBudgetConfig {
+
+  /**
+   * Default parse timeout (in milliseconds).
+   */
+  public static final long DEFAULT_TIMEOUT = 2000L;
+
+  /**
+   * Max parse timeout (in milliseconds).
+   */
+  public static final long MAX_TIMEOUT = 60000L;
+
+  private boolean enabled;
+
+  private Long defaultTimeout = DEFAULT_TIMEOUT;
+
+  private Map<String, Long> timeouts = new HashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Long getDefaultTimeout() {
+    return defaultTimeout;
+  }
+
+  public void setDefaultTimeout(Long defaultTimeout) {
+    this.defaultTimeout = validTimeout(defaultTimeout, DEFAULT_TIMEOUT);
+  }
+
+  public Map<String, Long> getTimeouts() {
+    return timeouts;
+  }
+
+  public void setTimeouts(Map<String, Long> timeouts) {
+    if (timeouts == null) {
+      timeouts = new HashMap<>();
+    }
+    this.timeouts = timeouts;
+  }
+
+  /**
+   * Retrieve the parse timeout of an integration. The invalid timeouts are replaced by the default
+   * timeout, and the timeouts over the limit are replaced by the max timeout.
+   * @param integration Integration type
+   * @return Parse timeout (in milliseconds)
+   */
+  public long getTimeout(String integration) {
+    return validTimeout(timeouts.get(integration), defaultTimeout);
+  }
+
+  private long validTimeout(Long timeout, long defaultValue) {
+    if (timeout == null || timeout <= 0) {
+      return defaultValue;
+    } else if (timeout > MAX_TIMEOUT) {
+      return MAX_TIMEOUT;
+    }
+    return timeout;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookParseBudgetConfig{" +
+        "enabled=" + enabled +
+        ", defaultTimeout=" + defaultTimeout +
+        ", timeouts=" + timeouts +
+        '}';
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for the cache of parse results. When enabled, the message parsed from a payload is kept
+ * for up to "window" milliseconds, so identical payloads delivered to other integration instances
+ * of the same integration reuse it instead of parsing the payload again.
+ *
+ * Payloads are identical when they have the same body, the same request parameters and the same
+ * values for the request headers listed in "key_headers". Integrations whose parsers depend on
+ * other request headers must list them there.
+ */
+public class WebHookParseCacheConfig {
+
+  /**
+   * Default time, in milliseconds, a parse result is kept.
+   */
+  public static final int DEFAULT_WINDOW = 10000;
+
+  /**
+   * Max time, in milliseconds, a parse result is kept.
+   */
+  public static final int MAX_WINDOW = 300000;
+
+  /**
+   * Default max number of parse results kept (per integration).
+   */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  /**
+   * Max number of parse results kept (per integration).
+   */
+  public static final int MAX_MAX_SIZE = 100000;
+
+  private boolean enabled = false;
+
+  private Integer window = DEFAULT_WINDOW;
+
+  private Integer maxSize = DEFAULT_MAX_SIZE;
+
+  private List<String> keyHeaders = new ArrayList<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getWindow() {
+    return window;
+  }
+
+  public void setWindow(Integer window) {
+    if (window == null || window <= 0) {
+      window = DEFAULT_WINDOW;
+    } else if (window > MAX_WINDOW) {
+      window = MAX_WINDOW;
+    }
+    this.window = window;
+  }
+
+  public Integer getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(Integer maxSize) {
+    if (maxSize == null || maxSize <= 0) {
+      maxSize = DEFAULT_MAX_SIZE;
+    } else if (maxSize > MAX_MAX_SIZE) {
+      maxSize = MAX_MAX_SIZE;
+    }
+    this.maxSize = maxSize;
+  }
+
+  public List<String> getKeyHeaders() {
+    return keyHeaders;
+  }
+
+  public void setKeyHeaders(List<String> keyHeaders) {
+    if (keyHeaders == null) {
+      keyHeaders = new ArrayList<>();
+    }
+    this.keyHeaders = keyHeaders;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookParseCacheConfig{" +
+        "enabled=" + enabled +
+        ", window=" + window +
+        ", maxSize=" + maxSize +
+        ", keyHeaders=" + keyHeaders +
+        '}';
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the payloads received by the webhooks.
+ */
+public class WebHookPayloadConfig {
+
+  /**
+   * Default max size, in bytes, of the payload body.
+   */
+  public static final int DEFAULT_MAX_SIZE = 10 * 1024 * 1024;
+
+  /**
+   * Max value accepted for the max size, in bytes, of the payload body.
+   */
+  public static final int MAX_MAX_SIZE = 100 * 1024 * 1024;
+
+  private Integer maxSize = DEFAULT_MAX_SIZE;
+
+  public Integer getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(Integer maxSize) {
+    if (maxSize == null || maxSize <= 0) {
+      maxSize = DEFAULT_MAX_SIZE;
+    } else if (maxSize > MAX_MAX_SIZE) {
+      maxSize = MAX_MAX_SIZE;
+    }
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookPayloadConfig{" +
+        "maxSize=" + maxSize +
+        '}';
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the rate limiting of the webhook deliveries. When enabled, each integration
+ * instance and the integration as a whole have their own token bucket, so a single instance
+ * sending too many payloads can't saturate the agent for the other instances and integrations.
+ *
+ * The rates are expressed in payloads per second and the bursts in the number of payloads
+ * accepted at once after an idle period.
+ */
+public class WebHookRateLimitConfig {
+
+  /**
+   * Default number of payloads per second accepted for each integration instance.
+   */
+  public static final int DEFAULT_INSTANCE_RATE = 10;
+
+  /**
+   * Default number of payloads accepted at once for each integration instance.
+   */
+  public static final int DEFAULT_INSTANCE_BURST = 20;
+
+  /**
+   * Default number of payloads per second accepted for the integration.
+   */
+  public static final int DEFAULT_INTEGRATION_RATE = 100;
+
+  /**
+   * Default number of payloads accepted at once for the integration.
+   */
+  public static final int DEFAULT_INTEGRATION_BURST = 200;
+
+  /**
+   * Max number of payloads per second.
+   */
+  public static final int MAX_RATE = 100000;
+
+  /**
+   * Max number of payloads accepted at once.
+   */
+  public static final int MAX_BURST = 1000000;
+
+  private boolean enabled = false;
+
+  private Integer instanceRate = DEFAULT_INSTANCE_RATE;
+
+  private Integer instanceBurst = DEFAULT_INSTANCE_BURST;
+
+  private Integer integrationRate = DEFAULT_INTEGRATION_RATE;
+
+  private Integer integrationBurst = DEFAULT_INTEGRATION_BURST;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getInstanceRate() {
+    return instanceRate;
+  }
+
+  public void setInstanceRate(Integer instanceRate) {
+    this.instanceRate = limit(instanceRate, DEFAULT_INSTANCE_RATE, MAX_RATE);
+  }
+
+  public Integer getInstanceBurst() {
+    return instanceBurst;
+  }
+
+  public void setInstanceBurst(Integer instanceBurst) {
+    this.instanceBurst = limit(instanceBurst, DEFAULT_INSTANCE_BURST, MAX_BURST);
+  }
+
+  public Integer getIntegrationRate() {
+    return integrationRate;
+  }
+
+  public void setIntegrationRate(Integer integrationRate) {
+    this.integrationRate = limit(integrationRate, DEFAULT_INTEGRATION_RATE, MAX_RATE);
+  }
+
+  public Integer getIntegrationBurst() {
+    return integrationBurst;
+  }
+
+  public void setIntegrationBurst(Integer integrationBurst) {
+    this.integrationBurst = limit(integrationBurst, DEFAULT_INTEGRATION_BURST, MAX_BURST);
+  }
+
+  private Integer limit(Integer value, int defaultValue, int maxValue) {
+    if (value == null || value <= 0) {
+      return defaultValue;
+    } else if (value > maxValue) {
+      return maxValue;
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookRateLimitConfig{" +
+        "enabled=" + enabled +
+        ", instanceRate=" + instanceRate +
+        ", instanceBurst=" + instanceBurst +
+        ", integrationRate=" + integrationRate +
+        ", integrationBurst=" + integrationBurst +
+        '}';
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the weighted fair scheduling of the webhook payloads. When enabled, the payloads
+ * of each integration are accepted into their own bounded queue, and a pool of worker threads
+ * shared by all the integrations drains the queues in proportion to their weights, so a flood from
+ * one integration can't starve the others.
+ *
+ * The weights are configured per integration type, for instance:
+ *
+ * <pre>
+ * scheduler:
+ *   enabled: true
+ *   weights:
+ *     jiraWebHookIntegration: 4
+ *     zapierWebHookIntegration: 1
+ * </pre>
+ */
+public class WebHookSchedulerConfig {
+
+  /**
+   * Default number of worker threads shared by all the integrations.
+   */
+  public static final int DEFAULT_WORKER_THREADS = 16;
+
+  /**
+   * Max number of worker threads shared by all the integrations.
+   */
+  public static final int MAX_WORKER_THREADS = 256;
+
+  /**
+   * Default queue capacity (per integration).
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+  /**
+   * Max queue capacity (per integration).
+   */
+  public static final int MAX_QUEUE_CAPACITY = 100000;
+
+  /**
+   * Default weight of the integrations without a configured weight.
+   */
+  public static final int DEFAULT_WEIGHT = 1;
+
+  /**
+   * Max weight of an integration.
+   */
+  public static final int MAX_WEIGHT = 100;
+
+  private boolean enabled;
+
+  private Integer workerThreads = DEFAULT_WORKER_THREADS;
+
+  private Integer queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+  private Integer defaultWeight = DEFAULT_WEIGHT;
+
+  private Map<String, Integer> weights = new HashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getWorkerThreads() {
+    return workerThreads;
+  }
+
+  public void setWorkerThreads(Integer workerThreads) {
+    if (workerThreads == null || workerThreads <= 0) {
+      workerThreads = DEFAULT_WORKER_THREADS;
+    } else if (workerThreads > MAX_WORKER_THREADS) {
+      workerThreads = MAX_WORKER_THREADS;
+    }
+    this.workerThreads = workerThreads;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    if (queueCapacity == null || queueCapacity <= 0) {
+      queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    } else if (queueCapacity > MAX_QUEUE_CAPACITY) {
+      queueCapacity = MAX_QUEUE_CAPACITY;
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  public Integer getDefaultWeight() {
+    return defaultWeight;
+  }
+
+  public void setDefaultWeight(Integer defaultWeight) {
+    this.defaultWeight = validWeight(defaultWeight, DEFAULT_WEIGHT);
+  }
+
+  public Map<String, Integer> getWeights() {
+    return weights;
+  }
+
+  public void setWeights(Map<String, Integer> weights) {
+    if (weights == null) {
+      weights = new HashMap<>();
+    }
+    this.weights = weights;
+  }
+
+  /**
+   * Retrieve the weight of an integration. The invalid weights are replaced by the default
+   * weight, and the weights over the limit are replaced by the max weight.
+   * @param integration Integration type
+   * @return Weight of the integration
+   */
+  public int getWeight(String integration) {
+    return validWeight(weights.get(integration), defaultWeight);
+  }
+
+  private int validWeight(Integer weight, int defaultValue) {
+    if (weight == null || weight <= 0) {
+      return defaultValue;
+    } else if (weight > MAX_WEIGHT) {
+      return MAX_WEIGHT;
+    }
+    return weight;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookSchedulerConfig{" +
+        "enabled=" + enabled +
+        ", workerThreads=" + workerThreads +
+        ", queueCapacity=" + queueCapacity +
+        ", defaultWeight=" + defaultWeight +
+        ", weights=" + weights +
+        '}';
+  }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the local spool that keeps the webhook payloads accepted while the integration is
+ * unavailable. The payloads are appended to memory-mapped segment files of "segment_size" bytes
+ * under "directory", up to "max_segments" files per integration, and replayed in order every
+ * "drain_interval" milliseconds, at most "batch_size" payloads at a time. A payload that keeps
+ * failing is discarded after "max_attempts" replays.
+ *
+ * When "sync" is set, each payload is forced to the disk before it's acknowledged, so the spool
+ * survives a crash of the host. Otherwise it only survives a restart of the process.
+ */
+public class WebHookSpoolConfig {
+
+  /**
+   * Default directory of the spool files.
+   */
+  public static final String DEFAULT_DIRECTORY = "spool";
+
+  /**
+   * Default size, in bytes, of each segment file.
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Max size, in bytes, of each segment file.
+   */
+  public static final int MAX_SEGMENT_SIZE = 1024 * 1024 * 1024;
+
+  /**
+   * Default max number of segment files per integration.
+   */
+  public static final int DEFAULT_MAX_SEGMENTS = 16;
+
+  /**
+   * Max number of segment files per integration.
+   */
+  public static final int MAX_SEGMENTS = 1024;
+
+  /**
+   * Default time, in milliseconds, between two replays of the spooled payloads.
+   */
+  public static final int DEFAULT_DRAIN_INTERVAL = 1000;
+
+  /**
+   * Max time, in milliseconds, between two replays of the spooled payloads.
+   */
+  public static final int MAX_DRAIN_INTERVAL = 60000;
+
+  /**
+   * Default max number of payloads replayed at a time.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  /**
+   * Max number of payloads replayed at a time.
+   */
+  public static final int MAX_BATCH_SIZE = 10000;
+
+  /**
+   * Default number of replays of a failing payload before discarding it.
+   */
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+  /**
+   * Max number of replays of a failing payload before discarding it.
+   */
+  public static final int MAX_ATTEMPTS = 100;
+
+  private boolean enabled = false;
+
+  private String directory = DEFAULT_DIRECTORY;
+
+  private Integer segmentSize = DEFAULT_SEGMENT_SIZE;
+
+  private Integer maxSegments = DEFAULT_MAX_SEGMENTS;
+
+  private Integer drainInterval = DEFAULT_DRAIN_INTERVAL;
+
+  private Integer batchSize = DEFAULT_BATCH_SIZE;
+
+  private Integer maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+  private boolean sync = true;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    if (directory == null || directory.trim().isEmpty()) {
+      directory = DEFAULT_DIRECTORY;
+    }
+    this.directory = directory;
+  }
+
+  public Integer getSegmentSize() {
+    return segmentSize;
+  }
+
+  public void setSegmentSize(Integer segmentSize) {
+    if (segmentSize == null || segmentSize <= 0) {
+      segmentSize = DEFAULT_SEGMENT_SIZE;
+    } else if (segmentSize > MAX_SEGMENT_SIZE) {
+      segmentSize = MAX_SEGMENT_SIZE;
+    }
+    this.segmentSize = segmentSize;
+  }
+
+  public Integer getMaxSegments() {
+    return maxSegments;
+  }
+
+  public void setMaxSegments(Integer maxSegments) {
+    if (maxSegments == null || maxSegments <= 0) {
+      maxSegments = DEFAULT_MAX_SEGMENTS;
+    } else if (maxSegments > MAX_SEGMENTS) {
+      maxSegments = MAX_SEGMENTS;
+    }
+    this.maxSegments = maxSegments;
+  }
+
+  public Integer getDrainInterval() {
+    return drainInterval;
+  }
+
+  public void setDrainInterval(Integer drainInterval) {
+    if (drainInterval == null || drainInterval <= 0) {
+      drainInterval = DEFAULT_DRAIN_INTERVAL;
+    } else if (drainInterval > MAX_DRAIN_INTERVAL) {
+      drainInterval = MAX_DRAIN_INTERVAL;
+    }
+    this.drainInterval = drainInterval;
+  }
+
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(Integer batchSize) {
+    if (batchSize == null || batchSize <= 0) {
+      batchSize = DEFAULT_BATCH_SIZE;
+    } else if (batchSize > MAX_BATCH_SIZE) {
+      batchSize = MAX_BATCH_SIZE;
+    }
+    this.batchSize = batchSize;
+  }
+
+  public Integer getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(Integer maxAttempts) {
+    if (maxAttempts == null || maxAttempts <= 0) {
+      maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    } else if (maxAttempts > MAX_ATTEMPTS) {
+      maxAttempts = MAX_ATTEMPTS;
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  public boolean isSync() {
+    return sync;
+  }
+
+  public void setSync(boolean sync) {
+    this.sync = sync;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookSpoolConfig{" +
+        "enabled=" + enabled +
+        ", directory='" + directory + '\'' +
+        ", segmentSize=" + segmentSize +
+        ", maxSegments=" + maxSegments +
+        ", drainInterval=" + drainInterval +
+        ", batchSize=" + batchSize +
+        ", maxAttempts=" + maxAttempts +
+        ", sync=" + sync +
+        '}';
+  }
+}
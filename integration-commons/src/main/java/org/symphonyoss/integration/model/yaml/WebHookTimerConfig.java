@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the timer shared by all the webhook integrations to schedule delayed and periodic
+ * tasks. The timer keeps the tasks in a hashed wheel with "wheel_size" slots, each one covering
+ * "tick_duration" milliseconds, and a single thread advances the wheel.
+ *
+ * The expired tasks run on the background executor of the feature that scheduled them (message
+ * digest, spool drain, write-behind flush and user lookup batches). Each integration has one
+ * executor per feature, with up to "workers" threads that are released when idle and up to
+ * "queue_capacity" tasks waiting for a thread. The same executors run the refreshes of the user
+ * cache, the instance cache and the configuration flag, which are triggered by the first access
+ * after the refresh interval rather than by the timer.
+ */
+public class WebHookTimerConfig {
+
+  /**
+   * Default time, in milliseconds, covered by each slot of the wheel.
+   */
+  public static final int DEFAULT_TICK_DURATION = 100;
+
+  /**
+   * Max time, in milliseconds, covered by each slot of the wheel.
+   */
+  public static final int MAX_TICK_DURATION = 1000;
+
+  /**
+   * Default number of slots of the wheel.
+   */
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+
+  /**
+   * Max number of slots of the wheel.
+   */
+  public static final int MAX_WHEEL_SIZE = 65536;
+
+  /**
+   * Default number of threads of each background executor.
+   */
+  public static final int DEFAULT_WORKERS = 2;
+
+  /**
+   * Max number of threads of each background executor.
+   */
+  public static final int MAX_WORKERS = 32;
+
+  /**
+   * Default number of tasks waiting for a thread of each background executor.
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+  /**
+   * Max number of tasks waiting for a thread of each background executor.
+   */
+  public static final int MAX_QUEUE_CAPACITY = 100000;
+
+  private Integer tickDuration = DEFAULT_TICK_DURATION;
+
+  private Integer wheelSize = DEFAULT_WHEEL_SIZE;
+
+  private Integer workers = DEFAULT_WORKERS;
+
+  private Integer queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+  public Integer getTickDuration() {
+    return tickDuration;
+  }
+
+  public void setTickDuration(Integer tickDuration) {
+    if (tickDuration == null || tickDuration <= 0) {
+      tickDuration = DEFAULT_TICK_DURATION;
+    } else if (tickDuration > MAX_TICK_DURATION) {
+      tickDuration = MAX_TICK_DURATION;
+    }
+    this.tickDuration = tickDuration;
+  }
+
+  public Integer getWheelSize() {
+    return wheelSize;
+  }
+
+  public void setWheelSize(Integer wheelSize) {
+    if (wheelSize == null || wheelSize <= 0) {
+      wheelSize = DEFAULT_WHEEL_SIZE;
+    } else if (wheelSize > MAX_WHEEL_SIZE) {
+      wheelSize = MAX_WHEEL_SIZE;
+    }
+    this.wheelSize = wheelSize;
+  }
+
+  public Integer getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(Integer workers) {
+    if (workers == null || workers <= 0) {
+      workers = DEFAULT_WORKERS;
+    } else if (workers > MAX_WORKERS) {
+      workers = MAX_WORKERS;
+    }
+    this.workers = workers;
+  }
+
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(Integer queueCapacity) {
+    if (queueCapacity == null || queueCapacity <= 0) {
+      queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    } else if (queueCapacity > MAX_QUEUE_CAPACITY) {
+      queueCapacity = MAX_QUEUE_CAPACITY;
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookTimerConfig{" +
+        "tickDuration=" + tickDuration +
+        ", wheelSize=" + wheelSize +
+        ", workers=" + workers +
+        ", queueCapacity=" + queueCapacity +
+        '}';
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the batching of user lookups performed by the webhook integrations. The lookups
+ * issued by an integration user are collected for up to "max_wait" milliseconds, or until
+ * "max_batch_size" lookups are pending, and resolved together.
+ */
+public class WebHookUserBatchConfig {
+
+  /**
+   * Default max number of lookups resolved together.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+  /**
+   * Max number of lookups resolved together.
+   */
+  public static final int MAX_BATCH_SIZE = 1000;
+
+  /**
+   * Default time, in milliseconds, to wait for other lookups before resolving a batch.
+   */
+  public static final int DEFAULT_MAX_WAIT = 50;
+
+  /**
+   * Max time, in milliseconds, to wait for other lookups before resolving a batch.
+   */
+  public static final int MAX_WAIT = 1000;
+
+  private Integer maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+  private Integer maxWait = DEFAULT_MAX_WAIT;
+
+  public Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(Integer maxBatchSize) {
+    if (maxBatchSize == null || maxBatchSize <= 0) {
+      maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    } else if (maxBatchSize > MAX_BATCH_SIZE) {
+      maxBatchSize = MAX_BATCH_SIZE;
+    }
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public Integer getMaxWait() {
+    return maxWait;
+  }
+
+  public void setMaxWait(Integer maxWait) {
+    if (maxWait == null || maxWait < 0) {
+      maxWait = DEFAULT_MAX_WAIT;
+    } else if (maxWait > MAX_WAIT) {
+      maxWait = MAX_WAIT;
+    }
+    this.maxWait = maxWait;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookUserBatchConfig{" +
+        "maxBatchSize=" + maxBatchSize +
+        ", maxWait=" + maxWait +
+        '}';
+  }
+}
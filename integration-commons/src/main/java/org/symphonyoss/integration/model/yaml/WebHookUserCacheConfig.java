@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the local cache of users resolved by the webhook integrations. Unknown users are
+ * cached as well, for a shorter time defined by "negative_expiration".
+ */
+public class WebHookUserCacheConfig {
+
+  /**
+   * Default time, in seconds, to keep a user in the cache after it was loaded.
+   */
+  public static final int DEFAULT_EXPIRATION = 600;
+
+  /**
+   * Default time, in seconds, after which the next lookup of a user reloads it in background.
+   */
+  public static final int DEFAULT_REFRESH = 60;
+
+  /**
+   * Default time, in seconds, to remember a user wasn't found.
+   */
+  public static final int DEFAULT_NEGATIVE_EXPIRATION = 60;
+
+  /**
+   * Default max number of users kept in the cache.
+   */
+  public static final int DEFAULT_MAX_SIZE = 10000;
+
+  private boolean enabled = true;
+
+  private Integer expiration = DEFAULT_EXPIRATION;
+
+  private Integer refresh = DEFAULT_REFRESH;
+
+  private Integer negativeExpiration = DEFAULT_NEGATIVE_EXPIRATION;
+
+  private Integer maxSize = DEFAULT_MAX_SIZE;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getExpiration() {
+    return expiration;
+  }
+
+  public void setExpiration(Integer expiration) {
+    if (expiration == null || expiration <= 0) {
+      expiration = DEFAULT_EXPIRATION;
+    }
+    this.expiration = expiration;
+  }
+
+  public Integer getRefresh() {
+    return refresh;
+  }
+
+  public void setRefresh(Integer refresh) {
+    if (refresh == null || refresh <= 0) {
+      refresh = DEFAULT_REFRESH;
+    }
+    this.refresh = refresh;
+  }
+
+  public Integer getNegativeExpiration() {
+    return negativeExpiration;
+  }
+
+  public void setNegativeExpiration(Integer negativeExpiration) {
+    if (negativeExpiration == null || negativeExpiration <= 0) {
+      negativeExpiration = DEFAULT_NEGATIVE_EXPIRATION;
+    }
+    this.negativeExpiration = negativeExpiration;
+  }
+
+  public Integer getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(Integer maxSize) {
+    if (maxSize == null || maxSize <= 0) {
+      maxSize = DEFAULT_MAX_SIZE;
+    }
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookUserCacheConfig{" +
+        "enabled=" + enabled +
+        ", expiration=" + expiration +
+        ", refresh=" + refresh +
+        ", negativeExpiration=" + negativeExpiration +
+        ", maxSize=" + maxSize +
+        '}';
+  }
+}
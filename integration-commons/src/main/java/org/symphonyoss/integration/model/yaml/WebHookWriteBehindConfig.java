@@ -0,0 +1,88 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+/**
+ * Settings for the write-behind of the last posted date. When enabled, the last posted date of
+ * each integration instance is kept in memory and saved periodically, instead of saving the
+ * integration instance after every message posted. The dates not saved yet are lost if the
+ * application stops abruptly, so it's disabled by default.
+ */
+public class WebHookWriteBehindConfig {
+
+  /**
+   * Default time, in milliseconds, between two saves of the same integration instance.
+   */
+  public static final int DEFAULT_FLUSH_INTERVAL = 5000;
+
+  /**
+   * Default number of failed saves of a last posted date before discarding it.
+   */
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+  /**
+   * Max number of failed saves of a last posted date before discarding it.
+   */
+  public static final int MAX_ATTEMPTS = 100;
+
+  private boolean enabled = false;
+
+  private Integer flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+  private Integer maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Integer getFlushInterval() {
+    return flushInterval;
+  }
+
+  public void setFlushInterval(Integer flushInterval) {
+    if (flushInterval == null || flushInterval <= 0) {
+      flushInterval = DEFAULT_FLUSH_INTERVAL;
+    }
+    this.flushInterval = flushInterval;
+  }
+
+  public Integer getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(Integer maxAttempts) {
+    if (maxAttempts == null || maxAttempts <= 0) {
+      maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    } else if (maxAttempts > MAX_ATTEMPTS) {
+      maxAttempts = MAX_ATTEMPTS;
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  @Override
+  public String toString() {
+    return "WebHookWriteBehindConfig{" +
+        "enabled=" + enabled +
+        ", flushInterval=" + flushInterval +
+        ", maxAttempts=" + maxAttempts +
+        '}';
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.parser;
+
+import org.symphonyoss.integration.exception.ParserTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the parser running in the current thread.
+ *
+ * The budget is enforced cooperatively: long running parser loops should call {@link #check()}
+ * and regular expressions applied to untrusted input should match against
+ * {@link #interruptible(CharSequence)}, so a pathological payload is aborted with a
+ * {@link ParserTimeoutException} once the deadline is reached. Both are no-op when there is no
+ * deadline started in the current thread.
+ *
+ * Usage:
+ *
+ * <pre>
+ * try (ParseDeadline deadline = ParseDeadline.start(timeout)) {
+ *   parser.parse(payload);
+ * }
+ * </pre>
+ */
+public final class ParseDeadline implements AutoCloseable {
+
+  /**
+   * Number of characters read by the regular expressions between two deadline checks.
+   */
+  private static final int CHECK_INTERVAL = 1024;
+
+  private static final ThreadLocal<ParseDeadline> CURRENT = new ThreadLocal<>();
+
+  private final long timeout;
+
+  private final long deadline;
+
+  private final ParseDeadline previous;
+
+  private ParseDeadline(long timeout, long deadline, ParseDeadline previous) {
+    this.timeout = timeout;
+    this.deadline = deadline;
+    this.previous = previous;
+  }
+
+  /**
+   * Starts a deadline in the current thread. A nested deadline never extends the deadline already
+   * started in the current thread.
+   * @param timeout Time budget (in milliseconds)
+   * @return Deadline that must be closed when the parser finishes
+   */
+  public static ParseDeadline start(long timeout) {
+    ParseDeadline previous = CURRENT.get();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+    if (previous != null && previous.deadline - deadline < 0) {
+      deadline = previous.deadline;
+      timeout = previous.timeout;
+    }
+
+    ParseDeadline current = new ParseDeadline(timeout, deadline, previous);
+    CURRENT.set(current);
+
+    return current;
+  }
+
+  /**
+   * Retrieves the deadline started in the current thread.
+   * @return Deadline or null if there is no deadline started in the current thread
+   */
+  public static ParseDeadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Checks the deadline started in the current thread.
+   * @throws ParserTimeoutException the deadline was reached
+   */
+  public static void check() {
+    ParseDeadline current = CURRENT.get();
+
+    if (current != null) {
+      current.checkExpired();
+    }
+  }
+
+  /**
+   * Wraps the input of a regular expression, so the matching is aborted once the deadline started
+   * in the current thread is reached.
+   * @param input Input of the regular expression
+   * @return Input checking the deadline or the input itself if there is no deadline started
+   */
+  public static CharSequence interruptible(CharSequence input) {
+    ParseDeadline current = CURRENT.get();
+    return current != null ? new DeadlineCharSequence(input, current) : input;
+  }
+
+  /**
+   * Starts this deadline in the current thread, so the work that a parser splits across other
+   * threads shares its time budget.
+   * @return Deadline that must be closed when the work finishes in the current thread
+   */
+  public ParseDeadline attach() {
+    ParseDeadline current = new ParseDeadline(timeout, deadline, CURRENT.get());
+    CURRENT.set(current);
+
+    return current;
+  }
+
+  /**
+   * Checks if the deadline was reached.
+   * @return true if the deadline was reached
+   */
+  public boolean isExpired() {
+    return System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Retrieves the time budget.
+   * @return Time budget (in milliseconds)
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
+  private void checkExpired() {
+    if (isExpired()) {
+      throw new ParserTimeoutException(timeout);
+    }
+  }
+
+  /**
+   * Finishes the deadline, restoring the deadline previously started in the current thread.
+   */
+  @Override
+  public void close() {
+    if (CURRENT.get() != this) {
+      return;
+    }
+
+    if (previous != null) {
+      CURRENT.set(previous);
+    } else {
+      CURRENT.remove();
+    }
+  }
+
+  /**
+   * Character sequence that checks the deadline while the characters are read.
+   */
+  private static final class DeadlineCharSequence implements CharSequence {
+
+    private final CharSequence delegate;
+
+    private final ParseDeadline deadline;
+
+    private int reads;
+
+    DeadlineCharSequence(CharSequence delegate, ParseDeadline deadline) {
+      this.delegate = delegate;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (++reads == CHECK_INTERVAL) {
+        reads = 0;
+        deadline.checkExpired();
+      }
+
+      return delegate.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return delegate.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return delegate.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return delegate.toString();
+    }
+  }
+}
@@ -22,6 +22,7 @@ import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
 import org.symphonyoss.integration.exception.URISyntaxRuntimeException;
 import org.symphonyoss.integration.parser.model.HashTag;
 
@@ -108,6 +109,7 @@ public final class ParserUtils {
    * with "<a href="URL"/> so the final message will link URLs properly on Symphony.
    * @param message message to be analyzed and modified.
    * @return modified message containing all needed links.
+   * @throws ParserTimeoutException the parse deadline was reached while matching the links
    */
   public static String markupLinks(String message) {
     StringFormatterContainer formatterContainer = buildStringFormatForLinks(message, true);
@@ -124,7 +126,7 @@ public final class ParserUtils {
    */
   public static StringFormatterContainer buildStringFormatForLinks(String message,
       boolean buildMarkupLinks) {
-    Matcher m = linkPattern.matcher(message);
+    Matcher m = linkPattern.matcher(ParseDeadline.interruptible(message));
     Map<String, String> parameters = new LinkedHashMap<>();
 
     while (m.find()) {
@@ -154,7 +156,7 @@ public final class ParserUtils {
                 stringLength);
 
         //Resets the matcher with the new message
-        m = linkPattern.matcher(message);
+        m = linkPattern.matcher(ParseDeadline.interruptible(message));
       }
     }
     return new StringFormatterContainer(message, parameters);
@@ -249,7 +251,8 @@ public final class ParserUtils {
    * @return String
    */
   public static String getPresentationMLContent(String message) {
-    final Matcher pMatcher = PRESENTATION_ML_PATTERN.matcher(message);
+    final Matcher pMatcher =
+        PRESENTATION_ML_PATTERN.matcher(ParseDeadline.interruptible(message));
     final StringBuffer pb = new StringBuffer(message.length());
     if (pMatcher.find()) {
       return StringEscapeUtils.unescapeXml(pMatcher.group(1));
@@ -263,7 +266,8 @@ public final class ParserUtils {
    * @return The message with the <presentationML> elements un-escaped.
    */
   public static String unescapePresentationML(String message) {
-    final Matcher pMatcher = PRESENTATION_ML_PATTERN.matcher(message);
+    final Matcher pMatcher =
+        PRESENTATION_ML_PATTERN.matcher(ParseDeadline.interruptible(message));
     final StringBuffer pb = new StringBuffer(message.length());
     while (pMatcher.find()) {
       final String unescaped = StringEscapeUtils.unescapeXml(pMatcher.group(1));
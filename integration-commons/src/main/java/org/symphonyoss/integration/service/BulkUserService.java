@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.service;
+
+import org.symphonyoss.integration.entity.model.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * User service able to resolve several users in a single call.
+ *
+ * The returned maps contain the users found, keyed by the values requested, following the same
+ * rules as the single lookups defined by {@link UserService}. The values missing from the map are
+ * considered not found.
+ */
+public interface BulkUserService extends UserService {
+
+  /**
+   * Search the users by Email.
+   * @param integrationUser the integration bot user id
+   * @param emails the emails of the users to be retrieved
+   * @return Users keyed by email
+   */
+  Map<String, User> getUsersByEmail(String integrationUser, Collection<String> emails);
+
+  /**
+   * Search the users by UserName.
+   * @param integrationUser the integration bot user id
+   * @param userNames the usernames of the users to be retrieved
+   * @return Users keyed by username
+   */
+  Map<String, User> getUsersByUserName(String integrationUser, Collection<String> userNames);
+
+  /**
+   * Search the users by UserId.
+   * @param integrationUser the integration bot user id
+   * @param userIds the ids of the users to be retrieved
+   * @return Users keyed by user id
+   */
+  Map<Long, User> getUsersByUserId(String integrationUser, Collection<Long> userIds);
+}
@@ -0,0 +1,437 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.model.UserKeyManagerData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caching layer over a {@link UserService}.
+ *
+ * The users resolved by email, username and user ID are kept in a bounded cache, keyed by the
+ * integration user that performed the lookup. Once an entry is older than the refresh interval,
+ * the next lookup reloads it on the refresh executor, while the callers keep getting the previous
+ * value. Entries that aren't looked up aren't refreshed, and they're evicted after the expiration
+ * time. Unknown users are cached as well, but only for the negative expiration time, so
+ * a user created meanwhile is found soon.
+ *
+ * The callers receive a copy of the cached user, so they can't change the cached value. The bulk
+ * lookups only load the users missing from the cache, in a single call when the underlying service
+ * is a {@link BulkUserService}.
+ */
+public class CachedUserService implements BulkUserService {
+
+  /**
+   * Attribute used to look up the user.
+   */
+  private enum LookupType {
+    EMAIL,
+    USERNAME,
+    USER_ID
+  }
+
+  private final UserService delegate;
+
+  private final LoadingCache<UserKey, CachedUser> cache;
+
+  private final Ticker ticker;
+
+  private final long negativeExpiration;
+
+  /**
+   * Creates the cache.
+   * @param delegate User service used to load the users
+   * @param refreshExecutor Executor used to refresh the users in background
+   * @param expiration Time, in seconds, to keep a user in the cache after it was loaded
+   * @param refresh Time, in seconds, after which the next lookup of a user reloads it
+   * @param negativeExpiration Time, in seconds, to remember a user wasn't found
+   * @param maxSize Max number of users kept in the cache
+   */
+  public CachedUserService(UserService delegate, Executor refreshExecutor, long expiration,
+      long refresh, long negativeExpiration, long maxSize) {
+    this(delegate, refreshExecutor, expiration, refresh, negativeExpiration, maxSize,
+        Ticker.systemTicker());
+  }
+
+  CachedUserService(UserService delegate, final Executor refreshExecutor, long expiration,
+      long refresh, long negativeExpiration, long maxSize, Ticker ticker) {
+    this.delegate = delegate;
+    this.ticker = ticker;
+    this.negativeExpiration = TimeUnit.SECONDS.toNanos(negativeExpiration);
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(expiration, TimeUnit.SECONDS)
+        .refreshAfterWrite(refresh, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .recordStats()
+        .build(new CacheLoader<UserKey, CachedUser>() {
+          @Override
+          public CachedUser load(UserKey key) throws Exception {
+            return loadUser(key);
+          }
+
+          @Override
+          public Map<UserKey, CachedUser> loadAll(Iterable<? extends UserKey> keys)
+              throws Exception {
+            if (CachedUserService.this.delegate instanceof BulkUserService) {
+              return loadUsers(keys);
+            }
+
+            // Falls back to the single lookups
+            return super.loadAll(keys);
+          }
+
+          @Override
+          public ListenableFuture<CachedUser> reload(final UserKey key, CachedUser oldValue) {
+            ListenableFutureTask<CachedUser> task =
+                ListenableFutureTask.create(new Callable<CachedUser>() {
+                  @Override
+                  public CachedUser call() throws Exception {
+                    return loadUser(key);
+                  }
+                });
+
+            refreshExecutor.execute(task);
+            return task;
+          }
+        });
+  }
+
+  @Override
+  public User getUserByEmail(String integrationUser, String email) {
+    if (email == null) {
+      return delegate.getUserByEmail(integrationUser, null);
+    }
+
+    return get(new UserKey(integrationUser, LookupType.EMAIL, email));
+  }
+
+  @Override
+  public User getUserByUserName(String integrationUser, String userName) {
+    if (userName == null) {
+      return delegate.getUserByUserName(integrationUser, null);
+    }
+
+    return get(new UserKey(integrationUser, LookupType.USERNAME, userName));
+  }
+
+  @Override
+  public User getUserByUserId(String integrationUser, Long userId) {
+    if (userId == null) {
+      return delegate.getUserByUserId(integrationUser, null);
+    }
+
+    return get(new UserKey(integrationUser, LookupType.USER_ID, userId.toString()));
+  }
+
+  /**
+   * Checks if the users missing from the cache are loaded in a single call by the bulk lookups.
+   * @return true if the underlying service is a {@link BulkUserService}
+   */
+  public boolean isBulkLoading() {
+    return delegate instanceof BulkUserService;
+  }
+
+  @Override
+  public Map<String, User> getUsersByEmail(String integrationUser, Collection<String> emails) {
+    return getAll(integrationUser, LookupType.EMAIL, emails);
+  }
+
+  @Override
+  public Map<String, User> getUsersByUserName(String integrationUser,
+      Collection<String> userNames) {
+    return getAll(integrationUser, LookupType.USERNAME, userNames);
+  }
+
+  @Override
+  public Map<Long, User> getUsersByUserId(String integrationUser, Collection<Long> userIds) {
+    return getAll(integrationUser, LookupType.USER_ID, userIds);
+  }
+
+  @Override
+  public UserKeyManagerData getBotUserAccountKeyData(String configurationId) {
+    return delegate.getBotUserAccountKeyData(configurationId);
+  }
+
+  /**
+   * Removes all the users from the cache.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns the cache statistics.
+   * @return Cache statistics
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Returns the approximate number of users in the cache.
+   * @return Number of users
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Retrieves the user from the cache, loading it if required. The unknown users are reloaded
+   * after the negative expiration time. The runtime exceptions thrown by the user service are
+   * propagated to the caller.
+   * @param key Lookup key
+   * @return Copy of the user found
+   */
+  private User get(UserKey key) {
+    try {
+      CachedUser cached = cache.getUnchecked(key);
+
+      if (cached.isExpired(ticker.read())) {
+        cache.asMap().remove(key, cached);
+        cached = cache.getUnchecked(key);
+      }
+
+      return copy(cached.user);
+    } catch (UncheckedExecutionException e) {
+      throw propagate(e);
+    }
+  }
+
+  /**
+   * Retrieves several users from the cache, loading the missing ones together.
+   * @param integrationUser Integration username
+   * @param type Lookup type
+   * @param values Values to look up
+   * @return Copies of the users found, keyed by the values requested
+   */
+  private <T> Map<T, User> getAll(String integrationUser, LookupType type, Collection<T> values) {
+    Map<UserKey, T> keys = new LinkedHashMap<>();
+
+    for (T value : values) {
+      if (value != null) {
+        keys.put(new UserKey(integrationUser, type, value.toString()), value);
+      }
+    }
+
+    Map<T, User> result = new LinkedHashMap<>();
+
+    try {
+      for (Map.Entry<UserKey, CachedUser> entry : cache.getAll(keys.keySet()).entrySet()) {
+        CachedUser cached = entry.getValue();
+        User user = cached.isExpired(ticker.read()) ? get(entry.getKey()) : copy(cached.user);
+
+        if (user != null) {
+          result.put(keys.get(entry.getKey()), user);
+        }
+      }
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw propagate(e);
+    }
+
+    return result;
+  }
+
+  private static RuntimeException propagate(Exception e) {
+    if (e.getCause() instanceof RuntimeException) {
+      return (RuntimeException) e.getCause();
+    }
+
+    return new UncheckedExecutionException(e.getCause());
+  }
+
+  private CachedUser loadUser(UserKey key) {
+    User user;
+
+    switch (key.type) {
+      case EMAIL:
+        user = delegate.getUserByEmail(key.integrationUser, key.value);
+        break;
+      case USERNAME:
+        user = delegate.getUserByUserName(key.integrationUser, key.value);
+        break;
+      default:
+        user = delegate.getUserByUserId(key.integrationUser, Long.valueOf(key.value));
+        break;
+    }
+
+    return toCachedUser(user);
+  }
+
+  /**
+   * Loads several users through the bulk user service, grouping them by integration user and
+   * lookup type.
+   * @param keys Lookup keys
+   * @return Cache entries for all the keys
+   */
+  private Map<UserKey, CachedUser> loadUsers(Iterable<? extends UserKey> keys) {
+    Map<UserKey, List<UserKey>> groups = new LinkedHashMap<>();
+
+    for (UserKey key : keys) {
+      UserKey group = new UserKey(key.integrationUser, key.type, "");
+
+      if (!groups.containsKey(group)) {
+        groups.put(group, new ArrayList<UserKey>());
+      }
+
+      groups.get(group).add(key);
+    }
+
+    BulkUserService bulkService = (BulkUserService) delegate;
+    Map<UserKey, CachedUser> result = new LinkedHashMap<>();
+
+    for (Map.Entry<UserKey, List<UserKey>> group : groups.entrySet()) {
+      String integrationUser = group.getKey().integrationUser;
+      List<UserKey> groupKeys = group.getValue();
+
+      if (group.getKey().type == LookupType.USER_ID) {
+        List<Long> userIds = new ArrayList<>();
+
+        for (UserKey key : groupKeys) {
+          userIds.add(Long.valueOf(key.value));
+        }
+
+        Map<Long, User> users = bulkService.getUsersByUserId(integrationUser, userIds);
+
+        for (UserKey key : groupKeys) {
+          result.put(key, toCachedUser(users.get(Long.valueOf(key.value))));
+        }
+      } else {
+        List<String> values = new ArrayList<>();
+
+        for (UserKey key : groupKeys) {
+          values.add(key.value);
+        }
+
+        Map<String, User> users = group.getKey().type == LookupType.EMAIL
+            ? bulkService.getUsersByEmail(integrationUser, values)
+            : bulkService.getUsersByUserName(integrationUser, values);
+
+        for (UserKey key : groupKeys) {
+          result.put(key, toCachedUser(users.get(key.value)));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private CachedUser toCachedUser(User user) {
+    // The user service returns a user without ID when it can't find the user by email or username
+    boolean found = user != null && user.getId() != null;
+    long expiresAt = found ? Long.MAX_VALUE : ticker.read() + negativeExpiration;
+
+    return new CachedUser(user, expiresAt);
+  }
+
+  private static User copy(User user) {
+    if (user == null) {
+      return null;
+    }
+
+    User copy = new User();
+    copy.setId(user.getId());
+    copy.setUserName(user.getUsername());
+    copy.setEmailAddress(user.getEmailAddress());
+    copy.setDisplayName(user.getDisplayName());
+
+    return copy;
+  }
+
+  /**
+   * Cache entry. Unknown users have an expiration time shorter than the cache expiration.
+   */
+  private static final class CachedUser {
+
+    private final User user;
+
+    private final long expiresAt;
+
+    private CachedUser(User user, long expiresAt) {
+      this.user = user;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+    }
+  }
+
+  /**
+   * Cache key.
+   */
+  private static final class UserKey {
+
+    private final String integrationUser;
+
+    private final LookupType type;
+
+    private final String value;
+
+    private UserKey(String integrationUser, LookupType type, String value) {
+      this.integrationUser = integrationUser;
+      this.type = type;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      UserKey userKey = (UserKey) o;
+
+      if (integrationUser != null ? !integrationUser.equals(userKey.integrationUser)
+          : userKey.integrationUser != null) {
+        return false;
+      }
+
+      return type == userKey.type && value.equals(userKey.value);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = integrationUser != null ? integrationUser.hashCode() : 0;
+      result = 31 * result + type.hashCode();
+      result = 31 * result + value.hashCode();
+      return result;
+    }
+  }
+}
@@ -188,4 +188,14 @@ public class WebHookConfigurationUtils {
     return (ObjectNode) mapper.readTree(json);
   }
 
+  /**
+   * Converts a json string into a {@link JsonNode} object.
+   * @param json
+   * @return the {@link JsonNode} object.
+   * @throws IOException
+   */
+  public static JsonNode readTree(String json) throws IOException {
+    return mapper.readTree(json);
+  }
+
 }
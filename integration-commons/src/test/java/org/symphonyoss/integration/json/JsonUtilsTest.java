@@ -44,4 +44,14 @@ public class JsonUtilsTest {
     Assert.assertEquals(VALUE_2, jsonNode.path("field2").asText());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testReadJsonFromBytes() throws IOException {
+    String jsonTest = JsonUtils.writeValueAsString(JsonUtils.readTree(inputStream));
+    byte[] content = jsonTest.getBytes("UTF-8");
+    JsonNode jsonNode = JsonUtils.readTree(content);
+
+    Assert.assertEquals(VALUE_1, jsonNode.path("field1").asText());
+    Assert.assertEquals(VALUE_2, jsonNode.path("field2").asText());
+  }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.model.stream.StreamType;
+import org.symphonyoss.integration.utils.WebHookConfigurationUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Unit test for {@link IntegrationInstanceProperties}
+ */
+public class IntegrationInstancePropertiesTest {
+
+  private static final String OPTIONAL_PROPERTIES = "{ \"lastPostedDate\": 1, \"owner\": "
+      + "\"123456\", \"streams\": [ \"stream1\", \"stream2\"], \"removed_streams\": [ "
+      + "\"stream3\" ], \"streamType\": \"CHATROOM\", \"notifications\": [ \"test1\" ] }";
+
+  @Test
+  public void testParse() throws IOException {
+    IntegrationInstanceProperties properties =
+        IntegrationInstanceProperties.parse(OPTIONAL_PROPERTIES);
+
+    assertEquals(Arrays.asList("stream1", "stream2"), properties.getStreams());
+    assertEquals(Arrays.asList("stream3"), properties.getRemovedStreams());
+    assertEquals(new Long(123456), properties.getOwner());
+    assertEquals(StreamType.CHATROOM, properties.getStreamType());
+    assertEquals(Arrays.asList("test1"), properties.getNotifications());
+    assertEquals(1L, properties.getLastPostedDate());
+    assertSame(OPTIONAL_PROPERTIES, properties.toJsonString());
+  }
+
+  @Test
+  public void testParseNull() throws IOException {
+    IntegrationInstanceProperties properties = IntegrationInstanceProperties.parse(null);
+
+    assertTrue(properties.getStreams().isEmpty());
+    assertTrue(properties.getNotifications().isEmpty());
+    assertNull(properties.getOwner());
+    assertEquals(StreamType.NONE, properties.getStreamType());
+    assertEquals(0L, properties.getLastPostedDate());
+    assertNull(properties.toJsonString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testParseInvalid() throws IOException {
+    IntegrationInstanceProperties.parse("[]");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testImmutableStreams() throws IOException {
+    IntegrationInstanceProperties.parse(OPTIONAL_PROPERTIES).getStreams().add("stream4");
+  }
+
+  @Test
+  public void testWithLastPostedDate() throws IOException {
+    IntegrationInstanceProperties properties =
+        IntegrationInstanceProperties.parse(OPTIONAL_PROPERTIES);
+    IntegrationInstanceProperties updated = properties.withLastPostedDate(10L);
+
+    assertEquals(1L, properties.getLastPostedDate());
+    assertEquals(10L, updated.getLastPostedDate());
+    assertEquals(properties.getStreams(), updated.getStreams());
+    assertEquals(10L, WebHookConfigurationUtils.fromJsonString(updated.toJsonString())
+        .path(WebHookConfigurationUtils.LAST_POSTED_DATE).asLong());
+
+    IntegrationInstanceProperties empty = IntegrationInstanceProperties.parse(null)
+        .withLastPostedDate(10L);
+    assertEquals("{\"lastPostedDate\":10}", empty.toJsonString());
+  }
+
+  @Test
+  public void testInstanceMemoizedView() throws IOException {
+    IntegrationInstance instance = new IntegrationInstance();
+    instance.setLastModifiedDate(1L);
+    instance.setOptionalProperties(OPTIONAL_PROPERTIES);
+
+    IntegrationInstanceProperties properties = instance.getProperties();
+    assertSame(properties, instance.getProperties());
+
+    // New version of the integration instance
+    instance.setLastModifiedDate(2L);
+    IntegrationInstanceProperties newVersion = instance.getProperties();
+    assertNotSame(properties, newVersion);
+    assertSame(newVersion, instance.getProperties());
+
+    instance.setOptionalProperties("{ \"streams\": [ \"stream5\" ] }");
+    assertEquals(Arrays.asList("stream5"), instance.getProperties().getStreams());
+
+    IntegrationInstanceProperties updated = newVersion.withLastPostedDate(5L);
+    instance.setProperties(updated);
+    assertSame(updated, instance.getProperties());
+    assertEquals(updated.toJsonString(), instance.getOptionalProperties());
+
+    // The typed view must not be serialized
+    assertFalse(JsonUtils.writeValueAsString(instance).contains("\"properties\""));
+  }
+}
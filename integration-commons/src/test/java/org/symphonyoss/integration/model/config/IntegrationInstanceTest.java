@@ -59,4 +59,35 @@ public class IntegrationInstanceTest {
     Assert.assertTrue(integrationInstance.getActive());
   }
 
+  @Test
+  public void testCopy() {
+    IntegrationInstance integrationInstance = new IntegrationInstance();
+
+    integrationInstance.setInstanceId(INSTANCE_ID);
+    integrationInstance.setConfigurationId(CONFIG_ID);
+    integrationInstance.setName(INSTANCE_NAME);
+    integrationInstance.setCreatorId(CREATOR_ID);
+    integrationInstance.setCreatedDate(CREATED_DATE);
+    integrationInstance.setCreatorName(CREATOR_NAME);
+    integrationInstance.setLastModifiedDate(LAST_MODIFIED_DATE);
+    integrationInstance.setOptionalProperties(OPTIONAL_PROPERTIES);
+    integrationInstance.setActive(Boolean.TRUE);
+
+    IntegrationInstance copy = integrationInstance.copy();
+
+    Assert.assertNotSame(integrationInstance, copy);
+    Assert.assertEquals(INSTANCE_ID, copy.getInstanceId());
+    Assert.assertEquals(CONFIG_ID, copy.getConfigurationId());
+    Assert.assertEquals(INSTANCE_NAME, copy.getName());
+    Assert.assertEquals(CREATOR_ID, copy.getCreatorId());
+    Assert.assertEquals(CREATED_DATE, copy.getCreatedDate());
+    Assert.assertEquals(CREATOR_NAME, copy.getCreatorName());
+    Assert.assertEquals(LAST_MODIFIED_DATE, copy.getLastModifiedDate());
+    Assert.assertEquals(OPTIONAL_PROPERTIES, copy.getOptionalProperties());
+    Assert.assertTrue(copy.getActive());
+
+    copy.setOptionalProperties("{}");
+    Assert.assertEquals(OPTIONAL_PROPERTIES, integrationInstance.getOptionalProperties());
+  }
+
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookAsyncConfig}
+ */
+public class WebHookAsyncConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookAsyncConfig config = new WebHookAsyncConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookAsyncConfig.DEFAULT_QUEUE_CAPACITY, config.getQueueCapacity());
+    assertEquals((Integer) WebHookAsyncConfig.DEFAULT_WORKER_THREADS, config.getWorkerThreads());
+    assertEquals("WebHookAsyncConfig{enabled=false, queueCapacity=1000, workerThreads=4}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookAsyncConfig config = new WebHookAsyncConfig();
+    config.setEnabled(true);
+    config.setQueueCapacity(50);
+    config.setWorkerThreads(2);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 50, config.getQueueCapacity());
+    assertEquals((Integer) 2, config.getWorkerThreads());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookAsyncConfig config = new WebHookAsyncConfig();
+    config.setQueueCapacity(null);
+    config.setWorkerThreads(0);
+
+    assertEquals((Integer) WebHookAsyncConfig.DEFAULT_QUEUE_CAPACITY, config.getQueueCapacity());
+    assertEquals((Integer) WebHookAsyncConfig.DEFAULT_WORKER_THREADS, config.getWorkerThreads());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookAsyncConfig config = new WebHookAsyncConfig();
+    config.setQueueCapacity(WebHookAsyncConfig.MAX_QUEUE_CAPACITY + 1);
+    config.setWorkerThreads(WebHookAsyncConfig.MAX_WORKER_THREADS + 1);
+
+    assertEquals((Integer) WebHookAsyncConfig.MAX_QUEUE_CAPACITY, config.getQueueCapacity());
+    assertEquals((Integer) WebHookAsyncConfig.MAX_WORKER_THREADS, config.getWorkerThreads());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getAsync());
+
+    config.setAsync(null);
+    assertNotNull(config.getAsync());
+
+    IntegrationProperties properties = new IntegrationProperties();
+    assertNotNull(properties.getWebhook());
+
+    properties.setWebhook(null);
+    assertNotNull(properties.getWebhook());
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookCircuitBreakerConfig}
+ */
+public class WebHookCircuitBreakerConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookCircuitBreakerConfig config = new WebHookCircuitBreakerConfig();
+
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_FAILURE_RATE_THRESHOLD,
+        config.getFailureRateThreshold());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_MINIMUM_CALLS,
+        config.getMinimumCalls());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_OPEN_TIMEOUT,
+        config.getOpenTimeout());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_HALF_OPEN_CALLS,
+        config.getHalfOpenCalls());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_ENABLED_REFRESH,
+        config.getEnabledRefresh());
+    assertEquals("WebHookCircuitBreakerConfig{failureRateThreshold=50, minimumCalls=20, "
+        + "openTimeout=10000, halfOpenCalls=5, enabledRefresh=5000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValues() {
+    WebHookCircuitBreakerConfig config = new WebHookCircuitBreakerConfig();
+    config.setFailureRateThreshold(80);
+    config.setMinimumCalls(5);
+    config.setOpenTimeout(1000);
+    config.setHalfOpenCalls(1);
+    config.setEnabledRefresh(2000);
+
+    assertEquals((Integer) 80, config.getFailureRateThreshold());
+    assertEquals((Integer) 5, config.getMinimumCalls());
+    assertEquals((Integer) 1000, config.getOpenTimeout());
+    assertEquals((Integer) 1, config.getHalfOpenCalls());
+    assertEquals((Integer) 2000, config.getEnabledRefresh());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookCircuitBreakerConfig config = new WebHookCircuitBreakerConfig();
+    config.setFailureRateThreshold(0);
+    config.setMinimumCalls(null);
+    config.setOpenTimeout(-1);
+    config.setHalfOpenCalls(0);
+    config.setEnabledRefresh(null);
+
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_FAILURE_RATE_THRESHOLD,
+        config.getFailureRateThreshold());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_MINIMUM_CALLS,
+        config.getMinimumCalls());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_OPEN_TIMEOUT,
+        config.getOpenTimeout());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_HALF_OPEN_CALLS,
+        config.getHalfOpenCalls());
+    assertEquals((Integer) WebHookCircuitBreakerConfig.DEFAULT_ENABLED_REFRESH,
+        config.getEnabledRefresh());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookCircuitBreakerConfig config = new WebHookCircuitBreakerConfig();
+    config.setFailureRateThreshold(WebHookCircuitBreakerConfig.MAX_FAILURE_RATE_THRESHOLD + 1);
+
+    assertEquals((Integer) WebHookCircuitBreakerConfig.MAX_FAILURE_RATE_THRESHOLD,
+        config.getFailureRateThreshold());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getCircuitBreaker());
+
+    config.setCircuitBreaker(null);
+    assertNotNull(config.getCircuitBreaker());
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookDeduplicationConfig}
+ */
+public class WebHookDeduplicationConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookDeduplicationConfig config = new WebHookDeduplicationConfig();
+
+    assertFalse(config.isEnabled());
+    assertNull(config.getDeliveryIdHeader());
+    assertFalse(config.isHashBody());
+    assertEquals((Integer) WebHookDeduplicationConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDeduplicationConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertEquals("WebHookDeduplicationConfig{enabled=false, deliveryIdHeader='null', "
+        + "hashBody=false, window=300, maxSize=100000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookDeduplicationConfig config = new WebHookDeduplicationConfig();
+    config.setEnabled(true);
+    config.setDeliveryIdHeader("X-Delivery-Id");
+    config.setHashBody(true);
+    config.setWindow(60);
+    config.setMaxSize(1000);
+
+    assertTrue(config.isEnabled());
+    assertEquals("X-Delivery-Id", config.getDeliveryIdHeader());
+    assertTrue(config.isHashBody());
+    assertEquals((Integer) 60, config.getWindow());
+    assertEquals((Integer) 1000, config.getMaxSize());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookDeduplicationConfig config = new WebHookDeduplicationConfig();
+    config.setWindow(null);
+    config.setMaxSize(-1);
+
+    assertEquals((Integer) WebHookDeduplicationConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDeduplicationConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookDeduplicationConfig config = new WebHookDeduplicationConfig();
+    config.setWindow(WebHookDeduplicationConfig.MAX_WINDOW + 1);
+    config.setMaxSize(WebHookDeduplicationConfig.MAX_MAX_SIZE + 1);
+
+    assertEquals((Integer) WebHookDeduplicationConfig.MAX_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDeduplicationConfig.MAX_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getDeduplication());
+
+    config.setDeduplication(null);
+    assertNotNull(config.getDeduplication());
+  }
+}
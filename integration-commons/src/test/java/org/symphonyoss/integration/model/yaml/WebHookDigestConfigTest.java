@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookDigestConfig}
+ */
+public class WebHookDigestConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookDigestConfig config = new WebHookDigestConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_MESSAGES, config.getMaxMessages());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_ATTEMPTS, config.getMaxAttempts());
+    assertEquals("WebHookDigestConfig{enabled=false, window=5000, maxMessages=50, maxAttempts=5}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookDigestConfig config = new WebHookDigestConfig();
+    config.setEnabled(true);
+    config.setWindow(1000);
+    config.setMaxMessages(10);
+    config.setMaxAttempts(3);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 1000, config.getWindow());
+    assertEquals((Integer) 10, config.getMaxMessages());
+    assertEquals((Integer) 3, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookDigestConfig config = new WebHookDigestConfig();
+    config.setWindow(0);
+    config.setMaxMessages(-1);
+    config.setMaxAttempts(0);
+
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_MESSAGES, config.getMaxMessages());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_ATTEMPTS, config.getMaxAttempts());
+
+    config.setWindow(null);
+    config.setMaxMessages(null);
+    config.setMaxAttempts(null);
+
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_MESSAGES, config.getMaxMessages());
+    assertEquals((Integer) WebHookDigestConfig.DEFAULT_MAX_ATTEMPTS, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookDigestConfig config = new WebHookDigestConfig();
+    config.setWindow(WebHookDigestConfig.MAX_WINDOW + 1);
+    config.setMaxMessages(WebHookDigestConfig.MAX_MESSAGES + 1);
+    config.setMaxAttempts(WebHookDigestConfig.MAX_ATTEMPTS + 1);
+
+    assertEquals((Integer) WebHookDigestConfig.MAX_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookDigestConfig.MAX_MESSAGES, config.getMaxMessages());
+    assertEquals((Integer) WebHookDigestConfig.MAX_ATTEMPTS, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getDigest());
+
+    config.setDigest(null);
+    assertNotNull(config.getDigest());
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookEventFilterConfig}
+ */
+public class WebHookEventFilterConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookEventFilterConfig config = new WebHookEventFilterConfig();
+
+    assertFalse(config.isEnabled());
+    assertNull(config.getEventHeader());
+    assertNull(config.getEventField());
+    assertEquals("WebHookEventFilterConfig{enabled=false, eventHeader='null', eventField='null'}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValues() {
+    WebHookEventFilterConfig config = new WebHookEventFilterConfig();
+    config.setEnabled(true);
+    config.setEventHeader("X-Event-Key");
+    config.setEventField("webhookEvent");
+
+    assertTrue(config.isEnabled());
+    assertEquals("X-Event-Key", config.getEventHeader());
+    assertEquals("webhookEvent", config.getEventField());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getEventFilter());
+
+    config.setEventFilter(null);
+    assertNotNull(config.getEventFilter());
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookExecutionConfig}
+ */
+public class WebHookExecutionConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookExecutionConfig config = new WebHookExecutionConfig();
+
+    assertFalse(config.isVirtualThreads());
+    assertEquals((Integer) WebHookExecutionConfig.DEFAULT_MAX_CONCURRENCY,
+        config.getMaxConcurrency());
+    assertEquals("WebHookExecutionConfig{virtualThreads=false, maxConcurrency=1000}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookExecutionConfig config = new WebHookExecutionConfig();
+    config.setVirtualThreads(true);
+    config.setMaxConcurrency(5000);
+
+    assertTrue(config.isVirtualThreads());
+    assertEquals((Integer) 5000, config.getMaxConcurrency());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookExecutionConfig config = new WebHookExecutionConfig();
+    config.setMaxConcurrency(0);
+
+    assertEquals((Integer) WebHookExecutionConfig.DEFAULT_MAX_CONCURRENCY,
+        config.getMaxConcurrency());
+
+    config.setMaxConcurrency(null);
+
+    assertEquals((Integer) WebHookExecutionConfig.DEFAULT_MAX_CONCURRENCY,
+        config.getMaxConcurrency());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookExecutionConfig config = new WebHookExecutionConfig();
+    config.setMaxConcurrency(WebHookExecutionConfig.MAX_CONCURRENCY + 1);
+
+    assertEquals((Integer) WebHookExecutionConfig.MAX_CONCURRENCY, config.getMaxConcurrency());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getExecution());
+
+    config.setExecution(null);
+    assertNotNull(config.getExecution());
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookFanOutConfig}
+ */
+public class WebHookFanOutConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookFanOutConfig config = new WebHookFanOutConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookFanOutConfig.DEFAULT_THREADS, config.getThreads());
+    assertEquals((Integer) WebHookFanOutConfig.DEFAULT_PARALLELISM, config.getParallelism());
+    assertEquals("WebHookFanOutConfig{enabled=false, threads=16, parallelism=8}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookFanOutConfig config = new WebHookFanOutConfig();
+    config.setEnabled(true);
+    config.setThreads(4);
+    config.setParallelism(2);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 4, config.getThreads());
+    assertEquals((Integer) 2, config.getParallelism());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookFanOutConfig config = new WebHookFanOutConfig();
+    config.setThreads(null);
+    config.setParallelism(0);
+
+    assertEquals((Integer) WebHookFanOutConfig.DEFAULT_THREADS, config.getThreads());
+    assertEquals((Integer) WebHookFanOutConfig.DEFAULT_PARALLELISM, config.getParallelism());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookFanOutConfig config = new WebHookFanOutConfig();
+    config.setThreads(WebHookFanOutConfig.MAX_THREADS + 1);
+    config.setParallelism(WebHookFanOutConfig.MAX_PARALLELISM + 1);
+
+    assertEquals((Integer) WebHookFanOutConfig.MAX_THREADS, config.getThreads());
+    assertEquals((Integer) WebHookFanOutConfig.MAX_PARALLELISM, config.getParallelism());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getFanOut());
+
+    config.setFanOut(null);
+    assertNotNull(config.getFanOut());
+  }
+}
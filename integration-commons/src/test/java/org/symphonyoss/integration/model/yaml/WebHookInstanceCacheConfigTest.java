@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookInstanceCacheConfig}
+ */
+public class WebHookInstanceCacheConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookInstanceCacheConfig config = new WebHookInstanceCacheConfig();
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_EXPIRATION, config.getExpiration());
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_REFRESH, config.getRefresh());
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertEquals("WebHookInstanceCacheConfig{enabled=true, expiration=300, refresh=30, "
+        + "maxSize=1000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValues() {
+    WebHookInstanceCacheConfig config = new WebHookInstanceCacheConfig();
+    config.setEnabled(false);
+    config.setExpiration(60);
+    config.setRefresh(10);
+    config.setMaxSize(50);
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) 60, config.getExpiration());
+    assertEquals((Integer) 10, config.getRefresh());
+    assertEquals((Integer) 50, config.getMaxSize());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookInstanceCacheConfig config = new WebHookInstanceCacheConfig();
+    config.setExpiration(null);
+    config.setRefresh(0);
+    config.setMaxSize(-1);
+
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_EXPIRATION, config.getExpiration());
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_REFRESH, config.getRefresh());
+    assertEquals((Integer) WebHookInstanceCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getInstanceCache());
+
+    config.setInstanceCache(null);
+    assertNotNull(config.getInstanceCache());
+  }
+}
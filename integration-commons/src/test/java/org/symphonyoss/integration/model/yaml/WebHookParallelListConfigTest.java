@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookParallelListConfig}
+ */
+public class WebHookParallelListConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookParallelListConfig config = new WebHookParallelListConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookParallelListConfig.DEFAULT_THRESHOLD, config.getThreshold());
+    assertEquals("WebHookParallelListConfig{enabled=false, threshold=1000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookParallelListConfig config = new WebHookParallelListConfig();
+    config.setEnabled(true);
+    config.setThreshold(250);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 250, config.getThreshold());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookParallelListConfig config = new WebHookParallelListConfig();
+    config.setThreshold(0);
+
+    assertEquals((Integer) WebHookParallelListConfig.DEFAULT_THRESHOLD, config.getThreshold());
+
+    config.setThreshold(null);
+
+    assertEquals((Integer) WebHookParallelListConfig.DEFAULT_THRESHOLD, config.getThreshold());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookParallelListConfig config = new WebHookParallelListConfig();
+    config.setThreshold(WebHookParallelListConfig.MAX_THRESHOLD + 1);
+
+    assertEquals((Integer) WebHookParallelListConfig.MAX_THRESHOLD, config.getThreshold());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getParallelList());
+
+    config.setParallelList(null);
+    assertNotNull(config.getParallelList());
+  }
+}
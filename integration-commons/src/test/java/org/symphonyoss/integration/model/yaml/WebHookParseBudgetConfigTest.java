@@ -0,0 +1,104 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test class to validate {@link WebHookParseBudgetConfig}
+ */
+public class WebHookParseBudgetConfigTest {
+
+  private static final String INTEGRATION = "jiraWebHookIntegration";
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookParseBudgetConfig config = new WebHookParseBudgetConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Long) WebHookParseBudgetConfig.DEFAULT_TIMEOUT, config.getDefaultTimeout());
+    assertTrue(config.getTimeouts().isEmpty());
+    assertEquals(WebHookParseBudgetConfig.DEFAULT_TIMEOUT, config.getTimeout(INTEGRATION));
+    assertEquals("WebHookParseBudgetConfig{enabled=false, defaultTimeout=2000, timeouts={}}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    Map<String, Long> timeouts = new HashMap<>();
+    timeouts.put(INTEGRATION, 5000L);
+
+    WebHookParseBudgetConfig config = new WebHookParseBudgetConfig();
+    config.setEnabled(true);
+    config.setDefaultTimeout(500L);
+    config.setTimeouts(timeouts);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Long) 500L, config.getDefaultTimeout());
+    assertEquals(5000L, config.getTimeout(INTEGRATION));
+    assertEquals(500L, config.getTimeout("zapierWebHookIntegration"));
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    Map<String, Long> timeouts = new HashMap<>();
+    timeouts.put(INTEGRATION, 0L);
+
+    WebHookParseBudgetConfig config = new WebHookParseBudgetConfig();
+    config.setDefaultTimeout(-1L);
+    config.setTimeouts(timeouts);
+
+    assertEquals((Long) WebHookParseBudgetConfig.DEFAULT_TIMEOUT, config.getDefaultTimeout());
+    assertEquals(WebHookParseBudgetConfig.DEFAULT_TIMEOUT, config.getTimeout(INTEGRATION));
+
+    config.setDefaultTimeout(null);
+    config.setTimeouts(null);
+
+    assertEquals((Long) WebHookParseBudgetConfig.DEFAULT_TIMEOUT, config.getDefaultTimeout());
+    assertNotNull(config.getTimeouts());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    Map<String, Long> timeouts = new HashMap<>();
+    timeouts.put(INTEGRATION, WebHookParseBudgetConfig.MAX_TIMEOUT + 1);
+
+    WebHookParseBudgetConfig config = new WebHookParseBudgetConfig();
+    config.setDefaultTimeout(WebHookParseBudgetConfig.MAX_TIMEOUT + 1);
+    config.setTimeouts(timeouts);
+
+    assertEquals((Long) WebHookParseBudgetConfig.MAX_TIMEOUT, config.getDefaultTimeout());
+    assertEquals(WebHookParseBudgetConfig.MAX_TIMEOUT, config.getTimeout(INTEGRATION));
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getParseBudget());
+
+    config.setParseBudget(null);
+    assertNotNull(config.getParseBudget());
+  }
+}
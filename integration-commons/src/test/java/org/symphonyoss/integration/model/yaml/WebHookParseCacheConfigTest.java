@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Test class to validate {@link WebHookParseCacheConfig}
+ */
+public class WebHookParseCacheConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookParseCacheConfig config = new WebHookParseCacheConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertTrue(config.getKeyHeaders().isEmpty());
+    assertEquals("WebHookParseCacheConfig{enabled=false, window=10000, maxSize=1000, "
+        + "keyHeaders=[]}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookParseCacheConfig config = new WebHookParseCacheConfig();
+    config.setEnabled(true);
+    config.setWindow(1000);
+    config.setMaxSize(10);
+    config.setKeyHeaders(Collections.singletonList("X-Event-Key"));
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 1000, config.getWindow());
+    assertEquals((Integer) 10, config.getMaxSize());
+    assertEquals(Collections.singletonList("X-Event-Key"), config.getKeyHeaders());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookParseCacheConfig config = new WebHookParseCacheConfig();
+    config.setWindow(0);
+    config.setMaxSize(-1);
+
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+
+    config.setWindow(null);
+    config.setMaxSize(null);
+    config.setKeyHeaders(null);
+
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookParseCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertNotNull(config.getKeyHeaders());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookParseCacheConfig config = new WebHookParseCacheConfig();
+    config.setWindow(WebHookParseCacheConfig.MAX_WINDOW + 1);
+    config.setMaxSize(WebHookParseCacheConfig.MAX_MAX_SIZE + 1);
+
+    assertEquals((Integer) WebHookParseCacheConfig.MAX_WINDOW, config.getWindow());
+    assertEquals((Integer) WebHookParseCacheConfig.MAX_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getParseCache());
+
+    config.setParseCache(null);
+    assertNotNull(config.getParseCache());
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookPayloadConfig}
+ */
+public class WebHookPayloadConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookPayloadConfig config = new WebHookPayloadConfig();
+
+    assertEquals((Integer) WebHookPayloadConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertEquals("WebHookPayloadConfig{maxSize=10485760}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookPayloadConfig config = new WebHookPayloadConfig();
+    config.setMaxSize(1024);
+
+    assertEquals((Integer) 1024, config.getMaxSize());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookPayloadConfig config = new WebHookPayloadConfig();
+
+    config.setMaxSize(null);
+    assertEquals((Integer) WebHookPayloadConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+
+    config.setMaxSize(0);
+    assertEquals((Integer) WebHookPayloadConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookPayloadConfig config = new WebHookPayloadConfig();
+    config.setMaxSize(WebHookPayloadConfig.MAX_MAX_SIZE + 1);
+
+    assertEquals((Integer) WebHookPayloadConfig.MAX_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getPayload());
+
+    config.setPayload(null);
+    assertNotNull(config.getPayload());
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookRateLimitConfig}
+ */
+public class WebHookRateLimitConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookRateLimitConfig config = new WebHookRateLimitConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INSTANCE_RATE, config.getInstanceRate());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INSTANCE_BURST,
+        config.getInstanceBurst());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INTEGRATION_RATE,
+        config.getIntegrationRate());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INTEGRATION_BURST,
+        config.getIntegrationBurst());
+    assertEquals("WebHookRateLimitConfig{enabled=false, instanceRate=10, instanceBurst=20, "
+        + "integrationRate=100, integrationBurst=200}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookRateLimitConfig config = new WebHookRateLimitConfig();
+    config.setEnabled(true);
+    config.setInstanceRate(1);
+    config.setInstanceBurst(2);
+    config.setIntegrationRate(3);
+    config.setIntegrationBurst(4);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 1, config.getInstanceRate());
+    assertEquals((Integer) 2, config.getInstanceBurst());
+    assertEquals((Integer) 3, config.getIntegrationRate());
+    assertEquals((Integer) 4, config.getIntegrationBurst());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookRateLimitConfig config = new WebHookRateLimitConfig();
+    config.setInstanceRate(null);
+    config.setInstanceBurst(0);
+    config.setIntegrationRate(-1);
+    config.setIntegrationBurst(null);
+
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INSTANCE_RATE, config.getInstanceRate());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INSTANCE_BURST,
+        config.getInstanceBurst());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INTEGRATION_RATE,
+        config.getIntegrationRate());
+    assertEquals((Integer) WebHookRateLimitConfig.DEFAULT_INTEGRATION_BURST,
+        config.getIntegrationBurst());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookRateLimitConfig config = new WebHookRateLimitConfig();
+    config.setInstanceRate(WebHookRateLimitConfig.MAX_RATE + 1);
+    config.setInstanceBurst(WebHookRateLimitConfig.MAX_BURST + 1);
+    config.setIntegrationRate(WebHookRateLimitConfig.MAX_RATE + 1);
+    config.setIntegrationBurst(WebHookRateLimitConfig.MAX_BURST + 1);
+
+    assertEquals((Integer) WebHookRateLimitConfig.MAX_RATE, config.getInstanceRate());
+    assertEquals((Integer) WebHookRateLimitConfig.MAX_BURST, config.getInstanceBurst());
+    assertEquals((Integer) WebHookRateLimitConfig.MAX_RATE, config.getIntegrationRate());
+    assertEquals((Integer) WebHookRateLimitConfig.MAX_BURST, config.getIntegrationBurst());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getRateLimit());
+
+    config.setRateLimit(null);
+    assertNotNull(config.getRateLimit());
+  }
+}
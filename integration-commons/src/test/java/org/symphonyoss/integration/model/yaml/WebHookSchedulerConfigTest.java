@@ -0,0 +1,128 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test class to validate {@link WebHookSchedulerConfig}
+ */
+public class WebHookSchedulerConfigTest {
+
+  private static final String INTEGRATION = "jiraWebHookIntegration";
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookSchedulerConfig config = new WebHookSchedulerConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WORKER_THREADS,
+        config.getWorkerThreads());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_QUEUE_CAPACITY,
+        config.getQueueCapacity());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WEIGHT, config.getDefaultWeight());
+    assertTrue(config.getWeights().isEmpty());
+    assertEquals(WebHookSchedulerConfig.DEFAULT_WEIGHT, config.getWeight(INTEGRATION));
+    assertEquals("WebHookSchedulerConfig{enabled=false, workerThreads=16, queueCapacity=1000, "
+        + "defaultWeight=1, weights={}}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    Map<String, Integer> weights = new HashMap<>();
+    weights.put(INTEGRATION, 4);
+
+    WebHookSchedulerConfig config = new WebHookSchedulerConfig();
+    config.setEnabled(true);
+    config.setWorkerThreads(8);
+    config.setQueueCapacity(100);
+    config.setDefaultWeight(2);
+    config.setWeights(weights);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 8, config.getWorkerThreads());
+    assertEquals((Integer) 100, config.getQueueCapacity());
+    assertEquals((Integer) 2, config.getDefaultWeight());
+    assertEquals(4, config.getWeight(INTEGRATION));
+    assertEquals(2, config.getWeight("zapierWebHookIntegration"));
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    Map<String, Integer> weights = new HashMap<>();
+    weights.put(INTEGRATION, 0);
+
+    WebHookSchedulerConfig config = new WebHookSchedulerConfig();
+    config.setWorkerThreads(0);
+    config.setQueueCapacity(-1);
+    config.setDefaultWeight(0);
+    config.setWeights(weights);
+
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WORKER_THREADS,
+        config.getWorkerThreads());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_QUEUE_CAPACITY,
+        config.getQueueCapacity());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WEIGHT, config.getDefaultWeight());
+    assertEquals(WebHookSchedulerConfig.DEFAULT_WEIGHT, config.getWeight(INTEGRATION));
+
+    config.setWorkerThreads(null);
+    config.setQueueCapacity(null);
+    config.setDefaultWeight(null);
+    config.setWeights(null);
+
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WORKER_THREADS,
+        config.getWorkerThreads());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_QUEUE_CAPACITY,
+        config.getQueueCapacity());
+    assertEquals((Integer) WebHookSchedulerConfig.DEFAULT_WEIGHT, config.getDefaultWeight());
+    assertNotNull(config.getWeights());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    Map<String, Integer> weights = new HashMap<>();
+    weights.put(INTEGRATION, WebHookSchedulerConfig.MAX_WEIGHT + 1);
+
+    WebHookSchedulerConfig config = new WebHookSchedulerConfig();
+    config.setWorkerThreads(WebHookSchedulerConfig.MAX_WORKER_THREADS + 1);
+    config.setQueueCapacity(WebHookSchedulerConfig.MAX_QUEUE_CAPACITY + 1);
+    config.setDefaultWeight(WebHookSchedulerConfig.MAX_WEIGHT + 1);
+    config.setWeights(weights);
+
+    assertEquals((Integer) WebHookSchedulerConfig.MAX_WORKER_THREADS, config.getWorkerThreads());
+    assertEquals((Integer) WebHookSchedulerConfig.MAX_QUEUE_CAPACITY, config.getQueueCapacity());
+    assertEquals((Integer) WebHookSchedulerConfig.MAX_WEIGHT, config.getDefaultWeight());
+    assertEquals(WebHookSchedulerConfig.MAX_WEIGHT, config.getWeight(INTEGRATION));
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getScheduler());
+
+    config.setScheduler(null);
+    assertNotNull(config.getScheduler());
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookSpoolConfig}
+ */
+public class WebHookSpoolConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookSpoolConfig config = new WebHookSpoolConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals(WebHookSpoolConfig.DEFAULT_DIRECTORY, config.getDirectory());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_SEGMENT_SIZE, config.getSegmentSize());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_MAX_SEGMENTS, config.getMaxSegments());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_DRAIN_INTERVAL, config.getDrainInterval());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_BATCH_SIZE, config.getBatchSize());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_MAX_ATTEMPTS, config.getMaxAttempts());
+    assertTrue(config.isSync());
+    assertEquals("WebHookSpoolConfig{enabled=false, directory='spool', segmentSize=67108864, "
+        + "maxSegments=16, drainInterval=1000, batchSize=100, maxAttempts=5, sync=true}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookSpoolConfig config = new WebHookSpoolConfig();
+    config.setEnabled(true);
+    config.setDirectory("/var/spool/integration");
+    config.setSegmentSize(1024);
+    config.setMaxSegments(4);
+    config.setDrainInterval(500);
+    config.setBatchSize(10);
+    config.setMaxAttempts(3);
+    config.setSync(false);
+
+    assertTrue(config.isEnabled());
+    assertEquals("/var/spool/integration", config.getDirectory());
+    assertEquals((Integer) 1024, config.getSegmentSize());
+    assertEquals((Integer) 4, config.getMaxSegments());
+    assertEquals((Integer) 500, config.getDrainInterval());
+    assertEquals((Integer) 10, config.getBatchSize());
+    assertEquals((Integer) 3, config.getMaxAttempts());
+    assertFalse(config.isSync());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookSpoolConfig config = new WebHookSpoolConfig();
+    config.setDirectory(" ");
+    config.setSegmentSize(0);
+    config.setMaxSegments(-1);
+    config.setDrainInterval(null);
+    config.setBatchSize(0);
+    config.setMaxAttempts(null);
+
+    assertEquals(WebHookSpoolConfig.DEFAULT_DIRECTORY, config.getDirectory());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_SEGMENT_SIZE, config.getSegmentSize());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_MAX_SEGMENTS, config.getMaxSegments());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_DRAIN_INTERVAL, config.getDrainInterval());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_BATCH_SIZE, config.getBatchSize());
+    assertEquals((Integer) WebHookSpoolConfig.DEFAULT_MAX_ATTEMPTS, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookSpoolConfig config = new WebHookSpoolConfig();
+    config.setSegmentSize(WebHookSpoolConfig.MAX_SEGMENT_SIZE + 1);
+    config.setMaxSegments(WebHookSpoolConfig.MAX_SEGMENTS + 1);
+    config.setDrainInterval(WebHookSpoolConfig.MAX_DRAIN_INTERVAL + 1);
+    config.setBatchSize(WebHookSpoolConfig.MAX_BATCH_SIZE + 1);
+    config.setMaxAttempts(WebHookSpoolConfig.MAX_ATTEMPTS + 1);
+
+    assertEquals((Integer) WebHookSpoolConfig.MAX_SEGMENT_SIZE, config.getSegmentSize());
+    assertEquals((Integer) WebHookSpoolConfig.MAX_SEGMENTS, config.getMaxSegments());
+    assertEquals((Integer) WebHookSpoolConfig.MAX_DRAIN_INTERVAL, config.getDrainInterval());
+    assertEquals((Integer) WebHookSpoolConfig.MAX_BATCH_SIZE, config.getBatchSize());
+    assertEquals((Integer) WebHookSpoolConfig.MAX_ATTEMPTS, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getSpool());
+
+    config.setSpool(null);
+    assertNotNull(config.getSpool());
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookTimerConfig}
+ */
+public class WebHookTimerConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookTimerConfig config = new WebHookTimerConfig();
+
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_TICK_DURATION, config.getTickDuration());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_WHEEL_SIZE, config.getWheelSize());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_WORKERS, config.getWorkers());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_QUEUE_CAPACITY, config.getQueueCapacity());
+    assertEquals("WebHookTimerConfig{tickDuration=100, wheelSize=512, workers=2, "
+        + "queueCapacity=1000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookTimerConfig config = new WebHookTimerConfig();
+    config.setTickDuration(10);
+    config.setWheelSize(64);
+    config.setWorkers(4);
+    config.setQueueCapacity(100);
+
+    assertEquals((Integer) 10, config.getTickDuration());
+    assertEquals((Integer) 64, config.getWheelSize());
+    assertEquals((Integer) 4, config.getWorkers());
+    assertEquals((Integer) 100, config.getQueueCapacity());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookTimerConfig config = new WebHookTimerConfig();
+    config.setTickDuration(null);
+    config.setWheelSize(0);
+    config.setWorkers(-1);
+    config.setQueueCapacity(0);
+
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_TICK_DURATION, config.getTickDuration());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_WHEEL_SIZE, config.getWheelSize());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_WORKERS, config.getWorkers());
+    assertEquals((Integer) WebHookTimerConfig.DEFAULT_QUEUE_CAPACITY, config.getQueueCapacity());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookTimerConfig config = new WebHookTimerConfig();
+    config.setTickDuration(WebHookTimerConfig.MAX_TICK_DURATION + 1);
+    config.setWheelSize(WebHookTimerConfig.MAX_WHEEL_SIZE + 1);
+    config.setWorkers(WebHookTimerConfig.MAX_WORKERS + 1);
+    config.setQueueCapacity(WebHookTimerConfig.MAX_QUEUE_CAPACITY + 1);
+
+    assertEquals((Integer) WebHookTimerConfig.MAX_TICK_DURATION, config.getTickDuration());
+    assertEquals((Integer) WebHookTimerConfig.MAX_WHEEL_SIZE, config.getWheelSize());
+    assertEquals((Integer) WebHookTimerConfig.MAX_WORKERS, config.getWorkers());
+    assertEquals((Integer) WebHookTimerConfig.MAX_QUEUE_CAPACITY, config.getQueueCapacity());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getTimer());
+
+    config.setTimer(null);
+    assertNotNull(config.getTimer());
+  }
+}
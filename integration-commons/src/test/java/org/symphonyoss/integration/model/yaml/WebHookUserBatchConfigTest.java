@@ -0,0 +1,85 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookUserBatchConfig}
+ */
+public class WebHookUserBatchConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookUserBatchConfig config = new WebHookUserBatchConfig();
+
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_BATCH_SIZE,
+        config.getMaxBatchSize());
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_WAIT, config.getMaxWait());
+    assertEquals("WebHookUserBatchConfig{maxBatchSize=100, maxWait=50}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValuesWithinRange() {
+    WebHookUserBatchConfig config = new WebHookUserBatchConfig();
+    config.setMaxBatchSize(10);
+    config.setMaxWait(0);
+
+    assertEquals((Integer) 10, config.getMaxBatchSize());
+    assertEquals((Integer) 0, config.getMaxWait());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookUserBatchConfig config = new WebHookUserBatchConfig();
+    config.setMaxBatchSize(0);
+    config.setMaxWait(-1);
+
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_BATCH_SIZE,
+        config.getMaxBatchSize());
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_WAIT, config.getMaxWait());
+
+    config.setMaxBatchSize(null);
+    config.setMaxWait(null);
+
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_BATCH_SIZE,
+        config.getMaxBatchSize());
+    assertEquals((Integer) WebHookUserBatchConfig.DEFAULT_MAX_WAIT, config.getMaxWait());
+  }
+
+  @Test
+  public void testMaxValuesOnAssignment() {
+    WebHookUserBatchConfig config = new WebHookUserBatchConfig();
+    config.setMaxBatchSize(WebHookUserBatchConfig.MAX_BATCH_SIZE + 1);
+    config.setMaxWait(WebHookUserBatchConfig.MAX_WAIT + 1);
+
+    assertEquals((Integer) WebHookUserBatchConfig.MAX_BATCH_SIZE, config.getMaxBatchSize());
+    assertEquals((Integer) WebHookUserBatchConfig.MAX_WAIT, config.getMaxWait());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getUserBatch());
+
+    config.setUserBatch(null);
+    assertNotNull(config.getUserBatch());
+  }
+}
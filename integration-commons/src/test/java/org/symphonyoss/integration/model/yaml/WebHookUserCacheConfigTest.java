@@ -0,0 +1,84 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookUserCacheConfig}
+ */
+public class WebHookUserCacheConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookUserCacheConfig config = new WebHookUserCacheConfig();
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_EXPIRATION, config.getExpiration());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_REFRESH, config.getRefresh());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_NEGATIVE_EXPIRATION,
+        config.getNegativeExpiration());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+    assertEquals("WebHookUserCacheConfig{enabled=true, expiration=600, refresh=60, "
+        + "negativeExpiration=60, maxSize=10000}", config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValues() {
+    WebHookUserCacheConfig config = new WebHookUserCacheConfig();
+    config.setEnabled(false);
+    config.setExpiration(120);
+    config.setRefresh(10);
+    config.setNegativeExpiration(5);
+    config.setMaxSize(100);
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) 120, config.getExpiration());
+    assertEquals((Integer) 10, config.getRefresh());
+    assertEquals((Integer) 5, config.getNegativeExpiration());
+    assertEquals((Integer) 100, config.getMaxSize());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookUserCacheConfig config = new WebHookUserCacheConfig();
+    config.setExpiration(null);
+    config.setRefresh(0);
+    config.setNegativeExpiration(-1);
+    config.setMaxSize(null);
+
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_EXPIRATION, config.getExpiration());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_REFRESH, config.getRefresh());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_NEGATIVE_EXPIRATION,
+        config.getNegativeExpiration());
+    assertEquals((Integer) WebHookUserCacheConfig.DEFAULT_MAX_SIZE, config.getMaxSize());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getUserCache());
+
+    config.setUserCache(null);
+    assertNotNull(config.getUserCache());
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.model.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class to validate {@link WebHookWriteBehindConfig}
+ */
+public class WebHookWriteBehindConfigTest {
+
+  @Test
+  public void testDefaultInitialValues() {
+    WebHookWriteBehindConfig config = new WebHookWriteBehindConfig();
+
+    assertFalse(config.isEnabled());
+    assertEquals((Integer) WebHookWriteBehindConfig.DEFAULT_FLUSH_INTERVAL,
+        config.getFlushInterval());
+    assertEquals((Integer) WebHookWriteBehindConfig.DEFAULT_MAX_ATTEMPTS,
+        config.getMaxAttempts());
+    assertEquals("WebHookWriteBehindConfig{enabled=false, flushInterval=5000, maxAttempts=5}",
+        config.toString());
+  }
+
+  @Test
+  public void testAssignmentOfCustomValues() {
+    WebHookWriteBehindConfig config = new WebHookWriteBehindConfig();
+    config.setEnabled(true);
+    config.setFlushInterval(1000);
+    config.setMaxAttempts(10);
+
+    assertTrue(config.isEnabled());
+    assertEquals((Integer) 1000, config.getFlushInterval());
+    assertEquals((Integer) 10, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testDefaultValuesOnInvalidAssignment() {
+    WebHookWriteBehindConfig config = new WebHookWriteBehindConfig();
+    config.setFlushInterval(0);
+    config.setMaxAttempts(0);
+
+    assertEquals((Integer) WebHookWriteBehindConfig.DEFAULT_FLUSH_INTERVAL,
+        config.getFlushInterval());
+    assertEquals((Integer) WebHookWriteBehindConfig.DEFAULT_MAX_ATTEMPTS,
+        config.getMaxAttempts());
+
+    config.setMaxAttempts(WebHookWriteBehindConfig.MAX_ATTEMPTS + 1);
+    assertEquals((Integer) WebHookWriteBehindConfig.MAX_ATTEMPTS, config.getMaxAttempts());
+  }
+
+  @Test
+  public void testWebHookConfigDefaults() {
+    WebHookConfig config = new WebHookConfig();
+    assertNotNull(config.getWriteBehind());
+
+    config.setWriteBehind(null);
+    assertNotNull(config.getWriteBehind());
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Unit test for {@link ParseDeadline}
+ */
+public class ParseDeadlineTest {
+
+  private static final Pattern BACKTRACKING_PATTERN = Pattern.compile("(a|aa)+b");
+
+  private static final String BACKTRACKING_INPUT = StringUtils.repeat('a', 64);
+
+  @Test
+  public void testWithoutDeadline() {
+    ParseDeadline.check();
+
+    CharSequence input = "input";
+    assertSame(input, ParseDeadline.interruptible(input));
+  }
+
+  @Test
+  public void testCheck() {
+    try (ParseDeadline deadline = ParseDeadline.start(60000)) {
+      ParseDeadline.check();
+      assertFalse(deadline.isExpired());
+    }
+
+    try (ParseDeadline deadline = ParseDeadline.start(0)) {
+      assertTrue(deadline.isExpired());
+      ParseDeadline.check();
+      fail();
+    } catch (ParserTimeoutException e) {
+      assertEquals(0, e.getTimeout());
+    }
+
+    // The deadline is finished when closed
+    ParseDeadline.check();
+  }
+
+  @Test
+  public void testNestedDeadline() {
+    try (ParseDeadline outer = ParseDeadline.start(0)) {
+      try (ParseDeadline inner = ParseDeadline.start(60000)) {
+        assertTrue(inner.isExpired());
+        assertEquals(0, inner.getTimeout());
+      }
+
+      try (ParseDeadline inner = ParseDeadline.start(60000)) {
+        assertTrue(inner.isExpired());
+        ParseDeadline.check();
+        fail();
+      } catch (ParserTimeoutException e) {
+        assertEquals(0, e.getTimeout());
+      }
+
+      assertTrue(outer.isExpired());
+    }
+  }
+
+  @Test
+  public void testCurrent() {
+    assertNull(ParseDeadline.current());
+
+    try (ParseDeadline deadline = ParseDeadline.start(60000)) {
+      assertSame(deadline, ParseDeadline.current());
+    }
+
+    assertNull(ParseDeadline.current());
+  }
+
+  @Test
+  public void testAttach() throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try (final ParseDeadline deadline = ParseDeadline.start(0)) {
+      Future<Long> timeout = executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws Exception {
+          try (ParseDeadline attached = deadline.attach()) {
+            assertTrue(attached.isExpired());
+            ParseDeadline.check();
+            fail();
+          } catch (ParserTimeoutException e) {
+            assertNull(ParseDeadline.current());
+            return e.getTimeout();
+          }
+
+          return null;
+        }
+      });
+
+      assertEquals(Long.valueOf(0), timeout.get());
+      assertSame(deadline, ParseDeadline.current());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInterruptibleCharSequence() {
+    ParseDeadline deadline = ParseDeadline.start(60000);
+
+    try {
+      CharSequence input = ParseDeadline.interruptible("See this http://symphony.com");
+
+      assertEquals(28, input.length());
+      assertEquals('S', input.charAt(0));
+      assertEquals("this", input.subSequence(4, 8));
+      assertEquals("See this http://symphony.com", input.toString());
+      assertTrue(Pattern.compile("http://\\w+").matcher(input).find());
+    } finally {
+      deadline.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testAbortRegexBacktracking() {
+    ParseDeadline deadline = ParseDeadline.start(50);
+
+    try {
+      BACKTRACKING_PATTERN.matcher(ParseDeadline.interruptible(BACKTRACKING_INPUT)).matches();
+      fail();
+    } catch (ParserTimeoutException e) {
+      assertEquals(50, e.getTimeout());
+    } finally {
+      deadline.close();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
 import org.symphonyoss.integration.exception.URISyntaxRuntimeException;
 import org.symphonyoss.integration.parser.model.HashTag;
 
@@ -400,4 +401,32 @@ public class ParserUtilsTest {
     }
   }
 
+
+  @Test
+  public void testMarkupLinksWithinDeadline() {
+    ParseDeadline deadline = ParseDeadline.start(60000);
+
+    try {
+      assertEquals(ONE_HTTP_MARKED, ParserUtils.markupLinks(ONE_HTTP_NOT_MARKED));
+    } finally {
+      deadline.close();
+    }
+  }
+
+  @Test(expected = ParserTimeoutException.class)
+  public void testMarkupLinksDeadlineReached() {
+    StringBuilder message = new StringBuilder();
+
+    for (int i = 0; i < 1000; i++) {
+      message.append(ONE_HTTP_NOT_MARKED).append(' ');
+    }
+
+    ParseDeadline deadline = ParseDeadline.start(0);
+
+    try {
+      ParserUtils.markupLinks(message.toString());
+    } finally {
+      deadline.close();
+    }
+  }
 }
@@ -0,0 +1,301 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.entity.model.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link CachedUserService}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachedUserServiceTest {
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  private static final String OTHER_INTEGRATION_USER = "githubwebhook";
+
+  private static final String EMAIL = "test@symphony.com";
+
+  private static final String USERNAME = "test";
+
+  private static final Long USER_ID = 123L;
+
+  private static final long EXPIRATION = 600;
+
+  private static final long REFRESH = 60;
+
+  private static final long NEGATIVE_EXPIRATION = 10;
+
+  @Mock
+  private UserService delegate;
+
+  @Mock
+  private BulkUserService bulkDelegate;
+
+  private MockTicker ticker;
+
+  private CachedUserService service;
+
+  @Before
+  public void init() {
+    this.ticker = new MockTicker();
+    this.service = new CachedUserService(delegate, MoreExecutors.directExecutor(), EXPIRATION,
+        REFRESH, NEGATIVE_EXPIRATION, 100, ticker);
+  }
+
+  @Test
+  public void testGetUserByEmail() {
+    doReturn(mockUser()).when(delegate).getUserByEmail(INTEGRATION_USER, EMAIL);
+
+    User user = service.getUserByEmail(INTEGRATION_USER, EMAIL);
+    User cached = service.getUserByEmail(INTEGRATION_USER, EMAIL);
+
+    assertEquals(USER_ID, user.getId());
+    assertEquals(EMAIL, cached.getEmailAddress());
+    assertNotSame(user, cached);
+
+    verify(delegate, times(1)).getUserByEmail(INTEGRATION_USER, EMAIL);
+    assertEquals(1, service.stats().hitCount());
+    assertEquals(1, service.size());
+  }
+
+  @Test
+  public void testGetUserByUserName() {
+    doReturn(mockUser()).when(delegate).getUserByUserName(INTEGRATION_USER, USERNAME);
+
+    service.getUserByUserName(INTEGRATION_USER, USERNAME);
+    User user = service.getUserByUserName(INTEGRATION_USER, USERNAME);
+
+    assertEquals(USERNAME, user.getUsername());
+    verify(delegate, times(1)).getUserByUserName(INTEGRATION_USER, USERNAME);
+  }
+
+  @Test
+  public void testGetUserByUserId() {
+    doReturn(mockUser()).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+    User user = service.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    assertEquals("Test User", user.getDisplayName());
+    verify(delegate, times(1)).getUserByUserId(INTEGRATION_USER, USER_ID);
+  }
+
+  @Test
+  public void testKeyedByIntegrationUser() {
+    doReturn(mockUser()).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+    assertNull(service.getUserByUserId(OTHER_INTEGRATION_USER, USER_ID));
+
+    verify(delegate, times(1)).getUserByUserId(OTHER_INTEGRATION_USER, USER_ID);
+  }
+
+  @Test
+  public void testNullValues() {
+    assertNull(service.getUserByEmail(INTEGRATION_USER, null));
+    assertNull(service.getUserByEmail(INTEGRATION_USER, null));
+
+    verify(delegate, times(2)).getUserByEmail(INTEGRATION_USER, null);
+    assertEquals(0, service.size());
+  }
+
+  @Test
+  public void testNegativeCaching() {
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    verify(delegate, times(1)).getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    // The unknown user is looked up again after the negative expiration
+    doReturn(mockUser()).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+    ticker.advance(NEGATIVE_EXPIRATION);
+
+    assertEquals(USER_ID, service.getUserByUserId(INTEGRATION_USER, USER_ID).getId());
+    verify(delegate, times(2)).getUserByUserId(INTEGRATION_USER, USER_ID);
+  }
+
+  @Test
+  public void testNegativeCachingUserWithoutId() {
+    User unknown = new User();
+    unknown.setEmailAddress(EMAIL);
+
+    doReturn(unknown).when(delegate).getUserByEmail(INTEGRATION_USER, EMAIL);
+
+    service.getUserByEmail(INTEGRATION_USER, EMAIL);
+    ticker.advance(NEGATIVE_EXPIRATION - 1);
+    service.getUserByEmail(INTEGRATION_USER, EMAIL);
+
+    verify(delegate, times(1)).getUserByEmail(INTEGRATION_USER, EMAIL);
+
+    ticker.advance(1);
+    assertEquals(EMAIL, service.getUserByEmail(INTEGRATION_USER, EMAIL).getEmailAddress());
+
+    verify(delegate, times(2)).getUserByEmail(INTEGRATION_USER, EMAIL);
+  }
+
+  @Test
+  public void testRefresh() {
+    doReturn(mockUser()).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    User renamed = mockUser();
+    renamed.setDisplayName("Renamed User");
+    doReturn(renamed).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    ticker.advance(REFRESH + 1);
+
+    // The refresh runs on the executor, which in this test is the caller thread
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    assertEquals("Renamed User",
+        service.getUserByUserId(INTEGRATION_USER, USER_ID).getDisplayName());
+    verify(delegate, times(2)).getUserByUserId(INTEGRATION_USER, USER_ID);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFailure() {
+    doThrow(IllegalStateException.class).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+  }
+
+  @Test
+  public void testInvalidateAll() {
+    doReturn(mockUser()).when(delegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+    service.invalidateAll();
+    service.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    verify(delegate, times(2)).getUserByUserId(INTEGRATION_USER, USER_ID);
+  }
+
+  @Test
+  public void testGetBotUserAccountKeyData() {
+    service.getBotUserAccountKeyData("configurationId");
+    verify(delegate, times(1)).getBotUserAccountKeyData("configurationId");
+  }
+
+  @Test
+  public void testBulkLookupWithBulkService() {
+    CachedUserService bulkService = new CachedUserService(bulkDelegate,
+        MoreExecutors.directExecutor(), EXPIRATION, REFRESH, NEGATIVE_EXPIRATION, 100, ticker);
+    assertTrue(bulkService.isBulkLoading());
+
+    doReturn(mockUser()).when(bulkDelegate).getUserByUserId(INTEGRATION_USER, USER_ID);
+    bulkService.getUserByUserId(INTEGRATION_USER, USER_ID);
+
+    Map<Long, User> users = new HashMap<>();
+    users.put(456L, mockUser());
+    doReturn(users).when(bulkDelegate)
+        .getUsersByUserId(INTEGRATION_USER, Arrays.asList(456L, 789L));
+
+    Map<Long, User> result =
+        bulkService.getUsersByUserId(INTEGRATION_USER, Arrays.asList(USER_ID, 456L, 789L, null));
+
+    assertEquals(2, result.size());
+    assertEquals(USER_ID, result.get(USER_ID).getId());
+    assertTrue(result.containsKey(456L));
+
+    // Only the users missing from the cache are loaded, and the unknown ones are cached as well
+    bulkService.getUsersByUserId(INTEGRATION_USER, Arrays.asList(USER_ID, 456L, 789L));
+    verify(bulkDelegate, times(1)).getUsersByUserId(anyString(), anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void testBulkLookupByEmailWithBulkService() {
+    CachedUserService bulkService = new CachedUserService(bulkDelegate,
+        MoreExecutors.directExecutor(), EXPIRATION, REFRESH, NEGATIVE_EXPIRATION, 100, ticker);
+
+    doReturn(Collections.singletonMap(EMAIL, mockUser())).when(bulkDelegate)
+        .getUsersByEmail(INTEGRATION_USER, Collections.singletonList(EMAIL));
+
+    Map<String, User> result =
+        bulkService.getUsersByEmail(INTEGRATION_USER, Collections.singletonList(EMAIL));
+
+    assertEquals(USER_ID, result.get(EMAIL).getId());
+    assertEquals(USER_ID, bulkService.getUserByEmail(INTEGRATION_USER, EMAIL).getId());
+    verify(bulkDelegate, never()).getUserByEmail(INTEGRATION_USER, EMAIL);
+  }
+
+  @Test
+  public void testBulkLookupWithoutBulkService() {
+    assertFalse(service.isBulkLoading());
+    doReturn(mockUser()).when(delegate).getUserByUserName(INTEGRATION_USER, USERNAME);
+
+    Map<String, User> result =
+        service.getUsersByUserName(INTEGRATION_USER, Arrays.asList(USERNAME, "unknown"));
+
+    assertEquals(1, result.size());
+    assertEquals(USER_ID, result.get(USERNAME).getId());
+
+    verify(delegate, times(1)).getUserByUserName(INTEGRATION_USER, USERNAME);
+    verify(delegate, times(1)).getUserByUserName(INTEGRATION_USER, "unknown");
+  }
+
+  private User mockUser() {
+    User user = new User();
+    user.setId(USER_ID);
+    user.setEmailAddress(EMAIL);
+    user.setUserName(USERNAME);
+    user.setDisplayName("Test User");
+    return user;
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private long nanos = 1L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long seconds) {
+      nanos += TimeUnit.SECONDS.toNanos(seconds);
+    }
+  }
+}
@@ -18,7 +18,6 @@ package org.symphonyoss.integration.webhook;
 
 import static org.symphonyoss.integration.messageml.MessageMLFormatConstants.MESSAGEML_END;
 import static org.symphonyoss.integration.messageml.MessageMLFormatConstants.MESSAGEML_START;
-import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.LAST_POSTED_DATE;
 
 import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -31,6 +30,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.symphonyoss.integration.BaseIntegration;
 import org.symphonyoss.integration.entity.model.User;
 import org.symphonyoss.integration.exception.IntegrationRuntimeException;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
 import org.symphonyoss.integration.exception.RemoteApiException;
 import org.symphonyoss.integration.exception.authentication.AuthenticationException;
 import org.symphonyoss.integration.exception.authentication.ConnectivityException;
@@ -40,36 +40,86 @@ import org.symphonyoss.integration.exception.config.ForbiddenUserException;
 import org.symphonyoss.integration.exception.config.IntegrationConfigException;
 import org.symphonyoss.integration.json.JsonUtils;
 import org.symphonyoss.integration.model.config.IntegrationInstance;
+import org.symphonyoss.integration.model.config.IntegrationInstanceProperties;
 import org.symphonyoss.integration.model.config.IntegrationSettings;
 import org.symphonyoss.integration.model.healthcheck.IntegrationHealth;
 import org.symphonyoss.integration.model.message.Message;
 import org.symphonyoss.integration.model.message.MessageMLVersion;
 import org.symphonyoss.integration.model.stream.StreamType;
 import org.symphonyoss.integration.model.yaml.Application;
+import org.symphonyoss.integration.model.yaml.WebHookAsyncConfig;
+import org.symphonyoss.integration.model.yaml.WebHookCircuitBreakerConfig;
+import org.symphonyoss.integration.model.yaml.WebHookConfig;
+import org.symphonyoss.integration.model.yaml.WebHookDeduplicationConfig;
+import org.symphonyoss.integration.model.yaml.WebHookDigestConfig;
+import org.symphonyoss.integration.model.yaml.WebHookEventFilterConfig;
+import org.symphonyoss.integration.model.yaml.WebHookExecutionConfig;
+import org.symphonyoss.integration.model.yaml.WebHookFanOutConfig;
+import org.symphonyoss.integration.model.yaml.WebHookInstanceCacheConfig;
+import org.symphonyoss.integration.model.yaml.WebHookParseBudgetConfig;
+import org.symphonyoss.integration.model.yaml.WebHookParseCacheConfig;
+import org.symphonyoss.integration.model.yaml.WebHookRateLimitConfig;
+import org.symphonyoss.integration.model.yaml.WebHookSpoolConfig;
+import org.symphonyoss.integration.model.yaml.WebHookTimerConfig;
+import org.symphonyoss.integration.model.yaml.WebHookUserBatchConfig;
+import org.symphonyoss.integration.model.yaml.WebHookUserCacheConfig;
+import org.symphonyoss.integration.model.yaml.WebHookWriteBehindConfig;
+import org.symphonyoss.integration.parser.ParseDeadline;
 import org.symphonyoss.integration.parser.ParserUtils;
+import org.symphonyoss.integration.service.CachedUserService;
 import org.symphonyoss.integration.service.IntegrationBridge;
 import org.symphonyoss.integration.service.IntegrationService;
 import org.symphonyoss.integration.service.StreamService;
 import org.symphonyoss.integration.service.UserService;
-import org.symphonyoss.integration.utils.WebHookConfigurationUtils;
+import org.symphonyoss.integration.webhook.async.LastPostedDateWriter;
+import org.symphonyoss.integration.webhook.async.StreamFanOut;
+import org.symphonyoss.integration.webhook.async.WebHookExecutor;
+import org.symphonyoss.integration.webhook.async.WebHookQueue;
+import org.symphonyoss.integration.webhook.async.WebHookThreads;
+import org.symphonyoss.integration.webhook.cache.IntegrationInstanceCache;
+import org.symphonyoss.integration.webhook.circuit.CircuitBreaker;
+import org.symphonyoss.integration.webhook.dedup.DeliveryDeduplicator;
+import org.symphonyoss.integration.webhook.digest.MessageDigest;
 import org.symphonyoss.integration.webhook.exception.InvalidStreamTypeException;
 import org.symphonyoss.integration.webhook.exception.StreamTypeNotFoundException;
 import org.symphonyoss.integration.webhook.exception.WebHookDisabledException;
 import org.symphonyoss.integration.webhook.exception.WebHookParseException;
+import org.symphonyoss.integration.webhook.exception.WebHookParseTimeoutException;
+import org.symphonyoss.integration.webhook.exception.WebHookPayloadTooLargeException;
+import org.symphonyoss.integration.webhook.exception.WebHookQueueFullException;
+import org.symphonyoss.integration.webhook.exception.WebHookRateLimitedException;
 import org.symphonyoss.integration.webhook.exception.WebHookUnavailableException;
 import org.symphonyoss.integration.webhook.exception.WebHookUnprocessableEntityException;
+import org.symphonyoss.integration.webhook.exception.WebhookException;
+import org.symphonyoss.integration.webhook.filter.WebHookEventFilter;
 import org.symphonyoss.integration.webhook.metrics.ParserMetricsController;
-
+import org.symphonyoss.integration.webhook.metrics.WebHookMetricsController;
+import org.symphonyoss.integration.webhook.parser.ParseResultCache;
+import org.symphonyoss.integration.webhook.parser.metadata.EntityEnrichment;
+import org.symphonyoss.integration.webhook.ratelimit.WebHookRateLimiter;
+import org.symphonyoss.integration.webhook.scheduler.WebHookScheduler;
+import org.symphonyoss.integration.webhook.spool.WebHookSpool;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+import org.symphonyoss.integration.webhook.user.UserLookupBatcher;
+
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 /**
  * WebHook based Integrations, implementing common methods for WebHookIntegrations and defining
@@ -91,6 +141,16 @@ public abstract class WebHookIntegration extends BaseIntegration {
 
   private static final String UNKNOWN_USER = "UNKNOWN";
 
+  /**
+   * Names of the features that run background tasks, each one on its own executor.
+   */
+  private static final String DIGEST_EXECUTOR = "digest";
+  private static final String SPOOL_EXECUTOR = "spool";
+  private static final String WRITER_EXECUTOR = "writer";
+  private static final String USER_EXECUTOR = "users";
+  private static final String INSTANCE_EXECUTOR = "instances";
+  private static final String CONFIG_EXECUTOR = "config";
+
   private static final String PROLOG_ML_REGEX =
       "((<\\?xml version =\\\")[\\d].[\\d]\\\"[\\s\\w\\d=\"\\?-]*>)";
 
@@ -110,29 +170,133 @@ public abstract class WebHookIntegration extends BaseIntegration {
   @Autowired
   private ParserMetricsController metricsController;
 
+  @Autowired
+  private WebHookMetricsController webHookMetricsController;
+
+  @Autowired
+  private WebHookTimer timer;
+
+  @Autowired
+  private WebHookScheduler scheduler;
+
   /**
    * Local Configuration kept for faster processing.
    */
   private IntegrationSettings settings;
 
   /**
-   * Represents the current circuit state that this integration uses to determine whether it is
-   * available to receive messages or not. If this flag changes to false, the integration will
-   * temporarily stop accepting messages, to prevent unnecessary calls that are likely to fail.
-   * After a set timeout in "circuit open" state, the circuit will "close", enabling this
-   * integration to accept messages again.
+   * Circuit breaker that this integration uses to determine whether it is available to receive
+   * messages or not. When the failure rate of the downstream calls reaches the configured
+   * threshold, the integration temporarily stops accepting messages, to prevent unnecessary calls
+   * that are likely to fail. It's created on demand according to the YAML file.
+   */
+  private volatile CircuitBreaker circuitBreaker;
+
+  /**
+   * Local copy of the "enabled" flag read from the integration configuration, so the availability
+   * check doesn't require a remote call per request. Null means it must be read before the next
+   * request.
+   */
+  private volatile EnabledFlag enabledFlag;
+
+  /**
+   * Signals a background refresh of the "enabled" flag is in progress.
+   */
+  private final AtomicBoolean refreshingEnabledFlag = new AtomicBoolean();
+
+  /**
+   * Bounded queue used to process the incoming payloads asynchronously. It's only available when
+   * the asynchronous processing is enabled in the YAML file.
+   */
+  private volatile WebHookQueue queue;
+
+  /**
+   * Local cache of integration instances. It's created on demand, unless the instance cache was
+   * disabled in the YAML file.
+   */
+  private volatile IntegrationInstanceCache instanceCache;
+
+  /**
+   * Write-behind aggregator of the last posted date. It's created on demand, unless the
+   * write-behind was disabled in the YAML file.
+   */
+  private volatile LastPostedDateWriter lastPostedDateWriter;
+
+  /**
+   * Pool used to post a message to many streams concurrently. It's created on demand if the
+   * fan-out was enabled in the YAML file.
+   */
+  private volatile StreamFanOut streamFanOut;
+
+  /**
+   * Recognizes the deliveries retried by the third-party systems. It's created on demand if the
+   * deduplication was enabled in the YAML file.
+   */
+  private volatile DeliveryDeduplicator deliveryDeduplicator;
+
+  /**
+   * Limits the rate of payloads accepted per integration instance and per integration. It's
+   * created on demand if the rate limiting was enabled in the YAML file.
+   */
+  private volatile WebHookRateLimiter rateLimiter;
+
+  /**
+   * Local cache of the users resolved by the integration. It's created on demand, unless the user
+   * cache was disabled in the YAML file.
+   */
+  private volatile CachedUserService userCache;
+
+  /**
+   * Batches the user lookups of the integration. It's created on demand.
+   */
+  private volatile UserLookupBatcher userLookupBatcher;
+
+  /**
+   * Local spool of the payloads accepted while the integration is unavailable. It's created on
+   * startup if the spool was enabled in the YAML file.
+   */
+  private volatile WebHookSpool spool;
+
+  /**
+   * Periodic task that replays the spooled payloads.
+   */
+  private volatile HashedWheelTimer.Timeout spoolDrainTask;
+
+  /**
+   * Set when the integration is destroyed, so the spool, the message digest, the fan-out pool, the
+   * write-behind aggregator and the feature pools aren't created again by late tasks until the
+   * integration is created again.
    */
-  private boolean circuitClosed = true;
+  private volatile boolean destroyed;
 
   /**
-   * Time, in milliseconds, that this integration circuit breaker will remain open.
+   * Number of failed replays of the oldest spooled payload. Only used by the drain task.
    */
-  private static final long circuitTimeout = 10000L;
+  private int spoolAttempts;
 
   /**
-   * Used to control the timeout for the circuit breaker mechanism used by this integration.
+   * Coalesces the messages posted to the same stream. It's created on demand if the digest mode
+   * was enabled in the YAML file.
    */
-  private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private volatile MessageDigest messageDigest;
+
+  /**
+   * Bounded pools that run the background tasks of each feature, indexed by feature name. They're
+   * created on demand and drained when the integration is destroyed.
+   */
+  private final ConcurrentMap<String, WebHookExecutor> executors = new ConcurrentHashMap<>();
+
+  /**
+   * Discards the events the integration instances aren't subscribed to before parsing them. It's
+   * created on demand if the event filtering was enabled in the YAML file.
+   */
+  private volatile WebHookEventFilter eventFilter;
+
+  /**
+   * Parse results shared by identical payloads delivered to several integration instances. It's
+   * created on demand if the parse cache was enabled in the YAML file.
+   */
+  private volatile ParseResultCache parseResultCache;
 
   /**
    * Entity fields
@@ -153,6 +317,8 @@ public abstract class WebHookIntegration extends BaseIntegration {
   public void onCreate(String integrationUser) {
     LOGGER.info("Create " + getClass().getCanonicalName());
 
+    this.destroyed = false;
+
     setupHealthManager(integrationUser);
 
     registerUser(integrationUser);
@@ -160,6 +326,9 @@ public abstract class WebHookIntegration extends BaseIntegration {
     try {
       authenticate(integrationUser);
       updateConfiguration(integrationUser);
+      initQueue(integrationUser);
+      checkVirtualThreads(integrationUser);
+      getSpool();
 
       healthManager.success(settings);
     } catch (ConnectivityException | RetryLifecycleException e) {
@@ -194,21 +363,136 @@ public abstract class WebHookIntegration extends BaseIntegration {
     onConfigChange(settings);
   }
 
+  /**
+   * Creates the webhook queue if the asynchronous processing is enabled.
+   * @param integrationUser Integration username
+   */
+  private void initQueue(String integrationUser) {
+    WebHookAsyncConfig config = properties.getWebhook().getAsync();
+
+    if (!config.isEnabled() || queue != null || scheduler.isEnabled()) {
+      return;
+    }
+
+    WebHookExecutionConfig execution = properties.getWebhook().getExecution();
+    ThreadFactory threadFactory = WebHookThreads.newThreadFactory("webhook-" + integrationUser
+        + "-", execution.isVirtualThreads());
+
+    WebHookQueue queue = new WebHookQueue(integrationUser, config.getQueueCapacity(),
+        getPoolSize(threadFactory, config.getWorkerThreads()), threadFactory);
+    webHookMetricsController.registerQueue(integrationUser, queue);
+
+    this.queue = queue;
+  }
+
+  /**
+   * Warns when the virtual threads were enabled without an asynchronous path. The payloads are
+   * processed by the caller threads in that case, so only the fan-out pool runs on virtual threads.
+   * @param integrationUser Integration username
+   */
+  private void checkVirtualThreads(String integrationUser) {
+    WebHookConfig config = properties.getWebhook();
+
+    if (config.getExecution().isVirtualThreads() && !config.getAsync().isEnabled()
+        && !scheduler.isEnabled()) {
+      LOGGER.warn("Virtual threads were enabled, but neither the async queue nor the scheduler is "
+          + "enabled. The webhooks of {} are processed by the caller threads", integrationUser);
+    }
+  }
+
+  /**
+   * Returns the number of threads of a webhook pool. The pools running on virtual threads are
+   * bounded by the max concurrency, while the pools running on platform threads keep their own
+   * sizes, including when the virtual threads were enabled but the JVM doesn't support them.
+   * @param threadFactory Factory of the pool threads
+   * @param threads Number of platform threads configured for the pool
+   * @return Number of threads
+   */
+  private int getPoolSize(ThreadFactory threadFactory, int threads) {
+    if (WebHookThreads.isVirtual(threadFactory)) {
+      return properties.getWebhook().getExecution().getMaxConcurrency();
+    }
+
+    return threads;
+  }
+
   @Override
   public void onConfigChange(IntegrationSettings settings) {
     this.settings = settings;
+    this.enabledFlag = null;
+
+    IntegrationInstanceCache cache = this.instanceCache;
+
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Removes an integration instance from the local cache. It must be called whenever the
+   * integration instance is saved outside this integration, e.g. by the configuration API, so the
+   * subsequent webhooks see the new streams and notifications instead of waiting for the cache
+   * refresh.
+   * @param configurationId Configuration identifier
+   * @param instanceId Integration instance identifier
+   */
+  public void invalidateInstance(String configurationId, String instanceId) {
+    IntegrationInstanceCache cache = this.instanceCache;
+
+    if (cache != null) {
+      cache.invalidate(configurationId, instanceId);
+    }
   }
 
   @Override
   public void onDestroy() {
     LOGGER.info("Release resources to " + getClass().getCanonicalName());
+    unregisterScheduler();
+    shutdownQueue();
+
+    synchronized (this) {
+      this.destroyed = true;
+    }
+
+    stopMessageDigest();
+    shutdownStreamFanOut();
+    stopLastPostedDateWriter();
+    closeSpool();
+    drainExecutors();
     authenticationProxy.invalidate(settings.getType());
   }
 
+  /**
+   * Removes the queue of the integration from the webhook scheduler, waiting for the payloads
+   * already accepted, before releasing the resources they use.
+   */
+  private void unregisterScheduler() {
+    if (settings != null) {
+      scheduler.unregister(settings.getType());
+    }
+  }
+
+  /**
+   * Stops the webhook queue, waiting for the payloads already accepted.
+   */
+  private void shutdownQueue() {
+    WebHookQueue queue = this.queue;
+
+    if (queue != null) {
+      this.queue = null;
+      queue.shutdown();
+      webHookMetricsController.unregisterQueue(queue.getName());
+    }
+  }
+
   /**
    * Parse the incoming message received from third party services. It should be used to filter
    * which events the integration must handle according to user settings stored on the webhook
    * instance.
+   *
+   * The default implementation doesn't depend on the integration instance, so the message parsed
+   * is reused by identical payloads delivered to other instances if the parse cache was enabled in
+   * the YAML file.
    * @param instance Integration instance that contains user settings
    * @param input Message received from the third party services
    * @return Formatted MessageML or null if the integration doesn't handle this specific event
@@ -217,7 +501,20 @@ public abstract class WebHookIntegration extends BaseIntegration {
    */
   public Message parse(IntegrationInstance instance, WebHookPayload input)
       throws WebHookParseException {
-    return parse(input);
+    ParseResultCache cache = getParseResultCache();
+
+    if (cache == null) {
+      return parse(input);
+    }
+
+    return cache.get(input, new ParseResultCache.Parser() {
+      @Override
+      public Message parse(WebHookPayload payload) {
+        try (EntityEnrichment enrichment = EntityEnrichment.suspend()) {
+          return WebHookIntegration.this.parse(payload);
+        }
+      }
+    });
   }
 
   /**
@@ -234,41 +531,827 @@ public abstract class WebHookIntegration extends BaseIntegration {
   /**
    * Handle the requests received from the third party services, validate them into proper format
    * and post messages to streams.
+   *
+   * If the asynchronous processing is enabled, the payload is only accepted into the webhook queue
+   * and this method returns immediately. The payload will be processed later by the worker threads.
    * @param instanceId
    * @param input
    * @throws WebHookParseException
+   * @throws WebHookQueueFullException the asynchronous processing is enabled and the webhook queue
+   * reached its capacity
+   * @throws WebHookRateLimitedException the rate limiting is enabled and the integration instance
+   * or the integration exceeded its rate limit
+   * @throws WebHookPayloadTooLargeException the payload body exceeds the size limit
+   * @throws WebHookUnavailableException the integration is unavailable and the payload couldn't be
+   * accepted into the spool
    */
   public void handle(String instanceId, String integrationUser, WebHookPayload input)
       throws WebHookParseException, RemoteApiException {
-    if (isAvailable()) {
-      IntegrationInstance instance = getIntegrationInstance(instanceId);
-      Message message = parseRequest(instance, integrationUser, input);
+    boolean unavailable = false;
+
+    try {
+      if (!isAvailable()) {
+        return;
+      }
+    } catch (WebHookUnavailableException e) {
+      if (getSpool() == null) {
+        throw e;
+      }
+
+      unavailable = true;
+    }
 
-      if (message != null) {
-        List<String> streams = streamService.getStreams(instance);
+    checkPayloadSize(input);
 
-        if (MessageMLVersion.V2.equals(message.getVersion())) {
-          includeOwnershipOnMessageData(message, instance);
+    DeliveryDeduplicator.Delivery delivery = registerDelivery(instanceId, integrationUser, input);
+
+    if (delivery == null) {
+      return;
+    }
+
+    try {
+      checkRateLimit(instanceId, integrationUser);
+
+      // The payloads go through the spool while it isn't empty, so they're processed in order
+      WebHookSpool spool = getSpool();
+
+      if (unavailable || (spool != null && !spool.isEmpty())) {
+        spool(spool, instanceId, integrationUser, input);
+        return;
+      }
+
+      CircuitBreaker breaker = getCircuitBreaker();
+      CircuitBreaker.Permit permit = breaker.tryAcquire();
+
+      if (permit == null) {
+        if (spool != null) {
+          spool(spool, instanceId, integrationUser, input);
+          return;
         }
 
-        postMessage(instance, integrationUser, streams, message);
+        throw new WebHookUnavailableException(settings.getType(),
+            getHealthStatus().getMessage());
+      }
+
+      WebHookQueue queue = this.queue;
+
+      if (scheduler.isEnabled()) {
+        schedule(breaker, permit, delivery, instanceId, integrationUser, input);
+      } else if (queue != null) {
+        enqueue(queue, breaker, permit, delivery, instanceId, integrationUser, input);
       } else {
-        String erroMessage = String.format("Event not handled by the %s", integrationUser);
-        throw new WebHookUnprocessableEntityException(erroMessage);
+        process(breaker, permit, instanceId, integrationUser, input);
       }
+    } catch (RuntimeException | RemoteApiException e) {
+      delivery.cancel();
+      throw e;
     }
   }
 
   /**
-   * Add ownership info into the EntityJSON. It's required for auditing process.
+   * Accepts the payload into the spool, to be replayed when the integration is available again.
+   * @param spool Webhook spool
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   * @throws WebHookUnavailableException the spool is full or it can't be written
+   */
+  private void spool(WebHookSpool spool, String instanceId, String integrationUser,
+      WebHookPayload input) {
+    try {
+      if (spool.append(instanceId, integrationUser, input)) {
+        webHookMetricsController.acceptedBySpool(integrationUser);
+        return;
+      }
+
+      LOGGER.warn("The webhook spool {} is full or closed", spool.getDirectory());
+    } catch (IOException e) {
+      LOGGER.error("Fail to append the payload to the webhook spool " + spool.getDirectory(), e);
+    }
+
+    webHookMetricsController.rejectedBySpool(integrationUser);
+    throw new WebHookUnavailableException(settings.getType(), getHealthStatus().getMessage());
+  }
+
+  /**
+   * Retrieve the webhook spool, opening it on the first call. The spool files are kept in a
+   * directory per integration.
+   * @return Webhook spool or null if the spool was disabled in the YAML file, it can't be opened
+   * or the integration was destroyed
+   */
+  private WebHookSpool getSpool() {
+    WebHookSpool spool = this.spool;
+
+    if (spool != null) {
+      return spool;
+    }
+
+    final WebHookSpoolConfig config = properties.getWebhook().getSpool();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (destroyed) {
+        return null;
+      }
+
+      if (this.spool == null) {
+        File directory = new File(config.getDirectory(), settings.getType());
+
+        try {
+          spool = new WebHookSpool(directory, config.getSegmentSize(), config.getMaxSegments(),
+              config.isSync());
+        } catch (IOException e) {
+          LOGGER.error("Fail to open the webhook spool " + directory, e);
+          return null;
+        }
+
+        webHookMetricsController.registerSpool(settings.getType(), spool);
+
+        final WebHookSpool drained = spool;
+        this.spoolDrainTask = timer.scheduleWithFixedDelay(new Runnable() {
+          @Override
+          public void run() {
+            drainSpool(drained, config.getBatchSize(), config.getMaxAttempts());
+          }
+        }, config.getDrainInterval(), config.getDrainInterval(), TimeUnit.MILLISECONDS,
+            getExecutor(SPOOL_EXECUTOR));
+
+        this.spool = spool;
+      }
+
+      return this.spool;
+    }
+  }
+
+  /**
+   * Replays the oldest spooled payloads, in the order they were accepted, while the integration is
+   * available.
+   * @param spool Webhook spool
+   * @param batchSize Max number of payloads replayed
+   * @param maxAttempts Number of failed replays of a payload before discarding it
+   */
+  private void drainSpool(WebHookSpool spool, int batchSize, int maxAttempts) {
+    if (spool.isEmpty()) {
+      return;
+    }
+
+    try {
+      if (!isAvailable()) {
+        return;
+      }
+    } catch (WebhookException e) {
+      return;
+    }
+
+    List<WebHookSpool.Entry> batch;
+
+    try {
+      batch = spool.peek(batchSize);
+    } catch (IOException e) {
+      LOGGER.error("Fail to read the webhook spool " + spool.getDirectory(), e);
+      return;
+    }
+
+    int replayed = 0;
+
+    for (WebHookSpool.Entry entry : batch) {
+      if (!replay(entry, maxAttempts)) {
+        break;
+      }
+
+      replayed++;
+    }
+
+    spool.remove(replayed);
+    spool.flush();
+  }
+
+  /**
+   * Replays a spooled payload. The payloads refused by the integration are discarded, while the
+   * payloads that failed due to the downstream services are retried on the next drain, up to the
+   * max number of attempts.
+   * @param entry Spooled payload
+   * @param maxAttempts Number of failed replays before discarding the payload
+   * @return true if the payload was consumed or false if the drain must stop
+   */
+  private boolean replay(WebHookSpool.Entry entry, int maxAttempts) {
+    CircuitBreaker breaker = getCircuitBreaker();
+    CircuitBreaker.Permit permit = breaker.tryAcquire();
+
+    if (permit == null) {
+      return false;
+    }
+
+    String instanceId = entry.getInstanceId();
+
+    try {
+      process(breaker, permit, instanceId, entry.getIntegrationUser(), entry.getPayload());
+    } catch (WebhookException | WebHookParseException e) {
+      LOGGER.warn(String.format("Discard the spooled payload to the instance %s. Cause: %s",
+          instanceId, e.getMessage()));
+    } catch (RemoteApiException | RuntimeException e) {
+      int serverError = Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+      boolean clientError =
+          e instanceof RemoteApiException && ((RemoteApiException) e).getCode() < serverError;
+
+      if (!clientError && ++spoolAttempts < maxAttempts) {
+        LOGGER.warn(String.format(
+            "Fail to replay the spooled payload to the instance %s. Cause: %s", instanceId,
+            e.getMessage()));
+        return false;
+      }
+
+      LOGGER.error("Discard the spooled payload to the instance " + instanceId, e);
+    }
+
+    spoolAttempts = 0;
+    return true;
+  }
+
+  /**
+   * Stops the drain task, waits for a drain in progress and closes the spool. The payloads not
+   * replayed yet are kept in the spool files. The spool isn't opened again until the integration
+   * is created again.
+   */
+  private void closeSpool() {
+    WebHookSpool spool;
+    HashedWheelTimer.Timeout drainTask;
+
+    synchronized (this) {
+      spool = this.spool;
+      drainTask = this.spoolDrainTask;
+      this.spool = null;
+      this.spoolDrainTask = null;
+    }
+
+    if (drainTask != null) {
+      drainTask.cancel();
+    }
+
+    drainExecutor(SPOOL_EXECUTOR);
+
+    if (spool != null) {
+      spool.close();
+    }
+  }
+
+  /**
+   * Refuses the payloads over the size limit configured in the YAML file, before spending any
+   * resource to process them.
+   * @param input Webhook payload
+   * @throws WebHookPayloadTooLargeException the payload body exceeds the size limit
+   */
+  private void checkPayloadSize(WebHookPayload input) {
+    int maxSize = properties.getWebhook().getPayload().getMaxSize();
+
+    if (input != null && input.getBodySize() > maxSize) {
+      throw new WebHookPayloadTooLargeException(maxSize);
+    }
+  }
+
+  /**
+   * Takes a token from the rate limiter, if it was enabled in the YAML file.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @throws WebHookRateLimitedException the integration instance or the integration exceeded its
+   * rate limit
+   */
+  private void checkRateLimit(String instanceId, String integrationUser) {
+    WebHookRateLimiter rateLimiter = getRateLimiter();
+
+    if (rateLimiter == null) {
+      return;
+    }
+
+    WebHookRateLimiter.Scope scope = rateLimiter.tryAcquire(instanceId);
+
+    if (scope == WebHookRateLimiter.Scope.INSTANCE) {
+      webHookMetricsController.rejectedByInstanceRateLimit(integrationUser);
+      throw new WebHookRateLimitedException(settings.getType(), instanceId);
+    } else if (scope == WebHookRateLimiter.Scope.INTEGRATION) {
+      webHookMetricsController.rejectedByIntegrationRateLimit(integrationUser);
+      throw new WebHookRateLimitedException(settings.getType());
+    }
+  }
+
+  /**
+   * Retrieve the rate limiter, creating it on the first call.
+   * @return Rate limiter or null if it wasn't enabled in the YAML file
+   */
+  private WebHookRateLimiter getRateLimiter() {
+    WebHookRateLimiter rateLimiter = this.rateLimiter;
+
+    if (rateLimiter != null) {
+      return rateLimiter;
+    }
+
+    WebHookRateLimitConfig config = properties.getWebhook().getRateLimit();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (this.rateLimiter == null) {
+        rateLimiter = new WebHookRateLimiter(config.getInstanceRate(), config.getInstanceBurst(),
+            config.getIntegrationRate(), config.getIntegrationBurst());
+        webHookMetricsController.registerRateLimiter(settings.getType(), rateLimiter);
+
+        this.rateLimiter = rateLimiter;
+      }
+
+      return this.rateLimiter;
+    }
+  }
+
+  /**
+   * Registers the delivery to recognize the retries sent by the third-party system.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   * @return Delivery registered, an untracked delivery if the deduplication was disabled in the
+   * YAML file or null if the payload is a duplicate and must be ignored
+   */
+  private DeliveryDeduplicator.Delivery registerDelivery(String instanceId,
+      String integrationUser, WebHookPayload input) {
+    DeliveryDeduplicator deduplicator = getDeliveryDeduplicator();
+
+    if (deduplicator == null) {
+      return DeliveryDeduplicator.Delivery.UNTRACKED;
+    }
+
+    DeliveryDeduplicator.Delivery delivery = deduplicator.register(instanceId, input);
+
+    if (delivery == null) {
+      webHookMetricsController.suppressedDuplicate(integrationUser);
+      LOGGER.info("Duplicate delivery to the instance {} was suppressed", instanceId);
+    }
+
+    return delivery;
+  }
+
+  /**
+   * Retrieve the delivery deduplicator, creating it on the first call.
+   * @return Delivery deduplicator or null if it wasn't enabled in the YAML file
+   */
+  private DeliveryDeduplicator getDeliveryDeduplicator() {
+    DeliveryDeduplicator deduplicator = this.deliveryDeduplicator;
+
+    if (deduplicator != null) {
+      return deduplicator;
+    }
+
+    WebHookDeduplicationConfig config = properties.getWebhook().getDeduplication();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (deliveryDeduplicator == null) {
+        deduplicator = new DeliveryDeduplicator(config.getDeliveryIdHeader(),
+            config.isHashBody(), config.getWindow(), config.getMaxSize());
+        webHookMetricsController.registerDeliveryDeduplicator(settings.getType(), deduplicator);
+
+        this.deliveryDeduplicator = deduplicator;
+      }
+
+      return deliveryDeduplicator;
+    }
+  }
+
+  /**
+   * Accepts the payload into the webhook queue.
+   * @param queue Webhook queue
+   * @param breaker Circuit breaker that permitted the call
+   * @param permit Permit granted by the circuit breaker
+   * @param delivery Delivery registered for the payload
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   * @throws WebHookQueueFullException the webhook queue reached its capacity
+   */
+  private void enqueue(WebHookQueue queue, final CircuitBreaker breaker,
+      final CircuitBreaker.Permit permit, final DeliveryDeduplicator.Delivery delivery,
+      final String instanceId, final String integrationUser, final WebHookPayload input) {
+    boolean accepted = queue.offer(new Runnable() {
+      @Override
+      public void run() {
+        processAsync(breaker, permit, delivery, instanceId, integrationUser, input);
+      }
+    });
+
+    if (accepted) {
+      webHookMetricsController.acceptedByQueue(integrationUser);
+    } else {
+      breaker.release(permit);
+      webHookMetricsController.rejectedByQueue(integrationUser);
+      throw new WebHookQueueFullException(settings.getType(), queue.getCapacity());
+    }
+  }
+
+  /**
+   * Accepts the payload into the queue of the integration in the webhook scheduler, shared by all
+   * the integrations.
+   * @param breaker Circuit breaker that permitted the call
+   * @param permit Permit granted by the circuit breaker
+   * @param delivery Delivery registered for the payload
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   * @throws WebHookQueueFullException the queue of the integration reached its capacity
+   */
+  private void schedule(final CircuitBreaker breaker, final CircuitBreaker.Permit permit,
+      final DeliveryDeduplicator.Delivery delivery, final String instanceId,
+      final String integrationUser, final WebHookPayload input) {
+    boolean accepted = scheduler.offer(settings.getType(), new Runnable() {
+      @Override
+      public void run() {
+        processAsync(breaker, permit, delivery, instanceId, integrationUser, input);
+      }
+    });
+
+    if (accepted) {
+      webHookMetricsController.acceptedByQueue(integrationUser);
+    } else {
+      breaker.release(permit);
+      webHookMetricsController.rejectedByQueue(integrationUser);
+      throw new WebHookQueueFullException(settings.getType(),
+          scheduler.getCapacity(settings.getType()));
+    }
+  }
+
+  /**
+   * Process the payload taken from the webhook queue. There is no caller waiting for the result,
+   * so the failures are only logged.
+   * @param breaker Circuit breaker that permitted the call
+   * @param permit Permit granted by the circuit breaker
+   * @param delivery Delivery registered for the payload
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   */
+  private void processAsync(CircuitBreaker breaker, CircuitBreaker.Permit permit,
+      DeliveryDeduplicator.Delivery delivery, String instanceId, String integrationUser,
+      WebHookPayload input) {
+    try {
+      process(breaker, permit, instanceId, integrationUser, input);
+    } catch (WebhookException | WebHookParseException e) {
+      delivery.cancel();
+      LOGGER.warn(String.format("Fail to process the webhook payload to the instance %s. Cause: %s",
+          instanceId, e.getMessage()));
+    } catch (Exception e) {
+      delivery.cancel();
+      LOGGER.error("Fail to process the webhook payload to the instance " + instanceId, e);
+    }
+  }
+
+  /**
+   * Process the payload and report the outcome to the circuit breaker. Invalid payloads aren't
+   * evaluated by the circuit breaker, as they don't indicate a failure in the downstream services.
+   * Neither are the messages collected by the message digest, whose outcome is reported when
+   * they're posted.
+   * @param breaker Circuit breaker that permitted the call
+   * @param permit Permit granted by the circuit breaker
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   */
+  private void process(CircuitBreaker breaker, CircuitBreaker.Permit permit, String instanceId,
+      String integrationUser, WebHookPayload input) throws RemoteApiException {
+    try {
+      if (process(instanceId, integrationUser, input)) {
+        breaker.onSuccess(permit);
+      } else {
+        breaker.release(permit);
+      }
+    } catch (WebhookException | WebHookParseException e) {
+      breaker.release(permit);
+      throw e;
+    } catch (RemoteApiException e) {
+      if (e.getCode() >= Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+        breaker.onFailure(permit);
+      } else {
+        breaker.onSuccess(permit);
+      }
+
+      throw e;
+    } catch (RuntimeException e) {
+      breaker.onFailure(permit);
+      throw e;
+    }
+  }
+
+  /**
+   * Parse the payload and post the message to the streams configured in the integration instance.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param input Webhook payload
+   * @return false if the message was collected by the message digest, to be posted later
+   */
+  private boolean process(String instanceId, String integrationUser, WebHookPayload input)
+      throws RemoteApiException {
+    IntegrationInstance instance = getIntegrationInstance(instanceId);
+
+    if (!isSubscribed(instance, input)) {
+      webHookMetricsController.filteredEvent(integrationUser);
+      LOGGER.debug("Event not subscribed by the instance {}", instanceId);
+      return true;
+    }
+
+    Message message;
+    boolean enriched;
+
+    try (EntityEnrichment enrichment = startOwnershipEnrichment(instance)) {
+      message = parseRequest(instance, integrationUser, input);
+      enriched = message != null && enrichment.isEnriched(message.getData());
+    }
+
+    if (message != null) {
+      List<String> streams = streamService.getStreams(instance);
+
+      if (MessageMLVersion.V2.equals(message.getVersion()) && !enriched) {
+        includeOwnershipOnMessageData(message, instance);
+      }
+
+      MessageDigest digest = getMessageDigest();
+
+      if (digest != null && streams != null) {
+        for (String stream : streams) {
+          digest.add(instanceId, integrationUser, stream, message);
+          webHookMetricsController.bufferedByDigest(settings.getType());
+        }
+
+        return false;
+      }
+
+      postMessage(instance, integrationUser, streams, message);
+      return true;
+    } else {
+      String erroMessage = String.format("Event not handled by the %s", integrationUser);
+      throw new WebHookUnprocessableEntityException(erroMessage);
+    }
+  }
+
+  /**
+   * Checks if the integration instance is subscribed to the event of the payload, without parsing
+   * the payload.
+   * @param instance Integration instance
+   * @param input Webhook payload
+   * @return false if the event filtering is enabled and the instance isn't subscribed to the event
+   */
+  private boolean isSubscribed(IntegrationInstance instance, WebHookPayload input) {
+    WebHookEventFilter filter = getEventFilter();
+    return filter == null || filter.isSubscribed(instance, getEventType(input));
+  }
+
+  /**
+   * Reads the event type of the payload, used to discard the events the integration instance isn't
+   * subscribed to before parsing them. The event type is read from the header or the JSON field
+   * configured in the YAML file. Integrations should override this method when the event type
+   * doesn't match the notifications stored in the integration instance.
+   * @param input Webhook payload
+   * @return Event type or null if it's unknown, so the payload is parsed anyway
+   */
+  protected String getEventType(WebHookPayload input) {
+    WebHookEventFilter filter = getEventFilter();
+    return filter != null ? filter.getEventType(input) : null;
+  }
+
+  /**
+   * Retrieve the event filter, creating it on the first call.
+   * @return Event filter or null if the event filtering is disabled in the YAML file
+   */
+  private WebHookEventFilter getEventFilter() {
+    WebHookEventFilter filter = this.eventFilter;
+
+    if (filter != null) {
+      return filter;
+    }
+
+    WebHookEventFilterConfig config = properties.getWebhook().getEventFilter();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (eventFilter == null) {
+        this.eventFilter =
+            new WebHookEventFilter(config.getEventHeader(), config.getEventField());
+      }
+
+      return eventFilter;
+    }
+  }
+
+  /**
+   * Retrieve the parse cache, creating it on the first call.
+   * @return Parse cache or null if it's disabled in the YAML file
+   */
+  private ParseResultCache getParseResultCache() {
+    ParseResultCache cache = this.parseResultCache;
+
+    if (cache != null) {
+      return cache;
+    }
+
+    WebHookParseCacheConfig config = properties.getWebhook().getParseCache();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (parseResultCache == null) {
+        cache = new ParseResultCache(config.getWindow(), config.getMaxSize(),
+            config.getKeyHeaders());
+        webHookMetricsController.registerParseCache(settings.getType(), cache);
+
+        this.parseResultCache = cache;
+      }
+
+      return parseResultCache;
+    }
+  }
+
+  /**
+   * Retrieve the message digest, creating it on the first call.
+   * @return Message digest or null if the digest mode is disabled in the YAML file or the
+   * integration was destroyed
+   */
+  private MessageDigest getMessageDigest() {
+    MessageDigest digest = this.messageDigest;
+
+    if (digest != null) {
+      return digest;
+    }
+
+    WebHookDigestConfig config = properties.getWebhook().getDigest();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (destroyed) {
+        return null;
+      }
+
+      if (messageDigest == null) {
+        digest = new MessageDigest(timer, getExecutor(DIGEST_EXECUTOR), config.getWindow(),
+            config.getMaxMessages(), config.getMaxAttempts(), new MessageDigest.Sender() {
+              @Override
+              public void send(String instanceId, String integrationUser, String stream,
+                  Message message, int count) throws RemoteApiException {
+                postDigest(instanceId, integrationUser, stream, message, count);
+              }
+            });
+
+        webHookMetricsController.registerDigest(settings.getType(), digest);
+
+        this.messageDigest = digest;
+      }
+
+      return messageDigest;
+    }
+  }
+
+  /**
+   * Post a message released by the message digest and report the outcome to the circuit breaker.
+   * The digest of several messages has its own EntityJSON, so the ownership info is included
+   * again.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param stream Stream identifier
    * @param message Message to be posted
+   * @param count Number of messages merged into the message
+   * @throws WebHookUnavailableException the circuit breaker doesn't permit the call
+   */
+  private void postDigest(String instanceId, String integrationUser, String stream,
+      Message message, int count) throws RemoteApiException {
+    CircuitBreaker breaker = getCircuitBreaker();
+    CircuitBreaker.Permit permit = breaker.tryAcquire();
+
+    if (permit == null) {
+      throw new WebHookUnavailableException(settings.getType(), getHealthStatus().getMessage());
+    }
+
+    try {
+      IntegrationInstance instance = getIntegrationInstance(instanceId);
+
+      if (instance == null) {
+        LOGGER.warn("Instance {} not found. Discarding {} message(s)", instanceId, count);
+        breaker.release(permit);
+        return;
+      }
+
+      if (count > 1) {
+        includeOwnershipOnMessageData(message, instance);
+      }
+
+      postMessage(instance, integrationUser, Collections.singletonList(stream), message);
+      breaker.onSuccess(permit);
+
+      if (count > 1) {
+        webHookMetricsController.postedByDigest(settings.getType());
+      }
+    } catch (WebhookException e) {
+      breaker.release(permit);
+      throw e;
+    } catch (RemoteApiException e) {
+      if (e.getCode() >= Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+        breaker.onFailure(permit);
+      } else {
+        breaker.onSuccess(permit);
+      }
+
+      throw e;
+    } catch (RuntimeException e) {
+      breaker.onFailure(permit);
+      throw e;
+    }
+  }
+
+  /**
+   * Stops the message digest, posting the pending messages and waiting for the windows already
+   * being posted in background. The windows reopened by failed posts are retried later.
+   */
+  private void stopMessageDigest() {
+    MessageDigest digest;
+
+    synchronized (this) {
+      digest = this.messageDigest;
+      this.messageDigest = null;
+    }
+
+    if (digest != null) {
+      digest.flush();
+    }
+
+    drainExecutor(DIGEST_EXECUTOR);
+  }
+
+  /**
+   * Starts the enrichment that includes the ownership info into the EntityJSON while the metadata
+   * parsers generate it, so it doesn't need to be parsed again to include the ownership info.
    * @param instance Integration instance
+   * @return Enrichment that must be closed when the parser finishes
    */
-  private void includeOwnershipOnMessageData(Message message, IntegrationInstance instance) {
+  private EntityEnrichment startOwnershipEnrichment(IntegrationInstance instance) {
+    ObjectNode ownership = buildOwnershipEntity(instance);
+
+    if (ownership == null) {
+      return EntityEnrichment.suspend();
+    }
+
+    return EntityEnrichment.start(Collections.singletonMap(OWNERSHIP, ownership));
+  }
+
+  /**
+   * Builds the ownership entity of the integration instance.
+   * @param instance Integration instance
+   * @return Ownership entity or null if there is no ownership info for the instance
+   */
+  private ObjectNode buildOwnershipEntity(IntegrationInstance instance) {
     String creatorId = instance.getCreatorId();
     String creatorName = instance.getCreatorName();
 
     if ((StringUtils.isEmpty(creatorId)) && (StringUtils.isEmpty(creatorName))) {
+      return null;
+    }
+
+    ObjectNode ownership = JsonNodeFactory.instance.objectNode();
+    ownership.put(ENTITY_TYPE, OWNERSHIP_ENTITY_TYPE);
+    ownership.put(ENTITY_VERSION, OWNERSHIP_ENTITY_VERSION);
+
+    if (StringUtils.isNotEmpty(creatorId)) {
+      ownership.put(USER_ID, creatorId);
+    }
+
+    if (StringUtils.isNotEmpty(creatorName)) {
+      ownership.put(USER_NAME, creatorName);
+    }
+
+    return ownership;
+  }
+
+  /**
+   * Add ownership info into the EntityJSON. It's required for auditing process.
+   *
+   * The metadata parsers already include the ownership info while generating the EntityJSON, so
+   * this is only required for the EntityJSON generated by other parsers, shared through the parse
+   * cache or merged by the message digest.
+   * @param message Message to be posted
+   * @param instance Integration instance
+   */
+  private void includeOwnershipOnMessageData(Message message, IntegrationInstance instance) {
+    ObjectNode ownership = buildOwnershipEntity(instance);
+
+    if (ownership == null) {
       LOGGER.info("No ownership info for instance {}", instance.getInstanceId());
       return;
     }
@@ -284,17 +1367,7 @@ public abstract class WebHookIntegration extends BaseIntegration {
         dataNode = (ObjectNode) JsonUtils.readTree(data);
       }
 
-      ObjectNode ownership = dataNode.putObject(OWNERSHIP);
-      ownership.put(ENTITY_TYPE, OWNERSHIP_ENTITY_TYPE);
-      ownership.put(ENTITY_VERSION, OWNERSHIP_ENTITY_VERSION);
-
-      if (StringUtils.isNotEmpty(creatorId)) {
-        ownership.put(USER_ID, creatorId);
-      }
-
-      if (StringUtils.isNotEmpty(creatorName)) {
-        ownership.put(USER_NAME, creatorName);
-      }
+      dataNode.set(OWNERSHIP, ownership);
 
       String newData = JsonUtils.writeValueAsString(dataNode);
       message.setData(newData);
@@ -305,10 +1378,14 @@ public abstract class WebHookIntegration extends BaseIntegration {
 
   /**
    * Wraps the parser execution and monitor the parser execution time.
+   *
+   * If the parse time budget was enabled in the YAML file, the parser is aborted once it exceeds
+   * the budget of the integration and the payload is refused as a parse failure.
    * @param instance Integration instance
    * @param integrationUser Integration username
    * @param input Webhhok payload
    * @return Formatted MessageML or null if the integration doesn't handle this specific event
+   * @throws WebHookParseTimeoutException the parser exceeded the time budget
    */
   private Message parseRequest(IntegrationInstance instance, String integrationUser,
       WebHookPayload input) {
@@ -316,15 +1393,39 @@ public abstract class WebHookIntegration extends BaseIntegration {
     boolean success = false;
     Message message = null;
 
+    ParseDeadline deadline = startParseDeadline();
+
     try {
       context = metricsController.startParserExecution(integrationUser);
       message = parse(instance, input);
       success = true;
+    } catch (ParserTimeoutException e) {
+      metricsController.parserTimeout(integrationUser);
+      throw new WebHookParseTimeoutException(e);
     } finally {
+      if (deadline != null) {
+        deadline.close();
+      }
+
       metricsController.finishParserExecution(context, integrationUser, success);
     }
 
-    return message;
+    return message;
+  }
+
+  /**
+   * Starts the parse deadline of the integration, if the parse time budget was enabled in the
+   * YAML file.
+   * @return Parse deadline or null if the parse time budget is disabled
+   */
+  private ParseDeadline startParseDeadline() {
+    WebHookParseBudgetConfig config = properties.getWebhook().getParseBudget();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    return ParseDeadline.start(config.getTimeout(settings.getType()));
   }
 
   /**
@@ -395,7 +1496,7 @@ public abstract class WebHookIntegration extends BaseIntegration {
     }
 
     Long uid = Long.valueOf(userId);
-    User user2 = userService.getUserByUserId(integrationUser, uid);
+    User user2 = getUserService().getUserByUserId(integrationUser, uid);
     if (user2 != null) {
       return user2.getDisplayName();
     } else {
@@ -403,6 +1504,61 @@ public abstract class WebHookIntegration extends BaseIntegration {
     }
   }
 
+  /**
+   * Retrieve the user service, wrapping it with the user cache on the first call.
+   * @return Cached user service or the remote user service if the cache was disabled in the YAML
+   * file
+   */
+  protected UserService getUserService() {
+    CachedUserService cache = this.userCache;
+
+    if (cache != null) {
+      return cache;
+    }
+
+    WebHookUserCacheConfig config = properties.getWebhook().getUserCache();
+
+    if (!config.isEnabled()) {
+      return userService;
+    }
+
+    synchronized (this) {
+      if (userCache == null) {
+        cache = new CachedUserService(userService, getExecutor(USER_EXECUTOR),
+            config.getExpiration(), config.getRefresh(), config.getNegativeExpiration(),
+            config.getMaxSize());
+        webHookMetricsController.registerUserCache(settings.getType(), cache);
+
+        this.userCache = cache;
+      }
+
+      return userCache;
+    }
+  }
+
+  /**
+   * Retrieve the batcher used to resolve several users together, creating it on the first call.
+   * The batches are resolved through the user service returned by {@link #getUserService()}.
+   * @return User lookup batcher
+   */
+  protected UserLookupBatcher getUserLookupBatcher() {
+    UserLookupBatcher batcher = this.userLookupBatcher;
+
+    if (batcher != null) {
+      return batcher;
+    }
+
+    synchronized (this) {
+      if (userLookupBatcher == null) {
+        WebHookUserBatchConfig config = properties.getWebhook().getUserBatch();
+        this.userLookupBatcher = new UserLookupBatcher(getUserService(), timer,
+            getExecutor(USER_EXECUTOR), config.getMaxBatchSize(), config.getMaxWait());
+      }
+
+      return userLookupBatcher;
+    }
+  }
+
   /**
    * Post messages to streams and update latest post timestamp.
    * @param instance Integration instance
@@ -433,11 +1589,66 @@ public abstract class WebHookIntegration extends BaseIntegration {
    */
   private List<Message> sendMessage(IntegrationInstance instance, String integrationUser,
       List<String> streams, Message message) throws RemoteApiException {
+    StreamFanOut fanOut = getStreamFanOut();
+
+    if (fanOut != null && streams != null && streams.size() > 1) {
+      return sendMessageConcurrently(fanOut, instance, integrationUser, streams, message);
+    }
+
     // Post a message
     List<Message> response = bridge.sendMessage(instance, integrationUser, streams, message);
     return response;
   }
 
+  /**
+   * Send messages to the streams concurrently. The streams that failed are logged and the
+   * messages posted to the other streams are returned, so the last posted date is computed from
+   * whatever succeeded. If all the streams failed, the first failure is thrown.
+   * @param fanOut Fan-out pool
+   * @param instance Integration instance
+   * @param integrationUser Integration username
+   * @param streams List of streams
+   * @param message Formatted MessageML
+   * @return List of messages posted to the streams.
+   */
+  private List<Message> sendMessageConcurrently(StreamFanOut fanOut,
+      final IntegrationInstance instance, final String integrationUser, List<String> streams,
+      final Message message) throws RemoteApiException {
+    List<StreamFanOut.StreamResult> results = fanOut.send(streams, new StreamFanOut.StreamSender() {
+      @Override
+      public List<Message> send(String stream) throws RemoteApiException {
+        return bridge.sendMessage(instance, integrationUser, Collections.singletonList(stream),
+            message);
+      }
+    });
+
+    List<Message> response = new ArrayList<>();
+    Exception firstFailure = null;
+    boolean posted = false;
+
+    for (StreamFanOut.StreamResult result : results) {
+      if (result.isSuccess()) {
+        posted = true;
+        response.addAll(result.getResponse());
+      } else {
+        if (firstFailure == null) {
+          firstFailure = result.getFailure();
+        }
+
+        LOGGER.warn(String.format("Fail to post the message to the stream %s. Cause: %s",
+            result.getStream(), result.getFailure().getMessage()));
+      }
+    }
+
+    if (!posted && firstFailure instanceof RemoteApiException) {
+      throw (RemoteApiException) firstFailure;
+    } else if (!posted && firstFailure instanceof RuntimeException) {
+      throw (RuntimeException) firstFailure;
+    }
+
+    return response;
+  }
+
   /**
    * Get the most recent posted date in the provided list of responses
    * @param response
@@ -453,7 +1664,9 @@ public abstract class WebHookIntegration extends BaseIntegration {
   }
 
   /**
-   * Update the integration instance with the last posted date.
+   * Update the integration instance with the last posted date. The integration instance is saved
+   * immediately only if the write-behind is disabled, otherwise the last posted date is recorded
+   * to be saved later and the local cache receives the updated copy meanwhile.
    * @param instance Integration instance
    * @param timestamp Last posted date
    */
@@ -461,11 +1674,16 @@ public abstract class WebHookIntegration extends BaseIntegration {
       Long timestamp) {
     try {
       // Update posted date
-      ObjectNode whiConfigInstance =
-          WebHookConfigurationUtils.fromJsonString(instance.getOptionalProperties());
-      whiConfigInstance.put(LAST_POSTED_DATE, timestamp);
-      instance.setOptionalProperties(WebHookConfigurationUtils.toJsonString(whiConfigInstance));
-      integrationService.save(instance, integrationUser);
+      IntegrationInstance updated = withLastPostedDate(instance, timestamp);
+
+      LastPostedDateWriter writer = getLastPostedDateWriter();
+
+      if (writer == null) {
+        saveIntegrationInstance(updated, integrationUser);
+      } else {
+        writer.record(instance.getInstanceId(), integrationUser, timestamp);
+        updateInstanceCache(updated);
+      }
 
       healthManager.updateLatestPostTimestamp(timestamp);
     } catch (IntegrationRuntimeException | IOException e) {
@@ -473,6 +1691,262 @@ public abstract class WebHookIntegration extends BaseIntegration {
     }
   }
 
+  /**
+   * Save the last posted date recorded by the write-behind aggregator. The most recent version of
+   * the integration instance is used, to avoid overriding changes done meanwhile.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param timestamp Last posted date
+   */
+  private void writeLastPostedDate(String instanceId, String integrationUser, long timestamp) {
+    IntegrationInstance instance = getIntegrationInstance(instanceId);
+
+    if (instance == null) {
+      return;
+    }
+
+    try {
+      saveIntegrationInstance(withLastPostedDate(instance, timestamp), integrationUser);
+    } catch (IOException e) {
+      LOGGER.error("Fail to update the last posted date", e);
+    }
+  }
+
+  /**
+   * Set the last posted date in the optional properties of a copy of the integration instance,
+   * unless it already contains a more recent date. The integration instance itself isn't changed,
+   * since it may be shared through the local cache.
+   * @param instance Integration instance
+   * @param timestamp Last posted date
+   * @return Updated copy of the integration instance or the integration instance itself if it
+   * already contains a more recent date
+   */
+  private IntegrationInstance withLastPostedDate(IntegrationInstance instance, long timestamp)
+      throws IOException {
+    IntegrationInstanceProperties properties = instance.getProperties();
+
+    if (properties.getLastPostedDate() >= timestamp) {
+      return instance;
+    }
+
+    IntegrationInstance updated = instance.copy();
+    updated.setProperties(properties.withLastPostedDate(timestamp));
+    return updated;
+  }
+
+  /**
+   * Save the integration instance and replace it in the local cache.
+   * @param instance Integration instance
+   * @param integrationUser Integration username
+   */
+  private void saveIntegrationInstance(IntegrationInstance instance, String integrationUser) {
+    IntegrationInstance saved = integrationService.save(instance, integrationUser);
+    updateInstanceCache(saved != null ? saved : instance);
+  }
+
+  /**
+   * Replace the integration instance in the local cache, if the cache is enabled.
+   * @param instance Integration instance
+   */
+  private void updateInstanceCache(IntegrationInstance instance) {
+    IntegrationInstanceCache cache = this.instanceCache;
+
+    if (cache != null) {
+      cache.update(instance);
+    }
+  }
+
+  /**
+   * Retrieve the write-behind aggregator of the last posted date, creating it on the first call.
+   * @return Write-behind aggregator or null if it was disabled in the YAML file or the integration
+   * was destroyed
+   */
+  private LastPostedDateWriter getLastPostedDateWriter() {
+    LastPostedDateWriter writer = this.lastPostedDateWriter;
+
+    if (writer != null) {
+      return writer;
+    }
+
+    WebHookWriteBehindConfig config = properties.getWebhook().getWriteBehind();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (destroyed) {
+        return null;
+      }
+
+      if (lastPostedDateWriter == null) {
+        writer = new LastPostedDateWriter(new LastPostedDateWriter.Writer() {
+          @Override
+          public void write(String instanceId, String integrationUser, long lastPostedDate) {
+            writeLastPostedDate(instanceId, integrationUser, lastPostedDate);
+          }
+        }, config.getMaxAttempts());
+        writer.start(timer, getExecutor(WRITER_EXECUTOR), config.getFlushInterval());
+
+        this.lastPostedDateWriter = writer;
+      }
+
+      return lastPostedDateWriter;
+    }
+  }
+
+  /**
+   * Retrieve the fan-out pool, creating it on the first call.
+   * @return Fan-out pool or null if the fan-out is disabled in the YAML file or the integration was
+   * destroyed
+   */
+  private StreamFanOut getStreamFanOut() {
+    StreamFanOut fanOut = this.streamFanOut;
+
+    if (fanOut != null) {
+      return fanOut;
+    }
+
+    WebHookFanOutConfig config = properties.getWebhook().getFanOut();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (destroyed) {
+        return null;
+      }
+
+      if (streamFanOut == null) {
+        WebHookExecutionConfig execution = properties.getWebhook().getExecution();
+        ThreadFactory threadFactory = WebHookThreads.newThreadFactory(
+            "webhook-" + settings.getType() + "-fanout-", execution.isVirtualThreads());
+
+        this.streamFanOut = new StreamFanOut(getPoolSize(threadFactory, config.getThreads()),
+            config.getParallelism(), threadFactory);
+      }
+
+      return streamFanOut;
+    }
+  }
+
+  /**
+   * Stops the fan-out pool.
+   */
+  private void shutdownStreamFanOut() {
+    StreamFanOut fanOut;
+
+    synchronized (this) {
+      fanOut = this.streamFanOut;
+      this.streamFanOut = null;
+    }
+
+    if (fanOut != null) {
+      fanOut.shutdown();
+    }
+  }
+
+  /**
+   * Stops the write-behind aggregator, saving the pending last posted dates.
+   */
+  private void stopLastPostedDateWriter() {
+    LastPostedDateWriter writer;
+
+    synchronized (this) {
+      writer = this.lastPostedDateWriter;
+      this.lastPostedDateWriter = null;
+    }
+
+    if (writer != null) {
+      writer.stop();
+    }
+
+    drainExecutor(WRITER_EXECUTOR);
+  }
+
+  /**
+   * Retrieve the executor that runs the background tasks of a feature. The tasks are handed over
+   * to the pool of the feature, which is created on demand. Once the integration is destroyed the
+   * tasks are discarded, so late tasks, such as timer expirations and cache refreshes, don't
+   * create pools that would never be drained.
+   * @param feature Feature name
+   * @return Executor of the feature
+   */
+  private Executor getExecutor(final String feature) {
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        WebHookExecutor executor = getExecutorPool(feature);
+
+        if (executor == null) {
+          LOGGER.debug("Discarding the {} task, the integration was destroyed", feature);
+          return;
+        }
+
+        executor.execute(command);
+      }
+    };
+  }
+
+  /**
+   * Retrieve the pool of a feature, creating it on the first call. The pool size and capacity are
+   * read from the timer settings of the YAML file.
+   * @param feature Feature name
+   * @return Pool of the feature or null if the integration was destroyed
+   */
+  private WebHookExecutor getExecutorPool(String feature) {
+    WebHookExecutor executor = executors.get(feature);
+
+    if (executor != null) {
+      return executor;
+    }
+
+    if (destroyed) {
+      return null;
+    }
+
+    WebHookTimerConfig config = properties.getWebhook().getTimer();
+    WebHookExecutor created = new WebHookExecutor("webhook-" + settings.getType() + "-" + feature,
+        config.getWorkers(), config.getQueueCapacity());
+
+    executor = executors.putIfAbsent(feature, created);
+
+    if (executor != null) {
+      created.shutdown();
+      return executor;
+    }
+
+    // The integration may have been destroyed after the pools were drained
+    if (destroyed && executors.remove(feature, created)) {
+      created.shutdown();
+      return null;
+    }
+
+    return created;
+  }
+
+  /**
+   * Stops the pool of a feature, waiting for its queued tasks.
+   * @param feature Feature name
+   */
+  private void drainExecutor(String feature) {
+    WebHookExecutor executor = executors.remove(feature);
+
+    if (executor != null) {
+      executor.drain();
+    }
+  }
+
+  /**
+   * Stops the pools of all the features, waiting for their queued tasks.
+   */
+  private void drainExecutors() {
+    for (String feature : new ArrayList<>(executors.keySet())) {
+      drainExecutor(feature);
+    }
+  }
+
   /**
    * Builds a Symphony MessageML with a given formatted message.
    * @param message a message properly formatted with Symphony-only tags and/or pure text.
@@ -509,11 +1983,15 @@ public abstract class WebHookIntegration extends BaseIntegration {
 
   /**
    * Checks if the integration is available on the moment of this call.
-   * It verifies: if the circuit is closed, then if it's able to read its up to date configuration,
-   * and then if it's enabled.
+   * It verifies: if the integration is enabled, then if the circuit accepts calls.
    * Any of those checks failing means it's not available now, and it will throw an exception.
-   * If the integration is not enabled, it will open its internal circuit.
-   * It will also open its circuit if it can't read its own configuration due to a faulty user.
+   *
+   * The "enabled" flag is read from the integration configuration on the first call and then kept
+   * locally. Once the flag is older than the refresh interval, the next call triggers a background
+   * refresh and keeps using the local copy meanwhile, so a disabled configuration is detected
+   * within the refresh interval plus the time of one remote call.
+   *
+   * It will open its circuit if it can't read its own configuration due to a faulty user.
    * @return If all checks pass, returns "true", throws exceptions otherwise.
    * @throws WebHookUnavailableException if its internal circuit is open or if it can't read it's
    * own configuration due to a faulty user.
@@ -522,42 +2000,120 @@ public abstract class WebHookIntegration extends BaseIntegration {
   public boolean isAvailable() {
     String type = settings.getType();
 
-    if (this.circuitClosed) {
-      try {
-        IntegrationSettings whiConfiguration =
-            this.integrationService.getIntegrationById(settings.getConfigurationId(), type);
+    if (!isEnabled()) {
+      throw new WebHookDisabledException(type);
+    }
 
-        if (!whiConfiguration.getEnabled()) {
-          openCircuit();
-          throw new WebHookDisabledException(type);
-        } else {
-          return this.circuitClosed;
-        }
-      } catch (ForbiddenUserException e) {
-        openCircuit();
-        throw new WebHookUnavailableException(type, getHealthStatus().getMessage());
-      }
-    } else {
+    if (!getCircuitBreaker().isCallPermitted()) {
       throw new WebHookUnavailableException(type, getHealthStatus().getMessage());
     }
+
+    return true;
   }
 
   /**
-   * Opens the internal circuit and sets a timer to close it again according to the value on
-   * circuitTimeout variable on this class.
+   * Retrieve the local copy of the "enabled" flag, reading it from the integration configuration
+   * if it's not available yet or triggering a background refresh if it's stale.
+   * @return true if the integration is enabled
    */
-  private void openCircuit() {
-    this.circuitClosed = false;
-    this.scheduler.schedule(new Runnable() {
-      @Override
-      public void run() {
-        closeCircuit();
-      }
-    }, circuitTimeout, TimeUnit.MILLISECONDS);
+  private boolean isEnabled() {
+    EnabledFlag flag = this.enabledFlag;
+
+    if (flag == null) {
+      return readEnabledFlag().enabled;
+    }
+
+    long refreshInterval = TimeUnit.MILLISECONDS.toNanos(
+        properties.getWebhook().getCircuitBreaker().getEnabledRefresh());
+
+    if (System.nanoTime() - flag.checkedAt >= refreshInterval) {
+      refreshEnabledFlagAsync();
+    }
+
+    return flag.enabled;
+  }
+
+  /**
+   * Reads the "enabled" flag from the integration configuration and updates the local copy.
+   * @return Updated "enabled" flag
+   * @throws WebHookUnavailableException if it can't read it's own configuration due to a faulty
+   * user.
+   */
+  private EnabledFlag readEnabledFlag() {
+    String type = settings.getType();
+
+    try {
+      IntegrationSettings whiConfiguration =
+          this.integrationService.getIntegrationById(settings.getConfigurationId(), type);
+
+      EnabledFlag flag = new EnabledFlag(Boolean.TRUE.equals(whiConfiguration.getEnabled()));
+      this.enabledFlag = flag;
+
+      return flag;
+    } catch (ForbiddenUserException e) {
+      getCircuitBreaker().forceOpen();
+      throw new WebHookUnavailableException(type, getHealthStatus().getMessage());
+    }
+  }
+
+  /**
+   * Refreshes the "enabled" flag in background. Only one refresh runs at a time. When the refresh
+   * fails, the local copy is kept until the next refresh interval.
+   */
+  private void refreshEnabledFlagAsync() {
+    if (!refreshingEnabledFlag.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      getExecutor(CONFIG_EXECUTOR).execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            readEnabledFlag();
+          } catch (Exception e) {
+            EnabledFlag current = enabledFlag;
+
+            if (current != null) {
+              enabledFlag = new EnabledFlag(current.enabled);
+            }
+
+            LOGGER.warn("Fail to refresh the integration configuration. Cause: " + e.getMessage());
+          } finally {
+            refreshingEnabledFlag.set(false);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshingEnabledFlag.set(false);
+      LOGGER.warn("Fail to schedule the refresh of the integration configuration", e);
+    }
   }
 
-  private void closeCircuit() {
-    this.circuitClosed = true;
+  /**
+   * Retrieve the circuit breaker, creating it on the first call.
+   * @return Circuit breaker
+   */
+  private CircuitBreaker getCircuitBreaker() {
+    CircuitBreaker breaker = this.circuitBreaker;
+
+    if (breaker != null) {
+      return breaker;
+    }
+
+    synchronized (this) {
+      if (circuitBreaker == null) {
+        WebHookCircuitBreakerConfig config = properties.getWebhook().getCircuitBreaker();
+
+        breaker = new CircuitBreaker(config.getFailureRateThreshold(), config.getMinimumCalls(),
+            config.getOpenTimeout(), config.getHalfOpenCalls());
+        webHookMetricsController.registerCircuitBreaker(settings.getType(), breaker);
+
+        this.circuitBreaker = breaker;
+      }
+
+      return circuitBreaker;
+    }
   }
 
   /**
@@ -566,8 +2122,61 @@ public abstract class WebHookIntegration extends BaseIntegration {
    * @return Integration instance that contains information how to handle requests.
    */
   protected IntegrationInstance getIntegrationInstance(String instanceId) {
-    return integrationService.getInstanceById(settings.getConfigurationId(), instanceId,
-        settings.getType());
+    IntegrationInstanceCache cache = getInstanceCache();
+
+    if (cache == null) {
+      return loadIntegrationInstance(settings.getConfigurationId(), instanceId);
+    }
+
+    return cache.get(settings.getConfigurationId(), instanceId);
+  }
+
+  /**
+   * Retrieve the integration instance from the configuration service.
+   * @param configurationId Configuration identifier
+   * @param instanceId Integration instance identifier
+   * @return Integration instance
+   */
+  private IntegrationInstance loadIntegrationInstance(String configurationId, String instanceId) {
+    return integrationService.getInstanceById(configurationId, instanceId, settings.getType());
+  }
+
+  /**
+   * Retrieve the integration instance cache, creating it on the first call.
+   * @return Integration instance cache or null if it was disabled in the YAML file
+   */
+  private IntegrationInstanceCache getInstanceCache() {
+    IntegrationInstanceCache cache = this.instanceCache;
+
+    if (cache != null) {
+      return cache;
+    }
+
+    WebHookInstanceCacheConfig config = properties.getWebhook().getInstanceCache();
+
+    if (!config.isEnabled()) {
+      return null;
+    }
+
+    synchronized (this) {
+      if (instanceCache == null) {
+        IntegrationInstanceCache.InstanceLoader loader =
+            new IntegrationInstanceCache.InstanceLoader() {
+              @Override
+              public IntegrationInstance load(String configurationId, String instanceId) {
+                return loadIntegrationInstance(configurationId, instanceId);
+              }
+            };
+
+        cache = new IntegrationInstanceCache(loader, getExecutor(INSTANCE_EXECUTOR),
+            config.getExpiration(), config.getRefresh(), config.getMaxSize());
+        webHookMetricsController.registerInstanceCache(settings.getType(), cache);
+
+        this.instanceCache = cache;
+      }
+
+      return instanceCache;
+    }
   }
 
   @Override
@@ -608,4 +2217,19 @@ public abstract class WebHookIntegration extends BaseIntegration {
     // Supported types are specified, so, let's check they match
     return supportedContentTypes.contains(contentType);
   }
+
+  /**
+   * Local copy of the "enabled" flag and the moment it was read.
+   */
+  private static final class EnabledFlag {
+
+    private final boolean enabled;
+
+    private final long checkedAt;
+
+    EnabledFlag(boolean enabled) {
+      this.enabled = enabled;
+      this.checkedAt = System.nanoTime();
+    }
+  }
 }
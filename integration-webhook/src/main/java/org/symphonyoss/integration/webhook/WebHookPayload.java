@@ -16,16 +16,34 @@
 
 package org.symphonyoss.integration.webhook;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Charsets;
+import com.google.common.base.Utf8;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.webhook.exception.WebHookPayloadTooLargeException;
 
 import javax.ws.rs.core.MediaType;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * Abstracts a Webhook payload's attributes, including its body, request headers and parameters.
  * <p>
+ * The body may be backed by the raw bytes received from the third-party service, in which case
+ * it's only decoded to a string when {@link #getBody()} is called, and JSON payloads are parsed
+ * straight from the bytes by {@link #readTree()}. The request headers are case-insensitive.
+ * <p>
  * Created by Robson Sanchez on 17/05/16.
  */
 public class WebHookPayload {
@@ -35,6 +53,21 @@ public class WebHookPayload {
    */
   private static final String CONTENT_TYPE = "content-type";
 
+  /**
+   * Content type parameter used to get the payload's charset.
+   */
+  private static final String CHARSET = "charset";
+
+  /**
+   * Factory of the streaming parsers used to peek at the JSON fields.
+   */
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /**
+   * Separator of the nested fields in a JSON field path.
+   */
+  private static final String FIELD_PATH_SEPARATOR = ".";
+
   /**
    * Holds parameters from one's request.
    */
@@ -43,12 +76,22 @@ public class WebHookPayload {
   /**
    * Holds headers from one's request.
    */
-  private Map<String, String> headers = new HashMap<>();
+  private Map<String, String> headers = new HeaderMap();
+
+  /**
+   * Payload body. Decoded on demand when the payload is backed by bytes.
+   */
+  private volatile String body;
 
   /**
-   * Payload body.
+   * Raw payload body. Encoded on demand when the payload is backed by a string.
    */
-  private String body;
+  private volatile byte[] rawBody;
+
+  /**
+   * Content type parsed from the last header value seen.
+   */
+  private volatile ParsedContentType contentType;
 
   /**
    * Initializes the class attributes.
@@ -57,9 +100,54 @@ public class WebHookPayload {
    * @param body from the payload.
    */
   public WebHookPayload(Map<String, String> parameters, Map<String, String> headers, String body) {
+    this(parameters, headers, body, null);
+  }
+
+  private WebHookPayload(Map<String, String> parameters, Map<String, String> headers, String body,
+      byte[] rawBody) {
     this.parameters = parameters;
-    this.headers = headers;
+    this.headers = new HeaderMap(headers);
     this.body = body;
+    this.rawBody = rawBody;
+  }
+
+  /**
+   * Creates a payload backed by the raw payload body. The array must not be modified afterwards.
+   * @param parameters from the request.
+   * @param headers from the request.
+   * @param rawBody from the payload.
+   * @return Webhook payload
+   */
+  public static WebHookPayload fromBytes(Map<String, String> parameters,
+      Map<String, String> headers, byte[] rawBody) {
+    return new WebHookPayload(parameters, headers, null, rawBody);
+  }
+
+  /**
+   * Reads the payload body from the request stream. The stream is read only up to the size limit,
+   * so oversized payloads are refused without being fully buffered.
+   * @param parameters from the request.
+   * @param headers from the request.
+   * @param content Request stream
+   * @param maxSize Max size of the payload body, in bytes
+   * @return Webhook payload
+   * @throws WebHookPayloadTooLargeException the payload body exceeds the size limit
+   * @throws IOException failure to read the request stream
+   */
+  public static WebHookPayload read(Map<String, String> parameters, Map<String, String> headers,
+      InputStream content, int maxSize) throws IOException {
+    if (content == null) {
+      return fromBytes(parameters, headers, new byte[0]);
+    }
+
+    // Read one extra byte to detect the bodies over the limit
+    byte[] rawBody = ByteStreams.toByteArray(ByteStreams.limit(content, maxSize + 1L));
+
+    if (rawBody.length > maxSize) {
+      throw new WebHookPayloadTooLargeException(maxSize);
+    }
+
+    return fromBytes(parameters, headers, rawBody);
   }
 
   /**
@@ -75,11 +163,143 @@ public class WebHookPayload {
    * @return the payload body.
    */
   public String getBody() {
-    return body;
+    String result = body;
+
+    if (result == null && rawBody != null) {
+      result = new String(rawBody, getCharset());
+      this.body = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the raw payload body. The array must not be modified.
+   * @return the raw payload body or null if there is no body.
+   */
+  public byte[] getRawBody() {
+    byte[] result = rawBody;
+
+    if (result == null && body != null) {
+      result = body.getBytes(getCharset());
+      this.rawBody = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the payload body as a stream, without copying it.
+   * @return the payload body stream.
+   */
+  public InputStream getBodyAsStream() {
+    byte[] content = getRawBody();
+    return new ByteArrayInputStream(content != null ? content : new byte[0]);
+  }
+
+  /**
+   * Returns the payload body size, in bytes, without encoding it.
+   * @return the payload body size.
+   */
+  public int getBodySize() {
+    byte[] content = rawBody;
+
+    if (content != null) {
+      return content.length;
+    }
+
+    String text = body;
+
+    if (text == null) {
+      return 0;
+    }
+
+    Charset charset = getCharset();
+    return Charsets.UTF_8.equals(charset) ? Utf8.encodedLength(text) : getRawBody().length;
+  }
+
+  /**
+   * Parses the payload body as JSON. Payloads backed by UTF-8 bytes are parsed straight from the
+   * bytes, without decoding them to a string first.
+   * @return the JSON tree or null if there is no body.
+   * @throws IOException the payload body isn't a valid JSON
+   */
+  public JsonNode readTree() throws IOException {
+    byte[] content = rawBody;
+
+    if (content != null && Charsets.UTF_8.equals(getCharset())) {
+      return content.length == 0 ? null : JsonUtils.readTree(content);
+    }
+
+    String text = getBody();
+    return StringUtils.isEmpty(text) ? null : JsonUtils.readTree(text);
   }
 
   /**
-   * Returns the request headers.
+   * Reads a scalar JSON field from the payload body without parsing the whole body. The body is
+   * scanned by a streaming parser, skipping the other fields, until the field is found.
+   * @param path Field name or path of nested fields separated by dots, like "issue.event"
+   * @return Field value as text or null if the body isn't a JSON object, or the field isn't
+   * present, it isn't a scalar value, or it's null or empty
+   */
+  public String peekField(String path) {
+    if (StringUtils.isEmpty(path)) {
+      return null;
+    }
+
+    String[] names = StringUtils.split(path, FIELD_PATH_SEPARATOR);
+
+    try (JsonParser parser = createParser()) {
+      if (parser == null || parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+
+      int depth = 0;
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+
+        if (!names[depth].equals(name)) {
+          parser.skipChildren();
+        } else if (depth == names.length - 1) {
+          if (!value.isScalarValue() || value == JsonToken.VALUE_NULL) {
+            return null;
+          }
+
+          return StringUtils.defaultIfEmpty(parser.getText(), null);
+        } else if (value == JsonToken.START_OBJECT) {
+          depth++;
+        } else {
+          return null;
+        }
+      }
+
+      return null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Creates a streaming parser to the payload body. Payloads backed by UTF-8 bytes are parsed
+   * straight from the bytes. The caller is responsible for closing the parser.
+   * @return Streaming parser or null if there is no body
+   * @throws IOException failure to create the parser
+   */
+  public JsonParser createParser() throws IOException {
+    byte[] content = rawBody;
+
+    if (content != null && Charsets.UTF_8.equals(getCharset())) {
+      return JSON_FACTORY.createParser(content);
+    }
+
+    String text = getBody();
+    return text == null ? null : JSON_FACTORY.createParser(text);
+  }
+
+  /**
+   * Returns the request headers. Header names are case-insensitive.
    * @return request headers.
    */
   public Map<String, String> getHeaders() {
@@ -96,14 +316,22 @@ public class WebHookPayload {
   }
 
   /**
-   * Returns the content type.
+   * Returns the content type. The parsed value is reused while the header doesn't change.
    * @return the content type.
    */
   public MediaType getContentType() {
-    String contentType = null;
-    if (headers != null) {
-      contentType = headers.get(CONTENT_TYPE);
+    String value = headers.get(CONTENT_TYPE);
+    ParsedContentType parsed = contentType;
+
+    if (parsed == null || !StringUtils.equals(parsed.value, value)) {
+      parsed = new ParsedContentType(value, parseContentType(value));
+      this.contentType = parsed;
     }
+
+    return parsed.mediaType;
+  }
+
+  private MediaType parseContentType(String contentType) {
     if (!StringUtils.isEmpty(contentType)) {
       try {
         return MediaType.valueOf(contentType);
@@ -114,4 +342,83 @@ public class WebHookPayload {
     }
     return MediaType.WILDCARD_TYPE;
   }
+
+  /**
+   * Returns the charset declared in the content type or UTF-8 if it isn't declared or supported.
+   * @return the payload charset.
+   */
+  private Charset getCharset() {
+    String charset = getContentType().getParameters().get(CHARSET);
+
+    if (StringUtils.isEmpty(charset)) {
+      return Charsets.UTF_8;
+    }
+
+    try {
+      return Charset.forName(charset);
+    } catch (IllegalArgumentException e) {
+      return Charsets.UTF_8;
+    }
+  }
+
+  /**
+   * Content type header value and its parsed representation.
+   */
+  private static final class ParsedContentType {
+
+    private final String value;
+
+    private final MediaType mediaType;
+
+    private ParsedContentType(String value, MediaType mediaType) {
+      this.value = value;
+      this.mediaType = mediaType;
+    }
+  }
+
+  /**
+   * Map that normalizes the header names to lower case when they are stored and looked up.
+   */
+  private static final class HeaderMap extends HashMap<String, String> {
+
+    private HeaderMap() {
+    }
+
+    private HeaderMap(Map<String, String> headers) {
+      if (headers != null) {
+        putAll(headers);
+      }
+    }
+
+    @Override
+    public String get(Object key) {
+      return super.get(normalize(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return super.containsKey(normalize(key));
+    }
+
+    @Override
+    public String put(String key, String value) {
+      return super.put((String) normalize(key), value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> headers) {
+      for (Map.Entry<? extends String, ? extends String> header : headers.entrySet()) {
+        put(header.getKey(), header.getValue());
+      }
+    }
+
+    @Override
+    public String remove(Object key) {
+      return super.remove(normalize(key));
+    }
+
+    private static Object normalize(Object key) {
+      return key instanceof String ? ((String) key).toLowerCase(Locale.ENGLISH) : key;
+    }
+  }
 }
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.exception.config.ForbiddenUserException;
+import org.symphonyoss.integration.exception.config.NotFoundException;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind aggregator of the last posted date of the integration instances.
+ *
+ * Each message posted records its timestamp here instead of saving the integration instance. Only
+ * the most recent timestamp of each integration instance is kept, and the pending timestamps are
+ * written periodically and when the writer is stopped. A write that fails is retried on the next
+ * flush, unless a more recent timestamp was recorded meanwhile. The write is discarded once it
+ * reaches the max number of attempts, or if the integration instance wasn't found or the user
+ * isn't allowed to save it, since retrying won't succeed.
+ */
+public class LastPostedDateWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LastPostedDateWriter.class);
+
+  /**
+   * Writes the last posted date of an integration instance.
+   */
+  public interface Writer {
+
+    /**
+     * Save the last posted date of the integration instance.
+     * @param instanceId Integration instance identifier
+     * @param integrationUser Integration username
+     * @param lastPostedDate Most recent timestamp recorded to the integration instance
+     */
+    void write(String instanceId, String integrationUser, long lastPostedDate);
+
+  }
+
+  private final ConcurrentMap<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+  private final Writer writer;
+
+  private final int maxAttempts;
+
+  /**
+   * Serializes the flushes. It's a lock instead of a monitor since the writes are remote calls,
+   * which would pin a virtual thread blocked inside a synchronized block.
+   */
+  private final Lock flushLock = new ReentrantLock();
+
+  private volatile HashedWheelTimer.Timeout flushTask;
+
+  /**
+   * Creates the writer.
+   * @param writer Writes the last posted date of an integration instance
+   * @param maxAttempts Number of failed writes of a timestamp before discarding it
+   */
+  public LastPostedDateWriter(Writer writer, int maxAttempts) {
+    this.writer = writer;
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Schedules the periodic flush of the pending timestamps.
+   * @param timer Timer used to schedule the flush
+   * @param executor Executor used to run the flush
+   * @param interval Time, in milliseconds, between two flushes
+   */
+  public synchronized void start(WebHookTimer timer, Executor executor, long interval) {
+    if (flushTask != null) {
+      return;
+    }
+
+    this.flushTask = timer.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS, executor);
+  }
+
+  /**
+   * Cancels the periodic flush and writes the pending timestamps.
+   */
+  public void stop() {
+    HashedWheelTimer.Timeout task;
+
+    synchronized (this) {
+      task = flushTask;
+      flushTask = null;
+    }
+
+    if (task != null) {
+      task.cancel();
+    }
+
+    flush();
+  }
+
+  /**
+   * Records the timestamp of a message posted. It's discarded if a more recent timestamp is
+   * already pending to the same integration instance.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param timestamp Timestamp of the message posted
+   */
+  public void record(String instanceId, String integrationUser, long timestamp) {
+    putPending(instanceId, new PendingUpdate(integrationUser, timestamp, 0));
+  }
+
+  /**
+   * Records a pending timestamp. It's discarded if a more recent timestamp is already pending to
+   * the same integration instance.
+   * @param instanceId Integration instance identifier
+   * @param update Pending timestamp
+   */
+  private void putPending(String instanceId, PendingUpdate update) {
+    while (true) {
+      PendingUpdate current = pending.putIfAbsent(instanceId, update);
+
+      if (current == null || current.timestamp >= update.timestamp
+          || pending.replace(instanceId, current, update)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Writes the pending timestamps.
+   */
+  public void flush() {
+    Map<String, PendingUpdate> failures = new HashMap<>();
+
+    flushLock.lock();
+
+    try {
+      for (String instanceId : pending.keySet()) {
+        PendingUpdate update = pending.remove(instanceId);
+
+        if (update == null) {
+          continue;
+        }
+
+        try {
+          writer.write(instanceId, update.integrationUser, update.timestamp);
+        } catch (NotFoundException | ForbiddenUserException e) {
+          LOGGER.error(String.format("Fail to save the last posted date to the instance %s. "
+              + "Discarding it. Cause: %s", instanceId, e.getMessage()));
+        } catch (RuntimeException e) {
+          int attempts = update.attempts + 1;
+
+          if (attempts >= maxAttempts) {
+            LOGGER.error(String.format("Fail to save the last posted date to the instance %s "
+                + "after %d attempts. Discarding it", instanceId, attempts), e);
+          } else {
+            LOGGER.warn(String.format(
+                "Fail to save the last posted date to the instance %s. Cause: %s", instanceId,
+                e.getMessage()));
+            failures.put(instanceId,
+                new PendingUpdate(update.integrationUser, update.timestamp, attempts));
+          }
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+
+    for (Map.Entry<String, PendingUpdate> entry : failures.entrySet()) {
+      putPending(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Number of integration instances with a pending timestamp.
+   * @return Number of pending writes
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Most recent timestamp recorded to an integration instance and the user that posted it.
+   */
+  private static final class PendingUpdate {
+
+    private final String integrationUser;
+
+    private final long timestamp;
+
+    /**
+     * Number of failed writes of the timestamp.
+     */
+    private final int attempts;
+
+    PendingUpdate(String integrationUser, long timestamp, int attempts) {
+      this.integrationUser = integrationUser;
+      this.timestamp = timestamp;
+      this.attempts = attempts;
+    }
+  }
+}
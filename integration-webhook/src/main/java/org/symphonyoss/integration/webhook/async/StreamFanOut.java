@@ -0,0 +1,253 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import org.symphonyoss.integration.exception.RemoteApiException;
+import org.symphonyoss.integration.logging.DistributedTracingUtils;
+import org.symphonyoss.integration.model.message.Message;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Posts a message to many streams concurrently.
+ *
+ * Each fan-out uses up to "parallelism" workers: the caller thread plus helper workers borrowed
+ * from a pool shared by the integration. The workers take the next pending stream until all of
+ * them are posted, so a slow stream doesn't hold the others. When the pool is busy the caller
+ * thread posts the remaining streams by itself, so the fan-out never waits for a free thread.
+ */
+public class StreamFanOut {
+
+  /**
+   * Time, in seconds, to keep an idle thread alive.
+   */
+  private static final long KEEP_ALIVE = 60L;
+
+  /**
+   * Posts the message to a single stream.
+   */
+  public interface StreamSender {
+
+    /**
+     * Post the message to the stream.
+     * @param stream Stream identifier
+     * @return Messages posted
+     * @throws RemoteApiException Failure to post the message
+     */
+    List<Message> send(String stream) throws RemoteApiException;
+
+  }
+
+  /**
+   * Outcome of posting the message to a single stream.
+   */
+  public static final class StreamResult {
+
+    private final String stream;
+
+    private final List<Message> response;
+
+    private final Exception failure;
+
+    private StreamResult(String stream, List<Message> response, Exception failure) {
+      this.stream = stream;
+      this.response = response;
+      this.failure = failure;
+    }
+
+    public String getStream() {
+      return stream;
+    }
+
+    /**
+     * Messages posted to the stream.
+     * @return Messages posted or an empty list if the post failed
+     */
+    public List<Message> getResponse() {
+      return response;
+    }
+
+    /**
+     * Failure to post the message to the stream.
+     * @return Failure or null if the message was posted
+     */
+    public Exception getFailure() {
+      return failure;
+    }
+
+    public boolean isSuccess() {
+      return failure == null;
+    }
+  }
+
+  private final int parallelism;
+
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Creates the fan-out pool.
+   * @param name Integration name (used to identify the threads)
+   * @param threads Max number of helper threads
+   * @param parallelism Max number of streams posted concurrently for each message
+   */
+  public StreamFanOut(String name, int threads, int parallelism) {
+    this(threads, parallelism,
+        WebHookThreads.newThreadFactory("webhook-" + name + "-fanout-", false));
+  }
+
+  /**
+   * Creates the fan-out pool.
+   * @param threads Max number of helper threads
+   * @param parallelism Max number of streams posted concurrently for each message
+   * @param threadFactory Factory of the helper threads
+   */
+  public StreamFanOut(int threads, int parallelism, ThreadFactory threadFactory) {
+    this.parallelism = parallelism;
+
+    this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Posts the message to all the streams and waits for the outcome of each one.
+   * @param streams List of streams
+   * @param sender Sender used to post the message to each stream
+   * @return Outcome per stream, in the same order of the streams list
+   */
+  public List<StreamResult> send(final List<String> streams, final StreamSender sender) {
+    if (streams.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final AtomicReferenceArray<StreamResult> results = new AtomicReferenceArray<>(streams.size());
+    final AtomicInteger next = new AtomicInteger();
+
+    final Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        int index;
+
+        while ((index = next.getAndIncrement()) < streams.size()) {
+          results.set(index, sendToStream(streams.get(index), sender));
+        }
+      }
+    };
+
+    int helpers = Math.min(parallelism, streams.size()) - 1;
+    CountDownLatch done = new CountDownLatch(helpers);
+
+    for (int i = 0; i < helpers; i++) {
+      submitHelper(worker, done);
+    }
+
+    worker.run();
+    awaitHelpers(done);
+
+    List<StreamResult> result = new ArrayList<>(streams.size());
+
+    for (int i = 0; i < streams.size(); i++) {
+      result.add(results.get(i));
+    }
+
+    return result;
+  }
+
+  private StreamResult sendToStream(String stream, StreamSender sender) {
+    try {
+      List<Message> response = sender.send(stream);
+
+      if (response == null) {
+        response = Collections.emptyList();
+      }
+
+      return new StreamResult(stream, response, null);
+    } catch (Exception e) {
+      return new StreamResult(stream, Collections.<Message>emptyList(), e);
+    }
+  }
+
+  /**
+   * Submits a helper worker to the pool. The trace ID of the caller thread is propagated to the
+   * helper thread. If the pool is busy the helper is skipped, since the caller thread keeps
+   * posting the pending streams.
+   */
+  private void submitHelper(final Runnable worker, final CountDownLatch done) {
+    final String traceId = DistributedTracingUtils.getMDC();
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          DistributedTracingUtils.setMDC(traceId);
+
+          try {
+            worker.run();
+          } finally {
+            DistributedTracingUtils.clearMDC();
+            done.countDown();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      done.countDown();
+    }
+  }
+
+  private void awaitHelpers(CountDownLatch done) {
+    boolean interrupted = false;
+
+    while (true) {
+      try {
+        done.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Stops the helper threads. The fan-outs in progress are completed by the caller threads.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  public boolean isShutdown() {
+    return executor.isShutdown();
+  }
+
+}
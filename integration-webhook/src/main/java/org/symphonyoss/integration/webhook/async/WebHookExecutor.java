@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool that runs the background tasks of a single webhook feature, such as the remote
+ * calls triggered by the webhook timer.
+ *
+ * Each feature has its own pool, so a feature blocked on slow remote calls doesn't delay the
+ * tasks of the others. When the queue is full the new tasks are rejected instead of piling up in
+ * memory. The threads are released when idle, and the queued tasks are drained when the pool is
+ * shut down.
+ */
+public class WebHookExecutor extends ThreadPoolExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookExecutor.class);
+
+  /**
+   * Time, in seconds, to keep an idle thread.
+   */
+  private static final long KEEP_ALIVE = 60L;
+
+  /**
+   * Time, in seconds, to wait for the queued tasks during the drain.
+   */
+  private static final long SHUTDOWN_TIMEOUT = 10L;
+
+  private final String name;
+
+  /**
+   * Creates the pool. The threads are started on demand.
+   * @param name Pool name (used to identify the threads)
+   * @param threads Max number of threads
+   * @param capacity Max number of tasks waiting for a thread
+   */
+  public WebHookExecutor(String name, int threads, int capacity) {
+    super(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(capacity),
+        WebHookThreads.newThreadFactory(name + "-", false), new ThreadPoolExecutor.AbortPolicy());
+    this.name = name;
+    allowCoreThreadTimeOut(true);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Stops accepting new tasks and waits for the queued tasks to run.
+   */
+  public void drain() {
+    shutdown();
+
+    try {
+      if (!awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+        LOGGER.warn("Webhook executor {} terminated with {} pending tasks", name,
+            shutdownNow().size());
+      }
+    } catch (InterruptedException e) {
+      shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.logging.DistributedTracingUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue used to decouple the webhook ingestion from the webhook processing.
+ *
+ * The payloads are accepted into a queue with fixed capacity and drained by a fixed pool of worker
+ * threads. When the queue is full the new tasks are rejected immediately instead of blocking the
+ * caller, so the backpressure can be reported to the third-party service.
+ */
+public class WebHookQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookQueue.class);
+
+  /**
+   * Time, in seconds, to wait for the pending tasks during the shutdown.
+   */
+  private static final long SHUTDOWN_TIMEOUT = 10L;
+
+  private final String name;
+
+  private final int capacity;
+
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Creates the queue and the worker threads.
+   * @param name Queue name (used to identify the worker threads)
+   * @param capacity Max number of tasks waiting to be processed
+   * @param workerThreads Number of worker threads
+   */
+  public WebHookQueue(String name, int capacity, int workerThreads) {
+    this(name, capacity, workerThreads,
+        WebHookThreads.newThreadFactory("webhook-" + name + "-", false));
+  }
+
+  /**
+   * Creates the queue and the worker threads.
+   * @param name Queue name
+   * @param capacity Max number of tasks waiting to be processed
+   * @param workerThreads Number of worker threads
+   * @param threadFactory Factory of the worker threads
+   */
+  public WebHookQueue(String name, int capacity, int workerThreads, ThreadFactory threadFactory) {
+    this.name = name;
+    this.capacity = capacity;
+
+    this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(capacity), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Accepts a task to be processed by the worker threads. The trace ID of the caller thread is
+   * propagated to the worker thread.
+   * @param task Task to be processed
+   * @return true if the task was accepted or false if the queue is full or it was shut down
+   */
+  public boolean offer(final Runnable task) {
+    final String traceId = DistributedTracingUtils.getMDC();
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          DistributedTracingUtils.setMDC(traceId);
+
+          try {
+            task.run();
+          } finally {
+            DistributedTracingUtils.clearMDC();
+          }
+        }
+      });
+
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the number of tasks waiting to be processed.
+   * @return Queue depth
+   */
+  public int getDepth() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Returns the number of tasks that can be accepted before the queue gets full.
+   * @return Remaining capacity
+   */
+  public int getRemainingCapacity() {
+    return executor.getQueue().remainingCapacity();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Stops accepting new tasks and waits for the pending tasks to be processed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+        LOGGER.warn("Webhook queue {} terminated with {} pending tasks", name,
+            executor.shutdownNow().size());
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public boolean isShutdown() {
+    return executor.isShutdown();
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the thread factories of the webhook pools.
+ *
+ * The virtual threads are created through reflection, since the code is built for older JVMs.
+ * Their support is probed once by building a factory and creating a thread, so the JVMs that
+ * only expose them as a preview feature are detected as well. When the running JVM doesn't
+ * support them, the factories fall back to daemon platform threads.
+ */
+public final class WebHookThreads {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookThreads.class);
+
+  private static final String VIRTUAL_BUILDER_METHOD = "ofVirtual";
+
+  private static final String BUILDER_CLASS = "java.lang.Thread$Builder";
+
+  private static final String PROBE_PREFIX = "webhook-probe-";
+
+  /**
+   * Whether the running JVM is able to create virtual threads.
+   */
+  private static final boolean VIRTUAL_THREADS = probeVirtualThreads();
+
+  private WebHookThreads() {
+  }
+
+  /**
+   * Checks if the running JVM supports virtual threads.
+   * @return true if the virtual threads are supported
+   */
+  public static boolean isVirtualThreadSupported() {
+    return VIRTUAL_THREADS;
+  }
+
+  /**
+   * Checks if the thread factory creates virtual threads, so the pools can be sized according to
+   * the threads they actually use.
+   * @param factory Thread factory created by {@link #newThreadFactory(String, boolean)}
+   * @return true if the factory creates virtual threads
+   */
+  public static boolean isVirtual(ThreadFactory factory) {
+    return factory instanceof VirtualThreadFactory;
+  }
+
+  /**
+   * Creates a thread factory.
+   * @param prefix Prefix of the thread names, followed by a sequence number
+   * @param virtual Whether the threads should be virtual, if supported by the JVM
+   * @return Thread factory
+   */
+  public static ThreadFactory newThreadFactory(String prefix, boolean virtual) {
+    if (virtual) {
+      ThreadFactory factory = VIRTUAL_THREADS ? newVirtualThreadFactory(prefix) : null;
+
+      if (factory != null) {
+        return new VirtualThreadFactory(factory);
+      }
+
+      LOGGER.warn("Virtual threads aren't supported by this JVM. Using platform threads for {}",
+          prefix);
+    }
+
+    return new ThreadFactoryBuilder()
+        .setNameFormat(prefix + "%d")
+        .setDaemon(true)
+        .build();
+  }
+
+  private static ThreadFactory newVirtualThreadFactory(String prefix) {
+    try {
+      Method ofVirtual = Thread.class.getMethod(VIRTUAL_BUILDER_METHOD);
+      Class<?> builderClass = Class.forName(BUILDER_CLASS);
+
+      Object builder = ofVirtual.invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, prefix, 0L);
+
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOGGER.debug("Fail to create the virtual thread factory", e);
+      return null;
+    }
+  }
+
+  /**
+   * Checks if the virtual threads can be created, building a factory and creating a thread that
+   * isn't started.
+   * @return true if a virtual thread was created
+   */
+  private static boolean probeVirtualThreads() {
+    ThreadFactory factory = newVirtualThreadFactory(PROBE_PREFIX);
+
+    if (factory == null) {
+      return false;
+    }
+
+    try {
+      factory.newThread(new Runnable() {
+        @Override
+        public void run() {
+        }
+      });
+
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.debug("Fail to create a virtual thread", e);
+      return false;
+    }
+  }
+
+  /**
+   * Marks the factories that create virtual threads.
+   */
+  private static final class VirtualThreadFactory implements ThreadFactory {
+
+    private final ThreadFactory delegate;
+
+    VirtualThreadFactory(ThreadFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      return delegate.newThread(runnable);
+    }
+  }
+}
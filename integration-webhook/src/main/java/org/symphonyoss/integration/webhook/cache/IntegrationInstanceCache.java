@@ -0,0 +1,208 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.symphonyoss.integration.model.config.IntegrationInstance;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local cache of integration instances, keyed by configuration identifier and instance identifier.
+ *
+ * The integration instances change rarely, so there is no reason to retrieve them from the remote
+ * configuration service for every webhook received. Each entry is refreshed after a configurable
+ * time: the first request after the refresh interval triggers a reload in background, while the
+ * requests keep using the previous value. Entries without access are evicted after the expiration
+ * time.
+ *
+ * The cached instances are shared by all the requests, so they must not be changed. Callers that
+ * need to change an instance should work on a copy and {@link #update(IntegrationInstance)} it.
+ */
+public class IntegrationInstanceCache {
+
+  /**
+   * Retrieves the integration instances when they are not available in the cache.
+   */
+  public interface InstanceLoader {
+
+    /**
+     * Retrieve the integration instance from the configuration service.
+     * @param configurationId Configuration identifier
+     * @param instanceId Integration instance identifier
+     * @return Integration instance
+     */
+    IntegrationInstance load(String configurationId, String instanceId);
+
+  }
+
+  private final LoadingCache<InstanceKey, IntegrationInstance> cache;
+
+  /**
+   * Creates the cache.
+   * @param loader Loader used to retrieve the integration instances
+   * @param refreshExecutor Executor used to refresh the integration instances in background
+   * @param expiration Time, in seconds, to evict an integration instance without access
+   * @param refresh Time, in seconds, to refresh an integration instance after it was loaded
+   * @param maxSize Max number of integration instances
+   */
+  public IntegrationInstanceCache(final InstanceLoader loader, final Executor refreshExecutor,
+      long expiration, long refresh, long maxSize) {
+    this(loader, refreshExecutor, expiration, refresh, maxSize, Ticker.systemTicker());
+  }
+
+  IntegrationInstanceCache(final InstanceLoader loader, final Executor refreshExecutor,
+      long expiration, long refresh, long maxSize, Ticker ticker) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(expiration, TimeUnit.SECONDS)
+        .refreshAfterWrite(refresh, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .recordStats()
+        .build(new CacheLoader<InstanceKey, IntegrationInstance>() {
+          @Override
+          public IntegrationInstance load(InstanceKey key) throws Exception {
+            return loader.load(key.configurationId, key.instanceId);
+          }
+
+          @Override
+          public ListenableFuture<IntegrationInstance> reload(final InstanceKey key,
+              IntegrationInstance oldValue) {
+            ListenableFutureTask<IntegrationInstance> task =
+                ListenableFutureTask.create(new Callable<IntegrationInstance>() {
+                  @Override
+                  public IntegrationInstance call() throws Exception {
+                    return loader.load(key.configurationId, key.instanceId);
+                  }
+                });
+
+            refreshExecutor.execute(task);
+            return task;
+          }
+        });
+  }
+
+  /**
+   * Retrieves the integration instance from the cache, loading it if required. The runtime
+   * exceptions thrown by the loader are propagated to the caller.
+   * @param configurationId Configuration identifier
+   * @param instanceId Integration instance identifier
+   * @return Integration instance or null if the loader didn't find it
+   */
+  public IntegrationInstance get(String configurationId, String instanceId) {
+    try {
+      return cache.getUnchecked(new InstanceKey(configurationId, instanceId));
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      return null;
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * Replaces the cached integration instance. It should be called whenever the integration
+   * instance is saved locally, so the subsequent requests see the new version.
+   * @param instance Integration instance
+   */
+  public void update(IntegrationInstance instance) {
+    if (instance == null || instance.getConfigurationId() == null
+        || instance.getInstanceId() == null) {
+      return;
+    }
+
+    cache.put(new InstanceKey(instance.getConfigurationId(), instance.getInstanceId()), instance);
+  }
+
+  /**
+   * Removes the integration instance from the cache.
+   * @param configurationId Configuration identifier
+   * @param instanceId Integration instance identifier
+   */
+  public void invalidate(String configurationId, String instanceId) {
+    cache.invalidate(new InstanceKey(configurationId, instanceId));
+  }
+
+  /**
+   * Removes all the integration instances from the cache.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Cache key composed by the configuration identifier and instance identifier.
+   */
+  private static final class InstanceKey {
+
+    private final String configurationId;
+
+    private final String instanceId;
+
+    InstanceKey(String configurationId, String instanceId) {
+      this.configurationId = configurationId;
+      this.instanceId = instanceId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      InstanceKey that = (InstanceKey) o;
+
+      if (configurationId != null ? !configurationId.equals(that.configurationId)
+          : that.configurationId != null) {
+        return false;
+      }
+
+      return instanceId != null ? instanceId.equals(that.instanceId) : that.instanceId == null;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = configurationId != null ? configurationId.hashCode() : 0;
+      result = 31 * result + (instanceId != null ? instanceId.hashCode() : 0);
+      return result;
+    }
+  }
+}
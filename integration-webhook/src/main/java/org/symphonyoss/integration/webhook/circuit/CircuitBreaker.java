@@ -0,0 +1,272 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.circuit;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free circuit breaker used to stop processing webhooks while the downstream services are
+ * failing.
+ *
+ * The circuit starts closed and evaluates the failure rate in consecutive windows of
+ * "minimumCalls" calls. If the failure rate of a window reaches the threshold, the circuit opens
+ * and all the calls are rejected until the open timeout elapses. After that, the circuit becomes
+ * half-open and only "halfOpenCalls" trial calls are permitted: a single failure opens the circuit
+ * again, while "halfOpenCalls" successes close it.
+ *
+ * Every permit returned by {@link #tryAcquire()} must report its outcome through
+ * {@link #onSuccess(Permit)}, {@link #onFailure(Permit)} or {@link #release(Permit)}, otherwise
+ * the half-open state can run out of trial calls. The outcomes are only evaluated while the
+ * circuit remains in the state that granted the permit, so late outcomes of calls permitted
+ * before a state change are ignored.
+ */
+public class CircuitBreaker {
+
+  /**
+   * Circuit states
+   */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * The outcomes are stored in a single long: failures in the high 32 bits and calls in the low
+   * 32 bits, so both are updated atomically.
+   */
+  private static final int FAILURES_SHIFT = 32;
+
+  private static final long CALLS_MASK = 0xFFFFFFFFL;
+
+  private static final int PERCENTAGE = 100;
+
+  private final AtomicReference<Permit> current;
+
+  private final int failureRateThreshold;
+
+  private final int minimumCalls;
+
+  private final int halfOpenCalls;
+
+  private final long openTimeout;
+
+  private final Ticker ticker;
+
+  /**
+   * Creates the circuit breaker.
+   * @param failureRateThreshold Failure rate, in percentage, to open the circuit
+   * @param minimumCalls Number of calls evaluated together to compute the failure rate
+   * @param openTimeout Time, in milliseconds, that the circuit remains open
+   * @param halfOpenCalls Number of trial calls permitted while the circuit is half-open
+   */
+  public CircuitBreaker(int failureRateThreshold, int minimumCalls, long openTimeout,
+      int halfOpenCalls) {
+    this(failureRateThreshold, minimumCalls, openTimeout, halfOpenCalls, Ticker.systemTicker());
+  }
+
+  CircuitBreaker(int failureRateThreshold, int minimumCalls, long openTimeout, int halfOpenCalls,
+      Ticker ticker) {
+    this.failureRateThreshold = failureRateThreshold;
+    this.minimumCalls = minimumCalls;
+    this.openTimeout = TimeUnit.MILLISECONDS.toNanos(openTimeout);
+    this.halfOpenCalls = halfOpenCalls;
+    this.ticker = ticker;
+    this.current = new AtomicReference<>(new Permit(State.CLOSED, 0, 0));
+  }
+
+  /**
+   * Checks whether the circuit would accept calls now, without consuming a trial call.
+   * @return true if the circuit is closed, half-open or its open timeout has elapsed.
+   */
+  public boolean isCallPermitted() {
+    Permit permit = current.get();
+    return permit.state != State.OPEN || openTimeoutElapsed(permit);
+  }
+
+  /**
+   * Acquires permission to execute a call. When the circuit is half-open, it consumes one of the
+   * trial calls.
+   * @return Permit to report the outcome of the call or null if the call isn't permitted.
+   */
+  public Permit tryAcquire() {
+    while (true) {
+      Permit permit = current.get();
+
+      if (permit.state == State.CLOSED) {
+        return permit;
+      }
+
+      if (permit.state == State.HALF_OPEN) {
+        return permit.acquire() ? permit : null;
+      }
+
+      if (!openTimeoutElapsed(permit)) {
+        return null;
+      }
+
+      current.compareAndSet(permit, new Permit(State.HALF_OPEN, permit.openedAt, halfOpenCalls));
+    }
+  }
+
+  /**
+   * Reports a successful call.
+   * @param permit Permit returned by {@link #tryAcquire()}
+   */
+  public void onSuccess(Permit permit) {
+    if (permit.state == State.CLOSED) {
+      record(permit, false);
+    } else if (permit.state == State.HALF_OPEN && current.get() == permit) {
+      long calls = permit.outcomes.incrementAndGet() & CALLS_MASK;
+
+      if (calls >= halfOpenCalls) {
+        current.compareAndSet(permit, new Permit(State.CLOSED, 0, 0));
+      }
+    }
+  }
+
+  /**
+   * Reports a failed call.
+   * @param permit Permit returned by {@link #tryAcquire()}
+   */
+  public void onFailure(Permit permit) {
+    if (permit.state == State.CLOSED) {
+      record(permit, true);
+    } else if (permit.state == State.HALF_OPEN) {
+      open(permit);
+    }
+  }
+
+  /**
+   * Reports a call that was permitted but whose outcome shouldn't be evaluated, giving back the
+   * trial call when the circuit is half-open.
+   * @param permit Permit returned by {@link #tryAcquire()}
+   */
+  public void release(Permit permit) {
+    if (permit.state == State.HALF_OPEN && current.get() == permit) {
+      permit.permits.incrementAndGet();
+    }
+  }
+
+  /**
+   * Opens the circuit regardless of the failure rate.
+   */
+  public void forceOpen() {
+    current.set(new Permit(State.OPEN, ticker.read(), 0));
+  }
+
+  /**
+   * Closes the circuit and discards the outcomes recorded so far.
+   */
+  public void reset() {
+    current.set(new Permit(State.CLOSED, 0, 0));
+  }
+
+  public State getState() {
+    return current.get().state;
+  }
+
+  /**
+   * Records the outcome of a call while the circuit is closed and opens it if the failure rate of
+   * the current window reached the threshold.
+   * @param permit Permit granted while the circuit was closed
+   * @param failure true if the call failed
+   */
+  private void record(Permit permit, boolean failure) {
+    while (current.get() == permit) {
+      long outcomes = permit.outcomes.get();
+      long calls = (outcomes & CALLS_MASK) + 1;
+      long failures = (outcomes >>> FAILURES_SHIFT) + (failure ? 1 : 0);
+
+      if (calls < minimumCalls) {
+        if (permit.outcomes.compareAndSet(outcomes, (failures << FAILURES_SHIFT) | calls)) {
+          return;
+        }
+      } else if (permit.outcomes.compareAndSet(outcomes, 0)) {
+        if (failures * PERCENTAGE >= (long) failureRateThreshold * calls) {
+          open(permit);
+        }
+
+        return;
+      }
+    }
+  }
+
+  /**
+   * Opens the circuit if it's still in the state that granted the permit. The open timestamp
+   * belongs to the new state, so it's only set when the transition succeeds.
+   * @param permit Permit granted in the state being left
+   */
+  private void open(Permit permit) {
+    current.compareAndSet(permit, new Permit(State.OPEN, ticker.read(), 0));
+  }
+
+  private boolean openTimeoutElapsed(Permit permit) {
+    return ticker.read() - permit.openedAt >= openTimeout;
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker{" +
+        "state=" + getState() +
+        ", failureRateThreshold=" + failureRateThreshold +
+        ", minimumCalls=" + minimumCalls +
+        ", halfOpenCalls=" + halfOpenCalls +
+        '}';
+  }
+
+  /**
+   * Permission to execute a call, tied to the circuit state that granted it. Each state change
+   * creates a new instance, holding the outcomes and trial calls of that state, so the permits
+   * granted while the circuit was closed are never counted as trial calls.
+   */
+  public static final class Permit {
+
+    private final State state;
+
+    private final long openedAt;
+
+    private final AtomicLong outcomes = new AtomicLong();
+
+    private final AtomicInteger permits;
+
+    private Permit(State state, long openedAt, int permits) {
+      this.state = state;
+      this.openedAt = openedAt;
+      this.permits = new AtomicInteger(permits);
+    }
+
+    private boolean acquire() {
+      while (true) {
+        int available = permits.get();
+
+        if (available <= 0) {
+          return false;
+        }
+
+        if (permits.compareAndSet(available, available - 1)) {
+          return true;
+        }
+      }
+    }
+  }
+}
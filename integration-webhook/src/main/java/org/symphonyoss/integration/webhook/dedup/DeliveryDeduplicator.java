@@ -0,0 +1,185 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.dedup;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognizes the webhook deliveries already received within a time window.
+ *
+ * Each delivery is identified by the integration instance plus the delivery identifier sent by
+ * the third-party system in a request header. The payload body identifies the deliveries without
+ * that header only when the body hash is enabled, since distinct events may have the same body.
+ * Only a 64-bit hash of the identity is kept, so the memory required per delivery doesn't depend
+ * on the payload size.
+ *
+ * The window is sliding: each duplicate received restarts it, so a delivery retried
+ * continuously is suppressed for as long as the retries keep coming. The number of deliveries
+ * remembered is bounded, the least recently seen ones are evicted first when the limit is
+ * reached.
+ */
+public class DeliveryDeduplicator {
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  /**
+   * Separates the hashed fields, so different combinations of instance and delivery identifiers
+   * don't produce the same input.
+   */
+  private static final char SEPARATOR = '\0';
+
+  private final Cache<Long, Boolean> deliveries;
+
+  private final String deliveryIdHeader;
+
+  private final boolean hashBody;
+
+  /**
+   * Creates the deduplicator.
+   * @param deliveryIdHeader Request header that identifies the delivery or null if there is none
+   * @param hashBody Whether the deliveries without identifier are identified by the payload body
+   * @param window Time, in seconds, a delivery is remembered since it was last received
+   * @param maxSize Max number of deliveries remembered
+   */
+  public DeliveryDeduplicator(String deliveryIdHeader, boolean hashBody, long window,
+      long maxSize) {
+    this(deliveryIdHeader, hashBody, window, maxSize, Ticker.systemTicker());
+  }
+
+  DeliveryDeduplicator(String deliveryIdHeader, boolean hashBody, long window, long maxSize,
+      Ticker ticker) {
+    this.deliveryIdHeader = deliveryIdHeader;
+    this.hashBody = hashBody;
+    this.deliveries = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(window, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .build();
+  }
+
+  /**
+   * Registers the delivery.
+   * @param instanceId Integration instance identifier
+   * @param payload Webhook payload
+   * @return Delivery registered, an untracked delivery if it can't be identified or null if the
+   * same delivery was already received within the window
+   */
+  public Delivery register(String instanceId, WebHookPayload payload) {
+    if (!hashBody && getDeliveryId(payload) == null) {
+      return Delivery.UNTRACKED;
+    }
+
+    long fingerprint = fingerprint(instanceId, payload);
+
+    // Reading the duplicate restarts its window
+    if (deliveries.getIfPresent(fingerprint) != null
+        || deliveries.asMap().putIfAbsent(fingerprint, Boolean.TRUE) != null) {
+      return null;
+    }
+
+    return new Delivery(this, fingerprint);
+  }
+
+  /**
+   * Returns the approximate number of deliveries remembered.
+   * @return Number of deliveries
+   */
+  public long size() {
+    return deliveries.size();
+  }
+
+  /**
+   * Computes the hash that identifies the delivery.
+   * @param instanceId Integration instance identifier
+   * @param payload Webhook payload
+   * @return Delivery hash
+   */
+  long fingerprint(String instanceId, WebHookPayload payload) {
+    Hasher hasher = HASH_FUNCTION.newHasher()
+        .putString(StringUtils.defaultString(instanceId), Charsets.UTF_8)
+        .putChar(SEPARATOR);
+
+    String deliveryId = getDeliveryId(payload);
+
+    if (deliveryId != null) {
+      hasher.putChar('h').putString(deliveryId, Charsets.UTF_8);
+    } else {
+      byte[] body = payload.getRawBody();
+      hasher.putChar('b').putBytes(body != null ? body : new byte[0]);
+    }
+
+    return hasher.hash().asLong();
+  }
+
+  /**
+   * Reads the delivery identifier from the request headers.
+   * @param payload Webhook payload
+   * @return Delivery identifier or null if it isn't available
+   */
+  private String getDeliveryId(WebHookPayload payload) {
+    if (StringUtils.isEmpty(deliveryIdHeader)) {
+      return null;
+    }
+
+    String value = payload.getHeaders().get(deliveryIdHeader);
+    return StringUtils.isEmpty(value) ? null : value;
+  }
+
+  private void forget(long fingerprint) {
+    deliveries.invalidate(fingerprint);
+  }
+
+  /**
+   * Delivery registered by the deduplicator.
+   */
+  public static final class Delivery {
+
+    /**
+     * Delivery that isn't tracked by any deduplicator.
+     */
+    public static final Delivery UNTRACKED = new Delivery(null, 0);
+
+    private final DeliveryDeduplicator owner;
+
+    private final long fingerprint;
+
+    private Delivery(DeliveryDeduplicator owner, long fingerprint) {
+      this.owner = owner;
+      this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Forgets the delivery, so a retry sent by the third-party system is processed again. It
+     * should be called when the delivery couldn't be processed.
+     */
+    public void cancel() {
+      if (owner != null) {
+        owner.forget(fingerprint);
+      }
+    }
+  }
+}
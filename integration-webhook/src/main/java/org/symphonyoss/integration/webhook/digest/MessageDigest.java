@@ -0,0 +1,505 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.digest;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.exception.RemoteApiException;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * Coalesces the messages posted to the same stream by an integration instance.
+ *
+ * The first message of a stream opens a window. The messages added to the stream until the window
+ * closes, or until the max number of messages is reached, are merged into a single MessageML v2
+ * message with a digest entity. A window that collected only one message posts it unchanged.
+ *
+ * Only the MessageML v1 and plain text messages are merged, since they can be summarized by their
+ * text. The MessageML v2 messages are rendered from their own template and EntityJSON, so they're
+ * posted unchanged, in the order they were added, between the digests of the other messages.
+ *
+ * The digest entity has the number of messages and the list of messages, each one with a plain
+ * text summary:
+ *
+ * <pre>
+ * {"digest": {"type": "com.symphony.integration.digest", "version": "1.0", "count": 2,
+ *   "messages": [{"summary": "..."}, {"summary": "..."}]}}
+ * </pre>
+ *
+ * The messages that fail to be posted are added back to the window of the stream, to be posted
+ * when it closes again, until the max number of attempts. The messages refused by the downstream
+ * services with a client error are discarded.
+ */
+public class MessageDigest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessageDigest.class);
+
+  /**
+   * Digest entity fields
+   */
+  public static final String DIGEST = "digest";
+  public static final String DIGEST_ENTITY_TYPE = "com.symphony.integration.digest";
+  public static final String DIGEST_ENTITY_VERSION = "1.0";
+  private static final String ENTITY_TYPE = "type";
+  private static final String ENTITY_VERSION = "version";
+  private static final String COUNT = "count";
+  private static final String MESSAGES = "messages";
+  private static final String SUMMARY = "summary";
+
+  /**
+   * MessageML v2 template used to render the digest entity.
+   */
+  public static final String DIGEST_TEMPLATE = "<messageML>"
+      + "<b>${entity['digest'].count} events</b>"
+      + "<ul><#list entity['digest'].messages as item><li>${item.summary?html}</li></#list></ul>"
+      + "</messageML>";
+
+  private static final String TAG_REGEX = "<[^>]*>";
+
+  private static final String WHITESPACE_REGEX = "\\s+";
+
+  /**
+   * Posts the messages released by the digest.
+   */
+  public interface Sender {
+
+    /**
+     * Post a message to a stream.
+     * @param instanceId Integration instance identifier
+     * @param integrationUser Integration username
+     * @param stream Stream identifier
+     * @param message Message to be posted
+     * @param count Number of messages merged into the message
+     * @throws RemoteApiException Failure to post the message
+     */
+    void send(String instanceId, String integrationUser, String stream, Message message,
+        int count) throws RemoteApiException;
+
+  }
+
+  private final ConcurrentMap<Key, Window> windows = new ConcurrentHashMap<>();
+
+  private final WebHookTimer timer;
+
+  private final Executor executor;
+
+  private final long window;
+
+  private final int maxMessages;
+
+  private final int maxAttempts;
+
+  private final Sender sender;
+
+  /**
+   * @param timer Timer used to schedule the closing of the windows
+   * @param executor Executor used to close the windows and post their messages
+   * @param window Time, in milliseconds, to collect the messages of a stream
+   * @param maxMessages Max number of messages merged into a single message
+   * @param maxAttempts Number of failed posts of a message before discarding it
+   * @param sender Posts the messages released by the digest
+   */
+  public MessageDigest(WebHookTimer timer, Executor executor, long window, int maxMessages,
+      int maxAttempts, Sender sender) {
+    this.timer = timer;
+    this.executor = executor;
+    this.window = window;
+    this.maxMessages = maxMessages;
+    this.maxAttempts = maxAttempts;
+    this.sender = sender;
+  }
+
+  /**
+   * Add a message to the window of the stream, opening a new window if required. The window is
+   * closed in background when it reaches the max number of messages.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param stream Stream identifier
+   * @param message Message to be posted
+   */
+  public void add(String instanceId, String integrationUser, String stream, Message message) {
+    Key key = new Key(instanceId, stream);
+
+    while (true) {
+      Window current = windows.get(key);
+      boolean opened = false;
+
+      if (current == null) {
+        Window created = new Window(key, integrationUser, 0);
+        current = windows.putIfAbsent(key, created);
+
+        if (current == null) {
+          current = created;
+          opened = true;
+        }
+      }
+
+      int size = current.add(message);
+
+      if (size < 0) {
+        windows.remove(key, current);
+        continue;
+      }
+
+      if (opened && !schedule(current)) {
+        close(current);
+      } else if (size >= maxMessages) {
+        dispatch(current);
+      }
+
+      return;
+    }
+  }
+
+  /**
+   * Close all the windows, posting the pending messages. The messages that fail to be posted are
+   * added back to new windows, which aren't closed by this call.
+   */
+  public void flush() {
+    for (Window window : new ArrayList<>(windows.values())) {
+      close(window);
+    }
+  }
+
+  /**
+   * Number of streams with pending messages.
+   * @return Number of open windows
+   */
+  public int getPendingCount() {
+    return windows.size();
+  }
+
+  /**
+   * Schedules the closing of a window.
+   * @param window Window just opened
+   * @return true if the closing was scheduled or false if the timer was stopped
+   */
+  private boolean schedule(final Window window) {
+    try {
+      window.timeout = timer.schedule(new Runnable() {
+        @Override
+        public void run() {
+          close(window);
+        }
+      }, this.window, TimeUnit.MILLISECONDS, executor);
+
+      return true;
+    } catch (RejectedExecutionException e) {
+      LOGGER.warn("Timer stopped. The message will be posted without waiting for the window.");
+      return false;
+    }
+  }
+
+  /**
+   * Closes a window in background, or in the caller thread if the executor is saturated.
+   * @param window Window to be closed
+   */
+  private void dispatch(final Window window) {
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          close(window);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      close(window);
+    }
+  }
+
+  /**
+   * Closes a window and posts its messages. Subsequent messages to the stream open a new window.
+   * The consecutive messages that can be summarized are merged, while the others are posted
+   * unchanged. If a post fails, the messages not posted yet are added back to the window.
+   * @param window Window to be closed
+   */
+  private void close(Window window) {
+    windows.remove(window.key, window);
+
+    List<Message> messages = window.close();
+    int posted = 0;
+
+    while (posted < messages.size()) {
+      int count = 1;
+
+      if (isSummarizable(messages.get(posted))) {
+        while (posted + count < messages.size() && isSummarizable(messages.get(posted + count))) {
+          count++;
+        }
+      }
+
+      List<Message> batch = messages.subList(posted, posted + count);
+      Key key = window.key;
+
+      try {
+        sender.send(key.instanceId, window.integrationUser, key.stream, merge(batch), count);
+      } catch (RemoteApiException | RuntimeException e) {
+        retry(window, messages.subList(posted, messages.size()), e);
+        return;
+      }
+
+      posted += count;
+    }
+  }
+
+  /**
+   * Adds the messages that failed to be posted back to the window of the stream, opening a new
+   * window if required. They're posted again when the window times out. The messages are
+   * discarded if they were refused by the downstream services, reached the max number of attempts
+   * or the timer was stopped.
+   * @param window Window closed
+   * @param messages Messages not posted
+   * @param cause Failure to post the messages
+   */
+  private void retry(Window window, List<Message> messages, Exception cause) {
+    Key key = window.key;
+    int attempts = window.attempts + 1;
+
+    boolean clientError = cause instanceof RemoteApiException
+        && ((RemoteApiException) cause).getCode()
+        < Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+
+    if (clientError || attempts >= maxAttempts) {
+      LOGGER.error(String.format("Fail to post %d message(s) to the stream %s of the instance %s",
+          messages.size(), key.stream, key.instanceId), cause);
+      return;
+    }
+
+    LOGGER.warn(String.format("Fail to post %d message(s) to the stream %s of the instance %s. "
+        + "Retrying in %d ms. Cause: %s", messages.size(), key.stream, key.instanceId,
+        this.window, cause.getMessage()));
+
+    while (true) {
+      Window current = windows.get(key);
+
+      if (current == null) {
+        Window created = new Window(key, window.integrationUser, attempts);
+        created.retry(messages, attempts);
+
+        if (windows.putIfAbsent(key, created) != null) {
+          continue;
+        }
+
+        if (!schedule(created)) {
+          windows.remove(key, created);
+          LOGGER.error("Timer stopped. Discarding {} message(s) to the stream {} of the "
+              + "instance {}", messages.size(), key.stream, key.instanceId);
+        }
+
+        return;
+      }
+
+      if (current.retry(messages, attempts) < 0) {
+        windows.remove(key, current);
+        continue;
+      }
+
+      return;
+    }
+  }
+
+  /**
+   * Merge the messages into a single MessageML v2 message with the digest entity. A single
+   * message is returned unchanged.
+   * @param messages Messages to be merged. They must be summarizable, unless there is only one.
+   * @return Merged message
+   */
+  public static Message merge(List<Message> messages) {
+    if (messages.size() == 1) {
+      return messages.get(0);
+    }
+
+    ArrayNode items = JsonNodeFactory.instance.arrayNode();
+
+    for (Message message : messages) {
+      items.addObject().put(SUMMARY, getSummary(message));
+    }
+
+    ObjectNode digest = JsonNodeFactory.instance.objectNode();
+    digest.put(ENTITY_TYPE, DIGEST_ENTITY_TYPE);
+    digest.put(ENTITY_VERSION, DIGEST_ENTITY_VERSION);
+    digest.put(COUNT, messages.size());
+    digest.set(MESSAGES, items);
+
+    ObjectNode entityJSON = JsonNodeFactory.instance.objectNode();
+    entityJSON.set(DIGEST, digest);
+
+    Message result = new Message();
+    result.setMessage(DIGEST_TEMPLATE);
+    result.setFormat(Message.FormatEnum.MESSAGEML);
+    result.setVersion(MessageMLVersion.V2);
+    result.setData(entityJSON.toString());
+
+    return result;
+  }
+
+  /**
+   * Checks whether the message can be summarized by its text. The MessageML v2 messages depend on
+   * their template and EntityJSON to be rendered, so they can't.
+   * @param message Message
+   * @return true if the message can be merged into a digest
+   */
+  public static boolean isSummarizable(Message message) {
+    return !MessageMLVersion.V2.equals(message.getVersion());
+  }
+
+  /**
+   * Build a plain text summary of a MessageML v1 or plain text message. The summary is escaped by
+   * the digest template.
+   * @param message Message
+   * @return Plain text summary
+   */
+  private static String getSummary(Message message) {
+    String text = StringUtils.defaultString(message.getMessage());
+
+    if (!Message.FormatEnum.TEXT.equals(message.getFormat())) {
+      text = StringEscapeUtils.unescapeXml(text.replaceAll(TAG_REGEX, " "));
+    }
+
+    return text.replaceAll(WHITESPACE_REGEX, " ").trim();
+  }
+
+  /**
+   * Identifies the window of an integration instance and stream.
+   */
+  private static final class Key {
+
+    private final String instanceId;
+
+    private final String stream;
+
+    Key(String instanceId, String stream) {
+      this.instanceId = instanceId;
+      this.stream = stream;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      Key key = (Key) o;
+      return instanceId.equals(key.instanceId) && stream.equals(key.stream);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * instanceId.hashCode() + stream.hashCode();
+    }
+  }
+
+  /**
+   * Messages collected to a stream while the window is open.
+   */
+  private static final class Window {
+
+    private final Key key;
+
+    private final String integrationUser;
+
+    /**
+     * Number of failed posts of the oldest messages in the window.
+     */
+    private volatile int attempts;
+
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    private List<Message> messages = new ArrayList<>();
+
+    Window(Key key, String integrationUser, int attempts) {
+      this.key = key;
+      this.integrationUser = integrationUser;
+      this.attempts = attempts;
+    }
+
+    /**
+     * Add a message to the window.
+     * @param message Message
+     * @return Number of messages in the window or -1 if the window was already closed
+     */
+    synchronized int add(Message message) {
+      if (messages == null) {
+        return -1;
+      }
+
+      messages.add(message);
+      return messages.size();
+    }
+
+    /**
+     * Add the messages that failed to be posted to the window, before the messages added since
+     * then.
+     * @param failed Messages that failed to be posted
+     * @param attempts Number of failed posts of the messages
+     * @return Number of messages in the window or -1 if the window was already closed
+     */
+    synchronized int retry(List<Message> failed, int attempts) {
+      if (messages == null) {
+        return -1;
+      }
+
+      messages.addAll(0, failed);
+      this.attempts = Math.max(this.attempts, attempts);
+      return messages.size();
+    }
+
+    /**
+     * Close the window and cancel the scheduled closing.
+     * @return Messages collected or an empty list if the window was already closed
+     */
+    List<Message> close() {
+      List<Message> result;
+
+      synchronized (this) {
+        result = messages;
+        messages = null;
+      }
+
+      HashedWheelTimer.Timeout task = timeout;
+
+      if (task != null) {
+        task.cancel();
+      }
+
+      return result != null ? result : Collections.<Message>emptyList();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.exception;
+
+import org.symphonyoss.integration.exception.ParserTimeoutException;
+
+/**
+ * The parser exceeded the time budget configured for the integration and it was aborted.
+ *
+ * The payload is refused as a parse failure, as retrying it would abort the parser again.
+ */
+public class WebHookParseTimeoutException extends WebHookParseException {
+
+  private static final String COMPONENT = "Webhook Dispatcher";
+
+  public WebHookParseTimeoutException(ParserTimeoutException cause) {
+    super(COMPONENT, String.format(
+        "Parse timeout! The parser exceeded the time budget of %d ms.", cause.getTimeout()),
+        cause, "Check the size and the content of the payload sent by the third-party service");
+  }
+
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.exception;
+
+/**
+ * The payload body exceeds the size limit accepted by the webhook.
+ *
+ * This exception should be reported to the third-party service as 413 Payload Too Large.
+ */
+public class WebHookPayloadTooLargeException extends WebhookException {
+
+  public WebHookPayloadTooLargeException(long maxSize) {
+    super(String.format("Payload too large! The payload body exceeds the limit of %d bytes.",
+        maxSize));
+  }
+
+}
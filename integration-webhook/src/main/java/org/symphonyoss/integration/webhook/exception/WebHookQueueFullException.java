@@ -0,0 +1,33 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.exception;
+
+/**
+ * The webhook queue of the integration reached its capacity, so the incoming payload can't be
+ * accepted at this moment.
+ *
+ * This exception should be reported to the third-party service as 429 Too Many Requests, so the
+ * sender can retry the delivery later.
+ */
+public class WebHookQueueFullException extends WebhookException {
+
+  public WebHookQueueFullException(String configurationType, int capacity) {
+    super(String.format("Configuration %s overloaded! The webhook queue reached its capacity (%d).",
+        configurationType, capacity));
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.filter;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.model.config.IntegrationInstance;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Discards the events an integration instance isn't subscribed to before the payload is parsed.
+ *
+ * The event type is read from a request header or, when the header isn't available, from a JSON
+ * field of the payload body using a streaming parser, so the body doesn't need to be fully parsed.
+ * The notifications of each integration instance are read from the typed view of its optional
+ * properties, which is only parsed again when the optional properties change.
+ *
+ * The events are accepted whenever the filter can't tell otherwise: the event type is unknown, or
+ * the instance has no notifications configured or they can't be read.
+ */
+public class WebHookEventFilter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookEventFilter.class);
+
+  private final String eventHeader;
+
+  private final String eventField;
+
+  /**
+   * @param eventHeader Request header that contains the event type or null to always use the
+   * JSON field
+   * @param eventField JSON field that contains the event type or null to only use the header
+   */
+  public WebHookEventFilter(String eventHeader, String eventField) {
+    this.eventHeader = eventHeader;
+    this.eventField = eventField;
+  }
+
+  /**
+   * Reads the event type from the request header or, when the header isn't present, from the
+   * JSON field of the payload body.
+   * @param payload Webhook payload
+   * @return Event type or null if it can't be determined
+   */
+  public String getEventType(WebHookPayload payload) {
+    if (StringUtils.isNotEmpty(eventHeader)) {
+      String value = payload.getHeaders().get(eventHeader);
+
+      if (StringUtils.isNotEmpty(value)) {
+        return value;
+      }
+    }
+
+    if (StringUtils.isNotEmpty(eventField)) {
+      return payload.peekField(eventField);
+    }
+
+    return null;
+  }
+
+  /**
+   * Checks if the integration instance is subscribed to the event.
+   * @param instance Integration instance
+   * @param eventType Event type or null if it's unknown
+   * @return false if the event must be discarded
+   */
+  public boolean isSubscribed(IntegrationInstance instance, String eventType) {
+    if (eventType == null || instance == null) {
+      return true;
+    }
+
+    List<String> notifications = getNotifications(instance);
+    return notifications.isEmpty() || notifications.contains(eventType);
+  }
+
+  /**
+   * Retrieve the notifications configured to the integration instance.
+   * @param instance Integration instance
+   * @return Notifications configured or an empty list if there is none or they can't be read
+   */
+  private List<String> getNotifications(IntegrationInstance instance) {
+    try {
+      return instance.getProperties().getNotifications();
+    } catch (IOException e) {
+      LOGGER.warn("Fail to read the notifications of the instance {}. Cause: {}",
+          instance.getInstanceId(), e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+}
@@ -29,4 +29,9 @@ public class ParserMetricsConstants {
    */
   public static final String PARSER = "parser";
 
+  /**
+   * Metric name used by metrics that deal with parser executions aborted due to the time budget
+   */
+  public static final String TIMEOUT = "timeout";
+
 }
@@ -20,6 +20,7 @@ import static org.symphonyoss.integration.metrics.IntegrationMetricsConstants.BA
 import static org.symphonyoss.integration.metrics.IntegrationMetricsConstants.FAIL;
 import static org.symphonyoss.integration.metrics.IntegrationMetricsConstants.SUCCESS;
 import static org.symphonyoss.integration.webhook.metrics.ParserMetricsConstants.PARSER;
+import static org.symphonyoss.integration.webhook.metrics.ParserMetricsConstants.TIMEOUT;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.MetricRegistry;
@@ -58,6 +59,11 @@ public class ParserMetricsController implements IntegrationController {
    */
   private ConcurrentMap<String, Counter> parserFailCounters = new ConcurrentHashMap<>();
 
+  /**
+   * Counters for each parser. Used to monitor the parser executions aborted due to the time budget
+   */
+  private ConcurrentMap<String, Counter> parserTimeoutCounters = new ConcurrentHashMap<>();
+
   /**
    * Initializes the metrics for an specific parser. Each parser should monitor the
    * execution time, success executions, fail executions, success executions ratio and fail
@@ -80,6 +86,11 @@ public class ParserMetricsController implements IntegrationController {
         metricsRegistry.counter(MetricRegistry.name(BASE_METRIC_NAME, integration, PARSER, FAIL));
     parserFailCounters.put(integration, parserFailCounter);
 
+    // Counter for parser executions aborted due to the time budget
+    Counter parserTimeoutCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, PARSER, TIMEOUT));
+    parserTimeoutCounters.put(integration, parserTimeoutCounter);
+
     // Success ratio. This ratio is the number of success executions divided by the total of
     // parser executions.
     CounterRatio parserSuccessRatio = new CounterRatio(parserSuccessCounter, parserTimer);
@@ -134,4 +145,18 @@ public class ParserMetricsController implements IntegrationController {
       context.close();
     }
   }
+
+  /**
+   * Signals the parser execution was aborted because it exceeded the time budget. The execution
+   * must be finished as a failure through {@link #finishParserExecution(Timer.Context, String,
+   * boolean)} as well.
+   * @param integration Integration identifier
+   */
+  public void parserTimeout(String integration) {
+    Counter counter = parserTimeoutCounters.get(integration);
+
+    if (counter != null) {
+      counter.inc();
+    }
+  }
 }
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.metrics;
+
+/**
+ * Holds the constants required by the {@link WebHookMetricsController}.
+ */
+public class WebHookMetricsConstants {
+
+  private WebHookMetricsConstants() {}
+
+  /**
+   * Base metric name used by metrics that deal with the webhook processing pipeline
+   */
+  public static final String WEBHOOK = "webhook";
+
+  /**
+   * Metric name used by metrics related to the asynchronous webhook queue
+   */
+  public static final String QUEUE = "queue";
+
+  /**
+   * Constant used by metric that monitors the number of payloads waiting in the queue
+   */
+  public static final String DEPTH = "depth";
+
+  /**
+   * Constant used by metric that monitors the remaining capacity of the queue
+   */
+  public static final String REMAINING_CAPACITY = "remaining.capacity";
+
+  /**
+   * Constant used by metric that calculates accepted payloads
+   */
+  public static final String ACCEPTED = "accepted";
+
+  /**
+   * Constant used by metric that calculates rejected payloads
+   */
+  public static final String REJECTED = "rejected";
+
+  /**
+   * Metric name used by metrics related to the integration instance cache
+   */
+  public static final String INSTANCE_CACHE = "instance.cache";
+
+  /**
+   * Constant used by metric that calculates cache hits
+   */
+  public static final String HIT = "hit";
+
+  /**
+   * Constant used by metric that calculates cache misses
+   */
+  public static final String MISS = "miss";
+
+  /**
+   * Constant used by metric that monitors the number of cached entries
+   */
+  public static final String SIZE = "size";
+
+  /**
+   * Metric name used by metrics related to the circuit breaker
+   */
+  public static final String CIRCUIT_BREAKER = "circuit.breaker";
+
+  /**
+   * Constant used by metric that monitors the circuit breaker state
+   */
+  public static final String STATE = "state";
+
+  /**
+   * Metric name used by metrics related to the suppression of duplicate deliveries
+   */
+  public static final String DEDUPLICATION = "deduplication";
+
+  /**
+   * Constant used by metric that calculates suppressed deliveries
+   */
+  public static final String SUPPRESSED = "suppressed";
+
+  /**
+   * Metric name used by metrics related to the rate limiting
+   */
+  public static final String RATE_LIMIT = "rate.limit";
+
+  /**
+   * Constant used by metrics related to the integration instances
+   */
+  public static final String INSTANCE = "instance";
+
+  /**
+   * Constant used by metrics related to the integration as a whole
+   */
+  public static final String INTEGRATION = "integration";
+
+  /**
+   * Constant used by metric that monitors the tokens available
+   */
+  public static final String AVAILABLE = "available";
+
+  /**
+   * Metric name used by metrics related to the shared webhook timer
+   */
+  public static final String TIMER = "timer";
+
+  /**
+   * Constant used by metric that calculates scheduled tasks
+   */
+  public static final String SCHEDULED = "scheduled";
+
+  /**
+   * Constant used by metric that monitors the tasks waiting for their deadline
+   */
+  public static final String PENDING = "pending";
+
+  /**
+   * Constant used by metric that calculates expired tasks
+   */
+  public static final String EXPIRED = "expired";
+
+  /**
+   * Metric name used by metrics related to the user cache
+   */
+  public static final String USER_CACHE = "user.cache";
+
+  /**
+   * Metric name used by metrics related to the webhook spool
+   */
+  public static final String SPOOL = "spool";
+
+  /**
+   * Constant used by metric that monitors the age of the oldest item
+   */
+  public static final String AGE = "age";
+
+  /**
+   * Metric name used by metrics related to the message digest
+   */
+  public static final String DIGEST = "digest";
+
+  /**
+   * Constant used by metric that calculates buffered messages
+   */
+  public static final String BUFFERED = "buffered";
+
+  /**
+   * Constant used by metric that calculates posted messages
+   */
+  public static final String POSTED = "posted";
+
+  /**
+   * Metric name used by metrics related to the webhook scheduler
+   */
+  public static final String SCHEDULER = "scheduler";
+
+  /**
+   * Constant used by metric that calculates the time waiting in a queue
+   */
+  public static final String LATENCY = "latency";
+
+  /**
+   * Metric name used by metrics related to the event filter
+   */
+  public static final String EVENT_FILTER = "event.filter";
+
+  /**
+   * Constant used by metric that calculates filtered events
+   */
+  public static final String FILTERED = "filtered";
+
+  /**
+   * Metric name used by metrics related to the parse cache
+   */
+  public static final String PARSE_CACHE = "parse.cache";
+}
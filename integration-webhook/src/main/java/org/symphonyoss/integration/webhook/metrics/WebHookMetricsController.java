@@ -0,0 +1,605 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.metrics;
+
+import static org.symphonyoss.integration.metrics.IntegrationMetricsConstants.BASE_METRIC_NAME;
+import static org.symphonyoss.integration.metrics.IntegrationMetricsConstants.RATIO;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.ACCEPTED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.AGE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.AVAILABLE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.BUFFERED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.CIRCUIT_BREAKER;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.DEDUPLICATION;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.DEPTH;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.DIGEST;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.EVENT_FILTER;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.EXPIRED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.FILTERED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.HIT;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.INSTANCE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.INSTANCE_CACHE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.INTEGRATION;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.LATENCY;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.MISS;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.PARSE_CACHE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.PENDING;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.POSTED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.QUEUE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.RATE_LIMIT;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.REJECTED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.REMAINING_CAPACITY;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.SCHEDULED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.SCHEDULER;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.SIZE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.SPOOL;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.STATE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.SUPPRESSED;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.TIMER;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.USER_CACHE;
+import static org.symphonyoss.integration.webhook.metrics.WebHookMetricsConstants.WEBHOOK;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.metrics.IntegrationController;
+import org.symphonyoss.integration.service.CachedUserService;
+import org.symphonyoss.integration.webhook.async.WebHookQueue;
+import org.symphonyoss.integration.webhook.cache.IntegrationInstanceCache;
+import org.symphonyoss.integration.webhook.circuit.CircuitBreaker;
+import org.symphonyoss.integration.webhook.dedup.DeliveryDeduplicator;
+import org.symphonyoss.integration.webhook.digest.MessageDigest;
+import org.symphonyoss.integration.webhook.parser.ParseResultCache;
+import org.symphonyoss.integration.webhook.ratelimit.WebHookRateLimiter;
+import org.symphonyoss.integration.webhook.scheduler.WeightedFairScheduler;
+import org.symphonyoss.integration.webhook.spool.WebHookSpool;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller class to monitoring all the metrics related to the webhook processing pipeline.
+ */
+@Component
+public class WebHookMetricsController implements IntegrationController {
+
+  @Autowired
+  private MetricRegistry metricsRegistry;
+
+  /**
+   * Counters for each integration. Used to monitor the payloads accepted by the webhook queue
+   */
+  private ConcurrentMap<String, Counter> queueAcceptedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the payloads rejected by the webhook queue
+   */
+  private ConcurrentMap<String, Counter> queueRejectedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the duplicate deliveries suppressed
+   */
+  private ConcurrentMap<String, Counter> suppressedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the payloads rejected by the rate limit of the
+   * integration instances
+   */
+  private ConcurrentMap<String, Counter> instanceRateLimitCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the payloads rejected by the rate limit of the
+   * integration
+   */
+  private ConcurrentMap<String, Counter> integrationRateLimitCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the payloads accepted by the webhook spool
+   */
+  private ConcurrentMap<String, Counter> spoolAcceptedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the payloads rejected by the webhook spool
+   */
+  private ConcurrentMap<String, Counter> spoolRejectedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the messages buffered by the message digest
+   */
+  private ConcurrentMap<String, Counter> digestBufferedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the digests of several messages posted
+   */
+  private ConcurrentMap<String, Counter> digestPostedCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Timers for each integration. Used to monitor the time the payloads wait in the queue of the
+   * webhook scheduler
+   */
+  private ConcurrentMap<String, Timer> schedulerLatencyTimers = new ConcurrentHashMap<>();
+
+  /**
+   * Counters for each integration. Used to monitor the events discarded by the event filter
+   */
+  private ConcurrentMap<String, Counter> filteredCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Initializes the metrics for an specific integration.
+   * @param integration Integration identifier
+   */
+  @Override
+  public void initController(String integration) {
+    Counter acceptedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, ACCEPTED));
+    queueAcceptedCounters.put(integration, acceptedCounter);
+
+    Counter rejectedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, REJECTED));
+    queueRejectedCounters.put(integration, rejectedCounter);
+
+    Counter suppressedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, DEDUPLICATION, SUPPRESSED));
+    suppressedCounters.put(integration, suppressedCounter);
+
+    Counter instanceRateLimitCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, RATE_LIMIT, INSTANCE,
+            REJECTED));
+    instanceRateLimitCounters.put(integration, instanceRateLimitCounter);
+
+    Counter integrationRateLimitCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, RATE_LIMIT, INTEGRATION,
+            REJECTED));
+    integrationRateLimitCounters.put(integration, integrationRateLimitCounter);
+
+    Counter spoolAcceptedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SPOOL, ACCEPTED));
+    spoolAcceptedCounters.put(integration, spoolAcceptedCounter);
+
+    Counter spoolRejectedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SPOOL, REJECTED));
+    spoolRejectedCounters.put(integration, spoolRejectedCounter);
+
+    Counter digestBufferedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, DIGEST, BUFFERED));
+    digestBufferedCounters.put(integration, digestBufferedCounter);
+
+    Counter digestPostedCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, DIGEST, POSTED));
+    digestPostedCounters.put(integration, digestPostedCounter);
+
+    Timer schedulerLatencyTimer = metricsRegistry.timer(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SCHEDULER, LATENCY));
+    schedulerLatencyTimers.put(integration, schedulerLatencyTimer);
+
+    Counter filteredCounter = metricsRegistry.counter(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, EVENT_FILTER, FILTERED));
+    filteredCounters.put(integration, filteredCounter);
+  }
+
+  /**
+   * Registers the gauges to monitor the queue depth and the remaining capacity of the webhook
+   * queue. The gauges previously registered for the integration are replaced.
+   * @param integration Integration identifier
+   * @param queue Webhook queue
+   */
+  public void registerQueue(String integration, final WebHookQueue queue) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, DEPTH),
+        new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return queue.getDepth();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, REMAINING_CAPACITY),
+        new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return queue.getRemainingCapacity();
+          }
+        });
+  }
+
+  /**
+   * Removes the gauges related to the webhook queue.
+   * @param integration Integration identifier
+   */
+  public void unregisterQueue(String integration) {
+    metricsRegistry.remove(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, DEPTH));
+    metricsRegistry.remove(
+        MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, QUEUE, REMAINING_CAPACITY));
+  }
+
+  /**
+   * Registers the gauges to monitor the hits, misses, hit ratio and size of the integration
+   * instance cache. The gauges previously registered for the integration are replaced.
+   * @param integration Integration identifier
+   * @param cache Integration instance cache
+   */
+  public void registerInstanceCache(String integration, final IntegrationInstanceCache cache) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, INSTANCE_CACHE, HIT),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().hitCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, INSTANCE_CACHE, MISS),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().missCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, INSTANCE_CACHE, HIT,
+        RATIO), new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        return Ratio.of(cache.stats().hitCount(), cache.stats().requestCount());
+      }
+    });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, INSTANCE_CACHE, SIZE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.size();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauges to monitor the hits, misses, hit ratio and size of the parse cache. The
+   * gauges previously registered for the integration are replaced.
+   * @param integration Integration identifier
+   * @param cache Parse cache
+   */
+  public void registerParseCache(String integration, final ParseResultCache cache) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, PARSE_CACHE, HIT),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().hitCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, PARSE_CACHE, MISS),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().missCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, PARSE_CACHE, HIT,
+        RATIO), new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        return Ratio.of(cache.stats().hitCount(), cache.stats().requestCount());
+      }
+    });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, PARSE_CACHE, SIZE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.size();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauges to monitor the hits, misses and size of the user cache. The gauges
+   * previously registered for the integration are replaced.
+   * @param integration Integration identifier
+   * @param cache User cache
+   */
+  public void registerUserCache(String integration, final CachedUserService cache) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, USER_CACHE, HIT),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().hitCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, USER_CACHE, MISS),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.stats().missCount();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, USER_CACHE, SIZE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return cache.size();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauge to monitor the circuit breaker state. The gauge previously registered for
+   * the integration is replaced.
+   * @param integration Integration identifier
+   * @param breaker Circuit breaker
+   */
+  public void registerCircuitBreaker(String integration, final CircuitBreaker breaker) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, CIRCUIT_BREAKER, STATE),
+        new Gauge<String>() {
+          @Override
+          public String getValue() {
+            return breaker.getState().name();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauge to monitor the number of deliveries remembered by the deduplicator. The
+   * gauge previously registered for the integration is replaced.
+   * @param integration Integration identifier
+   * @param deduplicator Delivery deduplicator
+   */
+  public void registerDeliveryDeduplicator(String integration,
+      final DeliveryDeduplicator deduplicator) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, DEDUPLICATION, SIZE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return deduplicator.size();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauge to monitor the tokens available in the rate limiter of the integration.
+   * The gauge previously registered for the integration is replaced.
+   * @param integration Integration identifier
+   * @param rateLimiter Rate limiter
+   */
+  public void registerRateLimiter(String integration, final WebHookRateLimiter rateLimiter) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, RATE_LIMIT, INTEGRATION,
+        AVAILABLE), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return rateLimiter.getAvailableTokens();
+      }
+    });
+  }
+
+  /**
+   * Registers the gauges to monitor the depth, the size and the age of the oldest payload of the
+   * webhook spool. The gauges previously registered for the integration are replaced.
+   * @param integration Integration identifier
+   * @param spool Webhook spool
+   */
+  public void registerSpool(String integration, final WebHookSpool spool) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SPOOL, DEPTH),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return spool.getDepth();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SPOOL, SIZE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return spool.getSize();
+          }
+        });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SPOOL, AGE),
+        new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return spool.getAge();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauge to monitor the depth of the queue of an integration in the webhook
+   * scheduler. The gauge previously registered for the integration is replaced.
+   * @param integration Integration identifier
+   * @param scheduler Webhook scheduler
+   */
+  public void registerScheduler(final String integration, final WeightedFairScheduler scheduler) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SCHEDULER, DEPTH),
+        new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return scheduler.getDepth(integration);
+          }
+        });
+  }
+
+  /**
+   * Unregisters the gauge of the integration queue in the webhook scheduler.
+   * @param integration Integration identifier
+   */
+  public void unregisterScheduler(String integration) {
+    metricsRegistry.remove(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, SCHEDULER,
+        DEPTH));
+  }
+
+  /**
+   * Registers the gauge to monitor the number of streams with messages pending in the message
+   * digest. The gauge previously registered for the integration is replaced.
+   * @param integration Integration identifier
+   * @param digest Message digest
+   */
+  public void registerDigest(String integration, final MessageDigest digest) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, integration, WEBHOOK, DIGEST, PENDING),
+        new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return digest.getPendingCount();
+          }
+        });
+  }
+
+  /**
+   * Registers the gauges to monitor the timer shared by the webhook integrations. The gauges
+   * previously registered are replaced.
+   * @param timer Webhook timer
+   */
+  public void registerTimer(final HashedWheelTimer timer) {
+    register(MetricRegistry.name(BASE_METRIC_NAME, WEBHOOK, TIMER, SCHEDULED), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return timer.getScheduledCount();
+      }
+    });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, WEBHOOK, TIMER, PENDING), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return timer.getPendingCount();
+      }
+    });
+
+    register(MetricRegistry.name(BASE_METRIC_NAME, WEBHOOK, TIMER, EXPIRED), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return timer.getExpiredCount();
+      }
+    });
+  }
+
+  /**
+   * Signals the webhook queue accepted a payload.
+   * @param integration Integration identifier
+   */
+  public void acceptedByQueue(String integration) {
+    increment(queueAcceptedCounters, integration);
+  }
+
+  /**
+   * Signals the webhook queue rejected a payload.
+   * @param integration Integration identifier
+   */
+  public void rejectedByQueue(String integration) {
+    increment(queueRejectedCounters, integration);
+  }
+
+  /**
+   * Signals a duplicate delivery was suppressed.
+   * @param integration Integration identifier
+   */
+  public void suppressedDuplicate(String integration) {
+    increment(suppressedCounters, integration);
+  }
+
+  /**
+   * Signals the rate limit of an integration instance rejected a payload.
+   * @param integration Integration identifier
+   */
+  public void rejectedByInstanceRateLimit(String integration) {
+    increment(instanceRateLimitCounters, integration);
+  }
+
+  /**
+   * Signals the rate limit of the integration rejected a payload.
+   * @param integration Integration identifier
+   */
+  public void rejectedByIntegrationRateLimit(String integration) {
+    increment(integrationRateLimitCounters, integration);
+  }
+
+  /**
+   * Signals a payload was accepted by the webhook spool.
+   * @param integration Integration identifier
+   */
+  public void acceptedBySpool(String integration) {
+    increment(spoolAcceptedCounters, integration);
+  }
+
+  /**
+   * Signals a payload was rejected by the webhook spool.
+   * @param integration Integration identifier
+   */
+  public void rejectedBySpool(String integration) {
+    increment(spoolRejectedCounters, integration);
+  }
+
+  /**
+   * Signals a message was buffered by the message digest.
+   * @param integration Integration identifier
+   */
+  public void bufferedByDigest(String integration) {
+    increment(digestBufferedCounters, integration);
+  }
+
+  /**
+   * Signals a digest of several messages was posted.
+   * @param integration Integration identifier
+   */
+  public void postedByDigest(String integration) {
+    increment(digestPostedCounters, integration);
+  }
+
+  /**
+   * Signals a payload was dispatched by the webhook scheduler.
+   * @param integration Integration identifier
+   * @param waitTime Time, in nanoseconds, the payload waited in the queue
+   */
+  public void dispatchedByScheduler(String integration, long waitTime) {
+    Timer timer = schedulerLatencyTimers.get(integration);
+
+    if (timer != null) {
+      timer.update(waitTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Signals an event was discarded by the event filter.
+   * @param integration Integration identifier
+   */
+  public void filteredEvent(String integration) {
+    increment(filteredCounters, integration);
+  }
+
+  /**
+   * Registers a gauge replacing the gauge previously registered with the same name.
+   * @param name Metric name
+   * @param gauge Gauge
+   */
+  private void register(String name, Gauge<?> gauge) {
+    metricsRegistry.remove(name);
+    metricsRegistry.register(name, gauge);
+  }
+
+  private void increment(ConcurrentMap<String, Counter> counters, String integration) {
+    Counter counter = counters.get(integration);
+
+    if (counter != null) {
+      counter.inc();
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of the messages parsed from the webhook payloads, so identical payloads
+ * delivered to several integration instances are parsed only once.
+ *
+ * The payloads are identified by a SHA-256 hash of the body, the request parameters and the values
+ * of the configured request headers. A cryptographic hash is used because a collision would post
+ * the message parsed from another payload. Concurrent requests for the same payload wait for a
+ * single parse. The payloads the parser doesn't handle are cached as well, while the parse
+ * failures aren't.
+ *
+ * Every caller receives its own copy of the cached message, as the message is changed afterwards
+ * for each integration instance.
+ */
+public class ParseResultCache {
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+  /**
+   * Parses a payload on a cache miss.
+   */
+  public interface Parser {
+
+    /**
+     * Parse the payload.
+     * @param input Webhook payload
+     * @return Parsed message or null if the payload isn't handled
+     */
+    Message parse(WebHookPayload input);
+
+  }
+
+  private final Cache<String, Optional<Message>> cache;
+
+  private final List<String> keyHeaders;
+
+  /**
+   * @param window Time, in milliseconds, a parse result is kept
+   * @param maxSize Max number of parse results kept
+   * @param keyHeaders Request headers that identify the payload alongside its body and parameters
+   */
+  public ParseResultCache(long window, long maxSize, List<String> keyHeaders) {
+    this(window, maxSize, keyHeaders, Ticker.systemTicker());
+  }
+
+  ParseResultCache(long window, long maxSize, List<String> keyHeaders, Ticker ticker) {
+    this.keyHeaders = new ArrayList<>(keyHeaders);
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(window, TimeUnit.MILLISECONDS)
+        .maximumSize(maxSize)
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Retrieve the message parsed from the payload, parsing it if there is no parse result for an
+   * identical payload.
+   * @param input Webhook payload
+   * @param parser Parses the payload on a cache miss
+   * @return Copy of the parsed message or null if the payload isn't handled
+   * @throws RuntimeException the parse failure
+   */
+  public Message get(final WebHookPayload input, final Parser parser) {
+    try {
+      Optional<Message> result = cache.get(getKey(input), new Callable<Optional<Message>>() {
+        @Override
+        public Optional<Message> call() {
+          return Optional.fromNullable(parser.parse(input));
+        }
+      });
+
+      return result.isPresent() ? copy(result.get()) : null;
+    } catch (UncheckedExecutionException | ExecutionError e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      throw (Error) e.getCause();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Cache statistics.
+   * @return Hits and misses of the cache
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Approximate number of parse results kept.
+   * @return Cache size
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Computes the key that identifies the payload.
+   * @param input Webhook payload
+   * @return Payload key
+   */
+  private String getKey(WebHookPayload input) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+
+    Map<String, String> parameters = input.getParameters();
+
+    if (parameters != null) {
+      hasher.putInt(parameters.size());
+
+      for (Map.Entry<String, String> parameter : new TreeMap<>(parameters).entrySet()) {
+        putString(hasher, parameter.getKey());
+        putString(hasher, parameter.getValue());
+      }
+    }
+
+    hasher.putInt(keyHeaders.size());
+
+    for (String header : keyHeaders) {
+      putString(hasher, input.getHeaders().get(header));
+    }
+
+    byte[] body = input.getRawBody();
+
+    if (body != null) {
+      hasher.putBytes(body);
+    }
+
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Adds a string to the hash prefixed by its length, so the boundaries between the strings
+   * aren't ambiguous.
+   */
+  private void putString(Hasher hasher, String value) {
+    if (value == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(value.length());
+      hasher.putString(value, Charsets.UTF_8);
+    }
+  }
+
+  private Message copy(Message message) {
+    Message result = new Message();
+    result.setTimestamp(message.getTimestamp());
+    result.setMessage(message.getMessage());
+    result.setFormat(message.getFormat());
+    result.setData(message.getData());
+    result.setVersion(message.getVersion());
+    return result;
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.json.JsonUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entities included into the Entity JSON generated by the {@link MetadataParser} running in the
+ * current thread.
+ *
+ * The caller that knows the context of the event, such as the integration instance, starts the
+ * enrichment around the parser call. The entities are written after the root object while the
+ * Entity JSON is generated, so the caller doesn't need to parse and serialize the Entity JSON
+ * again to include them. The Entity JSON generated by other parsers isn't enriched, so the caller
+ * must check {@link #isEnriched(String)} and include the entities by itself otherwise.
+ *
+ * Usage:
+ *
+ * <pre>
+ * try (EntityEnrichment enrichment = EntityEnrichment.start(entities)) {
+ *   Message message = parser.parse(payload);
+ *   boolean enriched = enrichment.isEnriched(message.getData());
+ * }
+ * </pre>
+ */
+public final class EntityEnrichment implements AutoCloseable {
+
+  private static final ThreadLocal<EntityEnrichment> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Serialized entities indexed by field name.
+   */
+  private final Map<String, String> entities;
+
+  private final EntityEnrichment previous;
+
+  /**
+   * Last Entity JSON enriched. Only accessed by the thread that started the enrichment.
+   */
+  private String enriched;
+
+  private EntityEnrichment(Map<String, String> entities, EntityEnrichment previous) {
+    this.entities = entities;
+    this.previous = previous;
+  }
+
+  /**
+   * Starts an enrichment in the current thread.
+   * @param entities Entities indexed by field name
+   * @return Enrichment that must be closed when the parser finishes
+   * @throws IllegalArgumentException the entities can't be serialized
+   */
+  public static EntityEnrichment start(Map<String, ? extends JsonNode> entities) {
+    Map<String, String> serialized = new LinkedHashMap<>();
+
+    for (Map.Entry<String, ? extends JsonNode> entity : entities.entrySet()) {
+      try {
+        serialized.put(entity.getKey(), JsonUtils.writeValueAsString(entity.getValue()));
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Invalid entity " + entity.getKey(), e);
+      }
+    }
+
+    EntityEnrichment current = new EntityEnrichment(serialized, CURRENT.get());
+    CURRENT.set(current);
+
+    return current;
+  }
+
+  /**
+   * Starts an enrichment without entities, so the parsers running in the current thread don't
+   * include the entities of an enrichment already started, e.g. when the Entity JSON is shared by
+   * other callers.
+   * @return Enrichment that must be closed when the parser finishes
+   */
+  public static EntityEnrichment suspend() {
+    return start(Collections.<String, JsonNode>emptyMap());
+  }
+
+  /**
+   * Retrieves the enrichment started in the current thread.
+   * @return Enrichment or null if there is no enrichment started in the current thread
+   */
+  static EntityEnrichment current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Checks if the Entity JSON was generated with the entities of this enrichment.
+   * @param entityJSON Entity JSON
+   * @return true if the Entity JSON already includes the entities
+   */
+  public boolean isEnriched(String entityJSON) {
+    return !entities.isEmpty() && enriched != null && StringUtils.equals(enriched, entityJSON);
+  }
+
+  /**
+   * Writes the entities as fields of the object being generated. The entities with the same name
+   * as the root object aren't written, since they would duplicate it.
+   * @param generator JSON generator positioned after the root object
+   * @param rootName Name of the root object
+   * @throws IOException Reports failure to write the entities
+   */
+  void write(JsonGenerator generator, String rootName) throws IOException {
+    for (Map.Entry<String, String> entity : entities.entrySet()) {
+      if (!entity.getKey().equals(rootName)) {
+        generator.writeFieldName(entity.getKey());
+        generator.writeRawValue(entity.getValue());
+      }
+    }
+  }
+
+  /**
+   * Includes the entities into the object to be serialized. The entities with the same name as the
+   * root object aren't included, since they would replace it.
+   * @param result Object to be serialized, indexed by field name
+   * @param rootName Name of the root object
+   */
+  void include(Map<String, Object> result, String rootName) {
+    for (Map.Entry<String, String> entity : entities.entrySet()) {
+      if (!entity.getKey().equals(rootName)) {
+        result.put(entity.getKey(), new RawValue(entity.getValue()));
+      }
+    }
+  }
+
+  /**
+   * Records the Entity JSON generated with the entities.
+   * @param entityJSON Entity JSON
+   */
+  void setEnriched(String entityJSON) {
+    this.enriched = entityJSON;
+  }
+
+  /**
+   * Finishes the enrichment, restoring the enrichment previously started in the current thread.
+   */
+  @Override
+  public void close() {
+    if (CURRENT.get() != this) {
+      return;
+    }
+
+    if (previous != null) {
+      CURRENT.set(previous);
+    } else {
+      CURRENT.remove();
+    }
+  }
+}
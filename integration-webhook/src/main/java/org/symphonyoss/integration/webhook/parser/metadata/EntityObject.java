@@ -41,13 +41,28 @@ public class EntityObject {
 
   private String version;
 
-  private Map<String, Object> content = new LinkedHashMap<>();
+  private Map<String, Object> content;
 
-  public EntityObject() {}
+  public EntityObject() {
+    this.content = new LinkedHashMap<>();
+  }
 
   public EntityObject(String type, String version) {
     this.type = type;
     this.version = version;
+    this.content = new LinkedHashMap<>();
+  }
+
+  /**
+   * Creates an entity object sized to hold the expected number of contents without rehashing.
+   * @param type Entity type
+   * @param version Entity version
+   * @param expectedSize Expected number of contents
+   */
+  public EntityObject(String type, String version, int expectedSize) {
+    this.type = type;
+    this.version = version;
+    this.content = new LinkedHashMap<>(expectedSize * 4 / 3 + 1);
   }
 
   public String getType() {
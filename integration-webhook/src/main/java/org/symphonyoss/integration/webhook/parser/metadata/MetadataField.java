@@ -39,7 +39,7 @@ public class MetadataField {
 
   private static final String COMPONENT = "Common Webhook Dispatcher";
 
-  private enum Type {
+  enum Type {
     BOOLEAN {
       @Override
       public Object getValue(JsonNode node) {
@@ -16,30 +16,29 @@
 
 package org.symphonyoss.integration.webhook.parser.metadata;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.TextNode;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.symphonyoss.integration.json.JsonUtils;
 import org.symphonyoss.integration.model.message.Message;
 import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.model.yaml.WebHookParallelListConfig;
 
-import java.io.BufferedReader;
+import java.io.CharArrayWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.annotation.PostConstruct;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 /**
  * Abstract parser class responsible to read an XML input file that contains metadata objects to
@@ -57,84 +56,75 @@ public abstract class MetadataParser {
 
   private static final String BASE_TEMPLATE_PATH = "templates/";
 
-  private Unmarshaller unmarshaller;
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
-  private Metadata metadata;
-
-  private String messageMLTemplate;
+  /**
+   * Max capacity of the Entity JSON buffer kept by each thread for reuse.
+   */
+  private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
 
   /**
-   * Initializes the JAXB context and unmarshaller object.
-   * @throws IllegalStateException Failure to initialize JAXB context
+   * Entity JSON buffer reused by each thread.
    */
-  public MetadataParser() {
-    try {
-      JAXBContext jaxbContext = JAXBContext.newInstance(Metadata.class);
-      this.unmarshaller = jaxbContext.createUnmarshaller();
-    } catch (JAXBException e) {
-      throw new IllegalStateException("Fail to initialize JAXB context", e);
+  private static final ThreadLocal<CharArrayWriter> BUFFER = new ThreadLocal<CharArrayWriter>() {
+    @Override
+    protected CharArrayWriter initialValue() {
+      return new CharArrayWriter();
     }
-  }
+  };
+
+  @Autowired(required = false)
+  private IntegrationProperties properties;
+
+  private Future<MetadataRegistry.Resources> resources;
 
   /**
-   * Callback method to read the metadata objects and MessageML template only once.
+   * Min number of items of the lists processed in parallel.
    */
-  @PostConstruct
-  public void init() {
-    readMetadataFile();
-    readTemplateFile();
-  }
+  private int parallelThreshold = MetadataPlan.SERIAL_LISTS;
+
+  private final boolean postProcessing = overridesPostProcessing();
 
   /**
-   * Read XML document which contains metadata objects.
+   * Callback method to read the metadata objects and MessageML template only once.
    *
-   * This document must follow the specification from {@link Metadata}
+   * The files are read in background through the {@link MetadataRegistry}, so the parsers are
+   * loaded in parallel. The first parse waits for them to be loaded.
    */
-  private void readMetadataFile() {
-    try {
-      String fileLocation = BASE_METADATA_PATH + getMetadataFile();
+  @PostConstruct
+  public void init() {
+    this.resources = MetadataRegistry.getInstance().load(getClass().getName(),
+        getClass().getClassLoader(), BASE_METADATA_PATH + getMetadataFile(),
+        BASE_TEMPLATE_PATH + getTemplateFile());
 
-      InputStream resource = getClass().getClassLoader().getResourceAsStream(fileLocation);
+    if (properties != null) {
+      WebHookParallelListConfig config = properties.getWebhook().getParallelList();
 
-      if (resource == null) {
-        LOGGER.error("Cannot read the metadata file {}. File not found.", fileLocation);
-      } else {
-        this.metadata = (Metadata) unmarshaller.unmarshal(resource);
+      if (config.isEnabled()) {
+        this.parallelThreshold = config.getThreshold();
       }
-    } catch (JAXBException e) {
-      LOGGER.error("Cannot read the metadata file " + getMetadataFile(), e);
     }
   }
 
   /**
-   * Read a MessageML template file.
-   *
-   * This template file must be inside the directory templates on the classpath and should have
-   * the MessageML v2 tags used to render integration messages.
+   * Waits for the metadata objects and MessageML template to be loaded.
+   * @return Resources of this parser
    */
-  private void readTemplateFile() {
-    String fileLocation = BASE_TEMPLATE_PATH + getTemplateFile();
-
-    InputStream resource = getClass().getClassLoader().getResourceAsStream(fileLocation);
-
-    if (resource == null) {
-      LOGGER.error("Cannot read the template file {}. File not found.", fileLocation);
-      return;
+  private MetadataRegistry.Resources getResources() {
+    if (resources == null) {
+      return MetadataRegistry.Resources.EMPTY;
     }
 
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource))) {
-      String line;
-      StringBuilder responseData = new StringBuilder();
-
-      while ((line = reader.readLine()) != null) {
-        responseData.append(line);
-        responseData.append('\n');
-      }
-
-      this.messageMLTemplate = responseData.toString();
-    } catch (IOException e) {
-      LOGGER.error("Cannot read the template file " + fileLocation, e);
+    try {
+      return resources.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.error("Interrupted while loading the parser " + getClass().getName(), e);
+    } catch (ExecutionException e) {
+      LOGGER.error("Cannot load the parser " + getClass().getName(), e.getCause());
     }
+
+    return MetadataRegistry.Resources.EMPTY;
   }
 
   /**
@@ -145,15 +135,17 @@ public abstract class MetadataParser {
    * @return MessageML v2 object
    */
   public Message parse(JsonNode node) {
-    if (StringUtils.isEmpty(messageMLTemplate)) {
+    MetadataRegistry.Resources resources = getResources();
+
+    if (StringUtils.isEmpty(resources.getTemplate())) {
       return null;
     }
 
-    String entityJSON = getEntityJSON(node);
+    String entityJSON = getEntityJSON(resources.getPlan(), node);
 
     if (StringUtils.isNotEmpty(entityJSON)) {
       Message message = new Message();
-      message.setMessage(messageMLTemplate);
+      message.setMessage(resources.getTemplate());
       message.setData(entityJSON);
       message.setVersion(MessageMLVersion.V2);
 
@@ -163,31 +155,88 @@ public abstract class MetadataParser {
     return null;
   }
 
+  /**
+   * Generates MessageML V2 object reading the JSON input payload through a streaming parser in a
+   * single pass.
+   *
+   * Only the fields referenced by the metadata objects are read, the other subtrees are skipped
+   * without being materialized, so the memory required by each event is proportional to the data
+   * extracted rather than the payload size. The JSON node received by
+   * {@link #preProcessInputData(JsonNode)} and {@link #postProcessOutputData(EntityObject,
+   * JsonNode)} contains only those fields as well, so the parsers that read other fields of the
+   * payload in these methods must use {@link #parse(JsonNode)} instead.
+   * @param input Streaming parser positioned before the JSON payload received from the
+   * third-party service. The caller is responsible for closing it.
+   * @return MessageML v2 object
+   * @throws IOException Reports failure to read the JSON payload
+   */
+  public Message parse(JsonParser input) throws IOException {
+    MetadataRegistry.Resources resources = getResources();
+
+    if (StringUtils.isEmpty(resources.getTemplate()) || resources.getPlan() == null) {
+      return null;
+    }
+
+    return parse(resources.getPlan().read(input));
+  }
+
   /**
    * Retrieves the Entity JSON based on metadata objects.
+   *
+   * The Entity JSON is written directly as the contents are extracted, unless the concrete parser
+   * needs the {@link EntityObject} objects to post-process them or the metadata objects can't be
+   * written directly. The entities of the {@link EntityEnrichment} started in the current thread
+   * are included after the root object.
+   * @param plan Extraction plan compiled from the metadata objects
    * @param node JSON input payload
    * @return Entity JSON or null if there are no metadata objects to be processed.
    */
-  private String getEntityJSON(JsonNode node) {
-    if (metadata == null) {
+  private String getEntityJSON(MetadataPlan plan, JsonNode node) {
+    if (plan == null) {
       return null;
     }
 
     preProcessInputData(node);
 
-    EntityObject root = new EntityObject(metadata.getType(), getVersion());
-    List<MetadataField> fields = metadata.getFields();
-    processMetadataFields(root, node, fields);
+    EntityEnrichment enrichment = EntityEnrichment.current();
+    String entityJSON;
 
-    List<MetadataObject> objects = metadata.getObjects();
-    processMetadataObjects(root, node, objects);
+    if (plan.isWritable() && !postProcessing) {
+      entityJSON = writeEntityJSON(plan, node, enrichment);
+    } else {
+      entityJSON = serializeEntityJSON(plan, node, enrichment);
+    }
+
+    if (enrichment != null) {
+      enrichment.setEnriched(entityJSON);
+    }
+
+    return entityJSON;
+  }
+
+  /**
+   * Serializes the Entity JSON built through the {@link EntityObject} objects.
+   * @param plan Extraction plan compiled from the metadata objects
+   * @param node JSON input payload
+   * @param enrichment Entities included after the root object or null if there is no enrichment
+   * @return Entity JSON or null if it couldn't be serialized
+   */
+  private String serializeEntityJSON(MetadataPlan plan, JsonNode node,
+      EntityEnrichment enrichment) {
+
+    EntityObject root = plan.newRoot(getVersion());
+    plan.process(root, node, parallelThreshold);
 
     postProcessOutputData(root, node);
 
-    try {
-      Map<String, Object> result = new LinkedHashMap<>();
-      result.put(metadata.getName(), root);
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put(plan.getName(), root);
+
+    if (enrichment != null) {
+      enrichment.include(result, plan.getName());
+    }
 
+    try {
       return JsonUtils.writeValueAsString(result);
     } catch (JsonProcessingException e) {
       LOGGER.error("Fail to parse incoming payload", e);
@@ -196,109 +245,66 @@ public abstract class MetadataParser {
   }
 
   /**
-   * Perform a pre-processing on the input data.
-   *
-   * This method can be overridden by the concrete parser classes to perform any data manipulation
-   * on the JSON input payload or augment the payload received with internal Symphony data retrieved
-   * through the Symphony API's.
-   *
-   * Examples:
-   * - Replace '\n' to '<br/>' tags
-   * - Uppercase JSON field content
-   * - Scape characters
-   * - Include user ID and username retrieved from the User API
-   * @param input JSON input payload
+   * Writes the Entity JSON to the buffer of the current thread.
+   * @param plan Extraction plan compiled from the metadata objects
+   * @param node JSON input payload
+   * @param enrichment Entities written after the root object or null if there is no enrichment
+   * @return Entity JSON or null if it couldn't be written
    */
-  protected void preProcessInputData(JsonNode input) {
-    // Do nothing
-  }
+  private String writeEntityJSON(MetadataPlan plan, JsonNode node, EntityEnrichment enrichment) {
+    CharArrayWriter buffer = BUFFER.get();
+    buffer.reset();
 
-  /**
-   * Process metadata objects to generate Entity JSON. This method is called recursively for
-   * the nested metadata objects. The metadata fields inside each metadata object have your own
-   * logic to build the corresponding field into Entity JSON.
-   *
-   * Basically, this method gets the JSON object received from the third-party service and
-   * generates
-   * the Entity JSON intended according to the metadata objects defined in a XML document.
-   *
-   * Each metadata object defined must generate a JSON object inside the Entity JSON and the
-   * metadata
-   * fields must generate fields inside those JSON objects.
-   * @param root Root object from Entity JSON
-   * @param node JSON node received from the third-party service
-   * @param objects List of metadata objects
-   */
-  private void processMetadataObjects(EntityObject root, JsonNode node,
-      List<MetadataObject> objects) {
-    for (MetadataObject object : objects) {
-      EntityObject entity = new EntityObject(object.getType(), object.getVersion());
-
-      if (object.getFields() != null) {
-        for (MetadataField field : object.getFields()) {
-          field.process(entity, node);
-        }
-      }
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+      plan.write(generator, node, getVersion(), parallelThreshold, enrichment);
+    } catch (IOException e) {
+      LOGGER.error("Fail to parse incoming payload", e);
+      return null;
+    }
 
-      if (object.isList()) {
-        processListMetadataObjects(root, node, object, entity);
-      } else if (object.getChildren() != null) {
-        processMetadataObjects(entity, node, object.getChildren());
-      }
+    String result = buffer.toString();
 
-      if (!entity.getContent().isEmpty()) {
-        root.addContent(object.getId(), entity);
-      }
+    if (buffer.size() > MAX_BUFFER_CAPACITY) {
+      BUFFER.remove();
     }
+
+    return result;
   }
 
   /**
-   * Process objects that have N items (a list).
-   * @param root Root object from Entity JSON
-   * @param node Input JSON containing values to be processed.
-   * @param object Metadata object used to match template with JSON values.
-   * @param entity Where values are created during the process.
+   * Checks if the concrete parser overrides {@link #postProcessOutputData(EntityObject, JsonNode)}.
+   * @return true if the concrete parser post-processes the output data
    */
-  private void processListMetadataObjects(EntityObject root, JsonNode node, MetadataObject object,
-      EntityObject entity) {
-    List itemsList = new ArrayList();
-
-    // List of values in the input JSON
-    ArrayNode listNode = (ArrayNode) node.path(object.getId());
-    for (JsonNode listItemNode : listNode) {
-
-      // If there is no children and is a TextNode, there's nothing to process, just add the text
-      if (object.getChildren() == null && listItemNode.isValueNode()) {
-        itemsList.add(listItemNode.asText(StringUtils.EMPTY));
-
-      } else {
-        processMetadataObjects(entity, listItemNode, object.getChildren());
-        // This entity is used only as a transport object, we have to add these values to the list
-        if (!entity.getContent().isEmpty()) {
-          Map.Entry<String, Object> entry = entity.getContent().entrySet().iterator().next();
-          itemsList.add(entry.getValue());
-          // Clear this map to be used in the next iteration
-          entity.getContent().clear();
-        }
+  private boolean overridesPostProcessing() {
+    for (Class<?> clazz = getClass(); !MetadataParser.class.equals(clazz);
+        clazz = clazz.getSuperclass()) {
+      try {
+        clazz.getDeclaredMethod("postProcessOutputData", EntityObject.class, JsonNode.class);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // Keep looking on the superclass
       }
     }
-    root.addContent(object.getId(), itemsList);
+
+    return false;
   }
 
   /**
-   * Process fields that don't belong to any Json Object but the root. These fields are
-   * attributes of the root, that is why there is no reason to have recursive calls like
-   * @param root Root object from Entity JSON
-   * @param node JSON node received from the third-party service
-   * @param fields List of metadata fields
-   * @see {MetadataParser.injection.processMetadataFields}, but both have the same purpose.
+   * Perform a pre-processing on the input data.
+   *
+   * This method can be overridden by the concrete parser classes to perform any data manipulation
+   * on the JSON input payload or augment the payload received with internal Symphony data retrieved
+   * through the Symphony API's.
+   *
+   * Examples:
+   * - Replace '\n' to '<br/>' tags
+   * - Uppercase JSON field content
+   * - Scape characters
+   * - Include user ID and username retrieved from the User API
+   * @param input JSON input payload
    */
-  private void processMetadataFields(EntityObject root, JsonNode node, List<MetadataField> fields) {
-    if (fields != null && !fields.isEmpty()) {
-      for (MetadataField field : fields) {
-        field.process(root, node);
-      }
-    }
+  protected void preProcessInputData(JsonNode input) {
+    // Do nothing
   }
 
   /**
@@ -309,6 +315,9 @@ public abstract class MetadataParser {
    *
    * Example:
    * - Array of JSON objects
+   *
+   * The parsers overriding this method don't benefit from the direct generation of the Entity
+   * JSON, since the output must be built as {@link EntityObject} objects to be post-processed.
    * @param output Output Entity JSON
    * @param input JSON input payload
    */
@@ -334,7 +343,7 @@ public abstract class MetadataParser {
    * @return Entity JSON version
    */
   protected String getVersion() {
-    return metadata.getVersion();
+    return getResources().getMetadata().getVersion();
   }
 
 }
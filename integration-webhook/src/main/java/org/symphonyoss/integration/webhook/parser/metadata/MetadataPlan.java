@@ -0,0 +1,676 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.apache.commons.lang3.StringUtils;
+import org.symphonyoss.integration.parser.ParseDeadline;
+import org.symphonyoss.integration.webhook.exception.MetadataParserException;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable extraction plan compiled from the {@link Metadata} objects.
+ *
+ * The metadata model read from the XML document is compiled only once, when the parser is
+ * initialized: the JSON paths are split in advance, the field types are resolved and the size of
+ * each entity object is known, so each parse simply executes the plan against the JSON input
+ * payload.
+ *
+ * The plan generates exactly the same Entity JSON as the metadata objects would generate if they
+ * were walked on each parse.
+ */
+final class MetadataPlan {
+
+  private static final String COMPONENT = "Common Webhook Dispatcher";
+
+  private static final FieldPlan[] NO_FIELDS = new FieldPlan[0];
+
+  /**
+   * Factory of the JSON fragments with the list items written in parallel. The items are written
+   * as root values separated by commas, so each fragment is a sequence of list items.
+   */
+  private static final JsonFactory FRAGMENT_FACTORY =
+      new JsonFactory().setRootValueSeparator(",");
+
+  /**
+   * Parallel threshold that processes all the lists serially.
+   */
+  static final int SERIAL_LISTS = Integer.MAX_VALUE;
+
+  private final String name;
+
+  private final String type;
+
+  private final FieldPlan[] fields;
+
+  private final ObjectPlan[] objects;
+
+  private final MetadataProjection projection = new MetadataProjection();
+
+  private final boolean writable;
+
+  private MetadataPlan(String name, String type, FieldPlan[] fields, ObjectPlan[] objects) {
+    this.name = name;
+    this.type = type;
+    this.fields = fields;
+    this.objects = objects;
+    this.writable = name != null && isWritable(fields, objects);
+
+    project(projection, fields, objects);
+  }
+
+  /**
+   * Compiles the metadata objects into an extraction plan.
+   * @param metadata Metadata objects read from the XML document
+   * @return Extraction plan
+   */
+  static MetadataPlan compile(Metadata metadata) {
+    return new MetadataPlan(metadata.getName(), metadata.getType(),
+        compileFields(metadata.getFields()), compileObjects(metadata.getObjects()));
+  }
+
+  private static FieldPlan[] compileFields(List<MetadataField> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return NO_FIELDS;
+    }
+
+    FieldPlan[] result = new FieldPlan[fields.size()];
+
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new FieldPlan(fields.get(i));
+    }
+
+    return result;
+  }
+
+  private static ObjectPlan[] compileObjects(List<MetadataObject> objects) {
+    if (objects == null) {
+      return null;
+    }
+
+    ObjectPlan[] result = new ObjectPlan[objects.size()];
+
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new ObjectPlan(objects.get(i));
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks if the Entity JSON can be written directly, field by field, generating the same output
+   * as the entity objects. It can't when the contents of an entity have duplicated keys, since the
+   * entity keeps the position of the first one and the value of the last one, or when a list
+   * object has fields, as they're mixed with the list items. The plans with invalid field types
+   * aren't written directly either, so the error is reported as soon as the entity is processed.
+   */
+  private static boolean isWritable(FieldPlan[] fields, ObjectPlan[] objects) {
+    Set<String> keys = new HashSet<>();
+
+    for (FieldPlan field : fields) {
+      if (field.key == null || field.type == null || !keys.add(field.key)) {
+        return false;
+      }
+    }
+
+    if (objects == null) {
+      return true;
+    }
+
+    for (ObjectPlan object : objects) {
+      if (object.id == null || !keys.add(object.id)) {
+        return false;
+      }
+
+      if (object.list && object.fields.length > 0) {
+        return false;
+      }
+
+      if (!isWritable(object.fields, object.children)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Includes the JSON paths referenced by the fields and objects into the projection. The fields of
+   * the objects and the nested objects are read from the same node, while the nested objects of a
+   * list are read from each item of the list.
+   */
+  private static void project(MetadataProjection projection, FieldPlan[] fields,
+      ObjectPlan[] objects) {
+    for (FieldPlan field : fields) {
+      if (field.path != null) {
+        MetadataProjection current = projection;
+
+        for (String name : field.path) {
+          current = current.child(name);
+        }
+      }
+    }
+
+    if (objects == null) {
+      return;
+    }
+
+    for (ObjectPlan object : objects) {
+      project(projection, object.fields, null);
+
+      if (object.list) {
+        project(projection.child(object.id).items(), NO_FIELDS, object.children);
+      } else {
+        project(projection, NO_FIELDS, object.children);
+      }
+    }
+  }
+
+  /**
+   * Reads the JSON input payload through a streaming parser, materializing only the fields
+   * referenced by the plan.
+   * @param parser Streaming parser positioned before the JSON input payload
+   * @return JSON node that contains only the referenced fields
+   * @throws IOException Reports failure to read the JSON input payload
+   */
+  JsonNode read(JsonParser parser) throws IOException {
+    return projection.read(parser);
+  }
+
+  /**
+   * Checks if the plan can write the Entity JSON directly through
+   * {@link #write(JsonGenerator, JsonNode, String, int, EntityEnrichment)}.
+   * @return true if the Entity JSON can be written directly
+   */
+  boolean isWritable() {
+    return writable;
+  }
+
+  /**
+   * Get the name of the root object of the Entity JSON.
+   * @return Root object name
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Creates the root object of the Entity JSON.
+   * @param version Entity JSON version
+   * @return Root object sized to hold the root fields and objects
+   */
+  EntityObject newRoot(String version) {
+    return new EntityObject(type, version, fields.length + size(objects));
+  }
+
+  /**
+   * Executes the plan, including the root fields and objects into the root object.
+   * @param root Root object from Entity JSON
+   * @param node JSON input payload
+   * @param parallelThreshold Min number of items of the lists processed in parallel
+   */
+  void process(EntityObject root, JsonNode node, int parallelThreshold) {
+    processFields(root, node, fields);
+
+    if (objects != null) {
+      processObjects(root, node, objects, parallelThreshold);
+    }
+  }
+
+  /**
+   * Executes the plan, writing the Entity JSON directly to the generator as the contents are
+   * extracted, without creating the entity objects. The output is the same Entity JSON the entity
+   * objects generate, wrapped into an object with the metadata name.
+   *
+   * This method can only be used if the plan {@link #isWritable() is writable}.
+   * @param generator JSON generator
+   * @param node JSON input payload
+   * @param version Entity JSON version
+   * @param parallelThreshold Min number of items of the lists processed in parallel
+   * @param enrichment Entities written after the root object or null if there is no enrichment
+   * @throws IOException Reports failure to write the Entity JSON
+   */
+  void write(JsonGenerator generator, JsonNode node, String version, int parallelThreshold,
+      EntityEnrichment enrichment) throws IOException {
+    generator.writeStartObject();
+
+    EntityWriter root = new EntityWriter(generator, null, name, type, version);
+    root.start();
+
+    writeContents(root, node, fields, objects, parallelThreshold);
+
+    root.end();
+
+    if (enrichment != null) {
+      enrichment.write(generator, name);
+    }
+
+    generator.writeEndObject();
+  }
+
+  private static void writeContents(EntityWriter entity, JsonNode node, FieldPlan[] fields,
+      ObjectPlan[] objects, int parallelThreshold) throws IOException {
+    for (FieldPlan field : fields) {
+      ParseDeadline.check();
+
+      Object value = field.getContent(node);
+
+      if (value != null) {
+        entity.writeFieldName(field.key);
+        writeValue(entity.generator, value);
+      }
+    }
+
+    if (objects == null) {
+      return;
+    }
+
+    for (ObjectPlan object : objects) {
+      ParseDeadline.check();
+
+      if (object.list) {
+        ArrayNode listNode = (ArrayNode) node.path(object.id);
+
+        entity.writeFieldName(object.id);
+        writeList(entity.generator, listNode, object, parallelThreshold);
+      } else {
+        EntityWriter child =
+            new EntityWriter(entity.generator, entity, object.id, object.type, object.version);
+        writeContents(child, node, object.fields, object.children, parallelThreshold);
+        child.end();
+      }
+    }
+  }
+
+  /**
+   * Writes the list items. Each item is the first content generated by the nested objects.
+   */
+  private static void writeList(JsonGenerator generator, ArrayNode listNode, ObjectPlan object,
+      int parallelThreshold) throws IOException {
+    generator.writeStartArray();
+
+    if (isParallel(listNode, object, parallelThreshold)) {
+      for (Object fragment : writeItems(listNode, object, parallelThreshold)) {
+        generator.writeRawValue((String) fragment);
+      }
+    } else {
+      for (JsonNode listItemNode : listNode) {
+        ParseDeadline.check();
+
+        if (object.children == null) {
+          if (listItemNode.isValueNode()) {
+            generator.writeString(listItemNode.asText(StringUtils.EMPTY));
+          }
+        } else {
+          writeListItem(generator, listItemNode, object, parallelThreshold);
+        }
+      }
+    }
+
+    generator.writeEndArray();
+  }
+
+  /**
+   * Writes the list items in parallel. Each range of items is written to its own JSON fragment,
+   * so only copying the fragments to the generator is done serially.
+   * @return JSON fragments, in the same order of the list. The ranges without contents are omitted.
+   */
+  private static List<Object> writeItems(ArrayNode listNode, final ObjectPlan object,
+      final int parallelThreshold) throws IOException {
+    return ParallelList.process(listNode, new ParallelList.RangeProcessor<IOException>() {
+      @Override
+      public Object process(ArrayNode list, int from, int to) throws IOException {
+        CharArrayWriter fragment = new CharArrayWriter();
+
+        try (JsonGenerator generator = FRAGMENT_FACTORY.createGenerator(fragment)) {
+          for (int i = from; i < to; i++) {
+            ParseDeadline.check();
+            writeListItem(generator, list.get(i), object, parallelThreshold);
+          }
+        }
+
+        return fragment.size() > 0 ? fragment.toString() : null;
+      }
+    });
+  }
+
+  private static void writeListItem(JsonGenerator generator, JsonNode listItemNode,
+      ObjectPlan object, int parallelThreshold) throws IOException {
+    for (ObjectPlan child : object.children) {
+      if (writeListItemObject(generator, listItemNode, child, parallelThreshold)) {
+        break;
+      }
+    }
+  }
+
+  private static boolean writeListItemObject(JsonGenerator generator, JsonNode node,
+      ObjectPlan object, int parallelThreshold) throws IOException {
+    if (object.list) {
+      writeList(generator, (ArrayNode) node.path(object.id), object, parallelThreshold);
+      return true;
+    }
+
+    EntityWriter item = new EntityWriter(generator, null, null, object.type, object.version);
+    writeContents(item, node, object.fields, object.children, parallelThreshold);
+
+    return item.end();
+  }
+
+  private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+    if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  private static void processFields(EntityObject entity, JsonNode node, FieldPlan[] fields) {
+    for (FieldPlan field : fields) {
+      ParseDeadline.check();
+      field.process(entity, node);
+    }
+  }
+
+  private static void processObjects(EntityObject root, JsonNode node, ObjectPlan[] objects,
+      int parallelThreshold) {
+    for (ObjectPlan object : objects) {
+      ParseDeadline.check();
+
+      EntityObject entity = object.newEntity();
+      processFields(entity, node, object.fields);
+
+      if (object.list) {
+        processList(root, node, object, entity, parallelThreshold);
+      } else if (object.children != null) {
+        processObjects(entity, node, object.children, parallelThreshold);
+      }
+
+      if (!entity.getContent().isEmpty()) {
+        root.addContent(object.id, entity);
+      }
+    }
+  }
+
+  /**
+   * Process objects that have N items (a list). The entity is used only as a transport object,
+   * the first content generated for each item is added to the list.
+   */
+  private static void processList(EntityObject root, JsonNode node, ObjectPlan object,
+      EntityObject entity, int parallelThreshold) {
+    ArrayNode listNode = (ArrayNode) node.path(object.id);
+
+    if (isParallel(listNode, object, parallelThreshold)) {
+      root.addContent(object.id, processItems(listNode, object, parallelThreshold));
+      return;
+    }
+
+    List<Object> items = new ArrayList<>(listNode.size());
+
+    for (JsonNode listItemNode : listNode) {
+      ParseDeadline.check();
+
+      if (object.children == null) {
+        if (listItemNode.isValueNode()) {
+          items.add(listItemNode.asText(StringUtils.EMPTY));
+        }
+      } else {
+        processObjects(entity, listItemNode, object.children, parallelThreshold);
+
+        if (!entity.getContent().isEmpty()) {
+          items.add(entity.getContent().values().iterator().next());
+          entity.getContent().clear();
+        }
+      }
+    }
+
+    root.addContent(object.id, items);
+  }
+
+  /**
+   * Processes the list items in parallel. Each range of items uses its own transport object.
+   * @return List items, in the same order of the list
+   */
+  private static List<Object> processItems(ArrayNode listNode, final ObjectPlan object,
+      final int parallelThreshold) {
+    List<Object> ranges = ParallelList.process(listNode,
+        new ParallelList.RangeProcessor<RuntimeException>() {
+          @Override
+          public Object process(ArrayNode list, int from, int to) {
+            EntityObject entity = object.newEntity();
+            List<Object> items = new ArrayList<>(to - from);
+
+            for (int i = from; i < to; i++) {
+              ParseDeadline.check();
+              processObjects(entity, list.get(i), object.children, parallelThreshold);
+
+              if (!entity.getContent().isEmpty()) {
+                items.add(entity.getContent().values().iterator().next());
+                entity.getContent().clear();
+              }
+            }
+
+            return items;
+          }
+        });
+
+    List<Object> items = new ArrayList<>(listNode.size());
+
+    for (Object range : ranges) {
+      items.addAll((List<?>) range);
+    }
+
+    return items;
+  }
+
+  /**
+   * Checks if the list items must be processed in parallel. Only the lists of objects are, and
+   * only when the list object has no fields, since they would be mixed with the first item.
+   */
+  private static boolean isParallel(ArrayNode listNode, ObjectPlan object,
+      int parallelThreshold) {
+    return object.children != null && object.fields.length == 0
+        && listNode.size() >= parallelThreshold;
+  }
+
+  private static int size(Object[] array) {
+    return array != null ? array.length : 0;
+  }
+
+  /**
+   * Compiled {@link MetadataField}.
+   */
+  static final class FieldPlan {
+
+    private final String key;
+
+    private final String[] path;
+
+    private final MetadataField.Type type;
+
+    private final boolean blank;
+
+    FieldPlan(MetadataField field) {
+      this.key = field.getKey();
+      this.path = field.getValue() != null ? field.getValue().split("\\.") : null;
+      this.type = field.getType();
+      this.blank = field.isBlank();
+    }
+
+    /**
+     * Includes the content retrieved from the input JSON into the entity object.
+     * @param entity Entity object to store the content
+     * @param node Input JSON node
+     */
+    void process(EntityObject entity, JsonNode node) {
+      Object value = getContent(node);
+
+      if (value != null) {
+        entity.addContent(key, value);
+      }
+    }
+
+    /**
+     * Retrieves the content from the input JSON.
+     * @param node Input JSON node
+     * @return Content or null if the field must not be included into the entity
+     */
+    Object getContent(JsonNode node) {
+      if (type == null) {
+        throw new MetadataParserException(COMPONENT, "Invalid type in metadata.");
+      }
+
+      Object value = type.getValue(resolve(node));
+
+      if ((value != null && StringUtils.isNotEmpty(value.toString())) || blank) {
+        return value;
+      }
+
+      return null;
+    }
+
+    private JsonNode resolve(JsonNode node) {
+      if (path == null) {
+        return MissingNode.getInstance();
+      }
+
+      JsonNode result = node;
+
+      for (String name : path) {
+        result = result.path(name);
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * Compiled {@link MetadataObject}.
+   */
+  static final class ObjectPlan {
+
+    private final String id;
+
+    private final String type;
+
+    private final String version;
+
+    private final boolean list;
+
+    private final FieldPlan[] fields;
+
+    private final ObjectPlan[] children;
+
+    private final int size;
+
+    ObjectPlan(MetadataObject object) {
+      this.id = object.getId();
+      this.type = object.getType();
+      this.version = object.getVersion();
+      this.list = object.isList();
+      this.fields = compileFields(object.getFields());
+      this.children = compileObjects(object.getChildren());
+      this.size = fields.length + size(children);
+    }
+
+    EntityObject newEntity() {
+      return new EntityObject(type, version, size);
+    }
+  }
+
+  /**
+   * Writes an entity object to the generator. The entity is only started when its first content
+   * is written, so the entities without contents are omitted like they're omitted from the
+   * entity objects.
+   */
+  private static final class EntityWriter {
+
+    private final JsonGenerator generator;
+
+    private final EntityWriter parent;
+
+    private final String key;
+
+    private final String type;
+
+    private final String version;
+
+    private boolean started;
+
+    EntityWriter(JsonGenerator generator, EntityWriter parent, String key, String type,
+        String version) {
+      this.generator = generator;
+      this.parent = parent;
+      this.key = key;
+      this.type = type;
+      this.version = version;
+    }
+
+    void start() throws IOException {
+      if (started) {
+        return;
+      }
+
+      if (parent != null) {
+        parent.start();
+      }
+
+      if (key != null) {
+        generator.writeFieldName(key);
+      }
+
+      generator.writeStartObject();
+
+      if (type != null) {
+        generator.writeStringField("type", type);
+      }
+
+      if (version != null) {
+        generator.writeStringField("version", version);
+      }
+
+      started = true;
+    }
+
+    void writeFieldName(String name) throws IOException {
+      start();
+      generator.writeFieldName(name);
+    }
+
+    /**
+     * Ends the entity, if it was started.
+     * @return true if the entity was written
+     */
+    boolean end() throws IOException {
+      if (started) {
+        generator.writeEndObject();
+      }
+
+      return started;
+    }
+  }
+}
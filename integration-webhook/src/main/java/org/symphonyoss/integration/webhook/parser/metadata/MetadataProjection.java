@@ -0,0 +1,202 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.symphonyoss.integration.parser.ParseDeadline;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of JSON paths referenced by a {@link MetadataPlan}.
+ *
+ * The projection reads the JSON input payload through a streaming parser in a single pass and
+ * materializes only the referenced fields, skipping the other subtrees without building them. The
+ * plan executed against the projected node generates the same Entity JSON as it would generate
+ * against the whole payload, since the fields it doesn't reference can't change the result.
+ *
+ * Arrays are only read where the plan processes a list. Elsewhere, like the objects without any
+ * referenced field, they're skipped, because a field pointing to a container produces the same
+ * content as a missing field.
+ */
+final class MetadataProjection {
+
+  private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+  private final Map<String, MetadataProjection> children = new HashMap<>();
+
+  private MetadataProjection items;
+
+  /**
+   * Get the projection of a field, including it into this projection if it isn't included yet.
+   * @param name Field name
+   * @return Field projection
+   */
+  MetadataProjection child(String name) {
+    MetadataProjection child = children.get(name);
+
+    if (child == null) {
+      child = new MetadataProjection();
+      children.put(name, child);
+    }
+
+    return child;
+  }
+
+  /**
+   * Get the projection applied to each array item, so the arrays at this path are read.
+   * @return Items projection
+   */
+  MetadataProjection items() {
+    if (items == null) {
+      items = new MetadataProjection();
+    }
+
+    return items;
+  }
+
+  /**
+   * Reads the JSON document from the streaming parser.
+   * @param parser Streaming parser positioned before the JSON document
+   * @return Node that contains only the referenced fields or {@link MissingNode} if the document
+   * is empty or none of its fields is referenced
+   * @throws IOException Reports failure to read the JSON document
+   */
+  JsonNode read(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+
+    if (token == null) {
+      return MissingNode.getInstance();
+    }
+
+    JsonNode result = readValue(parser, token);
+    return result != null ? result : MissingNode.getInstance();
+  }
+
+  /**
+   * Reads the current value.
+   * @return Value or null if it was skipped
+   */
+  private JsonNode readValue(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        return readObject(parser);
+      case START_ARRAY:
+        return readArray(parser);
+      default:
+        return readScalar(parser, token);
+    }
+  }
+
+  private JsonNode readObject(JsonParser parser) throws IOException {
+    if (children.isEmpty()) {
+      parser.skipChildren();
+      return null;
+    }
+
+    ParseDeadline.check();
+
+    ObjectNode node = NODE_FACTORY.objectNode();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      MetadataProjection child = children.get(name);
+
+      if (child == null) {
+        parser.skipChildren();
+        continue;
+      }
+
+      JsonNode value = child.readValue(parser, token);
+
+      // Duplicated fields are overwritten, like the tree model does
+      if (value != null) {
+        node.set(name, value);
+      } else {
+        node.remove(name);
+      }
+    }
+
+    return node;
+  }
+
+  private JsonNode readArray(JsonParser parser) throws IOException {
+    if (items == null) {
+      parser.skipChildren();
+      return null;
+    }
+
+    ParseDeadline.check();
+
+    ArrayNode node = NODE_FACTORY.arrayNode();
+    JsonToken token;
+
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      JsonNode value = items.readValue(parser, token);
+
+      if (value != null) {
+        node.add(value);
+      }
+    }
+
+    return node;
+  }
+
+  /**
+   * Creates the scalar node the same way the tree model does.
+   */
+  private JsonNode readScalar(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case VALUE_STRING:
+        return NODE_FACTORY.textNode(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return NODE_FACTORY.numberNode(parser.getIntValue());
+          case LONG:
+            return NODE_FACTORY.numberNode(parser.getLongValue());
+          default:
+            return NODE_FACTORY.numberNode(parser.getBigIntegerValue());
+        }
+      case VALUE_NUMBER_FLOAT:
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_DECIMAL) {
+          return NODE_FACTORY.numberNode(parser.getDecimalValue());
+        }
+        return NODE_FACTORY.numberNode(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return NODE_FACTORY.booleanNode(true);
+      case VALUE_FALSE:
+        return NODE_FACTORY.booleanNode(false);
+      case VALUE_NULL:
+        return NODE_FACTORY.nullNode();
+      case VALUE_EMBEDDED_OBJECT:
+        return NODE_FACTORY.pojoNode(parser.getEmbeddedObject());
+      default:
+        return null;
+    }
+  }
+}
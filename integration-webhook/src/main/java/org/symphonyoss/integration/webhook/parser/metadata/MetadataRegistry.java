@@ -0,0 +1,300 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.webhook.async.WebHookThreads;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Registry of the metadata objects and MessageML templates read by the {@link MetadataParser}
+ * classes.
+ *
+ * The JAXB context is created only once, when the first metadata file is read, and shared by all
+ * the parsers. Each metadata and template file is read only once as well, even if it's used by
+ * more than one parser, and the resources of each parser are loaded by background threads so the
+ * parsers are loaded in parallel while the application is starting.
+ *
+ * The files are cached per class loader, since the same location may refer to different files
+ * in each class loader. The class loaders are weakly referenced, so they can still be unloaded.
+ */
+final class MetadataRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetadataRegistry.class);
+
+  /**
+   * Keep alive time (in seconds) of the loader threads. They are only needed during the startup.
+   */
+  private static final long KEEP_ALIVE = 10L;
+
+  private final LoadingCache<ClassLoader, ConcurrentMap<String, FutureTask<Metadata>>> metadata =
+      newTaskCache();
+
+  private final LoadingCache<ClassLoader, ConcurrentMap<String, FutureTask<String>>> templates =
+      newTaskCache();
+
+  private final ConcurrentMap<String, Long> loadTimes = new ConcurrentHashMap<>();
+
+  private final ThreadPoolExecutor executor;
+
+  private JAXBContext jaxbContext;
+
+  /**
+   * Lazy holder of the registry shared by all the parsers.
+   */
+  private static final class Holder {
+    private static final MetadataRegistry INSTANCE = new MetadataRegistry();
+  }
+
+  MetadataRegistry() {
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        WebHookThreads.newThreadFactory("metadata-loader-", false));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Get the registry shared by all the parsers. It's created on the first call.
+   * @return Metadata registry
+   */
+  static MetadataRegistry getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Loads the metadata objects and the MessageML template of a parser in background.
+   * @param parser Parser name, used to report the load time
+   * @param classLoader Class loader used to read the files
+   * @param metadataLocation Location of the metadata file on the classpath
+   * @param templateLocation Location of the template file on the classpath
+   * @return Future resources of the parser. A resource that couldn't be read is null.
+   */
+  Future<Resources> load(final String parser, final ClassLoader classLoader,
+      final String metadataLocation, final String templateLocation) {
+    return executor.submit(new Callable<Resources>() {
+      @Override
+      public Resources call() throws Exception {
+        long start = System.nanoTime();
+
+        Metadata metadata = getMetadata(classLoader, metadataLocation);
+        String template = getTemplate(classLoader, templateLocation);
+        MetadataPlan plan = metadata == null ? null : MetadataPlan.compile(metadata);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        loadTimes.put(parser, elapsed);
+
+        LOGGER.info("Parser {} loaded in {} ms", parser, elapsed);
+
+        return new Resources(metadata, plan, template);
+      }
+    });
+  }
+
+  /**
+   * Get the time spent to load the resources of each parser.
+   * @return Load time (in milliseconds) per parser name
+   */
+  Map<String, Long> getLoadTimes() {
+    return Collections.unmodifiableMap(new HashMap<>(loadTimes));
+  }
+
+  /**
+   * Get the metadata objects, reading the metadata file if it wasn't read yet.
+   */
+  private Metadata getMetadata(final ClassLoader classLoader, final String location)
+      throws InterruptedException, ExecutionException {
+    FutureTask<Metadata> task = new FutureTask<>(new Callable<Metadata>() {
+      @Override
+      public Metadata call() throws Exception {
+        return readMetadataFile(classLoader, location);
+      }
+    });
+
+    return getOrRun(metadata.getUnchecked(classLoader), location, task);
+  }
+
+  /**
+   * Get the MessageML template, reading the template file if it wasn't read yet.
+   */
+  private String getTemplate(final ClassLoader classLoader, final String location)
+      throws InterruptedException, ExecutionException {
+    FutureTask<String> task = new FutureTask<>(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return readTemplateFile(classLoader, location);
+      }
+    });
+
+    return getOrRun(templates.getUnchecked(classLoader), location, task);
+  }
+
+  /**
+   * Creates the cache of the tasks that read the files of each class loader. The class loaders
+   * are compared by identity.
+   */
+  private static <T> LoadingCache<ClassLoader, ConcurrentMap<String, FutureTask<T>>>
+      newTaskCache() {
+    return CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(new CacheLoader<ClassLoader, ConcurrentMap<String, FutureTask<T>>>() {
+          @Override
+          public ConcurrentMap<String, FutureTask<T>> load(ClassLoader classLoader) {
+            return new ConcurrentHashMap<>();
+          }
+        });
+  }
+
+  /**
+   * Runs the task registered for the location, or the given task if there is none, and waits for
+   * its result. A task already being run by another thread isn't run again.
+   */
+  private static <T> T getOrRun(ConcurrentMap<String, FutureTask<T>> tasks, String location,
+      FutureTask<T> task) throws InterruptedException, ExecutionException {
+    FutureTask<T> current = tasks.putIfAbsent(location, task);
+
+    if (current == null) {
+      current = task;
+    }
+
+    current.run();
+    return current.get();
+  }
+
+  /**
+   * Read XML document which contains metadata objects.
+   *
+   * This document must follow the specification from {@link Metadata}
+   */
+  private Metadata readMetadataFile(ClassLoader classLoader, String location) {
+    InputStream resource = classLoader.getResourceAsStream(location);
+
+    if (resource == null) {
+      LOGGER.error("Cannot read the metadata file {}. File not found.", location);
+      return null;
+    }
+
+    try (InputStream input = resource) {
+      Unmarshaller unmarshaller = getJaxbContext().createUnmarshaller();
+      return (Metadata) unmarshaller.unmarshal(input);
+    } catch (JAXBException | IOException e) {
+      LOGGER.error("Cannot read the metadata file " + location, e);
+      return null;
+    }
+  }
+
+  /**
+   * Read a MessageML template file.
+   *
+   * The template is interned, so the parsers share the same instance of identical templates.
+   */
+  private String readTemplateFile(ClassLoader classLoader, String location) {
+    InputStream resource = classLoader.getResourceAsStream(location);
+
+    if (resource == null) {
+      LOGGER.error("Cannot read the template file {}. File not found.", location);
+      return null;
+    }
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource))) {
+      String line;
+      StringBuilder responseData = new StringBuilder();
+
+      while ((line = reader.readLine()) != null) {
+        responseData.append(line);
+        responseData.append('\n');
+      }
+
+      return responseData.toString().intern();
+    } catch (IOException e) {
+      LOGGER.error("Cannot read the template file " + location, e);
+      return null;
+    }
+  }
+
+  /**
+   * Get the JAXB context, creating it on the first call.
+   * @return JAXB context of the metadata objects
+   * @throws JAXBException Failure to initialize JAXB context
+   */
+  private synchronized JAXBContext getJaxbContext() throws JAXBException {
+    if (jaxbContext == null) {
+      jaxbContext = JAXBContext.newInstance(Metadata.class);
+    }
+
+    return jaxbContext;
+  }
+
+  /**
+   * Resources read for a parser.
+   */
+  static final class Resources {
+
+    static final Resources EMPTY = new Resources(null, null, null);
+
+    private final Metadata metadata;
+
+    private final MetadataPlan plan;
+
+    private final String template;
+
+    Resources(Metadata metadata, MetadataPlan plan, String template) {
+      this.metadata = metadata;
+      this.plan = plan;
+      this.template = template;
+    }
+
+    Metadata getMetadata() {
+      return metadata;
+    }
+
+    MetadataPlan getPlan() {
+      return plan;
+    }
+
+    String getTemplate() {
+      return template;
+    }
+
+  }
+
+}
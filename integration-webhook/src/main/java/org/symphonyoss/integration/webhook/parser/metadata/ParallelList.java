@@ -0,0 +1,192 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.symphonyoss.integration.parser.ParseDeadline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Processes the items of large lists in parallel, preserving their order.
+ *
+ * The list is split into ranges of items processed by a fork/join pool shared by all the parsers.
+ * Each range is processed in isolation and the results are returned in the same order of the
+ * ranges in the list. The threads processing the ranges share the parse deadline of the thread
+ * parsing the payload.
+ */
+final class ParallelList {
+
+  /**
+   * Number of ranges per thread the list is split into, so the threads that finish their ranges
+   * earlier can steal the remaining ones.
+   */
+  private static final int RANGES_PER_THREAD = 4;
+
+  /**
+   * Lazy holder of the pool shared by all the parsers.
+   */
+  private static final class Holder {
+    private static final ForkJoinPool POOL =
+        new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  private ParallelList() {
+  }
+
+  /**
+   * Processor of a range of list items. It must not change any state shared by the ranges.
+   * @param <E> Exception reported by the processor
+   */
+  interface RangeProcessor<E extends Exception> {
+
+    /**
+     * Processes a range of list items.
+     * @param list JSON list
+     * @param from Index of the first item (inclusive)
+     * @param to Index of the last item (exclusive)
+     * @return Result of the range or null if the range has no result
+     * @throws E Reports failure to process the range
+     */
+    Object process(ArrayNode list, int from, int to) throws E;
+
+  }
+
+  /**
+   * Processes the list items in parallel.
+   * @param list JSON list
+   * @param processor Processor of each range of list items
+   * @return Results of the ranges, in the same order of the list
+   * @throws E Reports failure to process a range
+   */
+  static <E extends Exception> List<Object> process(ArrayNode list, RangeProcessor<E> processor)
+      throws E {
+    if (list.size() == 0) {
+      return Collections.emptyList();
+    }
+
+    // The result of each range is stored in the position of its first item
+    Object[] results = new Object[list.size()];
+
+    int parallelism = ForkJoinTask.inForkJoinPool()
+        ? ForkJoinTask.getPool().getParallelism() : Holder.POOL.getParallelism();
+    int rangeSize = Math.max(1, results.length / (parallelism * RANGES_PER_THREAD));
+
+    ListTask task = new ListTask(list, processor, results, ParseDeadline.current(), 0,
+        results.length, rangeSize);
+
+    try {
+      if (ForkJoinTask.inForkJoinPool()) {
+        // Nested list of an item that is already being processed in parallel
+        task.invoke();
+      } else {
+        Holder.POOL.invoke(task);
+      }
+    } catch (ItemException e) {
+      throw ItemException.<E>unwrap(e);
+    }
+
+    List<Object> ranges = new ArrayList<>();
+
+    for (Object result : results) {
+      if (result != null) {
+        ranges.add(result);
+      }
+    }
+
+    return ranges;
+  }
+
+  /**
+   * Processes a range of items, splitting it while it's larger than the range size.
+   */
+  private static final class ListTask extends RecursiveAction {
+
+    private final ArrayNode list;
+
+    private final RangeProcessor<?> processor;
+
+    private final Object[] results;
+
+    private final ParseDeadline deadline;
+
+    private final int from;
+
+    private final int to;
+
+    private final int rangeSize;
+
+    ListTask(ArrayNode list, RangeProcessor<?> processor, Object[] results, ParseDeadline deadline,
+        int from, int to, int rangeSize) {
+      this.list = list;
+      this.processor = processor;
+      this.results = results;
+      this.deadline = deadline;
+      this.from = from;
+      this.to = to;
+      this.rangeSize = rangeSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > rangeSize) {
+        int middle = (from + to) >>> 1;
+
+        invokeAll(new ListTask(list, processor, results, deadline, from, middle, rangeSize),
+            new ListTask(list, processor, results, deadline, middle, to, rangeSize));
+        return;
+      }
+
+      ParseDeadline attached = deadline != null ? deadline.attach() : null;
+
+      try {
+        results[from] = processor.process(list, from, to);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new ItemException(e);
+      } finally {
+        if (attached != null) {
+          attached.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Carries the failure to process an item to the thread parsing the payload.
+   */
+  private static final class ItemException extends RuntimeException {
+
+    ItemException(Exception cause) {
+      super(cause);
+    }
+
+    /**
+     * Retrieves the failure reported by the item processor.
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Exception> E unwrap(ItemException e) {
+      return (E) e.getCause();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.ratelimit;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Implemented as the generic cell rate algorithm: instead of counting the tokens and refilling
+ * them periodically, the bucket keeps only the theoretical time the next token will be available.
+ * Each permit moves that time forward by the interval between two tokens, and the permit is
+ * refused when it would move more than the burst ahead of the current time. That's equivalent to
+ * a bucket with "burst" tokens refilled at "rate" tokens per second, but the whole state fits in a
+ * single atomic long.
+ */
+public class TokenBucket {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Ticker ticker;
+
+  /**
+   * Time, in nanoseconds, to refill one token.
+   */
+  private final long interval;
+
+  /**
+   * Time, in nanoseconds, to refill the whole bucket.
+   */
+  private final long capacity;
+
+  /**
+   * Theoretical time, in nanoseconds, the bucket will be full again.
+   */
+  private final AtomicLong fullAt;
+
+  /**
+   * Creates a full bucket.
+   * @param rate Tokens refilled per second
+   * @param burst Max number of tokens
+   */
+  public TokenBucket(int rate, int burst) {
+    this(rate, burst, Ticker.systemTicker());
+  }
+
+  TokenBucket(int rate, int burst, Ticker ticker) {
+    if (rate <= 0 || burst <= 0) {
+      throw new IllegalArgumentException("Rate and burst must be positive");
+    }
+
+    this.ticker = ticker;
+    this.interval = Math.max(1, NANOS_PER_SECOND / rate);
+    this.capacity = interval * burst;
+    this.fullAt = new AtomicLong(ticker.read());
+  }
+
+  /**
+   * Takes a token from the bucket.
+   * @return true if the token was taken or false if the bucket is empty
+   */
+  public boolean tryAcquire() {
+    long now = ticker.read();
+
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + interval;
+
+      if (next - now > capacity) {
+        return false;
+      }
+
+      if (fullAt.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns a token taken by {@link #tryAcquire()} that wasn't used.
+   */
+  public void release() {
+    fullAt.addAndGet(-interval);
+  }
+
+  /**
+   * Returns the number of tokens currently available.
+   * @return Available tokens
+   */
+  public long getAvailableTokens() {
+    long pending = Math.max(0, fullAt.get() - ticker.read());
+    return (capacity - pending) / interval;
+  }
+
+  /**
+   * Returns the time, in seconds, to refill the whole bucket after it's empty.
+   * @return Time to refill the bucket
+   */
+  public long getRefillTime() {
+    return TimeUnit.NANOSECONDS.toSeconds(capacity);
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.ratelimit;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of webhook deliveries accepted by an integration. Each integration instance has
+ * its own token bucket, and the integration has another bucket shared by all its instances.
+ *
+ * The buckets of the integration instances are created on demand and discarded after an idle
+ * period long enough to refill them, so discarding a bucket never grants extra tokens.
+ */
+public class WebHookRateLimiter {
+
+  /**
+   * Token bucket that refused the delivery.
+   */
+  public enum Scope {
+    INSTANCE,
+    INTEGRATION
+  }
+
+  /**
+   * Min time, in seconds, to keep the bucket of an idle integration instance.
+   */
+  private static final long MIN_IDLE_TIME = 600;
+
+  /**
+   * Max number of integration instance buckets.
+   */
+  private static final long MAX_INSTANCES = 10000;
+
+  private final TokenBucket integrationBucket;
+
+  private final LoadingCache<String, TokenBucket> instanceBuckets;
+
+  /**
+   * Creates the rate limiter.
+   * @param instanceRate Payloads per second accepted for each integration instance
+   * @param instanceBurst Payloads accepted at once for each integration instance
+   * @param integrationRate Payloads per second accepted for the integration
+   * @param integrationBurst Payloads accepted at once for the integration
+   */
+  public WebHookRateLimiter(int instanceRate, int instanceBurst, int integrationRate,
+      int integrationBurst) {
+    this(instanceRate, instanceBurst, integrationRate, integrationBurst, Ticker.systemTicker());
+  }
+
+  WebHookRateLimiter(final int instanceRate, final int instanceBurst, int integrationRate,
+      int integrationBurst, final Ticker ticker) {
+    this.integrationBucket = new TokenBucket(integrationRate, integrationBurst, ticker);
+
+    long refillTime = new TokenBucket(instanceRate, instanceBurst, ticker).getRefillTime();
+
+    this.instanceBuckets = CacheBuilder.newBuilder()
+        .maximumSize(MAX_INSTANCES)
+        .expireAfterAccess(Math.max(MIN_IDLE_TIME, refillTime + 1), TimeUnit.SECONDS)
+        .ticker(ticker)
+        .build(new CacheLoader<String, TokenBucket>() {
+          @Override
+          public TokenBucket load(String instanceId) throws Exception {
+            return new TokenBucket(instanceRate, instanceBurst, ticker);
+          }
+        });
+  }
+
+  /**
+   * Takes a token from the integration instance bucket and another from the integration bucket.
+   * No token is taken when any of them is empty.
+   * @param instanceId Integration instance identifier
+   * @return null if the delivery was permitted or the scope of the bucket that refused it
+   */
+  public Scope tryAcquire(String instanceId) {
+    TokenBucket instanceBucket = instanceBuckets.getUnchecked(instanceId);
+
+    if (!instanceBucket.tryAcquire()) {
+      return Scope.INSTANCE;
+    }
+
+    if (!integrationBucket.tryAcquire()) {
+      instanceBucket.release();
+      return Scope.INTEGRATION;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the number of tokens currently available in the integration bucket.
+   * @return Available tokens
+   */
+  public long getAvailableTokens() {
+    return integrationBucket.getAvailableTokens();
+  }
+}
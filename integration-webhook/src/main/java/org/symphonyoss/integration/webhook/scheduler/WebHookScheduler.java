@@ -0,0 +1,181 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.model.yaml.WebHookExecutionConfig;
+import org.symphonyoss.integration.model.yaml.WebHookSchedulerConfig;
+import org.symphonyoss.integration.webhook.async.WebHookThreads;
+import org.symphonyoss.integration.webhook.metrics.WebHookMetricsController;
+
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Scheduler shared by all the webhook integrations to process the payloads asynchronously. Each
+ * integration has its own queue, and the queues are drained by a single pool of worker threads in
+ * proportion to the weights configured in the YAML file.
+ *
+ * The underlying {@link WeightedFairScheduler} is created on demand according to the YAML file and
+ * stopped when the application context is closed.
+ */
+@Component
+public class WebHookScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookScheduler.class);
+
+  private static final String SCHEDULER_NAME = "webhook-scheduler";
+
+  @Autowired
+  private IntegrationProperties properties;
+
+  @Autowired
+  private WebHookMetricsController metricsController;
+
+  private volatile WeightedFairScheduler scheduler;
+
+  private volatile boolean stopped;
+
+  /**
+   * Checks if the weighted fair scheduling was enabled in the YAML file.
+   * @return true if the payloads should be processed by this scheduler
+   */
+  public boolean isEnabled() {
+    return properties.getWebhook().getScheduler().isEnabled();
+  }
+
+  /**
+   * Accepts a task into the queue of an integration, creating the queue on the first call.
+   * @param integration Integration type
+   * @param task Task to be processed
+   * @return true if the task was accepted or false if the queue of the integration is full or the
+   * scheduler was stopped
+   */
+  public boolean offer(String integration, Runnable task) {
+    WeightedFairScheduler current = getScheduler();
+
+    if (current == null) {
+      return false;
+    }
+
+    WebHookSchedulerConfig config = properties.getWebhook().getScheduler();
+
+    if (current.getCapacity(integration) == 0
+        && current.register(integration, config.getWeight(integration),
+        config.getQueueCapacity())) {
+      metricsController.registerScheduler(integration, current);
+    }
+
+    return current.offer(integration, task);
+  }
+
+  /**
+   * Removes the queue of an integration when it's destroyed. The tasks already accepted are
+   * processed within the shutdown timeout, and the remaining ones are discarded, so the worker
+   * threads don't process payloads for an integration whose resources were released.
+   * @param integration Integration type
+   */
+  public void unregister(String integration) {
+    WeightedFairScheduler current = this.scheduler;
+
+    if (current == null || current.getCapacity(integration) == 0) {
+      return;
+    }
+
+    int discarded = current.unregister(integration);
+    metricsController.unregisterScheduler(integration);
+
+    if (discarded > 0) {
+      LOGGER.warn("Discarded {} pending tasks of the integration {}", discarded, integration);
+    }
+  }
+
+  /**
+   * Returns the max number of tasks waiting in the queue of an integration.
+   * @param integration Integration type
+   * @return Queue capacity
+   */
+  public int getCapacity(String integration) {
+    WeightedFairScheduler current = this.scheduler;
+
+    if (current == null || current.getCapacity(integration) == 0) {
+      return properties.getWebhook().getScheduler().getQueueCapacity();
+    }
+
+    return current.getCapacity(integration);
+  }
+
+  /**
+   * Stops the scheduler, waiting for the payloads already accepted.
+   */
+  @PreDestroy
+  public void shutdown() {
+    WeightedFairScheduler current;
+
+    synchronized (this) {
+      this.stopped = true;
+      current = this.scheduler;
+    }
+
+    if (current != null) {
+      current.shutdown();
+    }
+  }
+
+  /**
+   * Retrieve the scheduler, creating it on the first call.
+   * @return Scheduler or null if it was stopped
+   */
+  private WeightedFairScheduler getScheduler() {
+    WeightedFairScheduler current = this.scheduler;
+
+    if (current != null) {
+      return current;
+    }
+
+    synchronized (this) {
+      if (stopped) {
+        return null;
+      }
+
+      if (scheduler == null) {
+        WebHookSchedulerConfig config = properties.getWebhook().getScheduler();
+        WebHookExecutionConfig execution = properties.getWebhook().getExecution();
+
+        ThreadFactory threadFactory = WebHookThreads.newThreadFactory(SCHEDULER_NAME + "-",
+            execution.isVirtualThreads());
+        int workerThreads = WebHookThreads.isVirtual(threadFactory)
+            ? execution.getMaxConcurrency() : config.getWorkerThreads();
+
+        this.scheduler = new WeightedFairScheduler(SCHEDULER_NAME, workerThreads, threadFactory,
+            new WeightedFairScheduler.Listener() {
+              @Override
+              public void onDispatch(String queue, long waitTime) {
+                metricsController.dispatchedByScheduler(queue, waitTime);
+              }
+            });
+      }
+
+      return scheduler;
+    }
+  }
+}
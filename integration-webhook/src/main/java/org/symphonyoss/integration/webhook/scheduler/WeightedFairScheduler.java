@@ -0,0 +1,455 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.logging.DistributedTracingUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of worker threads shared by several bounded queues, which are drained by deficit
+ * round-robin.
+ *
+ * The queues with pending tasks take turns. At the beginning of its turn a queue earns as many
+ * credits as its weight, and each task dispatched spends one credit. The turn passes to the next
+ * queue when the credits are over or the queue gets empty, so under contention each queue gets a
+ * share of the worker threads proportional to its weight, and an idle queue doesn't accumulate
+ * credits. When a queue is full the new tasks are rejected immediately instead of blocking the
+ * caller.
+ */
+public class WeightedFairScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WeightedFairScheduler.class);
+
+  /**
+   * Time, in seconds, to wait for the pending tasks during the shutdown.
+   */
+  private static final long SHUTDOWN_TIMEOUT = 10L;
+
+  /**
+   * Notified every time a task is dispatched to a worker thread.
+   */
+  public interface Listener {
+
+    /**
+     * Signals a task was dispatched.
+     * @param queue Queue name
+     * @param waitTime Time, in nanoseconds, the task waited in the queue
+     */
+    void onDispatch(String queue, long waitTime);
+
+  }
+
+  private final String name;
+
+  private final Listener listener;
+
+  private final Map<String, FairQueue> queues = new ConcurrentHashMap<>();
+
+  /**
+   * Queues with pending tasks, in the order they take turns. The head of the deque holds the turn.
+   */
+  private final Deque<FairQueue> active = new ArrayDeque<>();
+
+  private final Lock lock = new ReentrantLock();
+
+  private final Condition notEmpty = lock.newCondition();
+
+  private final Condition drained = lock.newCondition();
+
+  private final List<Thread> workers = new ArrayList<>();
+
+  private boolean shutdown;
+
+  /**
+   * Creates the scheduler and starts the worker threads.
+   * @param name Scheduler name
+   * @param workerThreads Number of worker threads
+   * @param threadFactory Factory of the worker threads
+   * @param listener Notified every time a task is dispatched
+   */
+  public WeightedFairScheduler(String name, int workerThreads, ThreadFactory threadFactory,
+      Listener listener) {
+    this.name = name;
+    this.listener = listener;
+
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        work();
+      }
+    };
+
+    for (int i = 0; i < workerThreads; i++) {
+      Thread thread = threadFactory.newThread(worker);
+      workers.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * Creates a queue, or updates its weight if it already exists.
+   * @param queue Queue name
+   * @param weight Number of tasks dispatched from the queue on each turn
+   * @param capacity Max number of tasks waiting in the queue
+   * @return true if the queue was created
+   */
+  public boolean register(String queue, int weight, int capacity) {
+    lock.lock();
+
+    try {
+      FairQueue current = queues.get(queue);
+
+      if (current != null) {
+        current.weight = weight;
+        return false;
+      }
+
+      queues.put(queue, new FairQueue(queue, weight, capacity));
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Accepts a task into a queue. The trace ID of the caller thread is propagated to the worker
+   * thread.
+   * @param queue Queue name
+   * @param task Task to be processed
+   * @return true if the task was accepted or false if the queue is full, the queue wasn't
+   * registered, it's being unregistered or the scheduler was shut down
+   */
+  public boolean offer(String queue, Runnable task) {
+    FairQueue fairQueue = queues.get(queue);
+
+    if (fairQueue == null) {
+      return false;
+    }
+
+    Task scheduled = new Task(fairQueue, task, DistributedTracingUtils.getMDC());
+
+    lock.lock();
+
+    try {
+      if (shutdown || fairQueue.closed || fairQueue.tasks.size() >= fairQueue.capacity) {
+        return false;
+      }
+
+      if (fairQueue.tasks.isEmpty()) {
+        active.addLast(fairQueue);
+      }
+
+      fairQueue.tasks.addLast(scheduled);
+      notEmpty.signal();
+
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of tasks waiting in a queue.
+   * @param queue Queue name
+   * @return Queue depth
+   */
+  public int getDepth(String queue) {
+    FairQueue fairQueue = queues.get(queue);
+
+    if (fairQueue == null) {
+      return 0;
+    }
+
+    lock.lock();
+
+    try {
+      return fairQueue.tasks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the max number of tasks waiting in a queue.
+   * @param queue Queue name
+   * @return Queue capacity or zero if the queue wasn't registered
+   */
+  public int getCapacity(String queue) {
+    FairQueue fairQueue = queues.get(queue);
+    return fairQueue != null ? fairQueue.capacity : 0;
+  }
+
+  /**
+   * Removes a queue. The queue stops accepting new tasks, and the tasks already accepted are
+   * processed within the shutdown timeout. The tasks still waiting after the timeout are discarded.
+   * @param queue Queue name
+   * @return Number of tasks discarded
+   */
+  public int unregister(String queue) {
+    FairQueue fairQueue = queues.get(queue);
+
+    if (fairQueue == null) {
+      return 0;
+    }
+
+    long remaining = TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT);
+
+    lock.lock();
+
+    try {
+      fairQueue.closed = true;
+
+      try {
+        while ((!fairQueue.tasks.isEmpty() || fairQueue.running > 0) && remaining > 0) {
+          remaining = drained.awaitNanos(remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      int pending = fairQueue.tasks.size();
+
+      if (pending > 0) {
+        fairQueue.tasks.clear();
+        active.remove(fairQueue);
+      }
+
+      fairQueue.deficit = 0;
+      queues.remove(queue);
+
+      return pending;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Stops accepting new tasks and waits for the pending tasks to be processed.
+   */
+  public void shutdown() {
+    lock.lock();
+
+    try {
+      shutdown = true;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT);
+
+    try {
+      for (Thread worker : workers) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+        if (remaining > 0) {
+          worker.join(remaining);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    int pending = discardPending();
+
+    if (pending > 0) {
+      LOGGER.warn("Webhook scheduler {} terminated with {} pending tasks", name, pending);
+    }
+  }
+
+  public boolean isShutdown() {
+    lock.lock();
+
+    try {
+      return shutdown;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Worker loop. Runs the tasks until the scheduler is shut down and the queues are drained.
+   */
+  private void work() {
+    Task task;
+
+    while ((task = take()) != null) {
+      listener.onDispatch(task.queue.name, System.nanoTime() - task.enqueuedAt);
+
+      DistributedTracingUtils.setMDC(task.traceId);
+
+      try {
+        task.runnable.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Unexpected failure running a task from the queue " + task.queue.name, e);
+      } finally {
+        DistributedTracingUtils.clearMDC();
+        finish(task.queue);
+      }
+    }
+  }
+
+  /**
+   * Takes the next task according to the deficit round-robin, waiting if there is no pending task.
+   * @return Next task or null if the scheduler was shut down and the queues are drained
+   */
+  private Task take() {
+    lock.lock();
+
+    try {
+      while (active.isEmpty()) {
+        if (shutdown) {
+          return null;
+        }
+
+        notEmpty.awaitUninterruptibly();
+      }
+
+      FairQueue queue = active.peekFirst();
+
+      if (queue.deficit <= 0) {
+        queue.deficit += queue.weight;
+      }
+
+      Task task = queue.tasks.pollFirst();
+      queue.deficit--;
+      queue.running++;
+
+      if (queue.tasks.isEmpty()) {
+        active.pollFirst();
+        queue.deficit = 0;
+      } else if (queue.deficit <= 0) {
+        active.addLast(active.pollFirst());
+      }
+
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Signals a task of the queue has finished, waking up the threads waiting for the queue to be
+   * drained.
+   * @param queue Queue of the task
+   */
+  private void finish(FairQueue queue) {
+    lock.lock();
+
+    try {
+      queue.running--;
+
+      if (queue.running == 0 && queue.tasks.isEmpty()) {
+        drained.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Discards the tasks not processed during the shutdown.
+   * @return Number of tasks discarded
+   */
+  private int discardPending() {
+    lock.lock();
+
+    try {
+      int pending = 0;
+
+      for (FairQueue queue : active) {
+        pending += queue.tasks.size();
+        queue.tasks.clear();
+        queue.deficit = 0;
+      }
+
+      active.clear();
+      return pending;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Queue of tasks and its scheduling state. Guarded by the scheduler lock.
+   */
+  private static final class FairQueue {
+
+    private final String name;
+
+    private final int capacity;
+
+    private final Deque<Task> tasks = new ArrayDeque<>();
+
+    private volatile int weight;
+
+    private int deficit;
+
+    /**
+     * Number of tasks of the queue being processed by the worker threads.
+     */
+    private int running;
+
+    /**
+     * Set when the queue is being unregistered, so it doesn't accept new tasks.
+     */
+    private boolean closed;
+
+    FairQueue(String name, int weight, int capacity) {
+      this.name = name;
+      this.weight = weight;
+      this.capacity = capacity;
+    }
+  }
+
+  /**
+   * Task waiting in a queue.
+   */
+  private static final class Task {
+
+    private final FairQueue queue;
+
+    private final Runnable runnable;
+
+    private final String traceId;
+
+    private final long enqueuedAt = System.nanoTime();
+
+    Task(FairQueue queue, Runnable runnable, String traceId) {
+      this.queue = queue;
+      this.runnable = runnable;
+      this.traceId = traceId;
+    }
+  }
+}
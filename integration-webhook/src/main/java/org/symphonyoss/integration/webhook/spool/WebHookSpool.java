@@ -0,0 +1,670 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local spool of webhook payloads, backed by memory-mapped files.
+ *
+ * The payloads are appended to segment files of fixed size. Each record holds the body length, a
+ * CRC32 checksum, the time it was appended and the encoded payload, followed by an end marker that
+ * is overwritten by the next record. The records are read in the same order they were appended,
+ * and the position of the oldest record not yet consumed is saved in a checkpoint file, so the
+ * spool survives a restart of the node. Fully consumed segments are deleted.
+ *
+ * On startup the segments are scanned from the checkpoint and the scan of each segment stops at
+ * the first record that is truncated or doesn't match its checksum.
+ *
+ * When the spool is synchronous, each record is forced to the disk before {@link #append} returns,
+ * so the payloads accepted survive a crash of the host. The concurrent appenders force the segment
+ * outside the lock, so the operating system writes their records together. Otherwise, the records
+ * are only written to the page cache: they survive a restart of the process, but they are forced
+ * to the disk by {@link #flush()} only.
+ *
+ * Once closed, the spool doesn't accept new payloads and returns no payload to be replayed.
+ */
+public class WebHookSpool {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebHookSpool.class);
+
+  private static final String SEGMENT_SUFFIX = ".spool";
+
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  /**
+   * Body length, checksum and timestamp.
+   */
+  private static final int RECORD_HEADER_SIZE = 16;
+
+  /**
+   * Segment identifier and read offset.
+   */
+  private static final int CHECKPOINT_SIZE = 12;
+
+  private static final int END_MARKER = 0;
+
+  /**
+   * Payload kept in the spool.
+   */
+  public static final class Entry {
+
+    private final String instanceId;
+
+    private final String integrationUser;
+
+    private final long timestamp;
+
+    private final WebHookPayload payload;
+
+    private Entry(String instanceId, String integrationUser, long timestamp,
+        WebHookPayload payload) {
+      this.instanceId = instanceId;
+      this.integrationUser = integrationUser;
+      this.timestamp = timestamp;
+      this.payload = payload;
+    }
+
+    public String getInstanceId() {
+      return instanceId;
+    }
+
+    public String getIntegrationUser() {
+      return integrationUser;
+    }
+
+    /**
+     * Time the payload was appended to the spool.
+     * @return Timestamp in milliseconds
+     */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public WebHookPayload getPayload() {
+      return payload;
+    }
+  }
+
+  private final File directory;
+
+  private final int segmentSize;
+
+  private final int maxSegments;
+
+  private final boolean sync;
+
+  /**
+   * Guards all the state below. It's a lock instead of a monitor to not pin virtual threads.
+   */
+  private final Lock lock = new ReentrantLock();
+
+  private final LinkedList<Segment> segments = new LinkedList<>();
+
+  private final MappedByteBuffer checkpoint;
+
+  private int readOffset;
+
+  private long depth;
+
+  private long size;
+
+  private long oldestTimestamp;
+
+  private boolean closed;
+
+  /**
+   * Opens the spool, recovering the records not consumed yet.
+   * @param directory Directory of the spool files
+   * @param segmentSize Size, in bytes, of each segment file
+   * @param maxSegments Max number of segment files
+   * @param sync Whether each record is forced to the disk before the append returns
+   * @throws IOException Failure to open the spool files
+   */
+  public WebHookSpool(File directory, int segmentSize, int maxSegments, boolean sync)
+      throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    this.sync = sync;
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Fail to create the spool directory " + directory);
+    }
+
+    this.checkpoint = map(new File(directory, CHECKPOINT_FILE), CHECKPOINT_SIZE);
+
+    recover();
+  }
+
+  /**
+   * Appends a payload to the spool.
+   * @param instanceId Integration instance identifier
+   * @param integrationUser Integration username
+   * @param payload Webhook payload
+   * @return true if the payload was appended or false if the spool is full or closed
+   * @throws IOException Failure to create a new segment file
+   */
+  public boolean append(String instanceId, String integrationUser, WebHookPayload payload)
+      throws IOException {
+    byte[] data = encode(instanceId, integrationUser, payload);
+    int recordSize = RECORD_HEADER_SIZE + data.length;
+
+    if (recordSize > segmentSize) {
+      return false;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(data);
+
+    Segment tail;
+
+    lock.lock();
+
+    try {
+      if (closed) {
+        return false;
+      }
+
+      tail = segments.getLast();
+
+      if (tail.writeOffset + recordSize > segmentSize) {
+        if (segments.size() >= maxSegments) {
+          return false;
+        }
+
+        tail = openSegment(tail.id + 1);
+        segments.addLast(tail);
+      }
+
+      long now = System.currentTimeMillis();
+
+      ByteBuffer buffer = tail.buffer.duplicate();
+      buffer.position(tail.writeOffset);
+      buffer.putInt(data.length);
+      buffer.putInt((int) crc.getValue());
+      buffer.putLong(now);
+      buffer.put(data);
+
+      if (buffer.remaining() >= 4) {
+        buffer.putInt(END_MARKER);
+      }
+
+      tail.writeOffset += recordSize;
+
+      if (depth == 0) {
+        oldestTimestamp = now;
+      }
+
+      depth++;
+      size += recordSize;
+    } finally {
+      lock.unlock();
+    }
+
+    if (sync) {
+      tail.buffer.force();
+    }
+
+    return true;
+  }
+
+  /**
+   * Reads the oldest payloads without consuming them.
+   * @param max Max number of payloads
+   * @return Oldest payloads, in the order they were appended, or an empty list if the spool is
+   * closed
+   * @throws IOException Failure to decode a payload
+   */
+  public List<Entry> peek(int max) throws IOException {
+    lock.lock();
+
+    try {
+      if (closed) {
+        return Collections.emptyList();
+      }
+
+      List<Entry> result = new ArrayList<>();
+
+      Iterator<Segment> iterator = segments.iterator();
+      Segment segment = iterator.next();
+      int offset = readOffset;
+
+      while (result.size() < max) {
+        if (offset >= segment.writeOffset) {
+          if (!iterator.hasNext()) {
+            break;
+          }
+
+          segment = iterator.next();
+          offset = 0;
+          continue;
+        }
+
+        int length = segment.buffer.getInt(offset);
+        long timestamp = segment.buffer.getLong(offset + 8);
+
+        byte[] data = new byte[length];
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset + RECORD_HEADER_SIZE);
+        buffer.get(data);
+
+        result.add(decode(timestamp, data));
+        offset += RECORD_HEADER_SIZE + length;
+      }
+
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Consumes the oldest payloads, deleting the segment files no longer required.
+   * @param count Number of payloads consumed
+   */
+  public void remove(int count) {
+    lock.lock();
+
+    try {
+      if (closed) {
+        return;
+      }
+
+      int removed = 0;
+
+      while (removed < count && depth > 0) {
+        Segment head = segments.getFirst();
+
+        if (readOffset >= head.writeOffset) {
+          dropHead();
+          continue;
+        }
+
+        int recordSize = RECORD_HEADER_SIZE + head.buffer.getInt(readOffset);
+        readOffset += recordSize;
+        size -= recordSize;
+        depth--;
+        removed++;
+      }
+
+      while (segments.size() > 1 && readOffset >= segments.getFirst().writeOffset) {
+        dropHead();
+      }
+
+      Segment head = segments.getFirst();
+
+      if (depth == 0) {
+        // Reuses the segment from the beginning. The end marker is written before the checkpoint,
+        // so the consumed records can't be recovered after a restart.
+        head.buffer.putInt(0, END_MARKER);
+        head.writeOffset = 0;
+        readOffset = 0;
+        oldestTimestamp = 0;
+      } else {
+        oldestTimestamp = head.buffer.getLong(readOffset + 8);
+      }
+
+      saveCheckpoint();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forces the pending writes to the disk.
+   */
+  public void flush() {
+    lock.lock();
+
+    try {
+      for (Segment segment : segments) {
+        segment.buffer.force();
+      }
+
+      checkpoint.force();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forces the pending writes to the disk and releases the segments. The payloads not consumed yet
+   * are recovered when the spool is opened again.
+   */
+  public void close() {
+    lock.lock();
+
+    try {
+      if (closed) {
+        return;
+      }
+
+      flush();
+      closed = true;
+      segments.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isEmpty() {
+    return getDepth() == 0;
+  }
+
+  /**
+   * Returns the number of payloads not consumed yet.
+   * @return Spool depth
+   */
+  public long getDepth() {
+    lock.lock();
+
+    try {
+      return depth;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the size, in bytes, of the records not consumed yet.
+   * @return Spool size
+   */
+  public long getSize() {
+    lock.lock();
+
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the time the oldest payload not consumed yet is waiting.
+   * @return Age in milliseconds or zero if the spool is empty
+   */
+  public long getAge() {
+    lock.lock();
+
+    try {
+      return depth == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldestTimestamp);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  private void recover() throws IOException {
+    long checkpointSegment = checkpoint.getLong(0);
+    int checkpointOffset = checkpoint.getInt(8);
+
+    File[] files = directory.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.endsWith(SEGMENT_SUFFIX);
+      }
+    });
+
+    if (files == null) {
+      files = new File[0];
+    }
+
+    Arrays.sort(files);
+
+    for (File file : files) {
+      long id = segmentId(file);
+
+      if (id < 0 || id < checkpointSegment) {
+        delete(file);
+      } else {
+        segments.add(new Segment(id, map(file, segmentSize)));
+      }
+    }
+
+    if (segments.isEmpty()) {
+      segments.add(openSegment(checkpointSegment));
+      readOffset = 0;
+    } else if (segments.getFirst().id == checkpointSegment) {
+      readOffset = checkpointOffset;
+    } else {
+      readOffset = 0;
+    }
+
+    for (Segment segment : segments) {
+      int offset = segment == segments.getFirst() ? readOffset : 0;
+      int recordSize;
+
+      while ((recordSize = validRecordSize(segment.buffer, offset)) > 0) {
+        if (depth == 0) {
+          oldestTimestamp = segment.buffer.getLong(offset + 8);
+        }
+
+        depth++;
+        size += recordSize;
+        offset += recordSize;
+      }
+
+      segment.writeOffset = offset;
+    }
+
+    if (depth > 0) {
+      LOGGER.info("Recovered {} webhook payloads from the spool {}", depth, directory);
+    }
+
+    saveCheckpoint();
+  }
+
+  /**
+   * Checks the record stored at the given offset.
+   * @return Record size or -1 if there is no valid record at the offset
+   */
+  private int validRecordSize(MappedByteBuffer buffer, int offset) {
+    if (offset < 0 || offset + RECORD_HEADER_SIZE > buffer.capacity()) {
+      return -1;
+    }
+
+    int length = buffer.getInt(offset);
+
+    if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+      return -1;
+    }
+
+    byte[] data = new byte[length];
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset + RECORD_HEADER_SIZE);
+    duplicate.get(data);
+
+    CRC32 crc = new CRC32();
+    crc.update(data);
+
+    if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+      return -1;
+    }
+
+    return RECORD_HEADER_SIZE + length;
+  }
+
+  private void dropHead() {
+    Segment head = segments.removeFirst();
+    readOffset = 0;
+
+    delete(segmentFile(head.id));
+  }
+
+  private void saveCheckpoint() {
+    checkpoint.putLong(0, segments.getFirst().id);
+    checkpoint.putInt(8, readOffset);
+  }
+
+  private Segment openSegment(long id) throws IOException {
+    Segment segment = new Segment(id, map(segmentFile(id), segmentSize));
+    segment.buffer.putInt(0, END_MARKER);
+    return segment;
+  }
+
+  private File segmentFile(long id) {
+    return new File(directory, String.format("%019d%s", id, SEGMENT_SUFFIX));
+  }
+
+  private static long segmentId(File file) {
+    String name = file.getName();
+
+    try {
+      return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static MappedByteBuffer map(File file, int size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      // The mapping remains valid after the channel is closed
+      return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  private static void delete(File file) {
+    if (file.exists() && !file.delete()) {
+      LOGGER.warn("Fail to delete the spool file {}", file);
+    }
+  }
+
+  private static byte[] encode(String instanceId, String integrationUser, WebHookPayload payload)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    writeString(out, instanceId);
+    writeString(out, integrationUser);
+    writeMap(out, payload.getParameters());
+    writeMap(out, payload.getHeaders());
+
+    byte[] body = payload.getRawBody();
+
+    if (body == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(body.length);
+      out.write(body);
+    }
+
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static Entry decode(long timestamp, byte[] data) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+    String instanceId = readString(in);
+    String integrationUser = readString(in);
+    Map<String, String> parameters = readMap(in);
+    Map<String, String> headers = readMap(in);
+
+    byte[] body = null;
+    int length = in.readInt();
+
+    if (length >= 0) {
+      body = new byte[length];
+      in.readFully(body);
+    }
+
+    WebHookPayload payload = WebHookPayload.fromBytes(parameters, headers, body);
+    return new Entry(instanceId, integrationUser, timestamp, payload);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+    if (map == null) {
+      map = Collections.emptyMap();
+    }
+
+    out.writeInt(map.size());
+
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readMap(DataInputStream in) throws IOException {
+    int entries = in.readInt();
+    Map<String, String> map = new LinkedHashMap<>();
+
+    for (int i = 0; i < entries; i++) {
+      map.put(readString(in), readString(in));
+    }
+
+    return map;
+  }
+
+  /**
+   * Segment file mapped into memory.
+   */
+  private static final class Segment {
+
+    private final long id;
+
+    private final MappedByteBuffer buffer;
+
+    private int writeOffset;
+
+    private Segment(long id, MappedByteBuffer buffer) {
+      this.id = id;
+      this.buffer = buffer;
+    }
+  }
+}
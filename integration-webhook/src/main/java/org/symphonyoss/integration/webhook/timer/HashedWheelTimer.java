@@ -0,0 +1,500 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.timer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer that keeps the scheduled tasks in a hashed wheel.
+ *
+ * The wheel is an array of slots, each one covering a fixed tick duration. A task is stored in the
+ * slot of its deadline, along with the number of wheel rotations left before it expires, so
+ * scheduling and cancelling a task are constant time operations regardless of the number of
+ * pending tasks. The deadlines are approximated to the tick duration.
+ *
+ * The timer only keeps time. A single thread advances the wheel once per tick and hands over each
+ * expired task to the executor given when it was scheduled, so the tasks never run on the wheel
+ * thread and a slow feature doesn't delay the tasks of the others. When the executor is saturated,
+ * the task is handed over again on the next tick instead of blocking the wheel thread.
+ *
+ * The wheel thread is started with the first task scheduled.
+ */
+public class HashedWheelTimer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+  private static final int STATE_INIT = 0;
+
+  private static final int STATE_STARTED = 1;
+
+  private static final int STATE_STOPPED = 2;
+
+  private static final int TASK_PENDING = 0;
+
+  private static final int TASK_CANCELLED = 1;
+
+  private static final int TASK_EXPIRED = 2;
+
+  /**
+   * Handle to a scheduled task.
+   */
+  public interface Timeout {
+
+    /**
+     * Cancels the task. It has no effect if the task already expired.
+     * @return true if the task was cancelled
+     */
+    boolean cancel();
+
+    /**
+     * Checks if the task was cancelled.
+     * @return true if the task was cancelled
+     */
+    boolean isCancelled();
+
+  }
+
+  private final long tickDuration;
+
+  private final int mask;
+
+  private final Slot[] wheel;
+
+  /**
+   * Tasks scheduled since the last tick. They are moved to the wheel by the wheel thread, so the
+   * wheel itself is only accessed by a single thread.
+   */
+  private final Queue<WheelTimeout> incoming = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+  private final AtomicLong scheduledCount = new AtomicLong();
+
+  private final AtomicLong pendingCount = new AtomicLong();
+
+  private final AtomicLong expiredCount = new AtomicLong();
+
+  private final Thread wheelThread;
+
+  private volatile long startTime;
+
+  /**
+   * Creates the timer.
+   * @param name Timer name (used to identify the threads)
+   * @param tickDuration Time, in milliseconds, covered by each slot of the wheel
+   * @param wheelSize Number of slots of the wheel, rounded up to a power of two
+   */
+  public HashedWheelTimer(String name, long tickDuration, int wheelSize) {
+    if (tickDuration <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+    }
+
+    this.tickDuration = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+
+    int size = Integer.highestOneBit(wheelSize);
+
+    if (size < wheelSize) {
+      size <<= 1;
+    }
+
+    this.mask = size - 1;
+    this.wheel = new Slot[size];
+
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new Slot();
+    }
+
+    this.wheelThread = new ThreadFactoryBuilder()
+        .setNameFormat(name + "-timer")
+        .setDaemon(true)
+        .build()
+        .newThread(new Runnable() {
+          @Override
+          public void run() {
+            runWheel();
+          }
+        });
+  }
+
+  /**
+   * Schedules a task to run once after the given delay.
+   * @param task Task to run
+   * @param delay Time to wait before running the task
+   * @param unit Time unit of the delay
+   * @param executor Executor used to run the task when it expires
+   * @return Handle to cancel the task
+   * @throws RejectedExecutionException the timer was stopped
+   */
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit, Executor executor) {
+    start();
+
+    long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startTime;
+    WheelTimeout timeout = new WheelTimeout(task, executor, deadline);
+
+    scheduledCount.incrementAndGet();
+    pendingCount.incrementAndGet();
+    incoming.add(timeout);
+
+    return timeout;
+  }
+
+  /**
+   * Schedules a task to run periodically. Each run is scheduled after the previous one finishes,
+   * so the runs never overlap.
+   * @param task Task to run
+   * @param initialDelay Time to wait before the first run
+   * @param delay Time to wait between the end of a run and the beginning of the next one
+   * @param unit Time unit of the delays
+   * @param executor Executor used to run the task
+   * @return Handle to cancel all the future runs
+   * @throws RejectedExecutionException the timer was stopped
+   */
+  public Timeout scheduleWithFixedDelay(Runnable task, long initialDelay, long delay,
+      TimeUnit unit, Executor executor) {
+    PeriodicTimeout periodic = new PeriodicTimeout(task, delay, unit, executor);
+    periodic.scheduleNext(initialDelay);
+    return periodic;
+  }
+
+  /**
+   * Stops the timer. The tasks waiting for their deadline are discarded, while the tasks already
+   * handed over to their executors aren't affected.
+   */
+  public void stop() {
+    int previous = state.getAndSet(STATE_STOPPED);
+
+    if (previous == STATE_STARTED) {
+      wheelThread.interrupt();
+    }
+  }
+
+  /**
+   * Checks if the timer was stopped.
+   * @return true if the timer was stopped
+   */
+  public boolean isStopped() {
+    return state.get() == STATE_STOPPED;
+  }
+
+  /**
+   * Returns the number of tasks scheduled since the timer was created.
+   * @return Tasks scheduled
+   */
+  public long getScheduledCount() {
+    return scheduledCount.get();
+  }
+
+  /**
+   * Returns the number of tasks waiting for their deadline.
+   * @return Pending tasks
+   */
+  public long getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /**
+   * Returns the number of tasks that reached their deadline since the timer was created.
+   * @return Expired tasks
+   */
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  /**
+   * Starts the wheel thread if it wasn't started yet.
+   */
+  private void start() {
+    int current = state.get();
+
+    if (current == STATE_STARTED) {
+      return;
+    }
+
+    synchronized (this) {
+      current = state.get();
+
+      if (current == STATE_INIT) {
+        this.startTime = System.nanoTime();
+        state.set(STATE_STARTED);
+        wheelThread.start();
+      } else if (current == STATE_STOPPED) {
+        throw new RejectedExecutionException("Timer was stopped");
+      }
+    }
+  }
+
+  private void runWheel() {
+    long tick = 0;
+
+    while (state.get() == STATE_STARTED) {
+      long now = waitForTick(tick);
+
+      if (now < 0) {
+        break;
+      }
+
+      transferIncoming(tick);
+      wheel[(int) (tick & mask)].expire(now, tick);
+      tick++;
+    }
+  }
+
+  /**
+   * Waits until the end of the given tick.
+   * @param tick Tick number
+   * @return Time, in nanoseconds, since the timer was started or -1 if the wait was interrupted
+   */
+  private long waitForTick(long tick) {
+    long deadline = tickDuration * (tick + 1);
+
+    while (true) {
+      long now = System.nanoTime() - startTime;
+      long sleepTime = deadline - now;
+
+      if (sleepTime <= 0) {
+        return now;
+      }
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(sleepTime);
+      } catch (InterruptedException e) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Moves the tasks scheduled since the last tick to the wheel.
+   * @param tick Current tick
+   */
+  private void transferIncoming(long tick) {
+    WheelTimeout timeout;
+
+    while ((timeout = incoming.poll()) != null) {
+      if (timeout.isCancelled()) {
+        continue;
+      }
+
+      long expectedTick = timeout.deadline / tickDuration;
+      timeout.remainingRounds = (expectedTick - tick) / wheel.length;
+
+      // Deadlines already in the past go to the current slot
+      long slotTick = Math.max(expectedTick, tick);
+      wheel[(int) (slotTick & mask)].add(timeout);
+    }
+  }
+
+  /**
+   * Slot of the wheel. Only accessed by the wheel thread.
+   */
+  private final class Slot {
+
+    private final LinkedList<WheelTimeout> timeouts = new LinkedList<>();
+
+    void add(WheelTimeout timeout) {
+      timeouts.add(timeout);
+    }
+
+    void expire(long now, long tick) {
+      Iterator<WheelTimeout> iterator = timeouts.iterator();
+
+      while (iterator.hasNext()) {
+        WheelTimeout timeout = iterator.next();
+
+        if (timeout.isCancelled()) {
+          iterator.remove();
+        } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+          iterator.remove();
+          timeout.expire(tick);
+        } else {
+          timeout.remainingRounds--;
+        }
+      }
+    }
+  }
+
+  /**
+   * Task stored in the wheel.
+   */
+  private final class WheelTimeout implements Timeout {
+
+    private final Runnable task;
+
+    private final Executor executor;
+
+    /**
+     * Deadline, in nanoseconds, relative to the timer start time. It's postponed by the wheel
+     * thread when the executor is saturated.
+     */
+    private long deadline;
+
+    private final AtomicInteger status = new AtomicInteger(TASK_PENDING);
+
+    /**
+     * Wheel rotations left before the deadline. Only accessed by the wheel thread.
+     */
+    private long remainingRounds;
+
+    WheelTimeout(Runnable task, Executor executor, long deadline) {
+      this.task = task;
+      this.executor = executor;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean cancel() {
+      if (status.compareAndSet(TASK_PENDING, TASK_CANCELLED)) {
+        pendingCount.decrementAndGet();
+        return true;
+      }
+
+      return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return status.get() == TASK_CANCELLED;
+    }
+
+    /**
+     * Hands over the task to its executor. If the executor is saturated, the task is kept pending
+     * and handed over again on the next tick.
+     * @param tick Current tick
+     */
+    void expire(long tick) {
+      if (!status.compareAndSet(TASK_PENDING, TASK_EXPIRED)) {
+        return;
+      }
+
+      pendingCount.decrementAndGet();
+      expiredCount.incrementAndGet();
+
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        if (isShutdown(executor)) {
+          LOGGER.warn("Fail to run the expired task, the executor was shut down");
+          return;
+        }
+
+        LOGGER.debug("Executor saturated. Retrying the expired task on the next tick");
+        expiredCount.decrementAndGet();
+        pendingCount.incrementAndGet();
+
+        this.deadline = tickDuration * (tick + 1);
+        status.set(TASK_PENDING);
+        incoming.add(this);
+      }
+    }
+
+    private boolean isShutdown(Executor executor) {
+      return executor instanceof ExecutorService && ((ExecutorService) executor).isShutdown();
+    }
+  }
+
+  /**
+   * Periodic task. Each run schedules the next one in the wheel.
+   */
+  private final class PeriodicTimeout implements Timeout, Runnable {
+
+    private final Runnable task;
+
+    private final long delay;
+
+    private final TimeUnit unit;
+
+    private final Executor executor;
+
+    private volatile boolean cancelled;
+
+    private volatile Timeout current;
+
+    PeriodicTimeout(Runnable task, long delay, TimeUnit unit, Executor executor) {
+      this.task = task;
+      this.delay = delay;
+      this.unit = unit;
+      this.executor = executor;
+    }
+
+    @Override
+    public void run() {
+      if (cancelled) {
+        return;
+      }
+
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Fail to run the periodic task", e);
+      }
+
+      try {
+        scheduleNext(delay);
+      } catch (RejectedExecutionException e) {
+        LOGGER.debug("Periodic task discarded, the timer was stopped");
+      }
+    }
+
+    void scheduleNext(long nextDelay) {
+      if (cancelled) {
+        return;
+      }
+
+      this.current = schedule(this, nextDelay, unit, executor);
+
+      // The task may have been cancelled while it was being scheduled
+      if (cancelled) {
+        current.cancel();
+      }
+    }
+
+    @Override
+    public boolean cancel() {
+      if (cancelled) {
+        return false;
+      }
+
+      this.cancelled = true;
+
+      Timeout timeout = current;
+
+      if (timeout != null) {
+        timeout.cancel();
+      }
+
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+}
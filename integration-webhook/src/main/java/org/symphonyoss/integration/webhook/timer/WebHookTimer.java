@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.model.yaml.WebHookTimerConfig;
+import org.symphonyoss.integration.webhook.metrics.WebHookMetricsController;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Timer shared by all the webhook integrations to schedule delayed and periodic tasks, so each
+ * integration doesn't need its own scheduler thread. The timer only keeps time: the tasks run on
+ * the executors given by the callers, which are bounded pools owned by each feature.
+ *
+ * The underlying {@link HashedWheelTimer} is created on demand according to the YAML file and
+ * stopped when the application context is closed.
+ */
+@Component
+public class WebHookTimer {
+
+  private static final String TIMER_NAME = "webhook";
+
+  @Autowired
+  private IntegrationProperties properties;
+
+  @Autowired
+  private WebHookMetricsController metricsController;
+
+  private volatile HashedWheelTimer timer;
+
+  private volatile boolean stopped;
+
+  /**
+   * Schedules a task to run once after the given delay.
+   * @param task Task to run
+   * @param delay Time to wait before running the task
+   * @param unit Time unit of the delay
+   * @param executor Executor used to run the task when it expires
+   * @return Handle to cancel the task
+   * @throws RejectedExecutionException the timer was stopped
+   */
+  public HashedWheelTimer.Timeout schedule(Runnable task, long delay, TimeUnit unit,
+      Executor executor) {
+    return getTimer().schedule(task, delay, unit, executor);
+  }
+
+  /**
+   * Schedules a task to run periodically. Each run is scheduled after the previous one finishes.
+   * @param task Task to run
+   * @param initialDelay Time to wait before the first run
+   * @param delay Time to wait between the end of a run and the beginning of the next one
+   * @param unit Time unit of the delays
+   * @param executor Executor used to run the task
+   * @return Handle to cancel all the future runs
+   * @throws RejectedExecutionException the timer was stopped
+   */
+  public HashedWheelTimer.Timeout scheduleWithFixedDelay(Runnable task, long initialDelay,
+      long delay, TimeUnit unit, Executor executor) {
+    return getTimer().scheduleWithFixedDelay(task, initialDelay, delay, unit, executor);
+  }
+
+  /**
+   * Stops the timer. The tasks waiting for their deadline are discarded and the tasks scheduled
+   * afterwards are rejected.
+   */
+  @PreDestroy
+  public synchronized void shutdown() {
+    this.stopped = true;
+
+    if (timer != null) {
+      timer.stop();
+    }
+  }
+
+  /**
+   * Retrieve the timer, creating it on the first call.
+   * @return Timer
+   * @throws RejectedExecutionException the timer was stopped
+   */
+  private HashedWheelTimer getTimer() {
+    HashedWheelTimer current = this.timer;
+
+    if (current != null) {
+      return current;
+    }
+
+    synchronized (this) {
+      if (stopped) {
+        throw new RejectedExecutionException("Webhook timer was stopped");
+      }
+
+      if (timer == null) {
+        WebHookTimerConfig config = properties.getWebhook().getTimer();
+
+        current = new HashedWheelTimer(TIMER_NAME, config.getTickDuration(),
+            config.getWheelSize());
+        metricsController.registerTimer(current);
+
+        this.timer = current;
+      }
+
+      return timer;
+    }
+  }
+}
@@ -0,0 +1,492 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.user;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.service.BulkUserService;
+import org.symphonyoss.integration.service.CachedUserService;
+import org.symphonyoss.integration.service.UserService;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects the user lookups issued by the parsers and resolves them in batches.
+ *
+ * The lookups are grouped by integration user and lookup type. A batch is resolved when it
+ * reaches the max batch size, when the max wait time elapses or when a caller blocks on one of
+ * its results, whichever comes first, so a parser can issue all the lookups of an event and only
+ * then wait for them. The repeated values of a batch are resolved once.
+ *
+ * The lookups are only batched when the user service resolves a batch in a single call, i.e. it's
+ * a {@link BulkUserService} that doesn't fall back to the single lookups. Otherwise waiting for the
+ * other lookups would only delay them, so each lookup is resolved right away in background,
+ * concurrently with the others.
+ */
+public class UserLookupBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UserLookupBatcher.class);
+
+  /**
+   * Attribute used to look up the users.
+   */
+  private enum LookupType {
+    EMAIL,
+    USERNAME,
+    USER_ID
+  }
+
+  private final UserService userService;
+
+  /**
+   * Whether the user service resolves a batch in a single call.
+   */
+  private final boolean bulk;
+
+  private final WebHookTimer timer;
+
+  private final Executor executor;
+
+  private final int maxBatchSize;
+
+  private final long maxWait;
+
+  /**
+   * Batches waiting to be resolved. Guarded by this.
+   */
+  private final Map<BatchKey, Batch> pending = new HashMap<>();
+
+  /**
+   * Creates the batcher.
+   * @param userService User service used to resolve the batches
+   * @param timer Timer used to resolve the batches after the max wait time
+   * @param executor Executor used to resolve the batches in background
+   * @param maxBatchSize Max number of distinct values resolved together
+   * @param maxWait Time, in milliseconds, to wait for other lookups before resolving a batch
+   */
+  public UserLookupBatcher(UserService userService, WebHookTimer timer, Executor executor,
+      int maxBatchSize, long maxWait) {
+    this.userService = userService;
+    this.bulk = isBulk(userService);
+    this.timer = timer;
+    this.executor = executor;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * Search a user by Email.
+   * @param integrationUser the integration bot user id
+   * @param email the email of the user to be retrieved
+   * @return Future user, following the rules of {@link UserService#getUserByEmail(String, String)}
+   */
+  public ListenableFuture<User> getUserByEmail(String integrationUser, String email) {
+    return enqueue(integrationUser, LookupType.EMAIL, email);
+  }
+
+  /**
+   * Search a user by UserName.
+   * @param integrationUser the integration bot user id
+   * @param userName the username of the user to be retrieved
+   * @return Future user, following the rules of
+   * {@link UserService#getUserByUserName(String, String)}
+   */
+  public ListenableFuture<User> getUserByUserName(String integrationUser, String userName) {
+    return enqueue(integrationUser, LookupType.USERNAME, userName);
+  }
+
+  /**
+   * Search a user by UserId.
+   * @param integrationUser the integration bot user id
+   * @param userId the id of the user to be retrieved
+   * @return Future user, following the rules of {@link UserService#getUserByUserId(String, Long)}
+   */
+  public ListenableFuture<User> getUserByUserId(String integrationUser, Long userId) {
+    return enqueue(integrationUser, LookupType.USER_ID, userId);
+  }
+
+  /**
+   * Resolves all the pending batches in the caller thread.
+   */
+  public void flush() {
+    List<Batch> batches;
+
+    synchronized (this) {
+      batches = new ArrayList<>(pending.values());
+      pending.clear();
+    }
+
+    for (Batch batch : batches) {
+      batch.cancelTimeout();
+      resolve(batch);
+    }
+  }
+
+  /**
+   * Returns the number of batches waiting to be resolved.
+   * @return Number of pending batches
+   */
+  public synchronized int getPendingBatches() {
+    return pending.size();
+  }
+
+  private ListenableFuture<User> enqueue(String integrationUser, LookupType type, Object value) {
+    if (value == null) {
+      return Futures.immediateFuture(null);
+    }
+
+    if (!bulk) {
+      return lookup(integrationUser, type, value);
+    }
+
+    BatchKey key = new BatchKey(integrationUser, type);
+    LookupFuture future;
+    Batch full = null;
+
+    synchronized (this) {
+      Batch batch = pending.get(key);
+
+      if (batch == null) {
+        batch = new Batch(key);
+        pending.put(key, batch);
+        scheduleResolve(batch);
+      }
+
+      future = batch.add(value);
+
+      if (batch.size() >= maxBatchSize) {
+        pending.remove(key);
+        full = batch;
+      }
+    }
+
+    if (full != null) {
+      full.cancelTimeout();
+      executeResolve(full);
+    }
+
+    return future;
+  }
+
+  /**
+   * Looks up a single user in background, or in the caller thread if the executor is saturated.
+   * @param integrationUser Integration username
+   * @param type Lookup type
+   * @param value Value looked up
+   * @return Future user
+   */
+  private ListenableFuture<User> lookup(String integrationUser, LookupType type, Object value) {
+    SingleLookup lookup = new SingleLookup(integrationUser, type, value);
+
+    try {
+      executor.execute(lookup);
+    } catch (RejectedExecutionException e) {
+      lookup.run();
+    }
+
+    return lookup;
+  }
+
+  private void scheduleResolve(final Batch batch) {
+    batch.timeout = timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        dispatch(batch);
+      }
+    }, maxWait, TimeUnit.MILLISECONDS, executor);
+  }
+
+  /**
+   * Resolves the batch in background, or in the caller thread if the executor is saturated.
+   * @param batch Batch to be resolved
+   */
+  private void executeResolve(final Batch batch) {
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          resolve(batch);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      resolve(batch);
+    }
+  }
+
+  /**
+   * Resolves the batch in the caller thread, unless it was already dispatched.
+   * @param batch Batch to be resolved
+   */
+  private void dispatch(Batch batch) {
+    synchronized (this) {
+      if (pending.get(batch.key) != batch) {
+        return;
+      }
+
+      pending.remove(batch.key);
+    }
+
+    batch.cancelTimeout();
+    resolve(batch);
+  }
+
+  private void resolve(Batch batch) {
+    BulkUserService bulkService = (BulkUserService) userService;
+    String integrationUser = batch.key.integrationUser;
+    Map<?, User> users;
+
+    try {
+      switch (batch.key.type) {
+        case EMAIL:
+          users = bulkService.getUsersByEmail(integrationUser, batch.<String>values());
+          break;
+        case USERNAME:
+          users = bulkService.getUsersByUserName(integrationUser, batch.<String>values());
+          break;
+        default:
+          users = bulkService.getUsersByUserId(integrationUser, batch.<Long>values());
+          break;
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Fail to resolve " + batch.size() + " users by " + batch.key.type, e);
+
+      for (LookupFuture future : batch.futures.values()) {
+        future.fail(e);
+      }
+
+      return;
+    }
+
+    for (Map.Entry<Object, LookupFuture> entry : batch.futures.entrySet()) {
+      entry.getValue().complete(users.get(entry.getKey()));
+    }
+  }
+
+  private User lookupUser(String integrationUser, LookupType type, Object value) {
+    switch (type) {
+      case EMAIL:
+        return userService.getUserByEmail(integrationUser, (String) value);
+      case USERNAME:
+        return userService.getUserByUserName(integrationUser, (String) value);
+      default:
+        return userService.getUserByUserId(integrationUser, (Long) value);
+    }
+  }
+
+  /**
+   * Checks if the user service resolves several users in a single call. The user cache only does
+   * it if its own user service does.
+   * @param userService User service
+   * @return true if the lookups should be batched
+   */
+  private static boolean isBulk(UserService userService) {
+    if (userService instanceof CachedUserService) {
+      return ((CachedUserService) userService).isBulkLoading();
+    }
+
+    return userService instanceof BulkUserService;
+  }
+
+  /**
+   * Lookups of the same integration user and type waiting to be resolved.
+   */
+  private final class Batch {
+
+    private final BatchKey key;
+
+    private final Map<Object, LookupFuture> futures = new LinkedHashMap<>();
+
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    private Batch(BatchKey key) {
+      this.key = key;
+    }
+
+    private LookupFuture add(Object value) {
+      LookupFuture future = futures.get(value);
+
+      if (future == null) {
+        future = new LookupFuture(this);
+        futures.put(value, future);
+      }
+
+      return future;
+    }
+
+    private int size() {
+      return futures.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> values() {
+      return new ArrayList<>((Collection<T>) (Collection<?>) futures.keySet());
+    }
+
+    private void cancelTimeout() {
+      HashedWheelTimer.Timeout current = timeout;
+
+      if (current != null) {
+        current.cancel();
+      }
+    }
+  }
+
+  /**
+   * Result of a lookup. Blocking on the result resolves its batch right away.
+   */
+  private final class LookupFuture extends AbstractFuture<User> {
+
+    private final Batch batch;
+
+    private LookupFuture(Batch batch) {
+      this.batch = batch;
+    }
+
+    private void complete(User user) {
+      set(user);
+    }
+
+    private void fail(Throwable cause) {
+      setException(cause);
+    }
+
+    @Override
+    public User get() throws InterruptedException, ExecutionException {
+      if (!isDone()) {
+        dispatch(batch);
+      }
+
+      return super.get();
+    }
+
+    @Override
+    public User get(long timeout, TimeUnit unit)
+        throws InterruptedException, TimeoutException, ExecutionException {
+      if (!isDone()) {
+        dispatch(batch);
+      }
+
+      return super.get(timeout, unit);
+    }
+  }
+
+  /**
+   * Lookup resolved without waiting for other lookups. Blocking on the result resolves it in the
+   * caller thread if it wasn't started yet.
+   */
+  private final class SingleLookup extends AbstractFuture<User> implements Runnable {
+
+    private final String integrationUser;
+
+    private final LookupType type;
+
+    private final Object value;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private SingleLookup(String integrationUser, LookupType type, Object value) {
+      this.integrationUser = integrationUser;
+      this.type = type;
+      this.value = value;
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        set(lookupUser(integrationUser, type, value));
+      } catch (RuntimeException e) {
+        setException(e);
+      }
+    }
+
+    @Override
+    public User get() throws InterruptedException, ExecutionException {
+      run();
+      return super.get();
+    }
+
+    @Override
+    public User get(long timeout, TimeUnit unit)
+        throws InterruptedException, TimeoutException, ExecutionException {
+      run();
+      return super.get(timeout, unit);
+    }
+  }
+
+  /**
+   * Identifies the batch of a lookup.
+   */
+  private static final class BatchKey {
+
+    private final String integrationUser;
+
+    private final LookupType type;
+
+    private BatchKey(String integrationUser, LookupType type) {
+      this.integrationUser = integrationUser;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      BatchKey batchKey = (BatchKey) o;
+
+      if (integrationUser != null ? !integrationUser.equals(batchKey.integrationUser)
+          : batchKey.integrationUser != null) {
+        return false;
+      }
+
+      return type == batchKey.type;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = integrationUser != null ? integrationUser.hashCode() : 0;
+      result = 31 * result + type.hashCode();
+      return result;
+    }
+  }
+}
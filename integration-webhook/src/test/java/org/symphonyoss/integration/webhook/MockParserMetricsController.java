@@ -13,6 +13,8 @@ public class MockParserMetricsController extends ParserMetricsController {
 
   private Boolean status;
 
+  private boolean timeout;
+
   @Override
   public Timer.Context startParserExecution(String integration) {
     return new Timer().time();
@@ -31,4 +33,13 @@ public class MockParserMetricsController extends ParserMetricsController {
     return Boolean.TRUE.equals(status);
   }
 
+  @Override
+  public void parserTimeout(String integration) {
+    this.timeout = true;
+  }
+
+  public boolean isTimeout() {
+    return timeout;
+  }
+
 }
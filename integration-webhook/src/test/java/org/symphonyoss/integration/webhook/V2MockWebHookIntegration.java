@@ -28,6 +28,7 @@ import org.springframework.context.annotation.Scope;
 import org.symphonyoss.integration.json.JsonUtils;
 import org.symphonyoss.integration.model.message.Message;
 import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.parser.ParserUtils;
 import org.symphonyoss.integration.webhook.exception.WebHookParseException;
 
 import java.io.IOException;
@@ -46,6 +47,8 @@ public class V2MockWebHookIntegration extends WebHookIntegration {
 
   public static final String EVENT_NOT_HANDLED = "eventNotHandled";
 
+  public static final String MARKUP_LINKS = "markupLinks";
+
   public static final String MESSAGE = "message";
 
   public static final String DATA = "data";
@@ -63,6 +66,10 @@ public class V2MockWebHookIntegration extends WebHookIntegration {
       JsonNode rootNode = JsonUtils.readTree(input.getBody());
       formattedMessage = rootNode.path(MESSAGE).asText();
 
+      if (input.getParameters() != null && input.getParameters().containsKey(MARKUP_LINKS)) {
+        formattedMessage = ParserUtils.markupLinks(formattedMessage);
+      }
+
       JsonNode dataNode = rootNode.path(DATA);
 
       if (dataNode.isObject()) {
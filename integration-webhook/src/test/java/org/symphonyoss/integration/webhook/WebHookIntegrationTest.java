@@ -19,6 +19,7 @@ package org.symphonyoss.integration.webhook;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -30,6 +31,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,8 +40,11 @@ import static org.symphonyoss.integration.utils.WebHookConfigurationUtils.LAST_P
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.LoadingCache;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +54,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.symphonyoss.integration.IntegrationStatus;
 import org.symphonyoss.integration.MockKeystore;
 import org.symphonyoss.integration.authentication.AuthenticationProxy;
@@ -61,13 +67,17 @@ import org.symphonyoss.integration.exception.bootstrap.CertificateNotFoundExcept
 import org.symphonyoss.integration.exception.bootstrap.LoadKeyStoreException;
 import org.symphonyoss.integration.exception.bootstrap.UnexpectedBootstrapException;
 import org.symphonyoss.integration.exception.config.ForbiddenUserException;
+import org.symphonyoss.integration.json.JsonUtils;
 import org.symphonyoss.integration.model.config.IntegrationInstance;
 import org.symphonyoss.integration.model.config.IntegrationSettings;
 import org.symphonyoss.integration.model.healthcheck.IntegrationFlags;
 import org.symphonyoss.integration.model.healthcheck.IntegrationHealth;
 import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
 import org.symphonyoss.integration.model.stream.StreamType;
 import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.model.yaml.WebHookConfig;
+import org.symphonyoss.integration.model.yaml.WebHookDigestConfig;
 import org.symphonyoss.integration.service.IntegrationBridge;
 import org.symphonyoss.integration.service.IntegrationService;
 import org.symphonyoss.integration.service.StreamService;
@@ -78,8 +88,15 @@ import org.symphonyoss.integration.webhook.exception.InvalidStreamTypeException;
 import org.symphonyoss.integration.webhook.exception.StreamTypeNotFoundException;
 import org.symphonyoss.integration.webhook.exception.WebHookDisabledException;
 import org.symphonyoss.integration.webhook.exception.WebHookParseException;
+import org.symphonyoss.integration.webhook.exception.WebHookParseTimeoutException;
+import org.symphonyoss.integration.webhook.exception.WebHookPayloadTooLargeException;
+import org.symphonyoss.integration.webhook.exception.WebHookQueueFullException;
+import org.symphonyoss.integration.webhook.exception.WebHookRateLimitedException;
 import org.symphonyoss.integration.webhook.exception.WebHookUnavailableException;
 import org.symphonyoss.integration.webhook.exception.WebHookUnprocessableEntityException;
+import org.symphonyoss.integration.webhook.metrics.WebHookMetricsController;
+import org.symphonyoss.integration.webhook.scheduler.WebHookScheduler;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
 
 import java.io.IOException;
 import java.net.ConnectException;
@@ -92,9 +109,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.MediaType;
@@ -108,9 +128,13 @@ import javax.ws.rs.core.MediaType;
 @EnableConfigurationProperties
 @ContextConfiguration(classes = {IntegrationProperties.class, MockWebHookIntegration.class,
     MockIntegrationHealthManager.class, V2MockWebHookIntegration.class,
-    MockParserMetricsController.class, MetricRegistry.class})
+    MockParserMetricsController.class, WebHookMetricsController.class, MetricRegistry.class,
+    WebHookTimer.class, WebHookScheduler.class})
 public class WebHookIntegrationTest extends MockKeystore {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private static final String CONFIGURATION_ID = "57bf581ae4b079de6a1cbbf9";
 
   private static final String INSTANCE_ID = "592c7696e4b0402b2a03ce5b";
@@ -190,6 +214,10 @@ public class WebHookIntegrationTest extends MockKeystore {
     mockWHI.onConfigChange(settings);
     v2MockWHI.onConfigChange(settings);
 
+    // The integrations are shared by the tests, and some of them destroy the integration
+    ReflectionTestUtils.setField(mockWHI, "destroyed", false);
+    ReflectionTestUtils.setField(v2MockWHI, "destroyed", false);
+
     doReturn(settings).when(integrationService)
         .getIntegrationByType(INTEGRATION_USER, INTEGRATION_USER);
 
@@ -326,7 +354,7 @@ public class WebHookIntegrationTest extends MockKeystore {
         + ", \"owner\": \"owner\", \"streams\": [ \"stream1\", \"stream2\"] }";
 
     IntegrationInstance instance = new IntegrationInstance();
-    instance.setConfigurationId("jirawebhook");
+    instance.setConfigurationId(CONFIGURATION_ID);
     instance.setInstanceId("1234");
     instance.setOptionalProperties(optionalProperties);
 
@@ -337,10 +365,13 @@ public class WebHookIntegrationTest extends MockKeystore {
         new WebHookPayload(Collections.<String, String>emptyMap(),
             Collections.<String, String>emptyMap(), "{ \"webhookEvent\": \"mock\" }"));
 
-    Long lastPostedDate = WebHookConfigurationUtils.fromJsonString(instance.getOptionalProperties())
+    // The cached instance is replaced by an updated copy
+    IntegrationInstance cached = mockWHI.getIntegrationInstance(instance.getInstanceId());
+    Long lastPostedDate = WebHookConfigurationUtils.fromJsonString(cached.getOptionalProperties())
         .path(LAST_POSTED_DATE).asLong();
 
     assertEquals(timestamp2, lastPostedDate);
+    assertEquals(optionalProperties, instance.getOptionalProperties());
 
     mockWHI.onConfigChange(null);
 
@@ -435,6 +466,101 @@ public class WebHookIntegrationTest extends MockKeystore {
     }
   }
 
+  @Test
+  public void testHandleAsync() throws Exception {
+    String certDir = mockKeyStore();
+    doReturn(certDir).when(utils).getCertsDirectory();
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getAsync().setEnabled(true);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final SendMessageAnswer answer = new SendMessageAnswer();
+
+    doAnswer(new Answer<List<Message>>() {
+      @Override
+      public List<Message> answer(InvocationOnMock invocationOnMock) throws Throwable {
+        List<Message> result = answer.answer(invocationOnMock);
+        latch.countDown();
+        return result;
+      }
+    }).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    mockWHI.onCreate(INTEGRATION_USER);
+
+    try {
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER,
+          new WebHookPayload(Collections.<String, String>emptyMap(),
+              Collections.<String, String>emptyMap(), "\"mockMessage\""));
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertEquals("<messageML>mockMessage</messageML>", answer.getFormattedMessage());
+    } finally {
+      mockWHI.onDestroy();
+    }
+  }
+
+  @Test
+  public void testHandleAsyncQueueFull() throws Exception {
+    String certDir = mockKeyStore();
+    doReturn(certDir).when(utils).getCertsDirectory();
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getAsync().setEnabled(true);
+    webHookConfig.getAsync().setQueueCapacity(1);
+    webHookConfig.getAsync().setWorkerThreads(1);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    doAnswer(new Answer<List<Message>>() {
+      @Override
+      public List<Message> answer(InvocationOnMock invocationOnMock) throws Throwable {
+        started.countDown();
+        release.await(5, TimeUnit.SECONDS);
+        return Collections.emptyList();
+      }
+    }).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    mockWHI.onCreate(INTEGRATION_USER);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    try {
+      // Worker thread busy
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      // Waiting in the queue
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      fail();
+    } catch (WebHookQueueFullException e) {
+      release.countDown();
+    } finally {
+      release.countDown();
+      mockWHI.onDestroy();
+    }
+  }
+
   @Test(expected = StreamTypeNotFoundException.class)
   public void testWelcomeInvalidPayload() throws IOException, RemoteApiException {
     SendMessageAnswer answer = new SendMessageAnswer();
@@ -557,6 +683,27 @@ public class WebHookIntegrationTest extends MockKeystore {
     assertEquals(2, answer.getCount());
   }
 
+  @Test
+  public void testWelcomeCachedUser() throws IOException, RemoteApiException {
+    User user = new User();
+    user.setId(7890L);
+    user.setDisplayName("Test user");
+
+    when(authenticationProxy.getSessionToken(anyString())).thenReturn("");
+    when(userService.getUserByUserId(anyString(), eq(7890L))).thenReturn(user);
+
+    IntegrationInstance instance = new IntegrationInstance();
+    instance.setConfigurationId("jirawebhook");
+    instance.setInstanceId("1234");
+    instance.setCreatorId("7890");
+    instance.setOptionalProperties("{ \"streams\": [ \"stream1\"], \"streamType\": \"CHATROOM\" }");
+
+    mockWHI.welcome(instance, INTEGRATION_USER, "{ \"streams\": [ \"stream1\" ] }");
+    mockWHI.welcome(instance, INTEGRATION_USER, "{ \"streams\": [ \"stream1\" ] }");
+
+    verify(userService, times(1)).getUserByUserId(INTEGRATION_USER, 7890L);
+  }
+
   @Test
   public void testWelcomeChatroomWithoutUserStreamType() throws IOException, RemoteApiException {
     SendMessageAnswer answer = new SendMessageAnswer();
@@ -611,6 +758,203 @@ public class WebHookIntegrationTest extends MockKeystore {
     assertTrue(mockWHI.isAvailable());
   }
 
+  @Test
+  public void testUnavailableForbiddenOpenCircuit() {
+    doThrow(ForbiddenUserException.class).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+    doReturn(IntegrationFlags.ValueEnum.NOK).when(configuratorFlagsCache).getUnchecked
+        (INTEGRATION_USER);
+
+    try {
+      mockWHI.isAvailable();
+      fail();
+    } catch (WebHookUnavailableException e) {
+      // Expected
+    }
+
+    // The circuit remains open, even if the configuration is readable again
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    try {
+      mockWHI.isAvailable();
+      fail();
+    } catch (WebHookUnavailableException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testAvailableCachedEnabledFlag() {
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    assertTrue(mockWHI.isAvailable());
+    assertTrue(mockWHI.isAvailable());
+
+    verify(integrationService, times(1)).getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    // Configuration changes must discard the local copy of the "enabled" flag
+    mockWHI.onConfigChange(settings);
+    assertTrue(mockWHI.isAvailable());
+
+    verify(integrationService, times(2)).getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+  }
+
+  @Test
+  public void testAvailableRefreshEnabledFlag() throws InterruptedException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getCircuitBreaker().setEnabledRefresh(1);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    assertTrue(mockWHI.isAvailable());
+
+    IntegrationSettings disabled = new IntegrationSettings();
+    disabled.setConfigurationId(CONFIGURATION_ID);
+    disabled.setType(INTEGRATION_USER);
+    disabled.setEnabled(false);
+
+    doReturn(disabled).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        mockWHI.isAvailable();
+        TimeUnit.MILLISECONDS.sleep(5);
+      } catch (WebHookDisabledException e) {
+        return;
+      }
+    }
+
+    fail("The refreshed flag should disable the integration");
+  }
+
+  @Test
+  public void testHandleOpenCircuit() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getCircuitBreaker().setMinimumCalls(2);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+    doReturn(mockInstance()).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doThrow(new RemoteApiException(500, "Internal server error")).when(service)
+        .sendMessage(any(IntegrationInstance.class), anyString(), anyListOf(String.class),
+            any(Message.class));
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+        fail();
+      } catch (RemoteApiException e) {
+        assertEquals(500, e.getCode());
+      }
+    }
+
+    try {
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      fail();
+    } catch (WebHookUnavailableException e) {
+      verify(service, times(2)).sendMessage(any(IntegrationInstance.class), anyString(),
+          anyListOf(String.class), any(Message.class));
+    }
+  }
+
+  @Test
+  public void testHandleSpoolWhileUnavailable() throws RemoteApiException, InterruptedException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getCircuitBreaker().setMinimumCalls(2);
+    webHookConfig.getCircuitBreaker().setOpenTimeout(100);
+    webHookConfig.getSpool().setEnabled(true);
+    webHookConfig.getSpool().setDirectory(folder.getRoot().getAbsolutePath());
+    webHookConfig.getSpool().setSegmentSize(4096);
+    webHookConfig.getSpool().setDrainInterval(20);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+    doReturn(mockInstance()).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doThrow(new RemoteApiException(500, "Internal server error")).when(service)
+        .sendMessage(any(IntegrationInstance.class), anyString(), anyListOf(String.class),
+            any(Message.class));
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    try {
+      for (int i = 0; i < 2; i++) {
+        try {
+          mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+          fail();
+        } catch (RemoteApiException e) {
+          assertEquals(500, e.getCode());
+        }
+      }
+
+      // The circuit is open, so the payloads are accepted into the spool
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+      verify(service, times(2)).sendMessage(any(IntegrationInstance.class), anyString(),
+          anyListOf(String.class), any(Message.class));
+
+      // The spooled payloads are replayed once the circuit is closed again
+      final CountDownLatch replayed = new CountDownLatch(2);
+
+      doAnswer(new Answer<List<Message>>() {
+        @Override
+        public List<Message> answer(InvocationOnMock invocation) throws Throwable {
+          replayed.countDown();
+          return Collections.emptyList();
+        }
+      }).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+          anyListOf(String.class), any(Message.class));
+
+      assertTrue(replayed.await(5, TimeUnit.SECONDS));
+
+      verify(service, times(4)).sendMessage(any(IntegrationInstance.class), anyString(),
+          anyListOf(String.class), any(Message.class));
+    } finally {
+      mockWHI.onDestroy();
+    }
+  }
+
+  @Test
+  public void testSpoolNotReopenedAfterDestroy() throws RemoteApiException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getSpool().setEnabled(true);
+    webHookConfig.getSpool().setDirectory(folder.getRoot().getAbsolutePath());
+    webHookConfig.getSpool().setSegmentSize(4096);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+    doReturn(mockInstance()).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    mockSendMessageResponse(1476109880000L);
+
+    mockWHI.onDestroy();
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    // The spool files aren't created again by the requests received after the destroy
+    assertEquals(0, folder.getRoot().list().length);
+  }
+
   @Test
   public void testWhiteList() {
     mockWHI.onConfigChange(null);
@@ -663,6 +1007,593 @@ public class WebHookIntegrationTest extends MockKeystore {
     assertNull(answer.getMessage().getData());
   }
 
+  @Test
+  public void testHandleWriteBehindLastPostedDate() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getWriteBehind().setEnabled(true);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    Long timestamp = 1476109880000L;
+    mockSendMessageResponse(timestamp);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    mockSendMessageResponse(timestamp + 1000);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    // Saved only when the pending dates are flushed
+    verify(integrationService, times(0)).save(any(IntegrationInstance.class), anyString());
+
+    mockWHI.onDestroy();
+
+    ArgumentCaptor<IntegrationInstance> saved = ArgumentCaptor.forClass(IntegrationInstance.class);
+    verify(integrationService, times(1)).save(saved.capture(), eq(INTEGRATION_USER));
+
+    Long lastPostedDate = WebHookConfigurationUtils.fromJsonString(
+        saved.getValue().getOptionalProperties()).path(LAST_POSTED_DATE).asLong();
+    assertEquals((Long) (timestamp + 1000), lastPostedDate);
+
+    // The instance returned by the configuration service isn't changed
+    assertEquals("{}", instance.getOptionalProperties());
+  }
+
+  @Test
+  public void testHandleWriteBehindDisabled() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    mockSendMessageResponse(1476109880000L);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(integrationService, times(1)).save(any(IntegrationInstance.class), eq(INTEGRATION_USER));
+  }
+
+  private void mockSendMessageResponse(Long timestamp) throws RemoteApiException {
+    Message message = new Message();
+    message.setTimestamp(timestamp);
+
+    doReturn(Collections.singletonList(message)).when(service)
+        .sendMessage(any(IntegrationInstance.class), anyString(), anyListOf(String.class),
+            any(Message.class));
+  }
+
+  @Test
+  public void testHandleFanOut() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getFanOut().setEnabled(true);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Arrays.asList("stream1", "stream2", "stream3")).when(streamService)
+        .getStreams(instance);
+
+    final Long timestamp = 1476109880000L;
+
+    doAnswer(new Answer<List<Message>>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public List<Message> answer(InvocationOnMock invocation) throws Throwable {
+        List<String> streams = (List<String>) invocation.getArguments()[2];
+
+        if (streams.contains("stream3")) {
+          throw new RemoteApiException(500, "Internal server error");
+        }
+
+        Message message = new Message();
+        message.setTimestamp(streams.contains("stream1") ? timestamp : timestamp + 1000);
+        return Collections.singletonList(message);
+      }
+    }).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER,
+        new WebHookPayload(Collections.<String, String>emptyMap(),
+            Collections.<String, String>emptyMap(), "\"mockMessage\""));
+
+    verify(service, times(3)).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    ArgumentCaptor<IntegrationInstance> saved = ArgumentCaptor.forClass(IntegrationInstance.class);
+    verify(integrationService, times(1)).save(saved.capture(), eq(INTEGRATION_USER));
+
+    Long lastPostedDate = WebHookConfigurationUtils.fromJsonString(
+        saved.getValue().getOptionalProperties()).path(LAST_POSTED_DATE).asLong();
+    assertEquals((Long) (timestamp + 1000), lastPostedDate);
+
+    mockWHI.onDestroy();
+  }
+
+  @Test(expected = RemoteApiException.class)
+  public void testHandleFanOutFailure() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getFanOut().setEnabled(true);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Arrays.asList("stream1", "stream2")).when(streamService).getStreams(instance);
+
+    doThrow(new RemoteApiException(500, "Internal server error")).when(service)
+        .sendMessage(any(IntegrationInstance.class), anyString(), anyListOf(String.class),
+            any(Message.class));
+
+    try {
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER,
+          new WebHookPayload(Collections.<String, String>emptyMap(),
+              Collections.<String, String>emptyMap(), "\"mockMessage\""));
+    } finally {
+      mockWHI.onDestroy();
+    }
+  }
+
+  @Test
+  public void testHandleDuplicateDelivery() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getDeduplication().setEnabled(true);
+    webHookConfig.getDeduplication().setDeliveryIdHeader("X-Delivery-Id");
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+
+    mockSendMessageResponse(1476109880000L);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap("x-delivery-id", "1"), "\"mockMessage\"");
+    WebHookPayload retry = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap("x-delivery-id", "1"), "\"mockMessage\"");
+    WebHookPayload other = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap("x-delivery-id", "2"), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, retry);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, other);
+
+    verify(service, times(2)).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+  }
+
+  @Test
+  public void testHandleParseCache() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getParseCache().setEnabled(true);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    instance.setCreatorId("1111");
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    IntegrationInstance other = mockInstance();
+    other.setInstanceId("5678");
+    other.setCreatorId("2222");
+    doReturn(other).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, "5678", INTEGRATION_USER);
+
+    mockSendMessageResponse(1476109880000L);
+
+    String body = "{ \"message\": \"mockMessage\", \"data\": { \"issue\": \"SAM-25\" } }";
+
+    v2MockWHI.handle(INSTANCE_ID, INTEGRATION_USER, new WebHookPayload(
+        Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap(), body));
+    v2MockWHI.handle("5678", INTEGRATION_USER, new WebHookPayload(
+        Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap(), body));
+
+    ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+    verify(service, times(2)).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), captor.capture());
+
+    // Each instance gets its own copy of the message with its own ownership
+    List<Message> messages = captor.getAllValues();
+    assertNotSame(messages.get(0), messages.get(1));
+    assertEquals("1111",
+        JsonUtils.readTree(messages.get(0).getData()).path("ownership").path("userId").asText());
+    assertEquals("2222",
+        JsonUtils.readTree(messages.get(1).getData()).path("ownership").path("userId").asText());
+  }
+
+  @Test
+  public void testHandleParseTimeout() throws RemoteApiException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getParseBudget().setEnabled(true);
+    webHookConfig.getParseBudget().setDefaultTimeout(1L);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    StringBuilder message = new StringBuilder();
+
+    for (int i = 0; i < 5000; i++) {
+      message.append("See https://symphony.com/").append(i).append(' ');
+    }
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put(V2MockWebHookIntegration.MARKUP_LINKS, "true");
+
+    String body = "{ \"message\": \"" + message + "\" }";
+
+    try {
+      v2MockWHI.handle(INSTANCE_ID, INTEGRATION_USER,
+          new WebHookPayload(parameters, Collections.<String, String>emptyMap(), body));
+      fail();
+    } catch (WebHookParseTimeoutException e) {
+      assertTrue(metricsController.isTimeout());
+      assertFalse(metricsController.isSuccess());
+    }
+
+    verify(service, never()).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+  }
+
+  @Test
+  public void testHandleFilteredEvent() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getEventFilter().setEnabled(true);
+    webHookConfig.getEventFilter().setEventHeader("X-Event-Key");
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    instance.setOptionalProperties("{\"notifications\":[\"issue_created\"]}");
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+
+    mockSendMessageResponse(1476109880000L);
+
+    WebHookPayload unsubscribed = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap("X-Event-Key", "issue_updated"), "\"mockMessage\"");
+    WebHookPayload subscribed = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.singletonMap("X-Event-Key", "issue_created"), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, unsubscribed);
+
+    verify(service, never()).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, subscribed);
+
+    verify(service, times(1)).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+  }
+
+  @Test
+  public void testHandleScheduler() throws RemoteApiException, InterruptedException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getScheduler().setEnabled(true);
+    webHookConfig.getScheduler().setWorkerThreads(2);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+    doReturn(mockInstance()).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    final CountDownLatch posted = new CountDownLatch(2);
+
+    doAnswer(new Answer<List<Message>>() {
+      @Override
+      public List<Message> answer(InvocationOnMock invocation) throws Throwable {
+        posted.countDown();
+        return Collections.emptyList();
+      }
+    }).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    assertTrue(posted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testHandleDigest() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getDigest().setEnabled(true);
+    webHookConfig.getDigest().setWindow(WebHookDigestConfig.MAX_WINDOW);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+
+    mockSendMessageResponse(1476109880000L);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(service, never()).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    // The pending messages are posted when the integration is destroyed
+    mockWHI.onDestroy();
+
+    ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+    verify(service, times(1)).sendMessage(any(IntegrationInstance.class), anyString(),
+        eq(Collections.singletonList("stream1")), captor.capture());
+
+    Message digest = captor.getValue();
+    assertEquals(MessageMLVersion.V2, digest.getVersion());
+    assertEquals(2, JsonUtils.readTree(digest.getData()).path("digest").path("count").asInt());
+  }
+
+  @Test
+  public void testHandleDigestAfterDestroy() throws RemoteApiException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getDigest().setEnabled(true);
+    webHookConfig.getDigest().setWindow(WebHookDigestConfig.MAX_WINDOW);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+
+    mockSendMessageResponse(1476109880000L);
+
+    mockWHI.onDestroy();
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    // The message digest isn't created again, so the message is posted immediately
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(service, times(1)).sendMessage(any(IntegrationInstance.class), anyString(),
+        eq(Collections.singletonList("stream1")), any(Message.class));
+    assertNull(ReflectionTestUtils.getField(mockWHI, "messageDigest"));
+    assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(mockWHI, "executors")).isEmpty());
+  }
+
+  @Test
+  public void testHandleDigestFailureOpensCircuit()
+      throws RemoteApiException, InterruptedException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getCircuitBreaker().setMinimumCalls(2);
+    webHookConfig.getDigest().setEnabled(true);
+    webHookConfig.getDigest().setWindow(20);
+    webHookConfig.getWriteBehind().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+    doThrow(new RemoteApiException(500, "Internal server error")).when(service)
+        .sendMessage(any(IntegrationInstance.class), anyString(), anyListOf(String.class),
+            any(Message.class));
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    // Accepted by the digest, so the failures are reported when the window is posted
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+        TimeUnit.MILLISECONDS.sleep(5);
+      } catch (WebHookUnavailableException e) {
+        return;
+      }
+    }
+
+    fail("The failures to post the digest should open the circuit");
+  }
+
+  @Test
+  public void testHandleFailedDeliveryRetried() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getDeduplication().setEnabled(true);
+    webHookConfig.getDeduplication().setHashBody(true);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+    doReturn(Collections.singletonList("stream1")).when(streamService).getStreams(instance);
+
+    Message message = new Message();
+    message.setTimestamp(1476109880000L);
+
+    doThrow(new RemoteApiException(500, "Internal server error"))
+        .doReturn(Collections.singletonList(message))
+        .when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+            anyListOf(String.class), any(Message.class));
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    try {
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      fail();
+    } catch (RemoteApiException e) {
+      assertEquals(500, e.getCode());
+    }
+
+    // The failed delivery isn't remembered, so the retry must be processed
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(service, times(2)).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+  }
+
+  @Test
+  public void testHandleRateLimited() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getRateLimit().setEnabled(true);
+    webHookConfig.getRateLimit().setInstanceRate(1);
+    webHookConfig.getRateLimit().setInstanceBurst(1);
+    webHookConfig.getInstanceCache().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    try {
+      mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+      fail();
+    } catch (WebHookRateLimitedException e) {
+      assertTrue(e.getMessage().contains(INSTANCE_ID));
+    }
+
+    // The rejected payload is evaluated before the integration instance is read
+    verify(integrationService, times(1))
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+  }
+
+  @Test(expected = WebHookPayloadTooLargeException.class)
+  public void testHandlePayloadTooLarge() throws RemoteApiException, IOException {
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getPayload().setMaxSize(8);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER,
+        new WebHookPayload(Collections.<String, String>emptyMap(),
+            Collections.<String, String>emptyMap(), "\"mockMessage\""));
+  }
+
+  @Test
+  public void testHandleCachedInstance() throws RemoteApiException, IOException {
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(integrationService, times(1))
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    // Configuration changes must discard the cached instances
+    mockWHI.onConfigChange(settings);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(integrationService, times(2))
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    // Instances saved outside the integration must be discarded as well
+    mockWHI.invalidateInstance(CONFIGURATION_ID, INSTANCE_ID);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(integrationService, times(3))
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+  }
+
+  @Test
+  public void testHandleInstanceCacheDisabled() throws RemoteApiException, IOException {
+    doReturn(settings).when(integrationService)
+        .getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookConfig webHookConfig = new WebHookConfig();
+    webHookConfig.getInstanceCache().setEnabled(false);
+    doReturn(webHookConfig).when(properties).getWebhook();
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "\"mockMessage\"");
+
+    IntegrationInstance instance = mockInstance();
+    doReturn(instance).when(integrationService)
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+    mockWHI.handle(INSTANCE_ID, INTEGRATION_USER, payload);
+
+    verify(integrationService, times(2))
+        .getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+  }
+
   private IntegrationInstance mockInstance() {
     IntegrationInstance instance = new IntegrationInstance();
     instance.setConfigurationId(CONFIGURATION_ID);
@@ -746,6 +1677,55 @@ public class WebHookIntegrationTest extends MockKeystore {
         answer.getMessage().getData());
   }
 
+  @Test
+  public void testHandleMMLV2EmptyObjectData() throws RemoteApiException, IOException {
+    doReturn(settings).when(integrationService).getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "{ \"message\": \"mockMessage\", \"data\": {} }");
+
+    SendMessageAnswer answer = new SendMessageAnswer();
+    doAnswer(answer).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    IntegrationInstance instance = mockInstance();
+    instance.setCreatorId(MOCK_USERID);
+
+    doReturn(instance).when(integrationService).getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    v2MockWHI.handle(instance.getInstanceId(), INTEGRATION_USER, payload);
+
+    assertEquals(
+        "{\"ownership\":{\"type\":\"com.symphony.integration.ownership\",\"version\":\"1.0\","
+            + "\"userId\":\"98568743\"}}",
+        answer.getMessage().getData());
+  }
+
+  @Test
+  public void testHandleMMLV2ReplaceOwnership() throws RemoteApiException, IOException {
+    doReturn(settings).when(integrationService).getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "{ \"message\": \"mockMessage\", \"data\": "
+        + "{ \"ownership\": { \"userId\": \"123\" }, \"event\": \"mockEvent\" } }");
+
+    SendMessageAnswer answer = new SendMessageAnswer();
+    doAnswer(answer).when(service).sendMessage(any(IntegrationInstance.class), anyString(),
+        anyListOf(String.class), any(Message.class));
+
+    IntegrationInstance instance = mockInstance();
+    instance.setCreatorId(MOCK_USERID);
+
+    doReturn(instance).when(integrationService).getInstanceById(CONFIGURATION_ID, INSTANCE_ID, INTEGRATION_USER);
+
+    v2MockWHI.handle(instance.getInstanceId(), INTEGRATION_USER, payload);
+
+    assertEquals(
+        "{\"ownership\":{\"type\":\"com.symphony.integration.ownership\",\"version\":\"1.0\","
+            + "\"userId\":\"98568743\"},\"event\":\"mockEvent\"}",
+        answer.getMessage().getData());
+  }
+
   @Test(expected = WebHookUnprocessableEntityException.class)
   public void testHandleMMLV2EventNotHandled() throws RemoteApiException, IOException {
     doReturn(settings).when(integrationService).getIntegrationById(CONFIGURATION_ID, INTEGRATION_USER);
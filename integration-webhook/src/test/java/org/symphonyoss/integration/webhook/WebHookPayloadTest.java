@@ -1,10 +1,22 @@
 package org.symphonyoss.integration.webhook;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.webhook.exception.WebHookPayloadTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -45,6 +57,175 @@ public class WebHookPayloadTest {
     assertEquals(MediaType.APPLICATION_JSON_TYPE, whp.getContentType());
   }
 
+  @Test
+  public void testGetContentTypeCached() {
+    WebHookPayload whp = getWebHookPayload();
+
+    whp.getHeaders().put(CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    assertSame(whp.getContentType(), whp.getContentType());
+
+    whp.getHeaders().put(CONTENT_TYPE, MediaType.TEXT_PLAIN);
+    assertEquals(MediaType.TEXT_PLAIN_TYPE, whp.getContentType());
+  }
+
+  @Test
+  public void testHeadersCaseInsensitive() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("Content-Type", MediaType.APPLICATION_JSON);
+    headers.put("X-Event-Key", "push");
+
+    WebHookPayload whp = new WebHookPayload(new HashMap<String, String>(), headers, null);
+
+    assertEquals(MediaType.APPLICATION_JSON_TYPE, whp.getContentType());
+    assertEquals("push", whp.getHeaders().get("x-event-key"));
+    assertEquals("push", whp.getHeaders().get("X-EVENT-KEY"));
+    assertTrue(whp.getHeaders().containsKey("x-Event-key"));
+
+    whp.getHeaders().remove("X-Event-Key");
+    assertNull(whp.getHeaders().get("x-event-key"));
+  }
+
+  @Test
+  public void testNullHeaders() {
+    WebHookPayload whp = new WebHookPayload(new HashMap<String, String>(), null, "body");
+
+    assertEquals(MediaType.WILDCARD_TYPE, whp.getContentType());
+    assertTrue(whp.getHeaders().isEmpty());
+  }
+
+  @Test
+  public void testRawBody() throws IOException {
+    byte[] content = "{\"name\":\"caf\u00e9\"}".getBytes(StandardCharsets.UTF_8);
+
+    WebHookPayload whp = WebHookPayload.fromBytes(new HashMap<String, String>(),
+        Collections.<String, String>emptyMap(), content);
+
+    assertSame(content, whp.getRawBody());
+    assertEquals(content.length, whp.getBodySize());
+    assertEquals("{\"name\":\"caf\u00e9\"}", whp.getBody());
+    assertSame(whp.getBody(), whp.getBody());
+
+    JsonNode node = whp.readTree();
+    assertEquals("caf\u00e9", node.path("name").asText());
+  }
+
+  @Test
+  public void testRawBodyCharset() throws IOException {
+    byte[] content = "{\"name\":\"caf\u00e9\"}".getBytes(StandardCharsets.ISO_8859_1);
+
+    WebHookPayload whp = WebHookPayload.fromBytes(new HashMap<String, String>(),
+        Collections.singletonMap("Content-Type", "application/json; charset=ISO-8859-1"), content);
+
+    assertEquals("{\"name\":\"caf\u00e9\"}", whp.getBody());
+    assertEquals("caf\u00e9", whp.readTree().path("name").asText());
+  }
+
+  @Test
+  public void testStringBody() throws IOException {
+    WebHookPayload whp = new WebHookPayload(new HashMap<String, String>(),
+        Collections.<String, String>emptyMap(), "{\"name\":\"caf\u00e9\"}");
+
+    assertEquals(16, whp.getBodySize());
+    assertArrayEquals("{\"name\":\"caf\u00e9\"}".getBytes(StandardCharsets.UTF_8),
+        whp.getRawBody());
+    assertEquals("caf\u00e9", whp.readTree().path("name").asText());
+  }
+
+  @Test
+  public void testEmptyBody() throws IOException {
+    WebHookPayload whp = getWebHookPayload();
+
+    assertNull(whp.getBody());
+    assertNull(whp.getRawBody());
+    assertNull(whp.readTree());
+    assertEquals(0, whp.getBodySize());
+    assertEquals(-1, whp.getBodyAsStream().read());
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    byte[] content = "{\"name\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+
+    WebHookPayload whp = WebHookPayload.read(new HashMap<String, String>(),
+        new HashMap<String, String>(), new ByteArrayInputStream(content), content.length);
+
+    assertArrayEquals(content, whp.getRawBody());
+    assertEquals("value", whp.readTree().path("name").asText());
+  }
+
+  @Test(expected = WebHookPayloadTooLargeException.class)
+  public void testReadTooLarge() throws IOException {
+    byte[] content = "{\"name\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+
+    WebHookPayload.read(new HashMap<String, String>(), new HashMap<String, String>(),
+        new ByteArrayInputStream(content), content.length - 1);
+  }
+
+  @Test
+  public void testPeekField() {
+    byte[] content = ("{\"issue\":{\"fields\":{\"summary\":\"test\"},\"event\":\"created\"},"
+        + "\"list\":[{\"event\":\"other\"}],\"webhookEvent\":\"jira:issue_created\","
+        + "\"count\":5}").getBytes(StandardCharsets.UTF_8);
+
+    WebHookPayload whp = WebHookPayload.fromBytes(new HashMap<String, String>(),
+        new HashMap<String, String>(), content);
+
+    assertEquals("jira:issue_created", whp.peekField("webhookEvent"));
+    assertEquals("created", whp.peekField("issue.event"));
+    assertEquals("5", whp.peekField("count"));
+    assertNull(whp.peekField("issue"));
+    assertNull(whp.peekField("list.event"));
+    assertNull(whp.peekField("missing"));
+    assertNull(whp.peekField(null));
+  }
+
+  @Test
+  public void testPeekFieldNullValue() {
+    WebHookPayload whp = new WebHookPayload(new HashMap<String, String>(),
+        new HashMap<String, String>(), "{\"issue\":{\"event\":null},\"event\":null}");
+
+    assertNull(whp.peekField("event"));
+    assertNull(whp.peekField("issue.event"));
+  }
+
+  @Test
+  public void testPeekFieldEmptyValue() {
+    WebHookPayload whp = new WebHookPayload(new HashMap<String, String>(),
+        new HashMap<String, String>(), "{\"issue\":{\"event\":\"\"},\"event\":\"\"}");
+
+    assertNull(whp.peekField("event"));
+    assertNull(whp.peekField("issue.event"));
+  }
+
+  @Test
+  public void testPeekFieldInvalidBody() {
+    WebHookPayload array = new WebHookPayload(new HashMap<String, String>(),
+        new HashMap<String, String>(), "[{\"event\":\"created\"}]");
+    assertNull(array.peekField("event"));
+
+    WebHookPayload invalid = new WebHookPayload(new HashMap<String, String>(),
+        new HashMap<String, String>(), "{\"other\":");
+    assertNull(invalid.peekField("event"));
+
+    assertNull(getWebHookPayload().peekField("event"));
+  }
+
+  @Test
+  public void testCreateParser() throws IOException {
+    byte[] content = "{\"event\":\"created\"}".getBytes(StandardCharsets.UTF_8);
+
+    WebHookPayload whp = WebHookPayload.fromBytes(new HashMap<String, String>(),
+        new HashMap<String, String>(), content);
+
+    try (JsonParser parser = whp.createParser()) {
+      assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+      assertEquals("event", parser.nextFieldName());
+      assertEquals("created", parser.nextTextValue());
+    }
+
+    assertNull(getWebHookPayload().createParser());
+  }
+
   private WebHookPayload getWebHookPayload() {
     Map<String, String> parameters = new HashMap<>();
     Map<String, String> headers = new HashMap<>();
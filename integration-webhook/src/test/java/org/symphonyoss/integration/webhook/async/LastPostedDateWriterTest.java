@@ -0,0 +1,199 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.symphonyoss.integration.exception.config.ForbiddenUserException;
+import org.symphonyoss.integration.exception.config.NotFoundException;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test for {@link LastPostedDateWriter}
+ */
+public class LastPostedDateWriterTest {
+
+  private static final String INSTANCE_ID = "1234";
+
+  private static final String OTHER_INSTANCE_ID = "5678";
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final Map<String, Long> written = new HashMap<>();
+
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+  private LastPostedDateWriter writer;
+
+  @Before
+  public void init() {
+    this.writer = new LastPostedDateWriter(new LastPostedDateWriter.Writer() {
+      @Override
+      public void write(String instanceId, String integrationUser, long lastPostedDate) {
+        RuntimeException e = failure.get();
+
+        if (e != null) {
+          throw e;
+        }
+
+        written.put(instanceId, lastPostedDate);
+      }
+    }, MAX_ATTEMPTS);
+  }
+
+  @Test
+  public void testCoalesce() {
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 2000L);
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 3000L);
+    writer.record(OTHER_INSTANCE_ID, INTEGRATION_USER, 1000L);
+
+    assertEquals(2, writer.getPendingCount());
+
+    writer.flush();
+
+    assertEquals(0, writer.getPendingCount());
+    assertEquals(2, written.size());
+    assertEquals((Long) 3000L, written.get(INSTANCE_ID));
+    assertEquals((Long) 1000L, written.get(OTHER_INSTANCE_ID));
+
+    // Nothing pending
+    written.clear();
+    writer.flush();
+    assertTrue(written.isEmpty());
+  }
+
+  @Test
+  public void testRetryOnFailure() {
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+
+    failure.set(new IllegalStateException("Unexpected error"));
+    writer.flush();
+
+    assertEquals(1, writer.getPendingCount());
+    assertTrue(written.isEmpty());
+
+    failure.set(null);
+    writer.flush();
+
+    assertEquals(0, writer.getPendingCount());
+    assertEquals((Long) 1000L, written.get(INSTANCE_ID));
+  }
+
+  @Test
+  public void testDiscardAfterMaxAttempts() {
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+    failure.set(new IllegalStateException("Unexpected error"));
+
+    for (int i = 1; i < MAX_ATTEMPTS; i++) {
+      writer.flush();
+      assertEquals(1, writer.getPendingCount());
+    }
+
+    writer.flush();
+    assertEquals(0, writer.getPendingCount());
+
+    // A more recent timestamp starts over
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 2000L);
+    writer.flush();
+    assertEquals(1, writer.getPendingCount());
+  }
+
+  @Test
+  public void testDiscardInstanceNotFound() {
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+    writer.record(OTHER_INSTANCE_ID, INTEGRATION_USER, 1000L);
+
+    failure.set(new NotFoundException("Instance not found", null));
+    writer.flush();
+
+    assertEquals(0, writer.getPendingCount());
+
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 2000L);
+
+    failure.set(new ForbiddenUserException("Forbidden", null));
+    writer.flush();
+
+    assertEquals(0, writer.getPendingCount());
+    assertTrue(written.isEmpty());
+  }
+
+  @Test
+  public void testPeriodicFlush() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    LastPostedDateWriter periodicWriter = new LastPostedDateWriter(
+        new LastPostedDateWriter.Writer() {
+          @Override
+          public void write(String instanceId, String integrationUser, long lastPostedDate) {
+            latch.countDown();
+          }
+        }, MAX_ATTEMPTS);
+
+    final HashedWheelTimer wheelTimer = new HashedWheelTimer("test", 5L, 8);
+    final WebHookExecutor executor = new WebHookExecutor("test", 1, 10);
+
+    WebHookTimer timer = mock(WebHookTimer.class);
+    doAnswer(new Answer<HashedWheelTimer.Timeout>() {
+      @Override
+      public HashedWheelTimer.Timeout answer(InvocationOnMock invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        return wheelTimer.scheduleWithFixedDelay((Runnable) args[0], (Long) args[1],
+            (Long) args[2], (TimeUnit) args[3], (Executor) args[4]);
+      }
+    }).when(timer).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(),
+        any(TimeUnit.class), any(Executor.class));
+
+    try {
+      periodicWriter.start(timer, executor, 10L);
+      periodicWriter.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } finally {
+      periodicWriter.stop();
+      wheelTimer.stop();
+      executor.drain();
+    }
+  }
+
+  @Test
+  public void testStop() {
+    writer.record(INSTANCE_ID, INTEGRATION_USER, 1000L);
+    writer.stop();
+
+    assertEquals((Long) 1000L, written.get(INSTANCE_ID));
+  }
+}
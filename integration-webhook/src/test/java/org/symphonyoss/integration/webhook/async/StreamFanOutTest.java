@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.exception.RemoteApiException;
+import org.symphonyoss.integration.model.message.Message;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link StreamFanOut}
+ */
+public class StreamFanOutTest {
+
+  private static final String FAILED_STREAM = "failed";
+
+  private StreamFanOut fanOut;
+
+  @Before
+  public void init() {
+    this.fanOut = new StreamFanOut("testIntegration", 4, 4);
+  }
+
+  @After
+  public void cleanup() {
+    fanOut.shutdown();
+  }
+
+  @Test
+  public void testSendEmpty() {
+    assertTrue(fanOut.send(Collections.<String>emptyList(), null).isEmpty());
+  }
+
+  @Test
+  public void testSendResults() {
+    List<String> streams = Arrays.asList("stream1", FAILED_STREAM, "stream3");
+
+    List<StreamFanOut.StreamResult> results = fanOut.send(streams,
+        new StreamFanOut.StreamSender() {
+          @Override
+          public List<Message> send(String stream) throws RemoteApiException {
+            if (FAILED_STREAM.equals(stream)) {
+              throw new RemoteApiException(500, "Internal server error");
+            }
+
+            Message message = new Message();
+            message.setMessage(stream);
+            return Collections.singletonList(message);
+          }
+        });
+
+    assertEquals(3, results.size());
+
+    assertEquals("stream1", results.get(0).getStream());
+    assertTrue(results.get(0).isSuccess());
+    assertEquals("stream1", results.get(0).getResponse().get(0).getMessage());
+
+    assertEquals(FAILED_STREAM, results.get(1).getStream());
+    assertFalse(results.get(1).isSuccess());
+    assertTrue(results.get(1).getResponse().isEmpty());
+    assertEquals(500, ((RemoteApiException) results.get(1).getFailure()).getCode());
+
+    assertEquals("stream3", results.get(2).getStream());
+    assertTrue(results.get(2).isSuccess());
+  }
+
+  @Test
+  public void testSendConcurrently() {
+    List<String> streams = Arrays.asList("stream1", "stream2", "stream3", "stream4");
+
+    // Every stream waits for the others, so it only completes if all of them run concurrently
+    final CountDownLatch barrier = new CountDownLatch(streams.size());
+
+    List<StreamFanOut.StreamResult> results = fanOut.send(streams,
+        new StreamFanOut.StreamSender() {
+          @Override
+          public List<Message> send(String stream) throws RemoteApiException {
+            barrier.countDown();
+
+            try {
+              if (!barrier.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Streams weren't posted concurrently");
+              }
+            } catch (InterruptedException e) {
+              throw new IllegalStateException(e);
+            }
+
+            return Collections.emptyList();
+          }
+        });
+
+    for (StreamFanOut.StreamResult result : results) {
+      assertTrue(result.isSuccess());
+    }
+  }
+
+  @Test
+  public void testSendShutdown() {
+    fanOut.shutdown();
+    assertTrue(fanOut.isShutdown());
+
+    final Thread caller = Thread.currentThread();
+
+    List<StreamFanOut.StreamResult> results = fanOut.send(Arrays.asList("stream1", "stream2"),
+        new StreamFanOut.StreamSender() {
+          @Override
+          public List<Message> send(String stream) throws RemoteApiException {
+            // Pool is shut down, so the caller thread posts all the streams
+            assertEquals(caller, Thread.currentThread());
+            return Collections.emptyList();
+          }
+        });
+
+    assertEquals(2, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+    assertNotEquals(results.get(0).getStream(), results.get(1).getStream());
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link WebHookExecutor}
+ */
+public class WebHookExecutorTest {
+
+  private static final String EXECUTOR_NAME = "webhook-test-digest";
+
+  private static final int CAPACITY = 1;
+
+  private WebHookExecutor executor;
+
+  @Before
+  public void init() {
+    this.executor = new WebHookExecutor(EXECUTOR_NAME, 1, CAPACITY);
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testExecute() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    });
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(EXECUTOR_NAME, executor.getName());
+  }
+
+  @Test
+  public void testQueueFull() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    Runnable emptyTask = new Runnable() {
+      @Override
+      public void run() {
+        // Do nothing
+      }
+    };
+
+    // Waiting in the queue
+    executor.execute(emptyTask);
+
+    try {
+      executor.execute(emptyTask);
+      fail();
+    } catch (RejectedExecutionException e) {
+      assertEquals(CAPACITY, executor.getQueue().size());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void testDrain() {
+    final AtomicInteger runs = new AtomicInteger();
+
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        try {
+          TimeUnit.MILLISECONDS.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+
+        runs.incrementAndGet();
+      }
+    };
+
+    executor.execute(task);
+    executor.execute(task);
+
+    executor.drain();
+
+    // The queued task runs before the executor terminates
+    assertTrue(executor.isTerminated());
+    assertEquals(2, runs.get());
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.logging.DistributedTracingUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit test for {@link WebHookQueue}
+ */
+public class WebHookQueueTest {
+
+  private static final String QUEUE_NAME = "testIntegration";
+
+  private static final int CAPACITY = 1;
+
+  private WebHookQueue queue;
+
+  @Before
+  public void init() {
+    this.queue = new WebHookQueue(QUEUE_NAME, CAPACITY, 1);
+  }
+
+  @After
+  public void cleanup() {
+    queue.shutdown();
+    DistributedTracingUtils.clearMDC();
+  }
+
+  @Test
+  public void testOffer() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    assertTrue(queue.offer(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    }));
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testPropagateTraceId() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<String> workerTraceId = new AtomicReference<>();
+
+    DistributedTracingUtils.setMDC();
+    String traceId = DistributedTracingUtils.getMDC();
+
+    queue.offer(new Runnable() {
+      @Override
+      public void run() {
+        workerTraceId.set(DistributedTracingUtils.getMDC());
+        latch.countDown();
+      }
+    });
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(workerTraceId.get().startsWith(traceId + DistributedTracingUtils.TRACE_ID_SEPARATOR));
+  }
+
+  @Test
+  public void testQueueFull() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    Runnable blockingTask = new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    Runnable emptyTask = new Runnable() {
+      @Override
+      public void run() {
+        // Do nothing
+      }
+    };
+
+    // Worker thread busy
+    assertTrue(queue.offer(blockingTask));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // Waiting in the queue
+    assertTrue(queue.offer(emptyTask));
+    assertEquals(1, queue.getDepth());
+    assertEquals(0, queue.getRemainingCapacity());
+
+    // Queue full
+    assertFalse(queue.offer(emptyTask));
+
+    release.countDown();
+  }
+
+  @Test
+  public void testShutdown() {
+    assertEquals(QUEUE_NAME, queue.getName());
+    assertEquals(CAPACITY, queue.getCapacity());
+    assertFalse(queue.isShutdown());
+
+    queue.shutdown();
+
+    assertTrue(queue.isShutdown());
+    assertFalse(queue.offer(new Runnable() {
+      @Override
+      public void run() {
+        // Do nothing
+      }
+    }));
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Unit test for {@link WebHookThreads}
+ */
+public class WebHookThreadsTest {
+
+  private static final Runnable TASK = new Runnable() {
+    @Override
+    public void run() {
+    }
+  };
+
+  @Test
+  public void testPlatformThreads() {
+    ThreadFactory factory = WebHookThreads.newThreadFactory("webhook-test-", false);
+
+    Thread first = factory.newThread(TASK);
+    Thread second = factory.newThread(TASK);
+
+    assertEquals("webhook-test-0", first.getName());
+    assertEquals("webhook-test-1", second.getName());
+    assertTrue(first.isDaemon());
+    assertFalse(WebHookThreads.isVirtual(factory));
+  }
+
+  @Test
+  public void testVirtualThreads() throws Exception {
+    ThreadFactory factory = WebHookThreads.newThreadFactory("webhook-test-", true);
+
+    Thread thread = factory.newThread(TASK);
+
+    assertEquals("webhook-test-0", thread.getName());
+    assertTrue(thread.isDaemon());
+
+    // The pools are sized according to the threads the factory actually creates
+    assertEquals(WebHookThreads.isVirtualThreadSupported(), WebHookThreads.isVirtual(factory));
+
+    if (WebHookThreads.isVirtualThreadSupported()) {
+      assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+  }
+}
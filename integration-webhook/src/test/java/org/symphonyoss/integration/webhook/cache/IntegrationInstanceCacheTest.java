@@ -0,0 +1,176 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.exception.config.RemoteConfigurationException;
+import org.symphonyoss.integration.model.config.IntegrationInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link IntegrationInstanceCache}
+ */
+public class IntegrationInstanceCacheTest {
+
+  private static final String CONFIGURATION_ID = "57756bca4b54433738037005";
+
+  private static final String INSTANCE_ID = "1234";
+
+  private static final String UNKNOWN_INSTANCE_ID = "unknown";
+
+  private static final String INVALID_INSTANCE_ID = "invalid";
+
+  private static final long REFRESH = 60;
+
+  private final AtomicInteger loadCount = new AtomicInteger();
+
+  private final List<Runnable> refreshTasks = new ArrayList<>();
+
+  private final MockTicker ticker = new MockTicker();
+
+  private IntegrationInstanceCache cache;
+
+  @Before
+  public void init() {
+    IntegrationInstanceCache.InstanceLoader loader = new IntegrationInstanceCache.InstanceLoader() {
+      @Override
+      public IntegrationInstance load(String configurationId, String instanceId) {
+        loadCount.incrementAndGet();
+
+        if (UNKNOWN_INSTANCE_ID.equals(instanceId)) {
+          return null;
+        }
+
+        if (INVALID_INSTANCE_ID.equals(instanceId)) {
+          throw new RemoteConfigurationException("Invalid instance", null);
+        }
+
+        return mockInstance(configurationId, instanceId);
+      }
+    };
+
+    Executor refreshExecutor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        refreshTasks.add(command);
+      }
+    };
+
+    this.cache = new IntegrationInstanceCache(loader, refreshExecutor, 120, REFRESH, 10, ticker);
+  }
+
+  private IntegrationInstance mockInstance(String configurationId, String instanceId) {
+    IntegrationInstance instance = new IntegrationInstance();
+    instance.setConfigurationId(configurationId);
+    instance.setInstanceId(instanceId);
+    return instance;
+  }
+
+  @Test
+  public void testGet() {
+    IntegrationInstance instance = cache.get(CONFIGURATION_ID, INSTANCE_ID);
+
+    assertEquals(INSTANCE_ID, instance.getInstanceId());
+    assertSame(instance, cache.get(CONFIGURATION_ID, INSTANCE_ID));
+    assertEquals(1, loadCount.get());
+    assertEquals(1, cache.stats().hitCount());
+    assertEquals(1, cache.stats().missCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testGetNotFound() {
+    assertNull(cache.get(CONFIGURATION_ID, UNKNOWN_INSTANCE_ID));
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = RemoteConfigurationException.class)
+  public void testGetFailure() {
+    cache.get(CONFIGURATION_ID, INVALID_INSTANCE_ID);
+  }
+
+  @Test
+  public void testUpdate() {
+    cache.get(CONFIGURATION_ID, INSTANCE_ID);
+
+    IntegrationInstance saved = mockInstance(CONFIGURATION_ID, INSTANCE_ID);
+    cache.update(saved);
+    cache.update(null);
+    cache.update(new IntegrationInstance());
+
+    assertSame(saved, cache.get(CONFIGURATION_ID, INSTANCE_ID));
+    assertEquals(1, loadCount.get());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInvalidate() {
+    cache.get(CONFIGURATION_ID, INSTANCE_ID);
+    cache.invalidate(CONFIGURATION_ID, INSTANCE_ID);
+    cache.get(CONFIGURATION_ID, INSTANCE_ID);
+
+    assertEquals(2, loadCount.get());
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testRefreshInBackground() {
+    IntegrationInstance instance = cache.get(CONFIGURATION_ID, INSTANCE_ID);
+    ticker.advance(REFRESH + 1);
+
+    // The caller keeps the previous value while the reload runs on the refresh executor
+    assertSame(instance, cache.get(CONFIGURATION_ID, INSTANCE_ID));
+    assertEquals(1, loadCount.get());
+    assertEquals(1, refreshTasks.size());
+
+    refreshTasks.get(0).run();
+
+    assertEquals(2, loadCount.get());
+    assertNotSame(instance, cache.get(CONFIGURATION_ID, INSTANCE_ID));
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long seconds) {
+      nanos += TimeUnit.SECONDS.toNanos(seconds);
+    }
+  }
+}
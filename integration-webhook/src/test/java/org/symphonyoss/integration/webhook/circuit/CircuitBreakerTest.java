@@ -0,0 +1,211 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.circuit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link CircuitBreaker}
+ */
+public class CircuitBreakerTest {
+
+  private static final int FAILURE_RATE_THRESHOLD = 50;
+
+  private static final int MINIMUM_CALLS = 4;
+
+  private static final long OPEN_TIMEOUT = 1000L;
+
+  private static final int HALF_OPEN_CALLS = 2;
+
+  private final MockTicker ticker = new MockTicker();
+
+  private CircuitBreaker breaker;
+
+  @Before
+  public void init() {
+    this.breaker = new CircuitBreaker(FAILURE_RATE_THRESHOLD, MINIMUM_CALLS, OPEN_TIMEOUT,
+        HALF_OPEN_CALLS, ticker);
+  }
+
+  @Test
+  public void testClosedBelowThreshold() {
+    for (int i = 0; i < 10; i++) {
+      CircuitBreaker.Permit permit = breaker.tryAcquire();
+      assertNotNull(permit);
+
+      if (i % 4 == 0) {
+        breaker.onFailure(permit);
+      } else {
+        breaker.onSuccess(permit);
+      }
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void testOpenOnThreshold() {
+    openCircuit();
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertFalse(breaker.isCallPermitted());
+    assertNull(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testHalfOpenClose() {
+    openCircuit();
+    ticker.advance(OPEN_TIMEOUT);
+
+    assertTrue(breaker.isCallPermitted());
+    CircuitBreaker.Permit first = breaker.tryAcquire();
+    assertNotNull(first);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    CircuitBreaker.Permit second = breaker.tryAcquire();
+    assertNotNull(second);
+
+    // Trial calls exhausted
+    assertNull(breaker.tryAcquire());
+
+    breaker.onSuccess(first);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+    breaker.onSuccess(second);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertNotNull(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testHalfOpenFailure() {
+    openCircuit();
+    ticker.advance(OPEN_TIMEOUT);
+
+    CircuitBreaker.Permit permit = breaker.tryAcquire();
+    assertNotNull(permit);
+    breaker.onFailure(permit);
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertNull(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testHalfOpenRelease() {
+    openCircuit();
+    ticker.advance(OPEN_TIMEOUT);
+
+    CircuitBreaker.Permit permit = breaker.tryAcquire();
+    assertNotNull(permit);
+    assertNotNull(breaker.tryAcquire());
+    assertNull(breaker.tryAcquire());
+
+    breaker.release(permit);
+
+    assertNotNull(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testHalfOpenIgnoresClosedPermits() {
+    CircuitBreaker.Permit closed = breaker.tryAcquire();
+    assertNotNull(closed);
+
+    openCircuit();
+    ticker.advance(OPEN_TIMEOUT);
+
+    CircuitBreaker.Permit trial = breaker.tryAcquire();
+    assertNotNull(trial);
+
+    // Calls permitted while the circuit was closed aren't trial calls
+    breaker.onSuccess(closed);
+    breaker.onSuccess(closed);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+    breaker.onFailure(closed);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+    breaker.onSuccess(trial);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+  }
+
+  @Test
+  public void testLateFailuresKeepOpenTimeout() {
+    CircuitBreaker.Permit late = breaker.tryAcquire();
+    assertNotNull(late);
+
+    openCircuit();
+    ticker.advance(OPEN_TIMEOUT / 2);
+
+    // Failures reported after the circuit opened don't extend the open timeout
+    for (int i = 0; i < MINIMUM_CALLS; i++) {
+      breaker.onFailure(late);
+    }
+
+    ticker.advance(OPEN_TIMEOUT / 2);
+
+    assertTrue(breaker.isCallPermitted());
+    assertNotNull(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testForceOpenAndReset() {
+    breaker.forceOpen();
+    assertNull(breaker.tryAcquire());
+
+    breaker.reset();
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertNotNull(breaker.tryAcquire());
+  }
+
+  private void openCircuit() {
+    for (int i = 0; i < MINIMUM_CALLS; i++) {
+      CircuitBreaker.Permit permit = breaker.tryAcquire();
+      assertNotNull(permit);
+
+      if (i % 2 == 0) {
+        breaker.onFailure(permit);
+      } else {
+        breaker.onSuccess(permit);
+      }
+    }
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private long nanos = 1L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+}
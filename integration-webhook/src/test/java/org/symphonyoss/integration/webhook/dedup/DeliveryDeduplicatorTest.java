@@ -0,0 +1,201 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.dedup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link DeliveryDeduplicator}
+ */
+public class DeliveryDeduplicatorTest {
+
+  private static final String DELIVERY_HEADER = "X-Delivery-Id";
+
+  private static final String INSTANCE_ID = "instanceId";
+
+  private static final String OTHER_INSTANCE_ID = "otherInstanceId";
+
+  private static final int WINDOW = 60;
+
+  private MockTicker ticker;
+
+  private DeliveryDeduplicator deduplicator;
+
+  @Before
+  public void init() {
+    this.ticker = new MockTicker();
+    this.deduplicator = new DeliveryDeduplicator(DELIVERY_HEADER, true, WINDOW, 100, ticker);
+  }
+
+  @Test
+  public void testDuplicateBody() {
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+    assertNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload(null, "otherBody")));
+    assertNotNull(deduplicator.register(OTHER_INSTANCE_ID, payload(null, "body")));
+
+    assertEquals(3, deduplicator.size());
+  }
+
+  @Test
+  public void testDuplicateDeliveryId() {
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload("1", "body")));
+
+    // Same delivery identifier, the body is ignored
+    assertNull(deduplicator.register(INSTANCE_ID, payload("1", "otherBody")));
+
+    // Different delivery identifier with the same body
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload("2", "body")));
+  }
+
+  @Test
+  public void testDeliveryIdHeaderCaseInsensitive() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(DELIVERY_HEADER.toLowerCase(), "1");
+
+    WebHookPayload payload =
+        new WebHookPayload(Collections.<String, String>emptyMap(), headers, "body");
+
+    assertEquals(deduplicator.fingerprint(INSTANCE_ID, payload("1", "otherBody")),
+        deduplicator.fingerprint(INSTANCE_ID, payload));
+  }
+
+  @Test
+  public void testDeliveryIdNotConfigured() {
+    DeliveryDeduplicator bodyDeduplicator = new DeliveryDeduplicator(null, true, WINDOW, 100, ticker);
+
+    assertNotEquals(bodyDeduplicator.fingerprint(INSTANCE_ID, payload("1", "body")),
+        bodyDeduplicator.fingerprint(INSTANCE_ID, payload("1", "otherBody")));
+  }
+
+  @Test
+  public void testRawBody() {
+    WebHookPayload rawPayload = WebHookPayload.fromBytes(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "body".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(deduplicator.fingerprint(INSTANCE_ID, payload(null, "body")),
+        deduplicator.fingerprint(INSTANCE_ID, rawPayload));
+  }
+
+  @Test
+  public void testBodyHashDisabled() {
+    DeliveryDeduplicator headerDeduplicator =
+        new DeliveryDeduplicator(DELIVERY_HEADER, false, WINDOW, 100, ticker);
+
+    // Deliveries without identifier are never suppressed
+    assertSame(DeliveryDeduplicator.Delivery.UNTRACKED,
+        headerDeduplicator.register(INSTANCE_ID, payload(null, "body")));
+    assertSame(DeliveryDeduplicator.Delivery.UNTRACKED,
+        headerDeduplicator.register(INSTANCE_ID, payload(null, "body")));
+    assertEquals(0, headerDeduplicator.size());
+
+    assertNotNull(headerDeduplicator.register(INSTANCE_ID, payload("1", "body")));
+    assertNull(headerDeduplicator.register(INSTANCE_ID, payload("1", "body")));
+  }
+
+  @Test
+  public void testWindowExpiration() {
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+
+    ticker.advance(WINDOW - 1);
+    assertNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+
+    ticker.advance(WINDOW);
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+  }
+
+  @Test
+  public void testSlidingWindow() {
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload("1", "body")));
+
+    // Each retry restarts the window
+    for (int i = 0; i < 3; i++) {
+      ticker.advance(WINDOW - 1);
+      assertNull(deduplicator.register(INSTANCE_ID, payload("1", "body")));
+    }
+
+    ticker.advance(WINDOW);
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload("1", "body")));
+  }
+
+  @Test
+  public void testCancel() {
+    DeliveryDeduplicator.Delivery delivery =
+        deduplicator.register(INSTANCE_ID, payload(null, "body"));
+
+    delivery.cancel();
+
+    assertNotNull(deduplicator.register(INSTANCE_ID, payload(null, "body")));
+
+    // Untracked deliveries don't affect any deduplicator
+    DeliveryDeduplicator.Delivery.UNTRACKED.cancel();
+  }
+
+  @Test
+  public void testMaxSize() {
+    DeliveryDeduplicator bounded = new DeliveryDeduplicator(null, true, WINDOW, 2, ticker);
+
+    for (int i = 0; i < 10; i++) {
+      bounded.register(INSTANCE_ID, payload(null, "body" + i));
+    }
+
+    assertEquals(2, bounded.size());
+  }
+
+  private WebHookPayload payload(String deliveryId, String body) {
+    Map<String, String> headers = new HashMap<>();
+
+    if (deliveryId != null) {
+      headers.put(DELIVERY_HEADER, deliveryId);
+    }
+
+    return new WebHookPayload(Collections.<String, String>emptyMap(), headers, body);
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private long nanos = 1L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long seconds) {
+      nanos += TimeUnit.SECONDS.toNanos(seconds);
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.digest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.symphonyoss.integration.exception.RemoteApiException;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link MessageDigest}
+ */
+public class MessageDigestTest {
+
+  private static final String INSTANCE_ID = "1234";
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  private static final String STREAM = "stream1";
+
+  private static final String OTHER_STREAM = "stream2";
+
+  private static final long WINDOW = 1000L;
+
+  private static final int MAX_MESSAGES = 3;
+
+  private static final int MAX_ATTEMPTS = 2;
+
+  private final List<Runnable> scheduled = new ArrayList<>();
+
+  private final List<Sent> sent = new ArrayList<>();
+
+  private WebHookTimer timer = mock(WebHookTimer.class);
+
+  private Executor executor = mock(Executor.class);
+
+  private HashedWheelTimer.Timeout timeout = mock(HashedWheelTimer.Timeout.class);
+
+  private MessageDigest digest;
+
+  @Before
+  public void init() {
+    doAnswer(new Answer<HashedWheelTimer.Timeout>() {
+      @Override
+      public HashedWheelTimer.Timeout answer(InvocationOnMock invocation) throws Throwable {
+        scheduled.add((Runnable) invocation.getArguments()[0]);
+        return timeout;
+      }
+    }).when(timer)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class), any(Executor.class));
+
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((Runnable) invocation.getArguments()[0]).run();
+        return null;
+      }
+    }).when(executor).execute(any(Runnable.class));
+
+    this.digest = new MessageDigest(timer, executor, WINDOW, MAX_MESSAGES, MAX_ATTEMPTS,
+        new MessageDigest.Sender() {
+          @Override
+          public void send(String instanceId, String integrationUser, String stream,
+              Message message, int count) {
+            sent.add(new Sent(stream, message, count));
+          }
+        });
+  }
+
+  @Test
+  public void testSingleMessage() {
+    Message message = buildMessageV1("<messageML>Issue created</messageML>");
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, message);
+
+    assertEquals(1, digest.getPendingCount());
+    assertTrue(sent.isEmpty());
+
+    closeWindows();
+
+    assertEquals(0, digest.getPendingCount());
+    assertEquals(1, sent.size());
+    assertSame(message, sent.get(0).message);
+    assertEquals(1, sent.get(0).count);
+  }
+
+  @Test
+  public void testMergeMessages() throws IOException {
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM,
+        buildMessageV1("<messageML>Issue <b>created</b> &amp; assigned</messageML>"));
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM,
+        buildMessageV1("<messageML>Issue <i>updated</i></messageML>"));
+    digest.add(INSTANCE_ID, INTEGRATION_USER, OTHER_STREAM,
+        buildMessageV1("<messageML>Issue updated</messageML>"));
+
+    assertEquals(2, digest.getPendingCount());
+    assertEquals(2, scheduled.size());
+
+    digest.flush();
+
+    assertEquals(0, digest.getPendingCount());
+    assertEquals(2, sent.size());
+
+    Sent merged = sent.get(0).stream.equals(STREAM) ? sent.get(0) : sent.get(1);
+    assertEquals(2, merged.count);
+    assertEquals(MessageMLVersion.V2, merged.message.getVersion());
+    assertEquals(MessageDigest.DIGEST_TEMPLATE, merged.message.getMessage());
+
+    JsonNode entity = JsonUtils.readTree(merged.message.getData()).path(MessageDigest.DIGEST);
+    assertEquals(MessageDigest.DIGEST_ENTITY_TYPE, entity.path("type").asText());
+    assertEquals(2, entity.path("count").asInt());
+
+    JsonNode messages = entity.path("messages");
+    assertEquals(2, messages.size());
+    assertEquals("Issue created & assigned", messages.get(0).path("summary").asText());
+    assertEquals("Issue updated", messages.get(1).path("summary").asText());
+
+    // Window already closed
+    closeWindows();
+    assertEquals(2, sent.size());
+  }
+
+  @Test
+  public void testSummaryEscaped() {
+    assertTrue(MessageDigest.DIGEST_TEMPLATE.contains("${item.summary?html}"));
+  }
+
+  @Test
+  public void testMessagesV2NotMerged() {
+    Message first = buildMessageV1("<messageML>Issue created</messageML>");
+    Message second = buildMessageV2(
+        "{\"jiraIssueCreated\":{\"type\":\"com.symphony.integration.jira.event.created\"}}");
+    Message third = buildMessageV1("<messageML>Issue updated</messageML>");
+
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, first);
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, second);
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, third);
+
+    assertEquals(3, sent.size());
+    assertSame(first, sent.get(0).message);
+    assertSame(second, sent.get(1).message);
+    assertSame(third, sent.get(2).message);
+  }
+
+  @Test
+  public void testMaxMessages() {
+    for (int i = 0; i < MAX_MESSAGES; i++) {
+      digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>" + i
+          + "</messageML>"));
+    }
+
+    assertEquals(0, digest.getPendingCount());
+    assertEquals(1, sent.size());
+    assertEquals(MAX_MESSAGES, sent.get(0).count);
+    verify(timeout).cancel();
+
+    // New window
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>4</messageML>"));
+    assertEquals(1, digest.getPendingCount());
+    assertEquals(2, scheduled.size());
+  }
+
+  @Test
+  public void testTimerStopped() {
+    doThrow(RejectedExecutionException.class).when(timer)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class), any(Executor.class));
+
+    digest.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>1</messageML>"));
+
+    assertEquals(0, digest.getPendingCount());
+    assertEquals(1, sent.size());
+  }
+
+  @Test
+  public void testSendFailure() throws RemoteApiException {
+    MessageDigest.Sender sender = mock(MessageDigest.Sender.class);
+    doThrow(new RemoteApiException(500, "Internal server error")).doNothing().when(sender)
+        .send(any(String.class), any(String.class), any(String.class), any(Message.class),
+            anyInt());
+
+    MessageDigest failing = new MessageDigest(timer, executor, WINDOW, MAX_MESSAGES,
+        MAX_ATTEMPTS, sender);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>1</messageML>"));
+    failing.flush();
+
+    // Requeued
+    assertEquals(1, failing.getPendingCount());
+    assertEquals(2, scheduled.size());
+
+    failing.flush();
+
+    assertEquals(0, failing.getPendingCount());
+    verify(sender, times(2)).send(any(String.class), any(String.class), any(String.class),
+        any(Message.class), anyInt());
+  }
+
+  @Test
+  public void testSendFailureMaxAttempts() throws RemoteApiException {
+    MessageDigest.Sender sender = mock(MessageDigest.Sender.class);
+    doThrow(new RemoteApiException(503, "Service unavailable")).when(sender)
+        .send(any(String.class), any(String.class), any(String.class), any(Message.class),
+            anyInt());
+
+    MessageDigest failing = new MessageDigest(timer, executor, WINDOW, MAX_MESSAGES,
+        MAX_ATTEMPTS, sender);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>1</messageML>"));
+    failing.flush();
+
+    assertEquals(1, failing.getPendingCount());
+
+    failing.flush();
+
+    assertEquals(0, failing.getPendingCount());
+  }
+
+  @Test
+  public void testSendRefused() throws RemoteApiException {
+    MessageDigest.Sender sender = mock(MessageDigest.Sender.class);
+    doThrow(new RemoteApiException(400, "Bad request")).when(sender)
+        .send(any(String.class), any(String.class), any(String.class), any(Message.class),
+            anyInt());
+
+    MessageDigest failing = new MessageDigest(timer, executor, WINDOW, MAX_MESSAGES,
+        MAX_ATTEMPTS, sender);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, buildMessageV1("<messageML>1</messageML>"));
+    failing.flush();
+
+    assertEquals(0, failing.getPendingCount());
+  }
+
+  @Test
+  public void testSendFailureAfterPartialPost() throws RemoteApiException {
+    final List<Message> posted = new ArrayList<>();
+    final List<Message> failed = new ArrayList<>();
+    final Message v2 = buildMessageV2("{}");
+
+    MessageDigest.Sender sender = new MessageDigest.Sender() {
+      @Override
+      public void send(String instanceId, String integrationUser, String stream,
+          Message message, int count) throws RemoteApiException {
+        if (message == v2 && failed.isEmpty()) {
+          failed.add(message);
+          throw new RemoteApiException(500, "Internal server error");
+        }
+
+        posted.add(message);
+      }
+    };
+
+    Message first = buildMessageV1("<messageML>1</messageML>");
+    Message third = buildMessageV1("<messageML>3</messageML>");
+
+    MessageDigest failing = new MessageDigest(timer, executor, WINDOW, 10, MAX_ATTEMPTS, sender);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, first);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, v2);
+    failing.add(INSTANCE_ID, INTEGRATION_USER, STREAM, third);
+    failing.flush();
+
+    assertEquals(1, failing.getPendingCount());
+
+    failing.flush();
+
+    assertEquals(0, failing.getPendingCount());
+    assertEquals(1, failed.size());
+    assertEquals(3, posted.size());
+    assertSame(first, posted.get(0));
+    assertSame(v2, posted.get(1));
+    assertSame(third, posted.get(2));
+  }
+
+  private void closeWindows() {
+    for (Runnable task : new ArrayList<>(scheduled)) {
+      task.run();
+    }
+  }
+
+  private Message buildMessageV1(String text) {
+    Message message = new Message();
+    message.setMessage(text);
+    message.setFormat(Message.FormatEnum.MESSAGEML);
+    message.setVersion(MessageMLVersion.V1);
+    return message;
+  }
+
+  private Message buildMessageV2(String data) {
+    Message message = new Message();
+    message.setMessage("<messageML>${entity['jiraIssueCreated'].type}</messageML>");
+    message.setFormat(Message.FormatEnum.MESSAGEML);
+    message.setVersion(MessageMLVersion.V2);
+    message.setData(data);
+    return message;
+  }
+
+  private static final class Sent {
+
+    private final String stream;
+
+    private final Message message;
+
+    private final int count;
+
+    Sent(String stream, Message message, int count) {
+      this.stream = stream;
+      this.message = message;
+      this.count = count;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.symphonyoss.integration.model.config.IntegrationInstance;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit test for {@link WebHookEventFilter}
+ */
+public class WebHookEventFilterTest {
+
+  private static final String EVENT_HEADER = "X-Event-Key";
+
+  private static final String EVENT_FIELD = "webhookEvent";
+
+  private static final String BODY = "{\"webhookEvent\":\"issue_updated\"}";
+
+  private WebHookEventFilter filter = new WebHookEventFilter(EVENT_HEADER, EVENT_FIELD);
+
+  @Test
+  public void testEventTypeFromHeader() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("x-event-key", "issue_created");
+
+    WebHookPayload payload =
+        new WebHookPayload(Collections.<String, String>emptyMap(), headers, BODY);
+
+    assertEquals("issue_created", filter.getEventType(payload));
+  }
+
+  @Test
+  public void testEventTypeFromField() {
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), BODY);
+
+    assertEquals("issue_updated", filter.getEventType(payload));
+    assertNull(new WebHookEventFilter(EVENT_HEADER, null).getEventType(payload));
+  }
+
+  @Test
+  public void testSubscribed() {
+    IntegrationInstance instance =
+        mockInstance("{\"notifications\":[\"issue_created\",\"comment_created\"]}");
+
+    assertTrue(filter.isSubscribed(instance, "issue_created"));
+    assertFalse(filter.isSubscribed(instance, "issue_updated"));
+    assertTrue(filter.isSubscribed(instance, null));
+  }
+
+  @Test
+  public void testNoNotifications() {
+    assertTrue(filter.isSubscribed(mockInstance("{}"), "issue_updated"));
+    assertTrue(filter.isSubscribed(mockInstance(null), "issue_updated"));
+    assertTrue(filter.isSubscribed(mockInstance("invalid"), "issue_updated"));
+  }
+
+  @Test
+  public void testNotificationsChanged() {
+    IntegrationInstance instance = mockInstance("{\"notifications\":[\"issue_created\"]}");
+    assertFalse(filter.isSubscribed(instance, "issue_updated"));
+
+    instance.setOptionalProperties("{\"notifications\":[\"issue_created\",\"issue_updated\"]}");
+    assertTrue(filter.isSubscribed(instance, "issue_updated"));
+  }
+
+  private IntegrationInstance mockInstance(String optionalProperties) {
+    IntegrationInstance instance = new IntegrationInstance();
+    instance.setInstanceId("1234");
+    instance.setOptionalProperties(optionalProperties);
+    return instance;
+  }
+}
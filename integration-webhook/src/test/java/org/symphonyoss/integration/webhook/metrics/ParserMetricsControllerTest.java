@@ -55,6 +55,9 @@ public class ParserMetricsControllerTest {
   @Spy
   private ConcurrentMap<String, Counter> parserFailCounters = new ConcurrentHashMap<>();
 
+  @Spy
+  private ConcurrentMap<String, Counter> parserTimeoutCounters = new ConcurrentHashMap<>();
+
   @InjectMocks
   private ParserMetricsController controller = new ParserMetricsController();
 
@@ -80,4 +83,18 @@ public class ParserMetricsControllerTest {
     assertEquals(1, parserSuccessCounters.get(TEST_INTEGRATION).getCount());
     assertEquals(1, parserFailCounters.get(TEST_INTEGRATION).getCount());
   }
+
+  @Test
+  public void testParserTimeout() {
+    controller.parserTimeout(TEST_INTEGRATION);
+
+    controller.initController(TEST_INTEGRATION);
+
+    controller.parserTimeout(TEST_INTEGRATION);
+    controller.parserTimeout(OTHER_INTEGRATION);
+
+    assertEquals(1, parserTimeoutCounters.get(TEST_INTEGRATION).getCount());
+    assertEquals(1, metricsRegistry.getCounters()
+        .get("integration.metrics.testIntegration.parser.timeout").getCount());
+  }
 }
@@ -0,0 +1,456 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.symphonyoss.integration.model.config.IntegrationInstance;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.service.CachedUserService;
+import org.symphonyoss.integration.service.UserService;
+import org.symphonyoss.integration.webhook.async.WebHookQueue;
+import org.symphonyoss.integration.webhook.cache.IntegrationInstanceCache;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+import org.symphonyoss.integration.webhook.circuit.CircuitBreaker;
+import org.symphonyoss.integration.webhook.dedup.DeliveryDeduplicator;
+import org.symphonyoss.integration.webhook.digest.MessageDigest;
+import org.symphonyoss.integration.webhook.parser.ParseResultCache;
+import org.symphonyoss.integration.webhook.ratelimit.WebHookRateLimiter;
+import org.symphonyoss.integration.webhook.scheduler.WeightedFairScheduler;
+import org.symphonyoss.integration.webhook.spool.WebHookSpool;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests to validate {@link WebHookMetricsController}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WebHookMetricsControllerTest {
+
+  private static final String TEST_INTEGRATION = "testIntegration";
+
+  private static final String OTHER_INTEGRATION = "otherIntegration";
+
+  private static final String QUEUE_DEPTH_METRIC =
+      "integration.metrics.testIntegration.webhook.queue.depth";
+
+  private static final String QUEUE_CAPACITY_METRIC =
+      "integration.metrics.testIntegration.webhook.queue.remaining.capacity";
+
+  private static final String CACHE_HIT_METRIC =
+      "integration.metrics.testIntegration.webhook.instance.cache.hit";
+
+  private static final String CACHE_MISS_METRIC =
+      "integration.metrics.testIntegration.webhook.instance.cache.miss";
+
+  private static final String CACHE_HIT_RATIO_METRIC =
+      "integration.metrics.testIntegration.webhook.instance.cache.hit.ratio";
+
+  private static final String CACHE_SIZE_METRIC =
+      "integration.metrics.testIntegration.webhook.instance.cache.size";
+
+  private static final String CIRCUIT_BREAKER_STATE_METRIC =
+      "integration.metrics.testIntegration.webhook.circuit.breaker.state";
+
+  private static final String DEDUPLICATION_SIZE_METRIC =
+      "integration.metrics.testIntegration.webhook.deduplication.size";
+
+  private static final String RATE_LIMIT_AVAILABLE_METRIC =
+      "integration.metrics.testIntegration.webhook.rate.limit.integration.available";
+
+  private static final String TIMER_SCHEDULED_METRIC = "integration.metrics.webhook.timer.scheduled";
+
+  private static final String TIMER_PENDING_METRIC = "integration.metrics.webhook.timer.pending";
+
+  private static final String TIMER_EXPIRED_METRIC = "integration.metrics.webhook.timer.expired";
+
+  private static final String SPOOL_DEPTH_METRIC =
+      "integration.metrics.testIntegration.webhook.spool.depth";
+
+  private static final String SPOOL_SIZE_METRIC =
+      "integration.metrics.testIntegration.webhook.spool.size";
+
+  private static final String SPOOL_AGE_METRIC =
+      "integration.metrics.testIntegration.webhook.spool.age";
+
+  private static final String DIGEST_PENDING_METRIC =
+      "integration.metrics.testIntegration.webhook.digest.pending";
+
+  private static final String SCHEDULER_DEPTH_METRIC =
+      "integration.metrics.testIntegration.webhook.scheduler.depth";
+
+  private static final String PARSE_CACHE_HIT_METRIC =
+      "integration.metrics.testIntegration.webhook.parse.cache.hit";
+
+  private static final String PARSE_CACHE_MISS_METRIC =
+      "integration.metrics.testIntegration.webhook.parse.cache.miss";
+
+  private static final String PARSE_CACHE_RATIO_METRIC =
+      "integration.metrics.testIntegration.webhook.parse.cache.hit.ratio";
+
+  private static final String PARSE_CACHE_SIZE_METRIC =
+      "integration.metrics.testIntegration.webhook.parse.cache.size";
+
+  private static final String USER_CACHE_HIT_METRIC =
+      "integration.metrics.testIntegration.webhook.user.cache.hit";
+
+  private static final String USER_CACHE_MISS_METRIC =
+      "integration.metrics.testIntegration.webhook.user.cache.miss";
+
+  private static final String USER_CACHE_SIZE_METRIC =
+      "integration.metrics.testIntegration.webhook.user.cache.size";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Spy
+  private MetricRegistry metricsRegistry = new MetricRegistry();
+
+  @Spy
+  private ConcurrentMap<String, Counter> queueAcceptedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> queueRejectedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> suppressedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> instanceRateLimitCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> integrationRateLimitCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> spoolAcceptedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> spoolRejectedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> digestBufferedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> digestPostedCounters = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Timer> schedulerLatencyTimers = new ConcurrentHashMap<>();
+
+  @Spy
+  private ConcurrentMap<String, Counter> filteredCounters = new ConcurrentHashMap<>();
+
+  @InjectMocks
+  private WebHookMetricsController controller = new WebHookMetricsController();
+
+  @Test
+  public void testQueueCounters() {
+    controller.acceptedByQueue(TEST_INTEGRATION);
+
+    controller.initController(TEST_INTEGRATION);
+
+    controller.acceptedByQueue(TEST_INTEGRATION);
+    controller.acceptedByQueue(TEST_INTEGRATION);
+    controller.rejectedByQueue(TEST_INTEGRATION);
+    controller.rejectedByQueue(OTHER_INTEGRATION);
+
+    assertEquals(2, queueAcceptedCounters.get(TEST_INTEGRATION).getCount());
+    assertEquals(1, queueRejectedCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testQueueGauges() {
+    WebHookQueue queue = new WebHookQueue(TEST_INTEGRATION, 10, 1);
+
+    try {
+      controller.registerQueue(TEST_INTEGRATION, queue);
+      // Registering twice should replace the previous gauges
+      controller.registerQueue(TEST_INTEGRATION, queue);
+
+      Gauge<?> depth = metricsRegistry.getGauges().get(QUEUE_DEPTH_METRIC);
+      Gauge<?> capacity = metricsRegistry.getGauges().get(QUEUE_CAPACITY_METRIC);
+
+      assertNotNull(depth);
+      assertNotNull(capacity);
+      assertEquals(0, depth.getValue());
+      assertEquals(10, capacity.getValue());
+
+      controller.unregisterQueue(TEST_INTEGRATION);
+
+      assertFalse(metricsRegistry.getGauges().containsKey(QUEUE_DEPTH_METRIC));
+      assertFalse(metricsRegistry.getGauges().containsKey(QUEUE_CAPACITY_METRIC));
+    } finally {
+      queue.shutdown();
+    }
+  }
+
+  @Test
+  public void testInstanceCacheGauges() {
+    IntegrationInstanceCache cache = new IntegrationInstanceCache(
+        new IntegrationInstanceCache.InstanceLoader() {
+          @Override
+          public IntegrationInstance load(String configurationId, String instanceId) {
+            return new IntegrationInstance();
+          }
+        }, MoreExecutors.directExecutor(), 60, 60, 10);
+
+    controller.registerInstanceCache(TEST_INTEGRATION, cache);
+
+    cache.get("configurationId", "instanceId");
+    cache.get("configurationId", "instanceId");
+
+    assertEquals(1L, metricsRegistry.getGauges().get(CACHE_HIT_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(CACHE_MISS_METRIC).getValue());
+    assertEquals(0.5, metricsRegistry.getGauges().get(CACHE_HIT_RATIO_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(CACHE_SIZE_METRIC).getValue());
+  }
+
+  @Test
+  public void testCircuitBreakerGauge() {
+    CircuitBreaker breaker = new CircuitBreaker(50, 10, 1000, 1);
+
+    controller.registerCircuitBreaker(TEST_INTEGRATION, breaker);
+
+    Gauge<?> state = metricsRegistry.getGauges().get(CIRCUIT_BREAKER_STATE_METRIC);
+    assertEquals("CLOSED", state.getValue());
+
+    breaker.forceOpen();
+    assertEquals("OPEN", state.getValue());
+  }
+
+  @Test
+  public void testSuppressedCounter() {
+    controller.suppressedDuplicate(TEST_INTEGRATION);
+
+    controller.initController(TEST_INTEGRATION);
+
+    controller.suppressedDuplicate(TEST_INTEGRATION);
+    controller.suppressedDuplicate(OTHER_INTEGRATION);
+
+    assertEquals(1, suppressedCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testDeliveryDeduplicatorGauge() {
+    DeliveryDeduplicator deduplicator = new DeliveryDeduplicator(null, true, 60, 10);
+
+    controller.registerDeliveryDeduplicator(TEST_INTEGRATION, deduplicator);
+
+    Gauge<?> size = metricsRegistry.getGauges().get(DEDUPLICATION_SIZE_METRIC);
+    assertEquals(0L, size.getValue());
+
+    deduplicator.register("instanceId", new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "body"));
+    assertEquals(1L, size.getValue());
+  }
+
+  @Test
+  public void testRateLimitCounters() {
+    controller.initController(TEST_INTEGRATION);
+
+    controller.rejectedByInstanceRateLimit(TEST_INTEGRATION);
+    controller.rejectedByInstanceRateLimit(TEST_INTEGRATION);
+    controller.rejectedByIntegrationRateLimit(TEST_INTEGRATION);
+
+    assertEquals(2, instanceRateLimitCounters.get(TEST_INTEGRATION).getCount());
+    assertEquals(1, integrationRateLimitCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testRateLimiterGauge() {
+    WebHookRateLimiter rateLimiter = new WebHookRateLimiter(1, 5, 1, 10);
+
+    controller.registerRateLimiter(TEST_INTEGRATION, rateLimiter);
+
+    Gauge<?> available = metricsRegistry.getGauges().get(RATE_LIMIT_AVAILABLE_METRIC);
+    assertEquals(10L, available.getValue());
+
+    rateLimiter.tryAcquire("instanceId");
+    assertEquals(9L, available.getValue());
+  }
+
+  @Test
+  public void testTimerGauges() {
+    HashedWheelTimer timer = new HashedWheelTimer("test", 100L, 8);
+
+    try {
+      controller.registerTimer(timer);
+
+      timer.schedule(new Runnable() {
+        @Override
+        public void run() {
+        }
+      }, 1, TimeUnit.HOURS, MoreExecutors.directExecutor());
+
+      assertEquals(1L, metricsRegistry.getGauges().get(TIMER_SCHEDULED_METRIC).getValue());
+      assertEquals(1L, metricsRegistry.getGauges().get(TIMER_PENDING_METRIC).getValue());
+      assertEquals(0L, metricsRegistry.getGauges().get(TIMER_EXPIRED_METRIC).getValue());
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Test
+  public void testUserCacheGauges() {
+    CachedUserService cache = new CachedUserService(mock(UserService.class),
+        MoreExecutors.directExecutor(), 60, 30, 10, 100);
+
+    controller.registerUserCache(TEST_INTEGRATION, cache);
+
+    cache.getUserByUserId("integrationUser", 1L);
+    cache.getUserByUserId("integrationUser", 1L);
+
+    assertEquals(1L, metricsRegistry.getGauges().get(USER_CACHE_HIT_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(USER_CACHE_MISS_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(USER_CACHE_SIZE_METRIC).getValue());
+  }
+
+  @Test
+  public void testSpoolCounters() {
+    controller.initController(TEST_INTEGRATION);
+
+    controller.acceptedBySpool(TEST_INTEGRATION);
+    controller.acceptedBySpool(TEST_INTEGRATION);
+    controller.rejectedBySpool(TEST_INTEGRATION);
+
+    assertEquals(2, spoolAcceptedCounters.get(TEST_INTEGRATION).getCount());
+    assertEquals(1, spoolRejectedCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testSpoolGauges() throws IOException {
+    WebHookSpool spool = new WebHookSpool(folder.getRoot(), 4096, 2, false);
+
+    controller.registerSpool(TEST_INTEGRATION, spool);
+
+    assertEquals(0L, metricsRegistry.getGauges().get(SPOOL_DEPTH_METRIC).getValue());
+    assertEquals(0L, metricsRegistry.getGauges().get(SPOOL_AGE_METRIC).getValue());
+
+    spool.append("instanceId", "integrationUser", new WebHookPayload(
+        Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap(), "body"));
+
+    assertEquals(1L, metricsRegistry.getGauges().get(SPOOL_DEPTH_METRIC).getValue());
+    assertEquals(spool.getSize(), metricsRegistry.getGauges().get(SPOOL_SIZE_METRIC).getValue());
+
+    spool.close();
+  }
+
+  @Test
+  public void testDigestCounters() {
+    controller.initController(TEST_INTEGRATION);
+
+    controller.bufferedByDigest(TEST_INTEGRATION);
+    controller.bufferedByDigest(TEST_INTEGRATION);
+    controller.postedByDigest(TEST_INTEGRATION);
+
+    assertEquals(2, digestBufferedCounters.get(TEST_INTEGRATION).getCount());
+    assertEquals(1, digestPostedCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testDigestGauge() {
+    MessageDigest digest = new MessageDigest(mock(WebHookTimer.class),
+        MoreExecutors.directExecutor(), 1000, 10, 5,
+        mock(MessageDigest.Sender.class));
+
+    controller.registerDigest(TEST_INTEGRATION, digest);
+
+    assertEquals(0, metricsRegistry.getGauges().get(DIGEST_PENDING_METRIC).getValue());
+
+    digest.add("instanceId", "integrationUser", "stream", new Message());
+
+    assertEquals(1, metricsRegistry.getGauges().get(DIGEST_PENDING_METRIC).getValue());
+  }
+
+  @Test
+  public void testSchedulerMetrics() {
+    controller.initController(TEST_INTEGRATION);
+
+    controller.dispatchedByScheduler(TEST_INTEGRATION, TimeUnit.MILLISECONDS.toNanos(10));
+    controller.dispatchedByScheduler(TEST_INTEGRATION, TimeUnit.MILLISECONDS.toNanos(20));
+
+    Timer timer = schedulerLatencyTimers.get(TEST_INTEGRATION);
+    assertEquals(2, timer.getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(20), timer.getSnapshot().getMax());
+
+    WeightedFairScheduler scheduler = mock(WeightedFairScheduler.class);
+    doReturn(3).when(scheduler).getDepth(TEST_INTEGRATION);
+
+    controller.registerScheduler(TEST_INTEGRATION, scheduler);
+
+    assertEquals(3, metricsRegistry.getGauges().get(SCHEDULER_DEPTH_METRIC).getValue());
+  }
+
+  @Test
+  public void testFilteredCounter() {
+    controller.filteredEvent(TEST_INTEGRATION);
+
+    controller.initController(TEST_INTEGRATION);
+
+    controller.filteredEvent(TEST_INTEGRATION);
+    controller.filteredEvent(TEST_INTEGRATION);
+
+    assertEquals(2, filteredCounters.get(TEST_INTEGRATION).getCount());
+  }
+
+  @Test
+  public void testParseCacheGauges() {
+    ParseResultCache cache =
+        new ParseResultCache(1000, 10, Collections.<String>emptyList());
+
+    controller.registerParseCache(TEST_INTEGRATION, cache);
+
+    ParseResultCache.Parser parser = new ParseResultCache.Parser() {
+      @Override
+      public Message parse(WebHookPayload input) {
+        return new Message();
+      }
+    };
+
+    WebHookPayload payload = new WebHookPayload(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(), "body");
+
+    cache.get(payload, parser);
+    cache.get(payload, parser);
+
+    assertEquals(1L, metricsRegistry.getGauges().get(PARSE_CACHE_HIT_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(PARSE_CACHE_MISS_METRIC).getValue());
+    assertEquals(0.5, metricsRegistry.getGauges().get(PARSE_CACHE_RATIO_METRIC).getValue());
+    assertEquals(1L, metricsRegistry.getGauges().get(PARSE_CACHE_SIZE_METRIC).getValue());
+  }
+}
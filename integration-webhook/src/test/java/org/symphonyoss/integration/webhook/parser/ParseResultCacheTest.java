@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.message.MessageMLVersion;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link ParseResultCache}
+ */
+public class ParseResultCacheTest {
+
+  private static final long WINDOW = 1000L;
+
+  private static final String EVENT_HEADER = "X-Event-Key";
+
+  private static final String BODY = "{\"issue\":\"SAM-25\"}";
+
+  private final MockTicker ticker = new MockTicker();
+
+  private final ParseResultCache cache = new ParseResultCache(WINDOW, 100,
+      Collections.singletonList(EVENT_HEADER), ticker);
+
+  private final CountingParser parser = new CountingParser();
+
+  @Test
+  public void testReuseParseResult() {
+    Message first = cache.get(payload(BODY, "issue_created", "1"), parser);
+    Message second = cache.get(payload(BODY, "issue_created", "2"), parser);
+
+    assertEquals(1, parser.calls.get());
+    assertNotSame(first, second);
+    assertEquals(first.getMessage(), second.getMessage());
+    assertEquals(first.getData(), second.getData());
+    assertEquals(MessageMLVersion.V2, second.getVersion());
+
+    // Changing a copy doesn't affect the others
+    first.setData("{\"ownership\":{}}");
+    assertEquals("{}", cache.get(payload(BODY, "issue_created", "3"), parser).getData());
+
+    assertEquals(2, cache.stats().hitCount());
+    assertEquals(1, cache.stats().missCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testDifferentPayloads() {
+    cache.get(payload(BODY, "issue_created", "1"), parser);
+    cache.get(payload(BODY, "issue_updated", "1"), parser);
+    cache.get(payload("{\"issue\":\"SAM-26\"}", "issue_created", "1"), parser);
+
+    WebHookPayload withParameter = payload(BODY, "issue_created", "1");
+    withParameter.addParameter("name", "value");
+    cache.get(withParameter, parser);
+
+    assertEquals(4, parser.calls.get());
+  }
+
+  @Test
+  public void testEventNotHandled() {
+    parser.result = null;
+
+    assertNull(cache.get(payload(BODY, "issue_created", "1"), parser));
+    assertNull(cache.get(payload(BODY, "issue_created", "2"), parser));
+
+    assertEquals(1, parser.calls.get());
+  }
+
+  @Test
+  public void testFailureNotCached() {
+    parser.failure = new IllegalStateException("Unexpected error");
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.get(payload(BODY, "issue_created", "1"), parser);
+        fail();
+      } catch (IllegalStateException e) {
+        assertEquals("Unexpected error", e.getMessage());
+      }
+    }
+
+    assertEquals(2, parser.calls.get());
+  }
+
+  @Test
+  public void testExpiration() {
+    cache.get(payload(BODY, "issue_created", "1"), parser);
+
+    ticker.advance(TimeUnit.MILLISECONDS.toNanos(WINDOW));
+
+    cache.get(payload(BODY, "issue_created", "2"), parser);
+
+    assertEquals(2, parser.calls.get());
+  }
+
+  private WebHookPayload payload(String body, String event, String deliveryId) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(EVENT_HEADER, event);
+    headers.put("X-Delivery-Id", deliveryId);
+
+    return new WebHookPayload(new HashMap<String, String>(), headers, body);
+  }
+
+  private static final class CountingParser implements ParseResultCache.Parser {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private Message result = new Message();
+
+    private RuntimeException failure;
+
+    CountingParser() {
+      result.setMessage("<messageML>${entity['issue']}</messageML>");
+      result.setData("{}");
+      result.setVersion(MessageMLVersion.V2);
+    }
+
+    @Override
+    public Message parse(WebHookPayload input) {
+      calls.incrementAndGet();
+
+      if (failure != null) {
+        throw failure;
+      }
+
+      return result;
+    }
+  }
+
+  private static final class MockTicker extends Ticker {
+
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long time) {
+      nanos += time;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the list objects processed serially against the list objects processed
+ * in parallel by {@link ParallelList}, for increasing list sizes. The crossover point is the
+ * smallest size where the parallel score is lower than the serial one, and it's the value to use
+ * as the "threshold" of the parallel lists.
+ *
+ * The results are only meaningful on the target hardware. On a single processor the parallel
+ * lists only add the cost of splitting them, so there's no crossover.
+ *
+ * <pre>
+ *   mvn -P benchmark -pl integration-webhook -am verify -Dbenchmark=MetadataListBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MetadataListBenchmark {
+
+  /**
+   * Threshold that processes every list in parallel.
+   */
+  private static final int PARALLEL_LISTS = 1;
+
+  @Param({ "10", "50", "100", "250", "500", "1000", "2500", "10000" })
+  public int size;
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  private final CharArrayWriter buffer = new CharArrayWriter();
+
+  private MetadataPlan plan;
+
+  private JsonNode node;
+
+  @Setup
+  public void setup() throws IOException {
+    this.plan = MetadataPlan.compile(MetadataParserBenchmark.createMetadata());
+    this.node = MetadataParserBenchmark.createPayload(size);
+
+    if (!serial().equals(parallel())) {
+      throw new IllegalStateException("The parallel list doesn't match the serial list");
+    }
+  }
+
+  @Benchmark
+  public String serial() throws IOException {
+    return MetadataParserBenchmark.write(plan, node, MetadataPlan.SERIAL_LISTS, jsonFactory,
+        buffer);
+  }
+
+  @Benchmark
+  public String parallel() throws IOException {
+    return MetadataParserBenchmark.write(plan, node, PARALLEL_LISTS, jsonFactory, buffer);
+  }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.symphonyoss.integration.json.JsonUtils;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the compiled {@link MetadataPlan} against the interpretation of the
+ * metadata objects on each parse, as {@link MetadataParser} used to do, and the Entity JSON
+ * written directly by the plan against the serialization of the entity objects.
+ *
+ * The benchmarks are only compiled and executed by the "benchmark" profile, which isn't part of
+ * the regular build:
+ *
+ * <pre>
+ *   mvn -P benchmark -pl integration-webhook -am verify -Dbenchmark=MetadataParserBenchmark
+ * </pre>
+ *
+ * Add "-Dbenchmark.args=-prof gc" to report the memory allocated by each operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MetadataParserBenchmark {
+
+  private static final int OBJECTS = 8;
+
+  private static final int FIELDS = 6;
+
+  private static final int ITEMS = 50;
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  private final CharArrayWriter buffer = new CharArrayWriter();
+
+  private Metadata metadata;
+
+  private MetadataPlan plan;
+
+  private JsonNode node;
+
+  @Setup
+  public void setup() throws IOException {
+    this.metadata = createMetadata();
+    this.plan = MetadataPlan.compile(metadata);
+    this.node = createPayload(ITEMS);
+
+    String expected = JsonUtils.writeValueAsString(interpret(metadata, node));
+    String actual = JsonUtils.writeValueAsString(execute(plan, node));
+
+    if (!expected.equals(actual)) {
+      throw new IllegalStateException("The compiled plan doesn't match the interpretation");
+    }
+
+    if (!serialized().equals(written())) {
+      throw new IllegalStateException("The Entity JSON written doesn't match the entity objects");
+    }
+  }
+
+  @Benchmark
+  public EntityObject interpreted() {
+    return interpret(metadata, node);
+  }
+
+  @Benchmark
+  public EntityObject compiled() {
+    return execute(plan, node);
+  }
+
+  /**
+   * Builds the entity objects with the compiled plan and serializes them.
+   */
+  @Benchmark
+  public String serialized() throws IOException {
+    EntityObject root = execute(plan, node);
+    return JsonUtils.writeValueAsString(Collections.singletonMap(plan.getName(), root));
+  }
+
+  /**
+   * Writes the Entity JSON to a reusable buffer, as {@link MetadataParser} does.
+   */
+  @Benchmark
+  public String written() throws IOException {
+    return write(plan, node, MetadataPlan.SERIAL_LISTS, jsonFactory, buffer);
+  }
+
+  static String write(MetadataPlan plan, JsonNode node, int parallelThreshold,
+      JsonFactory jsonFactory, CharArrayWriter buffer) throws IOException {
+    buffer.reset();
+
+    try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+      plan.write(generator, node, "1.0", parallelThreshold, null);
+    }
+
+    return buffer.toString();
+  }
+
+  static EntityObject execute(MetadataPlan plan, JsonNode node) {
+    EntityObject root = plan.newRoot("1.0");
+    plan.process(root, node, MetadataPlan.SERIAL_LISTS);
+    return root;
+  }
+
+  /**
+   * Walks the metadata objects on each parse, as the parser did before compiling them.
+   */
+  static EntityObject interpret(Metadata metadata, JsonNode node) {
+    EntityObject root = new EntityObject(metadata.getType(), metadata.getVersion());
+
+    for (MetadataField field : metadata.getFields()) {
+      field.process(root, node);
+    }
+
+    interpretObjects(root, node, metadata.getObjects());
+
+    return root;
+  }
+
+  private static void interpretObjects(EntityObject root, JsonNode node,
+      List<MetadataObject> objects) {
+    for (MetadataObject object : objects) {
+      EntityObject entity = new EntityObject(object.getType(), object.getVersion());
+
+      if (object.getFields() != null) {
+        for (MetadataField field : object.getFields()) {
+          field.process(entity, node);
+        }
+      }
+
+      if (object.isList()) {
+        List<Object> items = new ArrayList<>();
+
+        for (JsonNode item : node.path(object.getId())) {
+          interpretObjects(entity, item, object.getChildren());
+
+          if (!entity.getContent().isEmpty()) {
+            Map.Entry<String, Object> entry = entity.getContent().entrySet().iterator().next();
+            items.add(entry.getValue());
+            entity.getContent().clear();
+          }
+        }
+
+        root.addContent(object.getId(), items);
+      } else if (object.getChildren() != null) {
+        interpretObjects(entity, node, object.getChildren());
+      }
+
+      if (!entity.getContent().isEmpty()) {
+        root.addContent(object.getId(), entity);
+      }
+    }
+  }
+
+  /**
+   * Creates metadata objects shaped like the ones used by the integrations: root fields, a few
+   * objects with nested paths and a list of objects.
+   */
+  static Metadata createMetadata() {
+    List<MetadataObject> objects = new ArrayList<>();
+
+    for (int i = 0; i < OBJECTS; i++) {
+      objects.add(createObject("object" + i, "object" + i + ".content."));
+    }
+
+    MetadataObject item = createObject("item", "");
+
+    MetadataObject list = new MetadataObject();
+    list.setId("items");
+    list.setType("com.symphony.integration.benchmark.items");
+    list.setVersion("1.0");
+    list.setList(true);
+    list.setChildren(Collections.singletonList(item));
+    objects.add(list);
+
+    Metadata metadata = new Metadata();
+    metadata.setName("benchmarkEvent");
+    metadata.setType("com.symphony.integration.benchmark");
+    metadata.setVersion("1.0");
+    metadata.setFields(createFields("header."));
+    metadata.setObjects(objects);
+
+    return metadata;
+  }
+
+  private static MetadataObject createObject(String id, String prefix) {
+    MetadataObject object = new MetadataObject();
+    object.setId(id);
+    object.setType("com.symphony.integration.benchmark." + id);
+    object.setVersion("1.0");
+    object.setFields(createFields(prefix));
+    return object;
+  }
+
+  private static List<MetadataField> createFields(String prefix) {
+    List<MetadataField> fields = new ArrayList<>();
+
+    for (int i = 0; i < FIELDS; i++) {
+      MetadataField field = new MetadataField();
+      field.setKey("field" + i);
+      field.setValue(prefix + "field" + i);
+      fields.add(field);
+    }
+
+    return fields;
+  }
+
+  static JsonNode createPayload(int listSize) {
+    JsonNodeFactory factory = JsonNodeFactory.instance;
+    ObjectNode root = factory.objectNode();
+
+    fill(root.putObject("header"));
+
+    for (int i = 0; i < OBJECTS; i++) {
+      fill(root.putObject("object" + i).putObject("content"));
+    }
+
+    ArrayNode items = root.putArray("items");
+
+    for (int i = 0; i < listSize; i++) {
+      fill(items.addObject());
+    }
+
+    return root;
+  }
+
+  private static void fill(ObjectNode node) {
+    for (int i = 0; i < FIELDS; i++) {
+      node.put("field" + i, StringUtils.repeat('x', 16) + i);
+    }
+  }
+}
@@ -17,17 +17,30 @@
 package org.symphonyoss.integration.webhook.parser.metadata;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
 import org.symphonyoss.integration.model.message.Message;
+import org.symphonyoss.integration.model.yaml.IntegrationProperties;
+import org.symphonyoss.integration.model.yaml.WebHookParallelListConfig;
+import org.symphonyoss.integration.parser.ParseDeadline;
 import org.symphonyoss.integration.webhook.exception.MetadataParserException;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * Unit test class for {@link MetadataParser}
@@ -64,6 +77,12 @@ public class MetadataParserTest {
       + "    </div>\n"
       + "</messageML>\n";
 
+  @Spy
+  private IntegrationProperties properties = new IntegrationProperties();
+
+  @InjectMocks
+  private MockMetadataParser parallelParser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA);
+
   @Test
   public void testInexistentTemplateFile() throws IOException {
     MetadataParser parser = new MockMetadataParser(INEXISTENT_TEMPLATE_FILE, SIMPLE_METADATA);
@@ -113,6 +132,67 @@ public class MetadataParserTest {
     assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
   }
 
+  @Test
+  public void testParserWithParallelLists() throws IOException {
+    WebHookParallelListConfig config = properties.getWebhook().getParallelList();
+    config.setEnabled(true);
+    config.setThreshold(1);
+
+    parallelParser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+    JsonNode expectedEntityJson = readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+
+    Message result = parallelParser.parse(node);
+    assertEquals(EXPECTED_TEMPLATE, result.getMessage());
+    assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+  }
+
+  @Test
+  public void testStreamingParser() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA);
+    parser.init();
+
+    JsonNode expectedEntityJson = readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+
+    ClassLoader classLoader = getClass().getClassLoader();
+
+    try (JsonParser input = new JsonFactory().createParser(
+        classLoader.getResourceAsStream(INPUT_FILE))) {
+      Message result = parser.parse(input);
+      assertEquals(EXPECTED_TEMPLATE, result.getMessage());
+      assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+    }
+  }
+
+  @Test
+  public void testStreamingParserInexistentMetadataFile() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, INEXISTENT_METADATA_FILE);
+    parser.init();
+
+    try (JsonParser input = new JsonFactory().createParser("{}")) {
+      assertNull(parser.parse(input));
+    }
+  }
+
+  @Test
+  public void testParserWithPostProcessing() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA) {
+      @Override
+      protected void postProcessOutputData(EntityObject output, JsonNode input) {
+        output.addContent("extra", "extra value");
+      }
+    };
+    parser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+    ObjectNode expectedEntityJson = (ObjectNode) readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+    ((ObjectNode) expectedEntityJson.path("testEvent")).put("extra", "extra value");
+
+    Message result = parser.parse(node);
+    assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+  }
+
   @Test(expected = MetadataParserException.class)
   public void testInvalidTypeInMetadataFile() throws IOException {
     MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA_WITH_TYPE_FIELD_INVALID);
@@ -135,9 +215,93 @@ public class MetadataParserTest {
     assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
   }
 
+  @Test
+  public void testParserWithEnrichment() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA);
+    parser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+    ObjectNode expectedEntityJson = (ObjectNode) readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+    ObjectNode ownership = expectedEntityJson.putObject("ownership");
+    ownership.put("type", "com.symphony.integration.ownership");
+    ownership.put("userId", "123");
+
+    try (EntityEnrichment enrichment = EntityEnrichment.start(
+        Collections.singletonMap("ownership", ownership))) {
+      Message result = parser.parse(node);
+      assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+      assertTrue(enrichment.isEnriched(result.getData()));
+    }
+
+    assertNull(EntityEnrichment.current());
+  }
+
+  @Test
+  public void testParserWithPostProcessingAndEnrichment() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA) {
+      @Override
+      protected void postProcessOutputData(EntityObject output, JsonNode input) {
+        output.addContent("extra", "extra value");
+      }
+    };
+    parser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+    ObjectNode expectedEntityJson = (ObjectNode) readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+    ((ObjectNode) expectedEntityJson.path("testEvent")).put("extra", "extra value");
+    ObjectNode ownership = expectedEntityJson.putObject("ownership");
+    ownership.put("userId", "123");
+
+    try (EntityEnrichment enrichment = EntityEnrichment.start(
+        Collections.singletonMap("ownership", ownership))) {
+      Message result = parser.parse(node);
+      assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+      assertTrue(enrichment.isEnriched(result.getData()));
+    }
+  }
+
+  @Test
+  public void testParserWithSuspendedEnrichment() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA);
+    parser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+    JsonNode expectedEntityJson = readJsonFromFile(EXPECTED_ENTITY_JSON_FILE);
+    ObjectNode ownership = JsonNodeFactory.instance.objectNode();
+    ownership.put("userId", "123");
+
+    try (EntityEnrichment enrichment = EntityEnrichment.start(
+        Collections.singletonMap("ownership", ownership))) {
+      try (EntityEnrichment suspended = EntityEnrichment.suspend()) {
+        Message result = parser.parse(node);
+        assertEquals(JsonUtils.writeValueAsString(expectedEntityJson), result.getData());
+        assertFalse(suspended.isEnriched(result.getData()));
+        assertFalse(enrichment.isEnriched(result.getData()));
+      }
+
+      assertEquals(enrichment, EntityEnrichment.current());
+    }
+  }
+
   private JsonNode readJsonFromFile(String filename) throws IOException {
     ClassLoader classLoader = getClass().getClassLoader();
     return JsonUtils.readTree(classLoader.getResourceAsStream(filename));
   }
 
+
+  @Test(expected = ParserTimeoutException.class)
+  public void testParseDeadlineReached() throws IOException {
+    MetadataParser parser = new MockMetadataParser(TEMPLATE, SIMPLE_METADATA);
+    parser.init();
+
+    JsonNode node = readJsonFromFile(INPUT_FILE);
+
+    ParseDeadline deadline = ParseDeadline.start(0);
+
+    try {
+      parser.parse(node);
+    } finally {
+      deadline.close();
+    }
+  }
 }
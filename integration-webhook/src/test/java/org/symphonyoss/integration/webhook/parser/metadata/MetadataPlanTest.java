@@ -0,0 +1,299 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.junit.Test;
+import org.symphonyoss.integration.json.JsonUtils;
+import org.symphonyoss.integration.webhook.exception.MetadataParserException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit test for {@link MetadataPlan}
+ */
+public class MetadataPlanTest {
+
+  private static final String INPUT = "{ \"issue\": { \"key\": \"SAM-25\", \"summary\": \"\", "
+      + "\"resolved\": true }, \"labels\": [\"bug\", { \"name\": \"ignored\" }], "
+      + "\"comments\": [ { \"author\": { \"name\": \"test\" }, \"body\": \"first\" }, "
+      + "{ \"body\": \"second\" }, {} ] }";
+
+  private static final String EXPECTED_ENTITY = "{\"type\":"
+      + "\"com.symphony.integration.jira.event.created\",\"version\":\"1.0\",\"key\":\"SAM-25\","
+      + "\"issue\":{\"type\":\"com.symphony.integration.issue\",\"version\":\"1.0\","
+      + "\"key\":\"SAM-25\",\"summary\":\"\",\"resolved\":true},\"labels\":[\"bug\"],"
+      + "\"comments\":[{\"type\":\"com.symphony.integration.comment\",\"version\":\"1.0\","
+      + "\"body\":\"first\",\"author\":{\"type\":\"com.symphony.integration.user\","
+      + "\"version\":\"1.0\",\"name\":\"test\"}},{\"type\":\"com.symphony.integration.comment\","
+      + "\"version\":\"1.0\",\"body\":\"second\"}]}";
+
+  @Test
+  public void testProcess() throws IOException {
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+    assertEquals("jiraIssueCreated", plan.getName());
+
+    EntityObject root = plan.newRoot("1.0");
+    plan.process(root, JsonUtils.readTree(INPUT), MetadataPlan.SERIAL_LISTS);
+
+    assertEquals(EXPECTED_ENTITY, JsonUtils.writeValueAsString(root));
+  }
+
+  @Test
+  public void testEmptyMetadata() throws IOException {
+    Metadata metadata = new Metadata();
+    metadata.setType("com.symphony.integration.test");
+
+    MetadataPlan plan = MetadataPlan.compile(metadata);
+
+    EntityObject root = plan.newRoot("1.0");
+    plan.process(root, JsonUtils.readTree("{}"), MetadataPlan.SERIAL_LISTS);
+
+    assertTrue(root.getContent().isEmpty());
+  }
+
+  @Test(expected = MetadataParserException.class)
+  public void testInvalidType() throws IOException {
+    MetadataField field = field("key", "issue.key");
+    field.setType(null);
+
+    Metadata metadata = new Metadata();
+    metadata.setFields(Collections.singletonList(field));
+
+    // The invalid type is only reported when the field is processed
+    MetadataPlan plan = MetadataPlan.compile(metadata);
+    plan.process(plan.newRoot("1.0"), JsonUtils.readTree(INPUT), MetadataPlan.SERIAL_LISTS);
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+
+    JsonNode node = read(plan, INPUT);
+
+    EntityObject root = plan.newRoot("1.0");
+    plan.process(root, node, MetadataPlan.SERIAL_LISTS);
+
+    assertEquals(EXPECTED_ENTITY, JsonUtils.writeValueAsString(root));
+  }
+
+  @Test
+  public void testReadSkipsUnreferencedFields() throws IOException {
+    String input = "{ \"issue\": { \"key\": \"SAM-25\", \"summary\": null, \"resolved\": 0, "
+        + "\"changelog\": { \"items\": [ 1, 2, 3 ] }, \"key\": \"SAM-26\" }, \"key\": [ 1 ], "
+        + "\"comments\": [ { \"author\": { \"name\": 25, \"avatar\": {} }, \"body\": 1.5 }, "
+        + "[ \"nested\" ], { \"body\": 12345678901 }, \"text\" ], "
+        + "\"labels\": [ true, 2.5, { \"name\": \"x\" } ], "
+        + "\"attachments\": [ { \"content\": \"ignored\" } ] }";
+
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+
+    JsonNode node = read(plan, input);
+
+    assertFalse(node.has("attachments"));
+    assertFalse(node.path("issue").has("changelog"));
+    assertFalse(node.path("comments").path(0).path("author").has("avatar"));
+
+    EntityObject expected = plan.newRoot("1.0");
+    plan.process(expected, JsonUtils.readTree(input), MetadataPlan.SERIAL_LISTS);
+
+    EntityObject actual = plan.newRoot("1.0");
+    plan.process(actual, node, MetadataPlan.SERIAL_LISTS);
+
+    assertEquals(JsonUtils.writeValueAsString(expected), JsonUtils.writeValueAsString(actual));
+  }
+
+  @Test
+  public void testReadEmptyDocument() throws IOException {
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+
+    assertEquals(MissingNode.getInstance(), read(plan, ""));
+    assertEquals(MissingNode.getInstance(), read(plan, "[ { \"issue\": {} } ]"));
+  }
+
+  @Test
+  public void testWrite() throws IOException {
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+    assertTrue(plan.isWritable());
+
+    assertEquals("{\"jiraIssueCreated\":" + EXPECTED_ENTITY + "}",
+        write(plan, JsonUtils.readTree(INPUT)));
+
+    String input = "{ \"issue\": { \"key\": \"SAM-25\", \"summary\": null }, "
+        + "\"labels\": [], \"comments\": [ {}, [ 1 ], { \"author\": { \"name\": \"test\" } }, "
+        + "\"text\" ] }";
+    JsonNode node = JsonUtils.readTree(input);
+
+    EntityObject root = plan.newRoot("1.0");
+    plan.process(root, node, MetadataPlan.SERIAL_LISTS);
+
+    assertEquals(JsonUtils.writeValueAsString(Collections.singletonMap("jiraIssueCreated", root)),
+        write(plan, node));
+  }
+
+  @Test
+  public void testNotWritable() {
+    Metadata metadata = createMetadata();
+    metadata.setName(null);
+    assertFalse(MetadataPlan.compile(metadata).isWritable());
+
+    // Duplicated keys
+    metadata = createMetadata();
+    metadata.setFields(Arrays.asList(field("key", "issue.key"), field("issue", "issue.key")));
+    assertFalse(MetadataPlan.compile(metadata).isWritable());
+
+    // List object with fields
+    metadata = createMetadata();
+    metadata.getObjects().get(1).setFields(Collections.singletonList(field("key", "issue.key")));
+    assertFalse(MetadataPlan.compile(metadata).isWritable());
+
+    // Invalid type
+    metadata = createMetadata();
+    metadata.getObjects().get(0).getFields().get(0).setType(null);
+    assertFalse(MetadataPlan.compile(metadata).isWritable());
+  }
+
+  @Test
+  public void testParallelLists() throws IOException {
+    MetadataPlan plan = MetadataPlan.compile(createMetadata());
+
+    StringBuilder input = new StringBuilder("{ \"labels\": [], \"comments\": [");
+
+    for (int i = 0; i < 1000; i++) {
+      input.append(i > 0 ? ", " : "");
+
+      if (i % 10 == 0) {
+        input.append("{}, [ 1 ], \"text\"");
+      } else {
+        input.append("{ \"body\": \"comment ").append(i)
+            .append("\", \"author\": { \"name\": \"user ").append(i).append("\" } }");
+      }
+    }
+
+    JsonNode node = JsonUtils.readTree(input.append("] }").toString());
+
+    EntityObject expected = plan.newRoot("1.0");
+    plan.process(expected, node, MetadataPlan.SERIAL_LISTS);
+
+    for (int threshold : new int[] { 1, 1000, 1201 }) {
+      EntityObject actual = plan.newRoot("1.0");
+      plan.process(actual, node, threshold);
+
+      assertEquals(JsonUtils.writeValueAsString(expected), JsonUtils.writeValueAsString(actual));
+      assertEquals(write(plan, node, MetadataPlan.SERIAL_LISTS), write(plan, node, threshold));
+    }
+
+    assertEquals(900, ((List<?>) expected.getContent().get("comments")).size());
+  }
+
+  @Test
+  public void testParallelListWithFields() throws IOException {
+    Metadata metadata = createMetadata();
+    metadata.getObjects().get(2).setFields(Collections.singletonList(field("key", "issue.key")));
+
+    MetadataPlan plan = MetadataPlan.compile(metadata);
+    JsonNode node = JsonUtils.readTree(INPUT);
+
+    // The list items are mixed with the fields of the list object, so they're processed serially
+    EntityObject expected = plan.newRoot("1.0");
+    plan.process(expected, node, MetadataPlan.SERIAL_LISTS);
+
+    EntityObject actual = plan.newRoot("1.0");
+    plan.process(actual, node, 1);
+
+    assertEquals(JsonUtils.writeValueAsString(expected), JsonUtils.writeValueAsString(actual));
+  }
+
+  private String write(MetadataPlan plan, JsonNode node) throws IOException {
+    return write(plan, node, MetadataPlan.SERIAL_LISTS);
+  }
+
+  private String write(MetadataPlan plan, JsonNode node, int parallelThreshold)
+      throws IOException {
+    StringWriter writer = new StringWriter();
+
+    try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+      plan.write(generator, node, "1.0", parallelThreshold, null);
+    }
+
+    return writer.toString();
+  }
+
+  private JsonNode read(MetadataPlan plan, String input) throws IOException {
+    try (JsonParser parser = new JsonFactory().createParser(input)) {
+      return plan.read(parser);
+    }
+  }
+
+  private Metadata createMetadata() {
+    MetadataObject issue = object("issue", "com.symphony.integration.issue",
+        field("key", "issue.key"), field("summary", "issue.summary"),
+        field("description", "issue.description"), field("resolved", "issue.resolved"));
+    issue.getFields().get(1).setBlank(true);
+    issue.getFields().get(3).setType(MetadataField.Type.BOOLEAN);
+
+    MetadataObject labels = object("labels", "com.symphony.integration.labels");
+    labels.setList(true);
+
+    MetadataObject author = object("author", "com.symphony.integration.user",
+        field("name", "author.name"));
+
+    MetadataObject comment = object("comment", "com.symphony.integration.comment",
+        field("body", "body"));
+    comment.setChildren(Collections.singletonList(author));
+
+    MetadataObject comments = object("comments", "com.symphony.integration.comments");
+    comments.setList(true);
+    comments.setChildren(Collections.singletonList(comment));
+
+    Metadata metadata = new Metadata();
+    metadata.setName("jiraIssueCreated");
+    metadata.setType("com.symphony.integration.jira.event.created");
+    metadata.setFields(Collections.singletonList(field("key", "issue.key")));
+    metadata.setObjects(Arrays.asList(issue, labels, comments));
+
+    return metadata;
+  }
+
+  private MetadataObject object(String id, String type, MetadataField... fields) {
+    MetadataObject object = new MetadataObject();
+    object.setId(id);
+    object.setType(type);
+    object.setVersion("1.0");
+    object.setFields(Arrays.asList(fields));
+    return object;
+  }
+
+  private MetadataField field(String key, String value) {
+    MetadataField field = new MetadataField();
+    field.setKey(key);
+    field.setValue(value);
+    return field;
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Unit test for {@link MetadataRegistry}
+ */
+public class MetadataRegistryTest {
+
+  private static final String PARSER = "parser";
+
+  private static final String METADATA = "metadata/simpleMetadata.xml";
+
+  private static final String INVALID_METADATA = "metadata/invalidMetadata.xml";
+
+  private static final String INEXISTENT_METADATA = "metadata/inexistentMetadata.xml";
+
+  private static final String TEMPLATE = "templates/templateMessageML.xml";
+
+  private static final String INEXISTENT_TEMPLATE = "templates/inexistentTemplate.xml";
+
+  private static final String EXPECTED_TEMPLATE = "<messageML>\n"
+      + "    <div class=\"entity\">\n"
+      + "        <span>Body</span>\n"
+      + "    </div>\n"
+      + "</messageML>\n";
+
+  private MetadataRegistry registry;
+
+  private ClassLoader classLoader;
+
+  @Before
+  public void init() {
+    this.registry = new MetadataRegistry();
+    this.classLoader = getClass().getClassLoader();
+  }
+
+  @Test
+  public void testLoad() throws InterruptedException, ExecutionException {
+    MetadataRegistry.Resources resources =
+        registry.load(PARSER, classLoader, METADATA, TEMPLATE).get();
+
+    assertNotNull(resources.getMetadata());
+    assertNotNull(resources.getPlan());
+    assertEquals(resources.getMetadata().getName(), resources.getPlan().getName());
+    assertEquals(EXPECTED_TEMPLATE, resources.getTemplate());
+  }
+
+  @Test
+  public void testSharedResources() throws InterruptedException, ExecutionException {
+    MetadataRegistry.Resources first =
+        registry.load(PARSER, classLoader, METADATA, TEMPLATE).get();
+    MetadataRegistry.Resources second =
+        registry.load("other", classLoader, METADATA, TEMPLATE).get();
+
+    assertSame(first.getMetadata(), second.getMetadata());
+    assertSame(first.getTemplate(), second.getTemplate());
+    assertSame(EXPECTED_TEMPLATE.intern(), first.getTemplate());
+  }
+
+  @Test
+  public void testResourcesPerClassLoader() throws InterruptedException, ExecutionException {
+    final String otherTemplate = "<messageML>other</messageML>\n";
+
+    ClassLoader otherClassLoader = new ClassLoader(classLoader) {
+      @Override
+      public InputStream getResourceAsStream(String name) {
+        if (TEMPLATE.equals(name)) {
+          return new ByteArrayInputStream(otherTemplate.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return super.getResourceAsStream(name);
+      }
+    };
+
+    MetadataRegistry.Resources first =
+        registry.load(PARSER, classLoader, METADATA, TEMPLATE).get();
+    MetadataRegistry.Resources second =
+        registry.load("other", otherClassLoader, METADATA, TEMPLATE).get();
+
+    // The same locations are read again from the other class loader
+    assertEquals(EXPECTED_TEMPLATE, first.getTemplate());
+    assertEquals(otherTemplate, second.getTemplate());
+    assertNotSame(first.getMetadata(), second.getMetadata());
+  }
+
+  @Test
+  public void testInexistentFiles() throws InterruptedException, ExecutionException {
+    MetadataRegistry.Resources resources =
+        registry.load(PARSER, classLoader, INEXISTENT_METADATA, INEXISTENT_TEMPLATE).get();
+
+    assertNull(resources.getMetadata());
+    assertNull(resources.getPlan());
+    assertNull(resources.getTemplate());
+  }
+
+  @Test
+  public void testInvalidMetadataFile() throws InterruptedException, ExecutionException {
+    MetadataRegistry.Resources resources =
+        registry.load(PARSER, classLoader, INVALID_METADATA, TEMPLATE).get();
+
+    assertNull(resources.getMetadata());
+    assertNull(resources.getPlan());
+    assertEquals(EXPECTED_TEMPLATE, resources.getTemplate());
+  }
+
+  @Test
+  public void testLoadTimes() throws InterruptedException, ExecutionException {
+    assertTrue(registry.getLoadTimes().isEmpty());
+
+    registry.load(PARSER, classLoader, METADATA, TEMPLATE).get();
+
+    Long loadTime = registry.getLoadTimes().get(PARSER);
+    assertNotNull(loadTime);
+    assertTrue(loadTime >= 0);
+  }
+
+}
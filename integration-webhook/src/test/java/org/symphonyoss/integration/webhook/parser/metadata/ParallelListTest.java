@@ -0,0 +1,194 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.parser.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.Test;
+import org.symphonyoss.integration.exception.ParserTimeoutException;
+import org.symphonyoss.integration.parser.ParseDeadline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test for {@link ParallelList}
+ */
+public class ParallelListTest {
+
+  private static final int SIZE = 10000;
+
+  @Test
+  public void testOrderPreserved() {
+    List<Object> ranges = ParallelList.process(createList(SIZE),
+        new ParallelList.RangeProcessor<RuntimeException>() {
+          @Override
+          public Object process(ArrayNode list, int from, int to) {
+            List<Integer> values = new ArrayList<>();
+
+            for (int i = from; i < to; i++) {
+              values.add(list.get(i).asInt());
+            }
+
+            return values;
+          }
+        });
+
+    assertTrue(ranges.size() > 1);
+
+    int expected = 0;
+
+    for (Object range : ranges) {
+      for (Object value : (List<?>) range) {
+        assertEquals(expected++, value);
+      }
+    }
+
+    assertEquals(SIZE, expected);
+  }
+
+  @Test
+  public void testRangesWithoutResult() {
+    List<Object> ranges = ParallelList.process(createList(SIZE),
+        new ParallelList.RangeProcessor<RuntimeException>() {
+          @Override
+          public Object process(ArrayNode list, int from, int to) {
+            return from == 0 ? from : null;
+          }
+        });
+
+    assertEquals(1, ranges.size());
+    assertEquals(0, ranges.get(0));
+  }
+
+  @Test
+  public void testEmptyList() {
+    List<Object> ranges = ParallelList.process(createList(0),
+        new ParallelList.RangeProcessor<RuntimeException>() {
+          @Override
+          public Object process(ArrayNode list, int from, int to) {
+            fail();
+            return null;
+          }
+        });
+
+    assertTrue(ranges.isEmpty());
+  }
+
+  @Test
+  public void testNestedLists() {
+    final ArrayNode nested = createList(100);
+
+    List<Object> ranges = ParallelList.process(createList(100),
+        new ParallelList.RangeProcessor<RuntimeException>() {
+          @Override
+          public Object process(ArrayNode list, int from, int to) {
+            return ParallelList.process(nested,
+                new ParallelList.RangeProcessor<RuntimeException>() {
+                  @Override
+                  public Object process(ArrayNode nestedList, int nestedFrom, int nestedTo) {
+                    return nestedTo - nestedFrom;
+                  }
+                });
+          }
+        });
+
+    for (Object range : ranges) {
+      int items = 0;
+
+      for (Object nestedRange : (List<?>) range) {
+        items += (Integer) nestedRange;
+      }
+
+      assertEquals(100, items);
+    }
+  }
+
+  @Test
+  public void testFailure() {
+    final IOException failure = new IOException("range");
+
+    try {
+      ParallelList.process(createList(SIZE), new ParallelList.RangeProcessor<IOException>() {
+        @Override
+        public Object process(ArrayNode list, int from, int to) throws IOException {
+          if (to == SIZE) {
+            throw failure;
+          }
+
+          return from;
+        }
+      });
+      fail();
+    } catch (IOException e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test
+  public void testDeadlineShared() {
+    try (ParseDeadline deadline = ParseDeadline.start(60000)) {
+      List<Object> ranges = ParallelList.process(createList(SIZE),
+          new ParallelList.RangeProcessor<RuntimeException>() {
+            @Override
+            public Object process(ArrayNode list, int from, int to) {
+              return ParseDeadline.current().getTimeout();
+            }
+          });
+
+      for (Object range : ranges) {
+        assertEquals(deadline.getTimeout(), range);
+      }
+    }
+  }
+
+  @Test
+  public void testDeadlineReached() {
+    ParseDeadline deadline = ParseDeadline.start(0);
+
+    try {
+      ParallelList.process(createList(SIZE), new ParallelList.RangeProcessor<RuntimeException>() {
+        @Override
+        public Object process(ArrayNode list, int from, int to) {
+          ParseDeadline.check();
+          return from;
+        }
+      });
+      fail();
+    } catch (ParserTimeoutException e) {
+      assertEquals(0, e.getTimeout());
+    } finally {
+      deadline.close();
+    }
+  }
+
+  private ArrayNode createList(int size) {
+    ArrayNode list = JsonNodeFactory.instance.arrayNode();
+
+    for (int i = 0; i < size; i++) {
+      list.add(i);
+    }
+
+    return list;
+  }
+}
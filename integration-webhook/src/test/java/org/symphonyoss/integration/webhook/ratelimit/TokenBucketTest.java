@@ -0,0 +1,148 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link TokenBucket}
+ */
+public class TokenBucketTest {
+
+  private MockTicker ticker;
+
+  @Before
+  public void init() {
+    this.ticker = new MockTicker();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRate() {
+    new TokenBucket(0, 1);
+  }
+
+  @Test
+  public void testBurst() {
+    TokenBucket bucket = new TokenBucket(10, 5, ticker);
+
+    assertEquals(5, bucket.getAvailableTokens());
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(bucket.tryAcquire());
+    }
+
+    assertFalse(bucket.tryAcquire());
+    assertEquals(0, bucket.getAvailableTokens());
+  }
+
+  @Test
+  public void testRefill() {
+    TokenBucket bucket = new TokenBucket(10, 5, ticker);
+
+    for (int i = 0; i < 5; i++) {
+      bucket.tryAcquire();
+    }
+
+    // 10 tokens per second means one token every 100ms
+    ticker.advance(99);
+    assertFalse(bucket.tryAcquire());
+
+    ticker.advance(1);
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+
+    // An idle bucket never holds more than the burst
+    ticker.advance(10000);
+    assertEquals(5, bucket.getAvailableTokens());
+  }
+
+  @Test
+  public void testRelease() {
+    TokenBucket bucket = new TokenBucket(1, 1, ticker);
+
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+
+    bucket.release();
+    assertTrue(bucket.tryAcquire());
+  }
+
+  @Test
+  public void testRefillTime() {
+    assertEquals(20, new TokenBucket(10, 200, ticker).getRefillTime());
+  }
+
+  @Test
+  public void testConcurrentAcquire() throws InterruptedException {
+    final TokenBucket bucket = new TokenBucket(1, 100, ticker);
+    final AtomicInteger acquired = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(8);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      for (int i = 0; i < 8; i++) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            for (int j = 0; j < 50; j++) {
+              if (bucket.tryAcquire()) {
+                acquired.incrementAndGet();
+              }
+            }
+
+            done.countDown();
+          }
+        });
+      }
+
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(100, acquired.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private volatile long nanos = 1L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link WebHookRateLimiter}
+ */
+public class WebHookRateLimiterTest {
+
+  private static final String INSTANCE_ID = "instanceId";
+
+  private static final String OTHER_INSTANCE_ID = "otherInstanceId";
+
+  private MockTicker ticker;
+
+  private WebHookRateLimiter rateLimiter;
+
+  @Before
+  public void init() {
+    this.ticker = new MockTicker();
+    this.rateLimiter = new WebHookRateLimiter(1, 2, 1, 3, ticker);
+  }
+
+  @Test
+  public void testInstanceLimit() {
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertEquals(WebHookRateLimiter.Scope.INSTANCE, rateLimiter.tryAcquire(INSTANCE_ID));
+
+    // Other instances have their own bucket
+    assertNull(rateLimiter.tryAcquire(OTHER_INSTANCE_ID));
+    assertEquals(0, rateLimiter.getAvailableTokens());
+  }
+
+  @Test
+  public void testIntegrationLimit() {
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertNull(rateLimiter.tryAcquire(OTHER_INSTANCE_ID));
+
+    assertEquals(WebHookRateLimiter.Scope.INTEGRATION, rateLimiter.tryAcquire(OTHER_INSTANCE_ID));
+
+    // The instance token is returned when the integration bucket refuses the delivery
+    ticker.advance(1);
+    assertNull(rateLimiter.tryAcquire(OTHER_INSTANCE_ID));
+  }
+
+  @Test
+  public void testRefill() {
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+    assertEquals(WebHookRateLimiter.Scope.INSTANCE, rateLimiter.tryAcquire(INSTANCE_ID));
+
+    ticker.advance(1);
+    assertNull(rateLimiter.tryAcquire(INSTANCE_ID));
+  }
+
+  /**
+   * Ticker controlled by the test.
+   */
+  private static final class MockTicker extends Ticker {
+
+    private long nanos = 1L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long seconds) {
+      nanos += TimeUnit.SECONDS.toNanos(seconds);
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link WeightedFairScheduler}
+ */
+public class WeightedFairSchedulerTest {
+
+  private static final String GATE = "gate";
+
+  private static final String HEAVY = "heavy";
+
+  private static final String LIGHT = "light";
+
+  private final List<String> dispatched = Collections.synchronizedList(new ArrayList<String>());
+
+  private WeightedFairScheduler scheduler;
+
+  @Before
+  public void init() {
+    this.scheduler = new WeightedFairScheduler("test", 1, Executors.defaultThreadFactory(),
+        new WeightedFairScheduler.Listener() {
+          @Override
+          public void onDispatch(String queue, long waitTime) {
+            dispatched.add(queue);
+          }
+        });
+
+    assertTrue(scheduler.register(GATE, 1, 1));
+    assertTrue(scheduler.register(HEAVY, 2, 100));
+    assertTrue(scheduler.register(LIGHT, 1, 100));
+  }
+
+  @After
+  public void cleanup() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testWeightedDispatch() throws InterruptedException {
+    final CountDownLatch gate = blockWorker();
+    final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch done = new CountDownLatch(9);
+
+    for (int i = 0; i < 6; i++) {
+      assertTrue(scheduler.offer(HEAVY, record(order, "H", done)));
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(scheduler.offer(LIGHT, record(order, "L", done)));
+    }
+
+    assertEquals(6, scheduler.getDepth(HEAVY));
+    assertEquals(3, scheduler.getDepth(LIGHT));
+
+    gate.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+
+    assertEquals("HHLHHLHHL", join(order));
+    assertEquals(0, scheduler.getDepth(HEAVY));
+    assertEquals(10, dispatched.size());
+  }
+
+  @Test
+  public void testUnusedCreditsAreDiscarded() throws InterruptedException {
+    CountDownLatch gate = blockWorker();
+    CountDownLatch first = new CountDownLatch(1);
+
+    // The heavy queue gets empty before spending all its credits
+    assertTrue(scheduler.offer(HEAVY, record(new ArrayList<String>(), "H", first)));
+
+    gate.countDown();
+    assertTrue(first.await(5, TimeUnit.SECONDS));
+
+    gate = blockWorker();
+
+    List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    CountDownLatch done = new CountDownLatch(4);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(scheduler.offer(HEAVY, record(order, "H", done)));
+    }
+
+    assertTrue(scheduler.offer(LIGHT, record(order, "L", done)));
+
+    gate.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+
+    assertEquals("HHLH", join(order));
+  }
+
+  @Test
+  public void testQueueFull() throws InterruptedException {
+    CountDownLatch gate = blockWorker();
+
+    assertTrue(scheduler.offer(GATE, new NoopTask()));
+    assertFalse(scheduler.offer(GATE, new NoopTask()));
+    assertFalse(scheduler.offer("unknown", new NoopTask()));
+
+    assertEquals(1, scheduler.getCapacity(GATE));
+    assertEquals(0, scheduler.getCapacity("unknown"));
+
+    gate.countDown();
+  }
+
+  @Test
+  public void testShutdown() throws InterruptedException {
+    CountDownLatch gate = blockWorker();
+    CountDownLatch done = new CountDownLatch(1);
+
+    assertTrue(scheduler.offer(HEAVY, record(new ArrayList<String>(), "H", done)));
+
+    gate.countDown();
+    scheduler.shutdown();
+
+    assertTrue(scheduler.isShutdown());
+    assertEquals(0, done.getCount());
+    assertFalse(scheduler.offer(HEAVY, new NoopTask()));
+  }
+
+  @Test
+  public void testUnregister() throws InterruptedException {
+    final CountDownLatch gate = blockWorker();
+    final CountDownLatch done = new CountDownLatch(2);
+
+    assertTrue(scheduler.offer(HEAVY, record(new ArrayList<String>(), "H", done)));
+    assertTrue(scheduler.offer(HEAVY, record(new ArrayList<String>(), "H", done)));
+
+    // Releases the worker while the queue is being unregistered
+    new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(100L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+
+        gate.countDown();
+      }
+    }.start();
+
+    assertEquals(0, scheduler.unregister(HEAVY));
+
+    assertEquals(0, done.getCount());
+    assertEquals(0, scheduler.getCapacity(HEAVY));
+    assertFalse(scheduler.offer(HEAVY, new NoopTask()));
+    assertEquals(0, scheduler.unregister(HEAVY));
+
+    assertTrue(scheduler.register(HEAVY, 2, 100));
+    assertTrue(scheduler.offer(HEAVY, new NoopTask()));
+  }
+
+  @Test
+  public void testFailedTask() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+
+    assertTrue(scheduler.offer(HEAVY, new Runnable() {
+      @Override
+      public void run() {
+        throw new IllegalStateException("Unexpected error");
+      }
+    }));
+    assertTrue(scheduler.offer(HEAVY, record(new ArrayList<String>(), "H", done)));
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Keeps the single worker thread busy until the returned latch is released.
+   */
+  private CountDownLatch blockWorker() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch gate = new CountDownLatch(1);
+
+    assertTrue(scheduler.offer(GATE, new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+
+        try {
+          gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }));
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    return gate;
+  }
+
+  private Runnable record(final List<String> order, final String value,
+      final CountDownLatch done) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        order.add(value);
+        done.countDown();
+      }
+    };
+  }
+
+  private String join(List<String> values) {
+    StringBuilder result = new StringBuilder();
+
+    synchronized (values) {
+      for (String value : values) {
+        result.append(value);
+      }
+    }
+
+    return result.toString();
+  }
+
+  private static final class NoopTask implements Runnable {
+
+    @Override
+    public void run() {
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.spool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.symphonyoss.integration.webhook.WebHookPayload;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit test for {@link WebHookSpool}
+ */
+public class WebHookSpoolTest {
+
+  private static final String INSTANCE_ID = "1234";
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  private static final int SEGMENT_SIZE = 256;
+
+  private static final int MAX_SEGMENTS = 3;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testAppendAndPeek() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    assertTrue(spool.isEmpty());
+    assertEquals(0, spool.getAge());
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("webhookEvent", "jira:issue_created");
+    parameters.put("empty", null);
+
+    Map<String, String> headers = Collections.singletonMap("Content-Type", "application/json");
+
+    assertTrue(spool.append(INSTANCE_ID, INTEGRATION_USER,
+        new WebHookPayload(parameters, headers, "{\"id\":1}")));
+    assertTrue(spool.append(INSTANCE_ID, null, WebHookPayload.fromBytes(null, null, null)));
+
+    assertEquals(2, spool.getDepth());
+    assertTrue(spool.getSize() > 0);
+
+    List<WebHookSpool.Entry> entries = spool.peek(10);
+    assertEquals(2, entries.size());
+
+    WebHookSpool.Entry first = entries.get(0);
+    assertEquals(INSTANCE_ID, first.getInstanceId());
+    assertEquals(INTEGRATION_USER, first.getIntegrationUser());
+    assertTrue(first.getTimestamp() > 0);
+    assertEquals(parameters, first.getPayload().getParameters());
+    assertEquals("application/json", first.getPayload().getHeaders().get("content-type"));
+    assertEquals("{\"id\":1}", first.getPayload().getBody());
+
+    WebHookSpool.Entry second = entries.get(1);
+    assertNull(second.getIntegrationUser());
+    assertNull(second.getPayload().getRawBody());
+
+    // Peek doesn't consume the payloads
+    assertEquals(2, spool.peek(10).size());
+    assertEquals(1, spool.peek(1).size());
+  }
+
+  @Test
+  public void testRemove() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    for (int i = 0; i < 3; i++) {
+      spool.append(INSTANCE_ID, INTEGRATION_USER, payload(i));
+    }
+
+    spool.remove(2);
+
+    List<WebHookSpool.Entry> entries = spool.peek(10);
+    assertEquals(1, entries.size());
+    assertEquals("2", entries.get(0).getPayload().getBody());
+    assertEquals(1, spool.getDepth());
+
+    spool.remove(5);
+
+    assertTrue(spool.isEmpty());
+    assertEquals(0, spool.getSize());
+    assertTrue(spool.peek(10).isEmpty());
+
+    // The spool is reused after it was drained
+    spool.append(INSTANCE_ID, INTEGRATION_USER, payload(3));
+    assertEquals("3", spool.peek(10).get(0).getPayload().getBody());
+  }
+
+  @Test
+  public void testSegments() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    int appended = 0;
+
+    while (spool.append(INSTANCE_ID, INTEGRATION_USER, payload(appended))) {
+      appended++;
+    }
+
+    assertEquals(MAX_SEGMENTS, segmentFiles().length);
+    assertEquals(appended, spool.getDepth());
+
+    List<WebHookSpool.Entry> entries = spool.peek(appended + 1);
+    assertEquals(appended, entries.size());
+
+    for (int i = 0; i < appended; i++) {
+      assertEquals(String.valueOf(i), entries.get(i).getPayload().getBody());
+    }
+
+    // The consumed segments are deleted
+    spool.remove(appended - 1);
+    assertEquals(1, segmentFiles().length);
+    assertTrue(spool.append(INSTANCE_ID, INTEGRATION_USER, payload(appended)));
+  }
+
+  @Test
+  public void testPayloadTooLarge() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    char[] body = new char[SEGMENT_SIZE];
+    assertFalse(spool.append(INSTANCE_ID, INTEGRATION_USER, new WebHookPayload(null, null,
+        new String(body))));
+    assertTrue(spool.isEmpty());
+  }
+
+  @Test
+  public void testRecovery() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    for (int i = 0; i < 8; i++) {
+      spool.append(INSTANCE_ID, INTEGRATION_USER, payload(i));
+    }
+
+    spool.remove(5);
+    long size = spool.getSize();
+    spool.close();
+
+    WebHookSpool recovered = openSpool();
+
+    assertEquals(3, recovered.getDepth());
+    assertEquals(size, recovered.getSize());
+    assertTrue(recovered.getAge() >= 0);
+
+    List<WebHookSpool.Entry> entries = recovered.peek(10);
+    assertEquals("5", entries.get(0).getPayload().getBody());
+    assertEquals("7", entries.get(2).getPayload().getBody());
+
+    // The new payloads are appended after the recovered ones
+    recovered.append(INSTANCE_ID, INTEGRATION_USER, payload(8));
+    assertEquals("8", recovered.peek(10).get(3).getPayload().getBody());
+  }
+
+  @Test
+  public void testRecoveryAfterDrain() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    spool.append(INSTANCE_ID, INTEGRATION_USER, payload(0));
+    spool.remove(1);
+    spool.close();
+
+    assertTrue(openSpool().isEmpty());
+  }
+
+  @Test
+  public void testRecoveryIgnoresCorruptedRecords() throws IOException {
+    WebHookSpool spool = openSpool();
+
+    spool.append(INSTANCE_ID, INTEGRATION_USER, payload(0));
+    spool.append(INSTANCE_ID, INTEGRATION_USER, payload(1));
+
+    int firstRecordSize = (int) spool.getSize() / 2;
+    spool.close();
+
+    // Corrupts the body of the second record
+    try (RandomAccessFile file = new RandomAccessFile(segmentFiles()[0], "rw")) {
+      file.seek(firstRecordSize + firstRecordSize - 1);
+      file.write('x');
+    }
+
+    WebHookSpool recovered = openSpool();
+
+    assertEquals(1, recovered.getDepth());
+    assertEquals("0", recovered.peek(10).get(0).getPayload().getBody());
+
+    // The corrupted record is overwritten
+    recovered.append(INSTANCE_ID, INTEGRATION_USER, payload(2));
+    assertEquals("2", recovered.peek(10).get(1).getPayload().getBody());
+  }
+
+  @Test
+  public void testClosed() throws IOException {
+    WebHookSpool spool = openSpool();
+    spool.append(INSTANCE_ID, INTEGRATION_USER, payload(0));
+    spool.close();
+
+    // A closed spool refuses new payloads and doesn't replay the pending ones
+    assertFalse(spool.append(INSTANCE_ID, INTEGRATION_USER, payload(1)));
+    assertTrue(spool.peek(10).isEmpty());
+    spool.remove(1);
+    spool.close();
+
+    assertEquals(1, openSpool().getDepth());
+  }
+
+  private WebHookSpool openSpool() throws IOException {
+    return new WebHookSpool(folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS, true);
+  }
+
+  private File[] segmentFiles() {
+    return folder.getRoot().listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.endsWith(".spool");
+      }
+    });
+  }
+
+  private WebHookPayload payload(int index) {
+    return WebHookPayload.fromBytes(Collections.<String, String>emptyMap(),
+        Collections.<String, String>emptyMap(),
+        String.valueOf(index).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit test for {@link HashedWheelTimer}
+ */
+public class HashedWheelTimerTest {
+
+  private HashedWheelTimer timer;
+
+  private ExecutorService executor;
+
+  @Before
+  public void init() {
+    this.timer = new HashedWheelTimer("test", 5L, 4);
+    this.executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void cleanup() {
+    timer.stop();
+    executor.shutdownNow();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTickDuration() {
+    new HashedWheelTimer("test", 0L, 4);
+  }
+
+  @Test
+  public void testSchedule() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    long start = System.nanoTime();
+
+    timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    }, 50, TimeUnit.MILLISECONDS, executor);
+
+    assertEquals(1, timer.getScheduledCount());
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+    assertEquals(0, timer.getPendingCount());
+    assertEquals(1, timer.getExpiredCount());
+  }
+
+  @Test
+  public void testScheduleManyRounds() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(3);
+
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    };
+
+    // The wheel covers 20ms, so these deadlines need more than one rotation
+    timer.schedule(task, 0, TimeUnit.MILLISECONDS, executor);
+    timer.schedule(task, 45, TimeUnit.MILLISECONDS, executor);
+    timer.schedule(task, 130, TimeUnit.MILLISECONDS, executor);
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(3, timer.getExpiredCount());
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    final AtomicInteger runs = new AtomicInteger();
+
+    HashedWheelTimer.Timeout timeout = timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+    }, 20, TimeUnit.MILLISECONDS, executor);
+
+    assertTrue(timeout.cancel());
+    assertTrue(timeout.isCancelled());
+    assertFalse(timeout.cancel());
+    assertEquals(0, timer.getPendingCount());
+
+    TimeUnit.MILLISECONDS.sleep(60);
+    assertEquals(0, runs.get());
+    assertEquals(0, timer.getExpiredCount());
+  }
+
+  @Test
+  public void testScheduleWithFixedDelay() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(3);
+
+    HashedWheelTimer.Timeout timeout = timer.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+
+        if (latch.getCount() == 1) {
+          throw new IllegalStateException("Failures must not stop the periodic task");
+        }
+      }
+    }, 0, 10, TimeUnit.MILLISECONDS, executor);
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(timeout.cancel());
+
+    long expired = timer.getExpiredCount();
+    TimeUnit.MILLISECONDS.sleep(60);
+
+    assertTrue(timer.getExpiredCount() <= expired + 1);
+    assertEquals(0, timer.getPendingCount());
+  }
+
+  @Test
+  public void testExecutorSaturated() throws InterruptedException {
+    final AtomicInteger rejections = new AtomicInteger(3);
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    Executor saturated = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        if (rejections.getAndDecrement() > 0) {
+          throw new RejectedExecutionException();
+        }
+
+        executor.execute(command);
+      }
+    };
+
+    timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+    }, 0, TimeUnit.MILLISECONDS, saturated);
+
+    // Handed over again on the next ticks until the executor accepts it
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, timer.getPendingCount());
+    assertEquals(1, timer.getExpiredCount());
+  }
+
+  @Test
+  public void testExecutorShutdown() throws InterruptedException {
+    final AtomicInteger runs = new AtomicInteger();
+
+    executor.shutdown();
+
+    timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+    }, 0, TimeUnit.MILLISECONDS, executor);
+
+    TimeUnit.MILLISECONDS.sleep(60);
+
+    assertEquals(0, runs.get());
+    assertEquals(0, timer.getPendingCount());
+    assertEquals(1, timer.getExpiredCount());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testScheduleStopped() {
+    timer.stop();
+    assertTrue(timer.isStopped());
+
+    timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+      }
+    }, 10, TimeUnit.MILLISECONDS, executor);
+  }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2016-2017 Symphony Integrations - Symphony LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.symphonyoss.integration.webhook.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.symphonyoss.integration.entity.model.User;
+import org.symphonyoss.integration.service.BulkUserService;
+import org.symphonyoss.integration.service.CachedUserService;
+import org.symphonyoss.integration.service.UserService;
+import org.symphonyoss.integration.webhook.timer.HashedWheelTimer;
+import org.symphonyoss.integration.webhook.timer.WebHookTimer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit test for {@link UserLookupBatcher}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserLookupBatcherTest {
+
+  private static final String INTEGRATION_USER = "jirawebhook";
+
+  private static final int MAX_BATCH_SIZE = 3;
+
+  private static final long MAX_WAIT = 50L;
+
+  @Mock
+  private BulkUserService bulkUserService;
+
+  @Mock
+  private UserService userService;
+
+  @Mock
+  private WebHookTimer timer;
+
+  @Mock
+  private HashedWheelTimer.Timeout timeout;
+
+  @Mock
+  private Executor executor;
+
+  private UserLookupBatcher batcher;
+
+  @Before
+  public void init() {
+    doReturn(timeout).when(timer)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class), any(Executor.class));
+
+    // Runs the tasks in the caller thread
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        ((Runnable) invocation.getArguments()[0]).run();
+        return null;
+      }
+    }).when(executor).execute(any(Runnable.class));
+
+    doAnswer(new Answer<Map<Long, User>>() {
+      @Override
+      public Map<Long, User> answer(InvocationOnMock invocation) throws Throwable {
+        Map<Long, User> users = new HashMap<>();
+
+        for (Object userId : (Collection<?>) invocation.getArguments()[1]) {
+          users.put((Long) userId, mockUser((Long) userId));
+        }
+
+        return users;
+      }
+    }).when(bulkUserService).getUsersByUserId(anyString(), anyCollectionOf(Long.class));
+
+    this.batcher = new UserLookupBatcher(bulkUserService, timer, executor, MAX_BATCH_SIZE,
+        MAX_WAIT);
+  }
+
+  @Test
+  public void testFlush() throws ExecutionException, InterruptedException {
+    ListenableFuture<User> first = batcher.getUserByUserId(INTEGRATION_USER, 1L);
+    ListenableFuture<User> second = batcher.getUserByUserId(INTEGRATION_USER, 2L);
+    ListenableFuture<User> repeated = batcher.getUserByUserId(INTEGRATION_USER, 1L);
+
+    assertSame(first, repeated);
+    assertFalse(first.isDone());
+    assertEquals(1, batcher.getPendingBatches());
+
+    batcher.flush();
+
+    assertEquals(0, batcher.getPendingBatches());
+    assertEquals(Long.valueOf(1L), first.get().getId());
+    assertEquals(Long.valueOf(2L), second.get().getId());
+
+    verify(bulkUserService, times(1)).getUsersByUserId(INTEGRATION_USER, Arrays.asList(1L, 2L));
+    verify(timer, times(1)).schedule(any(Runnable.class), eq(MAX_WAIT),
+        eq(TimeUnit.MILLISECONDS), eq(executor));
+    verify(timeout, times(1)).cancel();
+  }
+
+  @Test
+  public void testGetResolvesBatch() throws ExecutionException, InterruptedException {
+    ListenableFuture<User> first = batcher.getUserByUserId(INTEGRATION_USER, 1L);
+    ListenableFuture<User> second = batcher.getUserByUserId(INTEGRATION_USER, 2L);
+
+    assertEquals(Long.valueOf(1L), first.get().getId());
+    assertTrue(second.isDone());
+    assertEquals(0, batcher.getPendingBatches());
+
+    verify(bulkUserService, times(1)).getUsersByUserId(INTEGRATION_USER, Arrays.asList(1L, 2L));
+  }
+
+  @Test
+  public void testMaxWait() throws ExecutionException, InterruptedException {
+    ListenableFuture<User> future = batcher.getUserByUserId(INTEGRATION_USER, 1L);
+
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(timer).schedule(captor.capture(), eq(MAX_WAIT), eq(TimeUnit.MILLISECONDS),
+        eq(executor));
+
+    captor.getValue().run();
+
+    assertTrue(future.isDone());
+    assertEquals(Long.valueOf(1L), future.get().getId());
+
+    // The batch was already resolved
+    captor.getValue().run();
+    verify(bulkUserService, times(1)).getUsersByUserId(anyString(), anyCollectionOf(Long.class));
+  }
+
+  @Test
+  public void testMaxBatchSize() {
+    batcher.getUserByUserId(INTEGRATION_USER, 1L);
+    batcher.getUserByUserId(INTEGRATION_USER, 2L);
+    ListenableFuture<User> last = batcher.getUserByUserId(INTEGRATION_USER, 3L);
+
+    assertTrue(last.isDone());
+    assertEquals(0, batcher.getPendingBatches());
+
+    verify(executor, times(1)).execute(any(Runnable.class));
+    verify(timeout, times(1)).cancel();
+    verify(bulkUserService, times(1)).getUsersByUserId(INTEGRATION_USER,
+        Arrays.asList(1L, 2L, 3L));
+  }
+
+  @Test
+  public void testBatchesByIntegrationUserAndType() {
+    Map<String, User> users = new HashMap<>();
+    users.put("test@symphony.com", mockUser(1L));
+    doReturn(users).when(bulkUserService)
+        .getUsersByEmail(anyString(), anyCollectionOf(String.class));
+
+    batcher.getUserByUserId(INTEGRATION_USER, 1L);
+    batcher.getUserByUserId("githubwebhook", 1L);
+    batcher.getUserByEmail(INTEGRATION_USER, "test@symphony.com");
+    batcher.getUserByUserName(INTEGRATION_USER, "test");
+
+    assertEquals(4, batcher.getPendingBatches());
+
+    batcher.flush();
+
+    verify(bulkUserService, times(1)).getUsersByUserId(INTEGRATION_USER, Arrays.asList(1L));
+    verify(bulkUserService, times(1)).getUsersByUserId("githubwebhook", Arrays.asList(1L));
+    verify(bulkUserService, times(1)).getUsersByEmail(INTEGRATION_USER,
+        Arrays.asList("test@symphony.com"));
+    verify(bulkUserService, times(1)).getUsersByUserName(INTEGRATION_USER,
+        Arrays.asList("test"));
+  }
+
+  @Test
+  public void testNotFound() throws ExecutionException, InterruptedException {
+    doReturn(new HashMap<String, User>()).when(bulkUserService)
+        .getUsersByUserName(anyString(), anyCollectionOf(String.class));
+
+    assertNull(batcher.getUserByUserName(INTEGRATION_USER, "unknown").get());
+  }
+
+  @Test
+  public void testNullValue() throws ExecutionException, InterruptedException {
+    ListenableFuture<User> future = batcher.getUserByEmail(INTEGRATION_USER, null);
+
+    assertTrue(future.isDone());
+    assertNull(future.get());
+    assertEquals(0, batcher.getPendingBatches());
+  }
+
+  @Test
+  public void testBulkFailure() throws InterruptedException {
+    doThrow(IllegalStateException.class).when(bulkUserService)
+        .getUsersByUserId(anyString(), anyCollectionOf(Long.class));
+
+    ListenableFuture<User> first = batcher.getUserByUserId(INTEGRATION_USER, 1L);
+    ListenableFuture<User> second = batcher.getUserByUserId(INTEGRATION_USER, 2L);
+
+    batcher.flush();
+
+    assertFailed(first);
+    assertFailed(second);
+  }
+
+  @Test
+  public void testSingleLookups() throws ExecutionException, InterruptedException {
+    doReturn(mockUser(1L)).when(userService).getUserByUserId(INTEGRATION_USER, 1L);
+    doThrow(IllegalStateException.class).when(userService).getUserByUserId(INTEGRATION_USER, 2L);
+
+    UserLookupBatcher singleBatcher =
+        new UserLookupBatcher(userService, timer, executor, MAX_BATCH_SIZE, MAX_WAIT);
+
+    ListenableFuture<User> first = singleBatcher.getUserByUserId(INTEGRATION_USER, 1L);
+    ListenableFuture<User> failed = singleBatcher.getUserByUserId(INTEGRATION_USER, 2L);
+
+    // Resolved right away, without waiting for a batch
+    assertTrue(first.isDone());
+    assertTrue(failed.isDone());
+    assertEquals(0, singleBatcher.getPendingBatches());
+    verify(timer, never())
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class), any(Executor.class));
+
+    assertEquals(Long.valueOf(1L), first.get().getId());
+    assertFailed(failed);
+
+    verify(executor, times(2)).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testSingleLookupInCallerThread() throws ExecutionException, InterruptedException {
+    doReturn(mockUser(1L)).when(userService).getUserByUserId(INTEGRATION_USER, 1L);
+
+    // Saturated executor, the task is never run
+    Executor idleExecutor = mock(Executor.class);
+
+    UserLookupBatcher singleBatcher =
+        new UserLookupBatcher(userService, timer, idleExecutor, MAX_BATCH_SIZE, MAX_WAIT);
+
+    ListenableFuture<User> future = singleBatcher.getUserByUserId(INTEGRATION_USER, 1L);
+    assertFalse(future.isDone());
+
+    assertEquals(Long.valueOf(1L), future.get().getId());
+    verify(userService, times(1)).getUserByUserId(INTEGRATION_USER, 1L);
+  }
+
+  @Test
+  public void testCacheWithoutBulkLookups() throws ExecutionException, InterruptedException {
+    doReturn(mockUser(1L)).when(userService).getUserByUserId(INTEGRATION_USER, 1L);
+
+    CachedUserService cachedUserService =
+        new CachedUserService(userService, executor, 60L, 30L, 100L, MAX_BATCH_SIZE);
+
+    UserLookupBatcher cachedBatcher =
+        new UserLookupBatcher(cachedUserService, timer, executor, MAX_BATCH_SIZE, MAX_WAIT);
+
+    ListenableFuture<User> future = cachedBatcher.getUserByUserId(INTEGRATION_USER, 1L);
+
+    assertTrue(future.isDone());
+    assertEquals(Long.valueOf(1L), future.get().getId());
+    assertEquals(0, cachedBatcher.getPendingBatches());
+  }
+
+  private void assertFailed(ListenableFuture<User> future) throws InterruptedException {
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+  }
+
+  private User mockUser(Long userId) {
+    User user = new User();
+    user.setId(userId);
+    return user;
+  }
+}